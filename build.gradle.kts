@@ -54,8 +54,26 @@ tasks.withType<Test> {
 }
 
 tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
     finalizedBy(tasks.jacocoTestReport)
 }
+
+tasks.register<Test>("benchmark") {
+    description = "Runs the opt-in benchmarks (tests tagged benchmark)."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    extensions.configure<JacocoTaskExtension> {
+        isEnabled = false
+    }
+    testLogging.showStandardStreams = true
+    outputs.upToDateWhen { false }
+}
 tasks.jacocoTestReport {
     dependsOn(tasks.test)
     reports {
@@ -0,0 +1,24 @@
+package com.nullers.restbookstore.config.async;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuración de las peticiones asíncronas: registra el interceptor que permite a un endpoint
+ * fijar su propio tiempo máximo en lugar del general (spring.mvc.async.request-timeout)
+ */
+@Configuration
+public class AsyncTimeoutConfig implements WebMvcConfigurer {
+
+    /**
+     * Registra el interceptor del tiempo máximo por petición
+     *
+     * @param configurer configuración de las peticiones asíncronas
+     */
+    @Override
+    public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new AsyncTimeoutInterceptor());
+    }
+}
@@ -0,0 +1,35 @@
+package com.nullers.restbookstore.config.async;
+
+import org.springframework.lang.NonNull;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Interceptor que aplica a una petición asíncrona el tiempo máximo guardado por el controlador en el
+ * atributo TIMEOUT_ATTRIBUTE. Sirve para los cuerpos que no permiten indicar el tiempo, como
+ * StreamingResponseBody, que de otro modo usan el tiempo general del contenedor (unos 30 segundos en
+ * Tomcat). Un valor menor o igual que cero indica que no hay tiempo máximo
+ */
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutInterceptor.class.getName() + ".timeout";
+
+    /**
+     * Fija el tiempo máximo antes de que empiece el procesamiento asíncrono
+     *
+     * @param request petición
+     * @param task    tarea asíncrona
+     * @param <T>     tipo del resultado de la tarea
+     */
+    @Override
+    public <T> void beforeConcurrentHandling(@NonNull NativeWebRequest request, @NonNull Callable<T> task) {
+        Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (timeout instanceof Long millis && request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(millis > 0 ? millis : -1L);
+        }
+    }
+}
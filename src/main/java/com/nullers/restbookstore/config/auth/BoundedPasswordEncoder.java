@@ -0,0 +1,221 @@
+package com.nullers.restbookstore.config.auth;
+
+import com.nullers.restbookstore.rest.auth.exceptions.AuthTooManyRequests;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PasswordEncoder que ejecuta el hash de contraseñas en un conjunto acotado de hilos.
+ * Así una ráfaga de inicios de sesión no puede ocupar toda la CPU: cuando la cola está llena
+ * la petición se rechaza al momento con un 429 en lugar de esperar.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeoutMillis;
+
+    private final long retryAfterSeconds;
+
+    private final LongAdder hashCount = new LongAdder();
+
+    private final LongAdder hashNanos = new LongAdder();
+
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Long::max, 0);
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor BoundedPasswordEncoder
+     *
+     * @param delegate          encoder que realiza el hash
+     * @param threads           número de hilos dedicados al hash
+     * @param queueCapacity     operaciones que pueden esperar en cola
+     * @param timeoutMillis     tiempo máximo de espera de una operación
+     * @param retryAfterSeconds segundos que el cliente debe esperar cuando se rechaza una operación
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  long timeoutMillis, long retryAfterSeconds) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Codifica la contraseña
+     *
+     * @param rawPassword contraseña en claro
+     * @return contraseña codificada
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Comprueba si la contraseña coincide con la codificada
+     *
+     * @param rawPassword     contraseña en claro
+     * @param encodedPassword contraseña codificada
+     * @return true si coinciden
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Indica si la contraseña debe volver a codificarse
+     *
+     * @param encodedPassword contraseña codificada
+     * @return true si debe volver a codificarse
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Devuelve el número de hash realizados
+     *
+     * @return hash realizados
+     */
+    public long getHashCount() {
+        return hashCount.sum();
+    }
+
+    /**
+     * Devuelve la duración media de un hash en milisegundos
+     *
+     * @return duración media
+     */
+    public double getAverageHashMillis() {
+        long count = hashCount.sum();
+        return count == 0 ? 0 : hashNanos.sum() / (count * 1_000_000.0);
+    }
+
+    /**
+     * Devuelve la duración máxima de un hash en milisegundos
+     *
+     * @return duración máxima
+     */
+    public double getMaxHashMillis() {
+        return maxHashNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Devuelve las operaciones que esperan en cola
+     *
+     * @return tamaño de la cola
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Devuelve las operaciones que se están ejecutando
+     *
+     * @return operaciones activas
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Devuelve las operaciones rechazadas por cola llena o tiempo de espera agotado
+     *
+     * @return operaciones rechazadas
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Detiene los hilos al cerrar la aplicación
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Ejecuta una operación en el pool y espera su resultado
+     *
+     * @param operation operación
+     * @param <T>       tipo del resultado
+     * @return resultado
+     */
+    private <T> T execute(Callable<T> operation) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(operation));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Cola de hash de contraseñas llena");
+            throw new AuthTooManyRequests("El servidor está procesando demasiadas autenticaciones, inténtalo más tarde",
+                    retryAfterSeconds);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new AuthTooManyRequests("El servidor está procesando demasiadas autenticaciones, inténtalo más tarde",
+                    retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hash de contraseña interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Ejecuta la operación registrando su duración
+     *
+     * @param operation operación
+     * @param <T>       tipo del resultado
+     * @return resultado
+     * @throws Exception excepción de la operación
+     */
+    private <T> T timed(Callable<T> operation) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return operation.call();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            hashCount.increment();
+            hashNanos.add(elapsed);
+            maxHashNanos.accumulate(elapsed);
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.nullers.restbookstore.config.auth;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.nullers.restbookstore.rest.auth.services.cache.AuthCacheService;
 import com.nullers.restbookstore.rest.auth.services.jwt.JwtService;
+import com.nullers.restbookstore.rest.auth.services.jwt.JwtServiceImpl;
+import com.nullers.restbookstore.rest.auth.services.revocation.TokenRevocationService;
 import com.nullers.restbookstore.rest.auth.services.users.AuthUsersService;
+import com.nullers.restbookstore.rest.user.models.Role;
+import com.nullers.restbookstore.rest.user.models.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,6 +25,10 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * JwtAuthenticationFilter es un filtro que se ejecuta en cada petición y comprueba si el token
@@ -34,17 +44,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      */
     private final JwtService jwtService;
     private final AuthUsersService authUsersService;
+    private final AuthCacheService authCacheService;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * Constructor de la clase
      *
-     * @param jwtService       jwtService para la gestión de JWT
-     * @param authUsersService authUsersService para la gestión de usuarios
+     * @param jwtService             jwtService para la gestión de JWT
+     * @param authUsersService       authUsersService para la gestión de usuarios
+     * @param authCacheService       authCacheService para la caché de tokens y usuarios
+     * @param tokenRevocationService tokenRevocationService para comprobar los tokens revocados
      */
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtService, AuthUsersService authUsersService) {
+    public JwtAuthenticationFilter(JwtService jwtService, AuthUsersService authUsersService,
+                                   AuthCacheService authCacheService, TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
         this.authUsersService = authUsersService;
+        this.authCacheService = authCacheService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -64,6 +81,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
         UserDetails userDetails;
+        DecodedJWT decoded;
         String userName;
         if (!StringUtils.hasText(authHeader) || !StringUtils.startsWithIgnoreCase(authHeader, "Bearer ")) {
             log.info("No se ha encontrado cabecera de autenticación, se ignora");
@@ -72,36 +90,73 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         log.info("Se ha encontrado cabecera de autenticación, se procesa");
         jwt = authHeader.substring(7);
-        try {
-            userName = jwtService.extractUserName(jwt);
-        } catch (Exception e) {
-            log.info("Token no válido");
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token no autorizado o no válido");
+        decoded = authCacheService.getVerifiedToken(jwt);
+        if (decoded == null) {
+            try {
+                decoded = jwtService.verifyToken(jwt);
+                authCacheService.putVerifiedToken(jwt, decoded);
+            } catch (Exception e) {
+                log.info("Token no válido");
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token no autorizado o no válido");
+                return;
+            }
+        }
+        userName = decoded.getSubject();
+        if (tokenRevocationService.isRevoked(decoded.getId(), userName, decoded.getIssuedAt())) {
+            log.info("Token revocado: {}", userName);
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revocado");
             return;
         }
-        log.info("Usuario autenticado: {}", userName);
+        log.debug("Usuario autenticado: {}", userName);
         if (StringUtils.hasText(userName)
                 && SecurityContextHolder.getContext().getAuthentication() == null) {
-            log.info("Comprobando usuario y token");
-            try {
-                userDetails = authUsersService.loadUserByUsername(userName);
-            } catch (Exception e) {
-                log.info("Usuario no encontrado: {}", userName);
-                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Usuario no autorizado");
-                return;
+            userDetails = principalFromClaims(decoded);
+            if (userDetails == null) {
+                userDetails = authCacheService.getPrincipal(userName);
             }
-            authUsersService.loadUserByUsername(userName);
-            log.info("Usuario encontrado: {}", userDetails);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                log.info("JWT válido");
-                SecurityContext context = SecurityContextHolder.createEmptyContext();
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                context.setAuthentication(authToken);
-                SecurityContextHolder.setContext(context);
+            if (userDetails == null) {
+                try {
+                    userDetails = authUsersService.loadUserByUsername(userName);
+                } catch (Exception e) {
+                    log.info("Usuario no encontrado: {}", userName);
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Usuario no autorizado");
+                    return;
+                }
+                authCacheService.putPrincipal(userDetails);
             }
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            context.setAuthentication(authToken);
+            SecurityContextHolder.setContext(context);
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Construye el usuario autenticado a partir de los claims del token, sin consultar la base de datos.
+     * Los tokens emitidos antes de incluir los claims devuelven null y se resuelven con el repositorio.
+     *
+     * @param decoded token verificado
+     * @return usuario o null si el token no tiene los claims necesarios
+     */
+    private User principalFromClaims(DecodedJWT decoded) {
+        String id = decoded.getClaim(JwtServiceImpl.CLAIM_USER_ID).asString();
+        List<String> roles = decoded.getClaim(JwtServiceImpl.CLAIM_ROLES).asList(String.class);
+        if (id == null || roles == null) {
+            return null;
+        }
+        try {
+            Set<Role> userRoles = EnumSet.noneOf(Role.class);
+            roles.forEach(role -> userRoles.add(Role.valueOf(role)));
+            return User.builder()
+                    .id(UUID.fromString(id))
+                    .username(decoded.getSubject())
+                    .roles(userRoles)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
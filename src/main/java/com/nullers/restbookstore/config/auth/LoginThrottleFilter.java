@@ -0,0 +1,85 @@
+package com.nullers.restbookstore.config.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nullers.restbookstore.pagination.models.ErrorResponse;
+import com.nullers.restbookstore.rest.auth.exceptions.AuthTooManyRequests;
+import com.nullers.restbookstore.rest.auth.services.throttling.LoginThrottleService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filtro que limita las peticiones de autenticación por IP antes de que lleguen a hacer el hash
+ * de la contraseña, respondiendo 429 con la cabecera Retry-After.
+ */
+@Component
+public class LoginThrottleFilter extends OncePerRequestFilter {
+    private static final String AUTH_PATH = "/api/auth/";
+
+    /**
+     * Atributos de la clase
+     */
+    private final LoginThrottleService loginThrottleService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor de la clase
+     *
+     * @param loginThrottleService servicio de límite de intentos
+     * @param objectMapper         mapper para escribir el error
+     */
+    @Autowired
+    public LoginThrottleFilter(LoginThrottleService loginThrottleService, ObjectMapper objectMapper) {
+        this.loginThrottleService = loginThrottleService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Solo se filtran las peticiones POST de autenticación
+     *
+     * @param request petición http
+     * @return true si no se debe filtrar
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || !request.getServletPath().startsWith(AUTH_PATH);
+    }
+
+    /**
+     * Consume un intento de la IP del cliente y rechaza la petición si no quedan
+     *
+     * @param request     petición http
+     * @param response    respuesta http
+     * @param filterChain filtro de cadenas
+     * @throws ServletException excepción servlet
+     * @throws IOException      excepción de entrada/salida
+     */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            loginThrottleService.checkClientIp(request.getRemoteAddr());
+        } catch (AuthTooManyRequests e) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage(), request.getRequestURI()));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
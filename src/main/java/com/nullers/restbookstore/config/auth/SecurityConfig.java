@@ -1,6 +1,7 @@
 package com.nullers.restbookstore.config.auth;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -54,12 +55,13 @@ public class SecurityConfig {
     /**
      * Método que configura la seguridad de la aplicación
      *
-     * @param http http-security para la configuración
+     * @param http                   http-security para la configuración
+     * @param authenticationProvider proveedor de autenticación
      * @return SecurityFilterChain filtro de seguridad
      * @throws Exception excepción de la configuración
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(manager -> manager.sessionCreationPolicy(STATELESS))
@@ -69,6 +71,7 @@ public class SecurityConfig {
                         .requestMatchers("/static/**").permitAll()
                         .requestMatchers("/images/**").permitAll()
                         .requestMatchers("/webjars/**").permitAll()
+                        .requestMatchers("/storage/cache/**", "/storage/uploads/**").hasRole("ADMIN")
                         .requestMatchers("/storage/**").permitAll()
                         //WebSockets y Swagger solo para Admins
                         .requestMatchers("/ws/**").hasRole("ADMIN")
@@ -80,7 +83,7 @@ public class SecurityConfig {
                         //Acceso al perfil para usuarios autenticados
                         .requestMatchers("/api/**").permitAll()
                         .anyRequest().authenticated())
-                .authenticationProvider(authenticationProvider()).addFilterBefore(
+                .authenticationProvider(authenticationProvider).addFilterBefore(
                         jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
@@ -88,25 +91,34 @@ public class SecurityConfig {
     /**
      * Configura la autenticación
      *
+     * @param passwordEncoder encoder de contraseñas
      * @return AuthenticationProvider
      */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
     /**
-     * Encripta la contraseña
+     * Encripta la contraseña con BCrypt en un conjunto acotado de hilos
      *
+     * @param threads           hilos dedicados al hash
+     * @param queueCapacity     operaciones que pueden esperar en cola
+     * @param timeoutMillis     tiempo máximo de espera de una operación
+     * @param retryAfterSeconds segundos que el cliente debe esperar cuando se rechaza una operación
      * @return PasswordEncoder
      */
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${auth.hashing.threads:2}") int threads,
+                                                  @Value("${auth.hashing.queue-capacity:32}") int queueCapacity,
+                                                  @Value("${auth.hashing.timeout-ms:5000}") long timeoutMillis,
+                                                  @Value("${auth.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity,
+                timeoutMillis, retryAfterSeconds);
     }
 
     /**
@@ -0,0 +1,44 @@
+package com.nullers.restbookstore.config.fields;
+
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import org.springframework.core.MethodParameter;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolvedor de los parámetros FieldSelection de los controladores a partir de la selección que guarda
+ * el interceptor en la petición
+ */
+public class FieldSelectionArgumentResolver implements HandlerMethodArgumentResolver {
+
+    /**
+     * Indica si el parámetro es una selección de campos
+     *
+     * @param parameter parámetro del controlador
+     * @return true si es de tipo FieldSelection
+     */
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return FieldSelection.class.equals(parameter.getParameterType());
+    }
+
+    /**
+     * Devuelve la selección de campos de la petición
+     *
+     * @param parameter     parámetro del controlador
+     * @param mavContainer  contenedor del modelo
+     * @param webRequest    petición
+     * @param binderFactory factoría de binders
+     * @return selección, o ALL si no se ha indicado ningún campo
+     */
+    @Override
+    public Object resolveArgument(@NonNull MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  @NonNull NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object selection = webRequest.getAttribute(FieldSelection.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return selection instanceof FieldSelection fieldSelection ? fieldSelection : FieldSelection.ALL;
+    }
+}
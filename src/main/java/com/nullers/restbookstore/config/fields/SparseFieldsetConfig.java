@@ -0,0 +1,53 @@
+package com.nullers.restbookstore.config.fields;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuración de los parámetros fields y expand de los endpoints de lectura: el interceptor lee la
+ * selección de la petición, el resolvedor la pasa a los controladores y el módulo de Jackson omite los
+ * campos no seleccionados al serializar
+ */
+@Configuration
+public class SparseFieldsetConfig implements WebMvcConfigurer {
+
+    /**
+     * Registra el interceptor que lee la selección de campos
+     *
+     * @param registry registro de interceptores
+     */
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(new SparseFieldsetInterceptor()).addPathPatterns("/api/**");
+    }
+
+    /**
+     * Registra el resolvedor de los parámetros FieldSelection
+     *
+     * @param resolvers resolvedores de argumentos
+     */
+    @Override
+    public void addArgumentResolvers(@NonNull List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new FieldSelectionArgumentResolver());
+    }
+
+    /**
+     * Módulo de Jackson que filtra los campos de los DTOs marcados con SparseFieldset
+     *
+     * @return módulo
+     */
+    @Bean
+    public Module sparseFieldsetModule() {
+        SimpleModule module = new SimpleModule("SparseFieldsetModule");
+        module.setSerializerModifier(new SparseFieldsetSerializerModifier());
+        return module;
+    }
+}
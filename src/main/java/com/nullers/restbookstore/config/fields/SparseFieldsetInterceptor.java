@@ -0,0 +1,41 @@
+package com.nullers.restbookstore.config.fields;
+
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.fields.SparseFields;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor que lee los parámetros fields y expand de los endpoints marcados con SparseFields y guarda
+ * la selección en la petición
+ */
+public class SparseFieldsetInterceptor implements HandlerInterceptor {
+
+    /**
+     * Lee y valida la selección de campos antes de ejecutar el endpoint
+     *
+     * @param request  petición
+     * @param response respuesta
+     * @param handler  endpoint
+     * @return true para continuar con la petición
+     */
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            SparseFields sparseFields = method.getMethodAnnotation(SparseFields.class);
+            if (sparseFields != null) {
+                FieldSelection selection = FieldSelection.parse(sparseFields.value(),
+                        request.getParameter(FieldSelection.FIELDS_PARAM),
+                        request.getParameter(FieldSelection.EXPAND_PARAM));
+                if (!selection.isAll()) {
+                    request.setAttribute(FieldSelection.REQUEST_ATTRIBUTE, selection);
+                }
+            }
+        }
+        return true;
+    }
+}
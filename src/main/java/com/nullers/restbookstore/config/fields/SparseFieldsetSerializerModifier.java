@@ -0,0 +1,93 @@
+package com.nullers.restbookstore.config.fields;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.fields.SparseFieldset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modificador de serializadores que envuelve los campos de los DTOs marcados con SparseFieldset para
+ * omitir los que no forman parte de la selección de la petición en curso
+ */
+public class SparseFieldsetSerializerModifier extends BeanSerializerModifier {
+
+    /**
+     * Envuelve los campos de los DTOs marcados con SparseFieldset
+     *
+     * @param config         configuración de serialización
+     * @param beanDesc       descripción de la clase
+     * @param beanProperties campos de la clase
+     * @return campos envueltos, o los originales si la clase no está marcada
+     */
+    @Override
+    public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                     List<BeanPropertyWriter> beanProperties) {
+        if (!beanDesc.getBeanClass().isAnnotationPresent(SparseFieldset.class)) {
+            return beanProperties;
+        }
+        List<BeanPropertyWriter> writers = new ArrayList<>(beanProperties.size());
+        beanProperties.forEach(writer -> writers.add(new SparseFieldsetPropertyWriter(writer)));
+        return writers;
+    }
+
+    /**
+     * Campo que solo se escribe si forma parte de la selección
+     */
+    static final class SparseFieldsetPropertyWriter extends BeanPropertyWriter {
+
+        /**
+         * Constructor SparseFieldsetPropertyWriter
+         *
+         * @param base campo original
+         */
+        SparseFieldsetPropertyWriter(BeanPropertyWriter base) {
+            super(base);
+        }
+
+        /**
+         * Constructor SparseFieldsetPropertyWriter con otro nombre
+         *
+         * @param base campo original
+         * @param name nombre nuevo
+         */
+        SparseFieldsetPropertyWriter(BeanPropertyWriter base, PropertyName name) {
+            super(base, name);
+        }
+
+        /**
+         * Crea una copia renombrada que mantiene el filtrado
+         *
+         * @param newName nombre nuevo
+         * @return campo renombrado
+         */
+        @Override
+        protected BeanPropertyWriter _new(PropertyName newName) {
+            return new SparseFieldsetPropertyWriter(this, newName);
+        }
+
+        /**
+         * Escribe el campo si forma parte de la selección
+         *
+         * @param bean objeto serializado
+         * @param gen  generador JSON
+         * @param prov proveedor de serializadores
+         * @throws Exception si falla la serialización
+         */
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            FieldSelection selection = FieldSelection.current();
+            if (selection.appliesTo(bean) && !selection.includes(getName())) {
+                return;
+            }
+            super.serializeAsField(bean, gen, prov);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.nullers.restbookstore.config.ratelimit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Implementación en memoria de RateLimitBackend.
+ * Cada cubo se guarda como un único AtomicLong con el instante teórico en el que volvería a estar
+ * vacío (algoritmo GCRA), de modo que consumir una petición es un compareAndSet sin bloqueos.
+ * Las claves se reparten entre varios mapas para que la limpieza y el crecimiento no compitan.
+ */
+@Component
+@ConditionalOnProperty(name = "ratelimit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+
+    private final LongSupplier clock;
+
+    /**
+     * Constructor InMemoryRateLimitBackend
+     *
+     * @param stripes número de particiones, se redondea a la siguiente potencia de dos
+     */
+    @Autowired
+    public InMemoryRateLimitBackend(@Value("${ratelimit.memory.stripes:16}") int stripes) {
+        this(stripes, System::nanoTime);
+    }
+
+    /**
+     * Constructor InMemoryRateLimitBackend con reloj configurable
+     *
+     * @param stripes número de particiones, se redondea a la siguiente potencia de dos
+     * @param clock   reloj en nanosegundos
+     */
+    @SuppressWarnings("unchecked")
+    public InMemoryRateLimitBackend(int stripes, LongSupplier clock) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ConcurrentHashMap[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Consume una petición del cubo de la clave indicada
+     *
+     * @param key    clave del cliente y del grupo de rutas
+     * @param policy política del grupo
+     * @return decisión
+     */
+    @Override
+    public RateLimitDecision tryConsume(String key, RateLimitPolicy policy) {
+        long interval = policy.emissionIntervalNanos();
+        long burst = interval * policy.capacity();
+        AtomicLong cell = stripeFor(key).computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = clock.getAsLong();
+            long tat = cell.get();
+            long base = Math.max(tat, now);
+            long newTat = base + interval;
+            long allowAt = newTat - burst;
+            if (now < allowAt) {
+                return new RateLimitDecision(false, policy.capacity(), 0,
+                        toSeconds(base - now), Math.max(1, toSeconds(allowAt - now)));
+            }
+            if (cell.compareAndSet(tat, newTat)) {
+                long remaining = (burst - (newTat - now)) / interval;
+                return new RateLimitDecision(true, policy.capacity(), remaining, toSeconds(newTat - now), 0);
+            }
+        }
+    }
+
+    /**
+     * Elimina los cubos que ya se han recargado por completo
+     */
+    @Scheduled(fixedDelayString = "${ratelimit.memory.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            stripe.values().removeIf(cell -> cell.get() <= now);
+        }
+    }
+
+    /**
+     * Devuelve el número de cubos en memoria
+     *
+     * @return número de cubos
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Devuelve la partición de una clave
+     *
+     * @param key clave
+     * @return partición
+     */
+    private ConcurrentHashMap<String, AtomicLong> stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Convierte nanosegundos a segundos redondeando hacia arriba
+     *
+     * @param nanos nanosegundos
+     * @return segundos
+     */
+    private static long toSeconds(long nanos) {
+        return nanos <= 0 ? 0 : (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+}
@@ -0,0 +1,16 @@
+package com.nullers.restbookstore.config.ratelimit;
+
+/**
+ * Almacén de los contadores de límite de peticiones. La implementación en memoria sirve para una
+ * sola instancia; para varias instancias se puede registrar otra implementación compartida.
+ */
+public interface RateLimitBackend {
+    /**
+     * Consume una petición del cubo de la clave indicada
+     *
+     * @param key    clave del cliente y del grupo de rutas
+     * @param policy política del grupo
+     * @return decisión
+     */
+    RateLimitDecision tryConsume(String key, RateLimitPolicy policy);
+}
@@ -0,0 +1,14 @@
+package com.nullers.restbookstore.config.ratelimit;
+
+/**
+ * Resultado de consumir una petición de un cubo
+ *
+ * @param allowed           si la petición se permite
+ * @param limit             peticiones permitidas en ráfaga
+ * @param remaining         peticiones que quedan
+ * @param resetSeconds      segundos hasta que el cubo vuelve a estar lleno
+ * @param retryAfterSeconds segundos que el cliente debe esperar si se rechaza
+ */
+public record RateLimitDecision(boolean allowed, long limit, long remaining, long resetSeconds,
+                                long retryAfterSeconds) {
+}
@@ -0,0 +1,170 @@
+package com.nullers.restbookstore.config.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nullers.restbookstore.pagination.models.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Filtro que limita las peticiones a la API por grupo de rutas.
+ * El cliente se identifica por su API key, si es una de las configuradas, por el usuario autenticado
+ * o, en su defecto, por la IP. Se registra con el orden por defecto, después de la cadena de
+ * seguridad, para que el usuario autenticado ya esté disponible.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+    public static final String API_KEY_HEADER = "X-API-Key";
+    public static final String HEADER_LIMIT = "RateLimit-Limit";
+    public static final String HEADER_REMAINING = "RateLimit-Remaining";
+    public static final String HEADER_RESET = "RateLimit-Reset";
+    public static final String HEADER_POLICY = "RateLimit-Policy";
+    private static final String AUTH_PATH = "/api/auth/";
+    private static final String API_PATH = "/api/";
+
+    /**
+     * Atributos de la clase
+     */
+    private final RateLimitBackend backend;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Set<String> apiKeys;
+    private final Map<String, RateLimitPolicy> routeGroups = new LinkedHashMap<>();
+    private final RateLimitPolicy defaultPolicy;
+
+    /**
+     * Constructor de la clase. Cada límite se indica como "capacidad,recargaPorMinuto"
+     *
+     * @param backend      almacén de los contadores
+     * @param objectMapper mapper para escribir el error
+     * @param enabled      si el límite está activo
+     * @param apiKeys      API keys reconocidas
+     * @param books        límite de libros, editoriales y categorías
+     * @param shops        límite de tiendas y clientes
+     * @param orders       límite de pedidos
+     * @param storage      límite de ficheros
+     * @param defaults     límite del resto de la API
+     */
+    @Autowired
+    public RateLimitFilter(RateLimitBackend backend, ObjectMapper objectMapper,
+                           @Value("${ratelimit.enabled:true}") boolean enabled,
+                           @Value("${ratelimit.api-keys:}") Set<String> apiKeys,
+                           @Value("${ratelimit.groups.books:120,120}") String books,
+                           @Value("${ratelimit.groups.shops:120,120}") String shops,
+                           @Value("${ratelimit.groups.orders:60,60}") String orders,
+                           @Value("${ratelimit.groups.storage:60,60}") String storage,
+                           @Value("${ratelimit.groups.default:120,120}") String defaults) {
+        this.backend = backend;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.apiKeys = apiKeys;
+        RateLimitPolicy booksPolicy = RateLimitPolicy.parse("books", books);
+        RateLimitPolicy shopsPolicy = RateLimitPolicy.parse("shops", shops);
+        routeGroups.put("/api/books", booksPolicy);
+        routeGroups.put("/api/publishers", booksPolicy);
+        routeGroups.put("/api/categories", booksPolicy);
+        routeGroups.put("/api/shops", shopsPolicy);
+        routeGroups.put("/api/clients", shopsPolicy);
+        routeGroups.put("/api/orders", RateLimitPolicy.parse("orders", orders));
+        routeGroups.put("/storage", RateLimitPolicy.parse("storage", storage));
+        this.defaultPolicy = RateLimitPolicy.parse("default", defaults);
+    }
+
+    /**
+     * No se filtra si está desactivado ni las rutas de autenticación, que tienen su propio límite
+     *
+     * @param request petición http
+     * @return true si no se debe filtrar
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || request.getServletPath().startsWith(AUTH_PATH) || resolvePolicy(request.getServletPath()) == null;
+    }
+
+    /**
+     * Consume una petición del cubo del cliente y añade las cabeceras RateLimit-*
+     *
+     * @param request     petición http
+     * @param response    respuesta http
+     * @param filterChain filtro de cadenas
+     * @throws ServletException excepción servlet
+     * @throws IOException      excepción de entrada/salida
+     */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimitPolicy policy = resolvePolicy(request.getServletPath());
+        RateLimitDecision decision = backend.tryConsume(policy.name() + ":" + resolveClient(request), policy);
+        response.setHeader(HEADER_LIMIT, String.valueOf(decision.limit()));
+        response.setHeader(HEADER_REMAINING, String.valueOf(decision.remaining()));
+        response.setHeader(HEADER_RESET, String.valueOf(decision.resetSeconds()));
+        response.setHeader(HEADER_POLICY, policy.capacity() + ";w=" + policy.windowSeconds());
+        if (!decision.allowed()) {
+            log.warn("Límite de peticiones superado en {} para {}", policy.name(), request.getRemoteAddr());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(),
+                            "Límite de peticiones superado, inténtalo más tarde", request.getRequestURI()));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Devuelve la política del grupo de rutas al que pertenece la ruta
+     *
+     * @param path ruta
+     * @return política o null si la ruta no está limitada
+     */
+    private RateLimitPolicy resolvePolicy(String path) {
+        for (Map.Entry<String, RateLimitPolicy> entry : routeGroups.entrySet()) {
+            String prefix = entry.getKey();
+            if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                return entry.getValue();
+            }
+        }
+        return path.startsWith(API_PATH) ? defaultPolicy : null;
+    }
+
+    /**
+     * Identifica al cliente por API key, usuario autenticado o IP, en ese orden
+     *
+     * @param request petición http
+     * @return identificador del cliente
+     */
+    private String resolveClient(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
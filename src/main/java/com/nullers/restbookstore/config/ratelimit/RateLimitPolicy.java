@@ -0,0 +1,49 @@
+package com.nullers.restbookstore.config.ratelimit;
+
+/**
+ * Política de límite de peticiones de un grupo de rutas
+ *
+ * @param name            nombre del grupo
+ * @param capacity        peticiones permitidas en ráfaga
+ * @param refillPerMinute peticiones recuperadas por minuto
+ */
+public record RateLimitPolicy(String name, long capacity, long refillPerMinute) {
+
+    /**
+     * Crea una política a partir de una especificación "capacidad,recargaPorMinuto"
+     *
+     * @param name nombre del grupo
+     * @param spec especificación
+     * @return política
+     */
+    public static RateLimitPolicy parse(String name, String spec) {
+        String[] parts = spec.split(",");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Límite no válido para el grupo " + name + ": " + spec);
+        }
+        long capacity = Long.parseLong(parts[0].trim());
+        long refillPerMinute = Long.parseLong(parts[1].trim());
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("Límite no válido para el grupo " + name + ": " + spec);
+        }
+        return new RateLimitPolicy(name, capacity, refillPerMinute);
+    }
+
+    /**
+     * Devuelve los nanosegundos que tarda en recuperarse una petición
+     *
+     * @return intervalo de recarga
+     */
+    public long emissionIntervalNanos() {
+        return 60_000_000_000L / refillPerMinute;
+    }
+
+    /**
+     * Devuelve la ventana en segundos en la que se recupera la capacidad completa
+     *
+     * @return ventana en segundos
+     */
+    public long windowSeconds() {
+        return Math.max(1, capacity * 60 / refillPerMinute);
+    }
+}
@@ -0,0 +1,12 @@
+package com.nullers.restbookstore.config.scheduling;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuración de las tareas programadas
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,369 @@
+package com.nullers.restbookstore.config.websockets;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reparto de mensajes a las sesiones WebSocket sin bloquear a quien los envía.
+ * Cada sesión tiene su propia cola acotada en mensajes y en bytes que vacía un solo hilo del pool a la vez,
+ * así los envíos a una misma sesión nunca se solapan y un cliente lento solo retrasa sus propios mensajes.
+ * Cuando la cola se llena se descarta el mensaje más antiguo o se cierra la sesión según la política, y
+ * una sesión que lleva más de sendTimeLimit enviando un mensaje se cierra. Cada mensaje se codifica una
+ * sola vez y la misma instancia se comparte entre todas las colas.
+ */
+@Slf4j
+public class WebSocketBroadcaster {
+
+    /**
+     * Qué hacer cuando la cola de una sesión está llena
+     */
+    public enum OverflowPolicy {
+        DROP_OLDEST, DISCONNECT
+    }
+
+    private static final int MESSAGES_PER_TURN = 16;
+
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private static final String TOMCAT_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final ThreadPoolExecutor executor;
+
+    private final long sendTimeLimitMillis;
+
+    private final int maxQueueMessages;
+
+    private final long maxQueueBytes;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final Map<String, Outbound> outbounds = new ConcurrentHashMap<>();
+
+    private final LongAdder sent = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder disconnected = new LongAdder();
+
+    private final LongAdder sendNanos = new LongAdder();
+
+    private final LongAccumulator maxSendNanos = new LongAccumulator(Long::max, 0);
+
+    private final LongAccumulator peakQueueDepth = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Constructor WebSocketBroadcaster
+     *
+     * @param workers             hilos que envían los mensajes
+     * @param sendTimeLimitMillis tiempo máximo que puede durar el envío de un mensaje a una sesión
+     * @param maxQueueMessages    mensajes pendientes por sesión
+     * @param maxQueueBytes       bytes pendientes por sesión
+     * @param overflowPolicy      qué hacer cuando la cola de una sesión está llena
+     */
+    public WebSocketBroadcaster(int workers, long sendTimeLimitMillis, int maxQueueMessages, long maxQueueBytes,
+                                OverflowPolicy overflowPolicy) {
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.maxQueueMessages = Math.max(maxQueueMessages, 1);
+        this.maxQueueBytes = maxQueueBytes;
+        this.overflowPolicy = overflowPolicy;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Cada sesión tiene como mucho una tarea en la cola, así que está acotada por el número de sesiones
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ws-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Detiene el pool al cerrar la aplicación
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Crea la cola de una sesión nueva. En Tomcat limita además la escritura bloqueante al mismo tiempo
+     * máximo, para que un cliente parado no retenga un hilo del pool indefinidamente
+     *
+     * @param session sesión del cliente
+     */
+    public void register(WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            jakarta.websocket.Session standard = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+            if (standard != null) {
+                standard.getUserProperties().put(TOMCAT_SEND_TIMEOUT, sendTimeLimitMillis);
+            }
+        }
+        outbounds.put(session.getId(), new Outbound(session));
+    }
+
+    /**
+     * Elimina la cola de una sesión cerrada y descarta sus mensajes pendientes
+     *
+     * @param session sesión del cliente
+     */
+    public void unregister(WebSocketSession session) {
+        Outbound outbound = outbounds.remove(session.getId());
+        if (outbound != null) {
+            outbound.close();
+        }
+    }
+
+    /**
+     * Encola un mensaje para una sesión
+     *
+     * @param session sesión del cliente
+     * @param message mensaje
+     */
+    public void send(WebSocketSession session, String message) {
+        Outbound outbound = outbounds.get(session.getId());
+        if (outbound != null) {
+            outbound.offer(encode(message));
+        }
+    }
+
+    /**
+     * Encola un mensaje para varias sesiones y vuelve sin esperar a que se envíe. Las sesiones que llevan
+     * demasiado tiempo enviando el mensaje anterior se cierran
+     *
+     * @param sessions sesiones de los clientes
+     * @param message  mensaje
+     */
+    public void broadcast(Collection<WebSocketSession> sessions, String message) {
+        TextMessage frame = encode(message);
+        long now = System.nanoTime();
+        for (WebSocketSession session : sessions) {
+            Outbound outbound = outbounds.get(session.getId());
+            if (outbound == null || !session.isOpen()) {
+                continue;
+            }
+            if (outbound.isStalled(now)) {
+                disconnect(outbound, "lleva más de " + sendTimeLimitMillis + " ms enviando un mensaje");
+            } else {
+                outbound.offer(frame);
+            }
+        }
+    }
+
+    /**
+     * Métricas del reparto
+     *
+     * @return métricas
+     */
+    public WebSocketMetrics getMetrics() {
+        int queued = 0;
+        int maxDepth = 0;
+        for (Outbound outbound : outbounds.values()) {
+            int depth = outbound.depth();
+            queued += depth;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        long sentCount = sent.sum();
+        return WebSocketMetrics.builder()
+                .sessions(outbounds.size())
+                .queuedMessages(queued)
+                .maxQueueDepth(maxDepth)
+                .peakQueueDepth(peakQueueDepth.get())
+                .sentMessages(sentCount)
+                .droppedMessages(dropped.sum())
+                .disconnectedSessions(disconnected.sum())
+                .averageSendMillis(sentCount == 0 ? 0 : sendNanos.sum() / 1_000_000.0 / sentCount)
+                .maxSendMillis(maxSendNanos.get() / 1_000_000.0)
+                .activeSenders(executor.getActiveCount())
+                .build();
+    }
+
+    /**
+     * Codifica el mensaje una sola vez para compartirlo entre todas las colas
+     *
+     * @param message texto
+     * @return mensaje con los bytes ya calculados
+     */
+    private static TextMessage encode(String message) {
+        return new TextMessage(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cierra una sesión que no puede seguir el ritmo de los mensajes
+     *
+     * @param outbound cola de la sesión
+     * @param reason   motivo
+     */
+    private void disconnect(Outbound outbound, String reason) {
+        if (!outbound.close()) {
+            return;
+        }
+        WebSocketSession session = outbound.session;
+        outbounds.remove(session.getId(), outbound);
+        disconnected.increment();
+        log.warn("Se cierra la sesión WebSocket " + session.getId() + ": " + reason);
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Error al cerrar la sesión WebSocket " + session.getId(), e);
+        }
+    }
+
+    /**
+     * Cola de salida de una sesión. Solo hay una tarea en el pool por sesión, que envía unos pocos mensajes
+     * y se vuelve a encolar para dejar turno al resto de sesiones
+     */
+    private final class Outbound implements Runnable {
+        private final WebSocketSession session;
+
+        private final ArrayDeque<TextMessage> queue = new ArrayDeque<>();
+
+        private long queuedBytes;
+
+        private boolean scheduled;
+
+        private boolean closed;
+
+        private volatile long sendStartedAt = IDLE;
+
+        private Outbound(WebSocketSession session) {
+            this.session = session;
+        }
+
+        /**
+         * Añade un mensaje a la cola aplicando la política cuando está llena
+         *
+         * @param message mensaje
+         */
+        private void offer(TextMessage message) {
+            int size = message.getPayloadLength();
+            boolean overflow = false;
+            boolean schedule = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                while (!queue.isEmpty() && (queue.size() >= maxQueueMessages || queuedBytes + size > maxQueueBytes)) {
+                    if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                        overflow = true;
+                        break;
+                    }
+                    queuedBytes -= queue.poll().getPayloadLength();
+                    dropped.increment();
+                }
+                if (!overflow) {
+                    queue.add(message);
+                    queuedBytes += size;
+                    peakQueueDepth.accumulate(queue.size());
+                    schedule = !scheduled;
+                    scheduled = true;
+                }
+            }
+            if (overflow) {
+                dropped.increment();
+                disconnect(this, "cola llena");
+            } else if (schedule) {
+                schedule();
+            }
+        }
+
+        /**
+         * Entrega la cola al pool
+         */
+        private void schedule() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    scheduled = false;
+                }
+            }
+        }
+
+        /**
+         * Envía los mensajes pendientes de la sesión
+         */
+        @Override
+        public void run() {
+            for (int i = 0; i < MESSAGES_PER_TURN; i++) {
+                TextMessage message;
+                synchronized (this) {
+                    message = closed ? null : queue.poll();
+                    if (message == null) {
+                        scheduled = false;
+                        return;
+                    }
+                    queuedBytes -= message.getPayloadLength();
+                }
+                long start = System.nanoTime();
+                sendStartedAt = start;
+                try {
+                    session.sendMessage(message);
+                    sent.increment();
+                } catch (IOException | RuntimeException e) {
+                    disconnect(this, "error al enviar: " + e.getMessage());
+                    return;
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    sendStartedAt = IDLE;
+                    sendNanos.add(elapsed);
+                    maxSendNanos.accumulate(elapsed);
+                }
+            }
+            schedule();
+        }
+
+        /**
+         * Indica si el envío en curso supera el tiempo máximo
+         *
+         * @param now instante actual en nanosegundos
+         * @return true si la sesión está atascada
+         */
+        private boolean isStalled(long now) {
+            long started = sendStartedAt;
+            return started != IDLE && now - started > TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMillis);
+        }
+
+        /**
+         * Mensajes pendientes
+         *
+         * @return número de mensajes en la cola
+         */
+        private synchronized int depth() {
+            return queue.size();
+        }
+
+        /**
+         * Marca la cola como cerrada y descarta sus mensajes
+         *
+         * @return true si no estaba ya cerrada
+         */
+        private synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            queue.clear();
+            queuedBytes = 0;
+            return true;
+        }
+    }
+}
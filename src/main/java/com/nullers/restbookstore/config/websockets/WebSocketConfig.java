@@ -1,5 +1,6 @@
 package com.nullers.restbookstore.config.websockets;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -12,6 +13,32 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 @Configuration
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
+    private final int workers;
+    private final long sendTimeLimitMillis;
+    private final int maxQueueMessages;
+    private final long maxQueueBytes;
+    private final WebSocketBroadcaster.OverflowPolicy overflowPolicy;
+
+    /**
+     * Constructor WebSocketConfig
+     *
+     * @param workers             hilos que envían los mensajes
+     * @param sendTimeLimitMillis tiempo máximo del envío de un mensaje a una sesión
+     * @param maxQueueMessages    mensajes pendientes por sesión
+     * @param maxQueueBytes       bytes pendientes por sesión
+     * @param overflowPolicy      qué hacer cuando la cola de una sesión está llena
+     */
+    public WebSocketConfig(@Value("${websockets.fan-out.workers:4}") int workers,
+                           @Value("${websockets.fan-out.send-time-limit-ms:5000}") long sendTimeLimitMillis,
+                           @Value("${websockets.fan-out.max-queue-messages:256}") int maxQueueMessages,
+                           @Value("${websockets.fan-out.max-queue-bytes:1048576}") long maxQueueBytes,
+                           @Value("${websockets.fan-out.overflow-policy:DROP_OLDEST}") WebSocketBroadcaster.OverflowPolicy overflowPolicy) {
+        this.workers = workers;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.maxQueueMessages = maxQueueMessages;
+        this.maxQueueBytes = maxQueueBytes;
+        this.overflowPolicy = overflowPolicy;
+    }
 
     /**
      * Registra el WebSocketHandler
@@ -24,6 +51,16 @@ public class WebSocketConfig implements WebSocketConfigurer {
         registry.addHandler(webSocketClientsHandler(), "/ws/" + "api" + "/clients");
     }
 
+    /**
+     * Bean con las colas de salida de las sesiones, compartido por todos los handlers
+     *
+     * @return WebSocketBroadcaster
+     */
+    @Bean
+    public WebSocketBroadcaster webSocketBroadcaster() {
+        return new WebSocketBroadcaster(workers, sendTimeLimitMillis, maxQueueMessages, maxQueueBytes, overflowPolicy);
+    }
+
     /**
      * Bean para el WebSocketHandler
      *
@@ -31,7 +68,7 @@ public class WebSocketConfig implements WebSocketConfigurer {
      */
     @Bean
     public WebSocketHandler webSocketHandler() {
-        return new WebSocketHandler("Books");
+        return new WebSocketHandler("Books", webSocketBroadcaster());
     }
 
     /**
@@ -41,6 +78,6 @@ public class WebSocketConfig implements WebSocketConfigurer {
      */
     @Bean
     public WebSocketHandler webSocketClientsHandler() {
-        return new WebSocketHandler("Clients");
+        return new WebSocketHandler("Clients", webSocketBroadcaster());
     }
 }
\ No newline at end of file
@@ -5,48 +5,51 @@ import org.springframework.lang.NonNull;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.SubProtocolCapable;
-import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.io.IOException;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
- * Handler de WebSockets
+ * Handler de WebSockets. Los mensajes no se envían en el hilo que los produce: se encolan en el
+ * WebSocketBroadcaster, que los reparte a cada sesión por separado
  */
 @Slf4j
 public class WebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable, WebSocketSender {
     private final String entity;
 
+    private final WebSocketBroadcaster broadcaster;
+
     private final Set<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
 
     /**
      * Constructor
      *
-     * @param entity Entidad que se va a manejar
+     * @param entity      Entidad que se va a manejar
+     * @param broadcaster Colas de salida de las sesiones
      */
-    public WebSocketHandler(String entity) {
+    public WebSocketHandler(String entity, WebSocketBroadcaster broadcaster) {
         this.entity = entity;
+        this.broadcaster = broadcaster;
     }
 
     /**
      * Cuando se establece la conexión con el servidor
      *
      * @param session Sesión del cliente
-     * @throws Exception Error al establecer la conexión
      */
     @Override
-    public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+    public void afterConnectionEstablished(@NonNull WebSocketSession session) {
         log.info("Conexión establecida con el servidor");
         log.info("Sesión: " + session);
+        broadcaster.register(session);
         sessions.add(session);
-        TextMessage message = new TextMessage("Updates Web socket: " + entity + " - API Spring Boot");
+        String message = "Updates Web socket: " + entity + " - API Spring Boot";
         log.info("Servidor envía: {}", message);
-        session.sendMessage(message);
+        broadcaster.send(session, message);
     }
 
     /**
@@ -59,40 +62,33 @@ public class WebSocketHandler extends TextWebSocketHandler implements SubProtoco
     public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) {
         log.info("Conexión cerrada con el servidor: " + status);
         sessions.remove(session);
+        broadcaster.unregister(session);
     }
 
     /**
-     * Envía un mensaje a todos los clientes conectados
+     * Encola un mensaje para todos los clientes conectados, sin esperar a que se envíe
      *
      * @param message Mensaje a enviar
-     * @throws IOException Error al enviar el mensaje
      */
     @Override
-    public void sendMessage(String message) throws IOException {
+    public void sendMessage(String message) {
         log.info("Enviar mensaje de cambios en la entidad: " + entity + " : " + message);
-        for (WebSocketSession session : sessions) {
-            if (session.isOpen()) {
-                log.info("Servidor WS envía: " + message);
-                session.sendMessage(new TextMessage(message));
-            }
-        }
+        broadcaster.broadcast(sessions, message);
     }
 
     /**
-     * Envía mensajes periódicos a los clientes conectados para que sepan que el servidor sigue vivo
-     *
-     * @throws IOException Error al enviar el mensaje
+     * Envía mensajes periódicos a los clientes conectados para que sepan que el servidor sigue vivo.
+     * También sirve para cerrar las sesiones que llevan demasiado tiempo atascadas en un envío
      */
     @Scheduled(fixedRate = 1000)
     @Override
-    public void sendPeriodicMessages() throws IOException {
-        for (WebSocketSession session : sessions) {
-            if (session.isOpen()) {
-                String broadcast = "server periodic message " + LocalTime.now();
-                log.info("Server sends: " + broadcast);
-                session.sendMessage(new TextMessage(broadcast));
-            }
+    public void sendPeriodicMessages() {
+        if (sessions.isEmpty()) {
+            return;
         }
+        String broadcast = "server periodic message " + LocalTime.now();
+        log.debug("Server sends: " + broadcast);
+        broadcaster.broadcast(sessions, broadcast);
     }
 
     /**
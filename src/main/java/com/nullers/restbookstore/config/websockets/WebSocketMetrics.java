@@ -0,0 +1,46 @@
+package com.nullers.restbookstore.config.websockets;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las métricas del envío de mensajes por WebSockets
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WebSocketMetrics {
+    @Schema(description = "Sesiones conectadas", example = "12")
+    private int sessions;
+
+    @Schema(description = "Mensajes pendientes de enviar entre todas las sesiones", example = "4")
+    private int queuedMessages;
+
+    @Schema(description = "Mensajes pendientes en la sesión más atrasada", example = "3")
+    private int maxQueueDepth;
+
+    @Schema(description = "Mayor número de mensajes pendientes que ha tenido una sesión", example = "40")
+    private long peakQueueDepth;
+
+    @Schema(description = "Mensajes enviados", example = "5230")
+    private long sentMessages;
+
+    @Schema(description = "Mensajes descartados por cola llena", example = "7")
+    private long droppedMessages;
+
+    @Schema(description = "Sesiones cerradas por lentas, por cola llena o por error al enviar", example = "1")
+    private long disconnectedSessions;
+
+    @Schema(description = "Duración media del envío de un mensaje en milisegundos", example = "0.4")
+    private double averageSendMillis;
+
+    @Schema(description = "Duración máxima del envío de un mensaje en milisegundos", example = "35.2")
+    private double maxSendMillis;
+
+    @Schema(description = "Hilos enviando mensajes en este momento", example = "1")
+    private int activeSenders;
+}
@@ -0,0 +1,46 @@
+package com.nullers.restbookstore.config.websockets;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador con las métricas de los WebSockets
+ */
+@RestController
+@RequestMapping("/ws")
+public class WebSocketMetricsController {
+    private final WebSocketBroadcaster broadcaster;
+
+    /**
+     * Constructor WebSocketMetricsController
+     *
+     * @param broadcaster reparto de mensajes a las sesiones
+     */
+    @Autowired
+    public WebSocketMetricsController(WebSocketBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * Método para obtener las métricas de los WebSockets
+     *
+     * @return Profundidad de las colas, mensajes descartados y latencia de envío
+     */
+    @Operation(summary = "métricas de WebSockets", description = "colas por sesión, descartes y latencia de envío")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Métricas"),
+            @ApiResponse(responseCode = "403", description = "Denegado"),
+    })
+    @GetMapping("/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<WebSocketMetrics> getMetrics() {
+        return ResponseEntity.ok(broadcaster.getMetrics());
+    }
+}
@@ -4,6 +4,7 @@ import com.mongodb.MongoTimeoutException;
 import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionBadRequest;
 import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionConflict;
 import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionNotFound;
+import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionTooManyRequests;
 import com.nullers.restbookstore.pagination.exceptions.PageNotValidException;
 import com.nullers.restbookstore.pagination.models.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
@@ -158,6 +159,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    /**
+     * ResponseExceptionTooManyRequests
+     *
+     * @param ex Excepción
+     * @return ResponseEntity con el código de estado y la cabecera Retry-After
+     */
+    @ExceptionHandler(ResponseExceptionTooManyRequests.class)
+    public ResponseEntity<ErrorResponse> handleException(ResponseExceptionTooManyRequests ex) {
+        var errorResponse = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                ex.getMessage()
+                , getCurrentHttpRequest().getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
 
     /**
      * Handle MaxUploadSizeExceededException
@@ -0,0 +1,40 @@
+package com.nullers.restbookstore.manager.error.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Class ResponseExceptionTooManyRequests
+ */
+public abstract class ResponseExceptionTooManyRequests extends RuntimeException implements ResponseExceptionInterface {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructor ResponseExceptionTooManyRequests
+     *
+     * @param message           Mensaje de error
+     * @param retryAfterSeconds segundos que el cliente debe esperar antes de reintentar
+     */
+    protected ResponseExceptionTooManyRequests(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Devuelve el HttpStatus
+     *
+     * @return HttpStatus
+     */
+    public HttpStatus getHttpStatus() {
+        return HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * Devuelve los segundos que el cliente debe esperar antes de reintentar
+     *
+     * @return segundos
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
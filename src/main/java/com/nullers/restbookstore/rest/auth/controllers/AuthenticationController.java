@@ -1,5 +1,6 @@
 package com.nullers.restbookstore.rest.auth.controllers;
 
+import com.nullers.restbookstore.rest.auth.dto.AuthMetricsResponse;
 import com.nullers.restbookstore.rest.auth.dto.JwtAuthResponse;
 import com.nullers.restbookstore.rest.auth.dto.UserSignInRequest;
 import com.nullers.restbookstore.rest.auth.dto.UserSignUpRequest;
@@ -11,6 +12,8 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -52,6 +55,7 @@ public class AuthenticationController {
             @ApiResponse(responseCode = "200", description = "Cuenta creada"),
             @ApiResponse(responseCode = "400", description = "Error al crear cuenta"),
             @ApiResponse(responseCode = "403", description = "Denegado"),
+            @ApiResponse(responseCode = "429", description = "Demasiados intentos"),
     })
     @PostMapping("/signup")
     public ResponseEntity<JwtAuthResponse> singUp(@Valid @RequestBody UserSignUpRequest request) {
@@ -70,10 +74,27 @@ public class AuthenticationController {
             @ApiResponse(responseCode = "200", description = "Inicio de sesión realizado"),
             @ApiResponse(responseCode = "400", description = "Error al iniciar sesión"),
             @ApiResponse(responseCode = "403", description = "Denegado"),
+            @ApiResponse(responseCode = "429", description = "Demasiados intentos"),
     })
     @PostMapping("/signin")
     public ResponseEntity<JwtAuthResponse> signIn(@Valid @RequestBody UserSignInRequest request) {
         log.info("Iniciando sesión de usuario: {}", request);
         return ResponseEntity.ok(authenticationService.signIn(request));
     }
+
+    /**
+     * Método para obtener las métricas de autenticación
+     *
+     * @return Métricas del hash de contraseñas y del límite de intentos
+     */
+    @Operation(summary = "métricas de autenticación", description = "latencia del hash y profundidad de la cola")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Métricas"),
+            @ApiResponse(responseCode = "403", description = "Denegado"),
+    })
+    @GetMapping("/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AuthMetricsResponse> getMetrics() {
+        return ResponseEntity.ok(authenticationService.getMetrics());
+    }
 }
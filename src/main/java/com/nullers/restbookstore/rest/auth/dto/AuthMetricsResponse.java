@@ -0,0 +1,37 @@
+package com.nullers.restbookstore.rest.auth.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las métricas de autenticación
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuthMetricsResponse {
+    @Schema(description = "Hash de contraseñas realizados", example = "120")
+    private long hashCount;
+
+    @Schema(description = "Duración media de un hash en milisegundos", example = "85.3")
+    private double averageHashMillis;
+
+    @Schema(description = "Duración máxima de un hash en milisegundos", example = "210.7")
+    private double maxHashMillis;
+
+    @Schema(description = "Hash en espera en la cola", example = "3")
+    private int queueDepth;
+
+    @Schema(description = "Hash en ejecución", example = "2")
+    private int activeHashes;
+
+    @Schema(description = "Hash rechazados por cola llena o tiempo agotado", example = "0")
+    private long rejectedHashes;
+
+    @Schema(description = "Peticiones rechazadas por límite de intentos", example = "15")
+    private long throttledRequests;
+}
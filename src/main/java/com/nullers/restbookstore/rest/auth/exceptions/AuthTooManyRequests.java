@@ -0,0 +1,21 @@
+package com.nullers.restbookstore.rest.auth.exceptions;
+
+import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionTooManyRequests;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * AuthTooManyRequests
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class AuthTooManyRequests extends ResponseExceptionTooManyRequests {
+    /**
+     * Constructor
+     *
+     * @param message           Mensaje de error
+     * @param retryAfterSeconds segundos que el cliente debe esperar antes de reintentar
+     */
+    public AuthTooManyRequests(String message, long retryAfterSeconds) {
+        super(message, retryAfterSeconds);
+    }
+}
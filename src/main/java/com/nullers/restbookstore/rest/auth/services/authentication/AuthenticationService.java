@@ -1,5 +1,6 @@
 package com.nullers.restbookstore.rest.auth.services.authentication;
 
+import com.nullers.restbookstore.rest.auth.dto.AuthMetricsResponse;
 import com.nullers.restbookstore.rest.auth.dto.JwtAuthResponse;
 import com.nullers.restbookstore.rest.auth.dto.UserSignInRequest;
 import com.nullers.restbookstore.rest.auth.dto.UserSignUpRequest;
@@ -26,4 +27,11 @@ public interface AuthenticationService {
      */
 
     JwtAuthResponse signIn(UserSignInRequest request);
+
+    /**
+     * Métricas del hash de contraseñas y del límite de intentos
+     *
+     * @return AuthMetricsResponse con las métricas
+     */
+    AuthMetricsResponse getMetrics();
 }
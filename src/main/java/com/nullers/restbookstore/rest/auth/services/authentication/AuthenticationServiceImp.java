@@ -1,5 +1,7 @@
 package com.nullers.restbookstore.rest.auth.services.authentication;
 
+import com.nullers.restbookstore.config.auth.BoundedPasswordEncoder;
+import com.nullers.restbookstore.rest.auth.dto.AuthMetricsResponse;
 import com.nullers.restbookstore.rest.auth.dto.JwtAuthResponse;
 import com.nullers.restbookstore.rest.auth.dto.UserSignInRequest;
 import com.nullers.restbookstore.rest.auth.dto.UserSignUpRequest;
@@ -8,7 +10,9 @@ import com.nullers.restbookstore.rest.auth.exceptions.UserAuthNameOrEmailAlready
 import com.nullers.restbookstore.rest.auth.exceptions.UserPasswordsDiffers;
 import com.nullers.restbookstore.rest.auth.repositories.AuthUsersRepository;
 import com.nullers.restbookstore.rest.auth.services.jwt.JwtService;
+import com.nullers.restbookstore.rest.auth.services.throttling.LoginThrottleService;
 import com.nullers.restbookstore.rest.user.models.User;
+import com.nullers.restbookstore.rest.user.services.search.UserSearchIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -32,6 +36,8 @@ public class AuthenticationServiceImp implements AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final LoginThrottleService loginThrottleService;
+    private final UserSearchIndex userSearchIndex;
 
     /**
      * Constructor de la clase con los atributos
@@ -40,13 +46,19 @@ public class AuthenticationServiceImp implements AuthenticationService {
      * @param passwordEncoder       encriptación de contraseñas
      * @param jwtService            servicio de jwt
      * @param authenticationManager autenticación de usuarios
+     * @param loginThrottleService  límite de intentos de autenticación
+     * @param userSearchIndex       índice de búsqueda de usuarios
      */
     @Autowired
-    public AuthenticationServiceImp(AuthUsersRepository authUsersRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager) {
+    public AuthenticationServiceImp(AuthUsersRepository authUsersRepository, PasswordEncoder passwordEncoder, JwtService jwtService,
+                                    AuthenticationManager authenticationManager, LoginThrottleService loginThrottleService,
+                                    UserSearchIndex userSearchIndex) {
         this.authUsersRepository = authUsersRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.loginThrottleService = loginThrottleService;
+        this.userSearchIndex = userSearchIndex;
     }
 
     /**
@@ -69,6 +81,7 @@ public class AuthenticationServiceImp implements AuthenticationService {
 
             try {
                 var userStored = authUsersRepository.save(user);
+                userSearchIndex.index(userStored);
                 return JwtAuthResponse.builder()
                         .token(jwtService.generateToken(userStored))
                         .build();
@@ -89,6 +102,7 @@ public class AuthenticationServiceImp implements AuthenticationService {
     @Override
     public JwtAuthResponse signIn(UserSignInRequest request) {
         log.info("Autenticando usuario: {}", request);
+        loginThrottleService.checkUsername(request.getUsername());
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
         var user = authUsersRepository.findByUsernameIgnoreCase(request.getUsername())
@@ -98,4 +112,24 @@ public class AuthenticationServiceImp implements AuthenticationService {
                 .token(jwt)
                 .build();
     }
+
+    /**
+     * Métricas del hash de contraseñas y del límite de intentos
+     *
+     * @return AuthMetricsResponse con las métricas
+     */
+    @Override
+    public AuthMetricsResponse getMetrics() {
+        var metrics = AuthMetricsResponse.builder()
+                .throttledRequests(loginThrottleService.getThrottledRequests());
+        if (passwordEncoder instanceof BoundedPasswordEncoder bounded) {
+            metrics.hashCount(bounded.getHashCount())
+                    .averageHashMillis(bounded.getAverageHashMillis())
+                    .maxHashMillis(bounded.getMaxHashMillis())
+                    .queueDepth(bounded.getQueueDepth())
+                    .activeHashes(bounded.getActiveCount())
+                    .rejectedHashes(bounded.getRejectedCount());
+        }
+        return metrics.build();
+    }
 }
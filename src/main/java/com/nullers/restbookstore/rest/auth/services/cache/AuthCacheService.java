@@ -0,0 +1,49 @@
+package com.nullers.restbookstore.rest.auth.services.cache;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * AuthCacheService interface
+ * Caché de tokens ya verificados y de los usuarios autenticados
+ */
+public interface AuthCacheService {
+
+    /**
+     * Devuelve un token ya verificado que no ha expirado
+     *
+     * @param token jwt token
+     * @return token decodificado o null si el token no está en caché
+     */
+    DecodedJWT getVerifiedToken(String token);
+
+    /**
+     * Guarda un token verificado hasta su expiración
+     *
+     * @param token   jwt token
+     * @param decoded token decodificado y verificado
+     */
+    void putVerifiedToken(String token, DecodedJWT decoded);
+
+    /**
+     * Devuelve el usuario en caché si no ha caducado
+     *
+     * @param username nombre de usuario
+     * @return usuario o null si no está en caché
+     */
+    UserDetails getPrincipal(String username);
+
+    /**
+     * Guarda un usuario en caché
+     *
+     * @param userDetails usuario
+     */
+    void putPrincipal(UserDetails userDetails);
+
+    /**
+     * Elimina de la caché el usuario y todos sus tokens verificados
+     *
+     * @param username nombre de usuario
+     */
+    void invalidateUser(String username);
+}
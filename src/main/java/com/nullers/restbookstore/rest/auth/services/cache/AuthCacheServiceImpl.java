@@ -0,0 +1,197 @@
+package com.nullers.restbookstore.rest.auth.services.cache;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Implementación de AuthCacheService
+ * Los tokens se guardan por su hash SHA-256 en un LRU acotado hasta que expiran, y los usuarios
+ * en otro LRU con un tiempo de vida corto para que los cambios de roles se apliquen pronto.
+ */
+@Service
+public class AuthCacheServiceImpl implements AuthCacheService {
+
+    private final Map<String, VerifiedToken> tokens;
+
+    private final Map<String, CachedPrincipal> principals;
+
+    private final long principalTtlMillis;
+
+    /**
+     * Constructor de la clase
+     *
+     * @param maxTokens           número máximo de tokens verificados en caché
+     * @param maxPrincipals       número máximo de usuarios en caché
+     * @param principalTtlSeconds segundos que se conserva un usuario en caché
+     */
+    @Autowired
+    public AuthCacheServiceImpl(@Value("${jwt.cache.tokens.max-size:10000}") int maxTokens,
+                                @Value("${jwt.cache.principals.max-size:10000}") int maxPrincipals,
+                                @Value("${jwt.cache.principals.ttl-seconds:30}") long principalTtlSeconds) {
+        this.tokens = lru(maxTokens);
+        this.principals = lru(maxPrincipals);
+        this.principalTtlMillis = principalTtlSeconds * 1000;
+    }
+
+    /**
+     * Devuelve un token ya verificado que no ha expirado
+     *
+     * @param token jwt token
+     * @return token decodificado o null si el token no está en caché
+     */
+    @Override
+    public DecodedJWT getVerifiedToken(String token) {
+        String key = hash(token);
+        synchronized (tokens) {
+            VerifiedToken verified = tokens.get(key);
+            if (verified == null) {
+                return null;
+            }
+            if (verified.expiresAt() <= System.currentTimeMillis()) {
+                tokens.remove(key);
+                return null;
+            }
+            return verified.decoded();
+        }
+    }
+
+    /**
+     * Guarda un token verificado hasta su expiración
+     *
+     * @param token   jwt token
+     * @param decoded token decodificado y verificado
+     */
+    @Override
+    public void putVerifiedToken(String token, DecodedJWT decoded) {
+        if (decoded.getExpiresAt() == null || decoded.getSubject() == null) {
+            return;
+        }
+        String key = hash(token);
+        synchronized (tokens) {
+            tokens.put(key, new VerifiedToken(decoded, decoded.getExpiresAt().getTime()));
+        }
+    }
+
+    /**
+     * Devuelve el usuario en caché si no ha caducado
+     *
+     * @param username nombre de usuario
+     * @return usuario o null si no está en caché
+     */
+    @Override
+    public UserDetails getPrincipal(String username) {
+        String key = normalize(username);
+        synchronized (principals) {
+            CachedPrincipal cached = principals.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - cached.loadedAt() > principalTtlMillis) {
+                principals.remove(key);
+                return null;
+            }
+            return cached.userDetails();
+        }
+    }
+
+    /**
+     * Guarda un usuario en caché
+     *
+     * @param userDetails usuario
+     */
+    @Override
+    public void putPrincipal(UserDetails userDetails) {
+        synchronized (principals) {
+            principals.put(normalize(userDetails.getUsername()), new CachedPrincipal(userDetails, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Elimina de la caché el usuario y todos sus tokens verificados
+     *
+     * @param username nombre de usuario
+     */
+    @Override
+    public void invalidateUser(String username) {
+        if (username == null) {
+            return;
+        }
+        String key = normalize(username);
+        synchronized (principals) {
+            principals.remove(key);
+        }
+        synchronized (tokens) {
+            tokens.values().removeIf(token -> normalize(token.decoded().getSubject()).equals(key));
+        }
+    }
+
+    /**
+     * Crea un mapa LRU con un número máximo de entradas
+     *
+     * @param maxSize número máximo de entradas
+     * @param <V>     tipo de los valores
+     * @return mapa LRU
+     */
+    private static <V> Map<String, V> lru(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Calcula el hash SHA-256 de un token para no guardar el token en memoria
+     *
+     * @param token jwt token
+     * @return hash en Base64
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Normaliza el nombre de usuario, que se busca sin distinguir mayúsculas
+     *
+     * @param username nombre de usuario
+     * @return nombre de usuario normalizado
+     */
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Token verificado
+     *
+     * @param decoded   token decodificado
+     * @param expiresAt instante de expiración en milisegundos
+     */
+    private record VerifiedToken(DecodedJWT decoded, long expiresAt) {
+    }
+
+    /**
+     * Usuario en caché
+     *
+     * @param userDetails usuario
+     * @param loadedAt    instante de carga en milisegundos
+     */
+    private record CachedPrincipal(UserDetails userDetails, long loadedAt) {
+    }
+}
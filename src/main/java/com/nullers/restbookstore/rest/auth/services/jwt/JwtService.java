@@ -1,5 +1,6 @@
 package com.nullers.restbookstore.rest.auth.services.jwt;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import org.springframework.security.core.userdetails.UserDetails;
 
 /**
@@ -34,4 +35,13 @@ public interface JwtService {
      */
 
     boolean isTokenValid(String token, UserDetails userDetails);
+
+    /**
+     * Verify token signature and expiration
+     *
+     * @param token jwt token
+     * @return decoded token
+     * @throws com.auth0.jwt.exceptions.JWTVerificationException si la firma no es válida o el token ha expirado
+     */
+    DecodedJWT verifyToken(String token);
 }
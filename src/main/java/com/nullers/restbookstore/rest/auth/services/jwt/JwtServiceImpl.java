@@ -1,16 +1,24 @@
 package com.nullers.restbookstore.rest.auth.services.jwt;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import jakarta.annotation.PostConstruct;
+import com.nullers.restbookstore.rest.user.models.User;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
@@ -20,6 +28,9 @@ import java.util.function.Function;
  */
 @Service
 public class JwtServiceImpl implements JwtService {
+    public static final String CLAIM_USER_ID = "id";
+    public static final String CLAIM_ROLES = "roles";
+    private static final String ROLE_PREFIX = "ROLE_";
     /**
      * Atributos de configuración de JWT
      */
@@ -27,6 +38,17 @@ public class JwtServiceImpl implements JwtService {
     private String jwtSecretKey;
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
+    /**
+     * Crea el algoritmo de firma y el verificador una sola vez
+     */
+    @PostConstruct
+    public void init() {
+        algorithm = Algorithm.HMAC512(getSigningKey());
+        verifier = JWT.require(algorithm).build();
+    }
 
     /**
      * Extrae el nombre de usuario del token
@@ -59,29 +81,22 @@ public class JwtServiceImpl implements JwtService {
      */
     @Override
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    /**
-     * Verifica si el token ha expirado
-     *
-     * @param token jwt token
-     * @return true si el token ha expirado
-     */
-    private boolean isTokenExpired(String token) {
-        Date expirationDate = extractExpiration(token);
-        return expirationDate.before(new Date());
+        try {
+            return verifyToken(token).getSubject().equals(userDetails.getUsername());
+        } catch (JWTVerificationException e) {
+            return false;
+        }
     }
 
     /**
-     * Extrae la fecha de expiración del token
+     * Verifica la firma y la expiración del token
      *
      * @param token jwt token
-     * @return fecha de expiración
+     * @return token decodificado
      */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, DecodedJWT::getExpiresAt);
+    @Override
+    public DecodedJWT verifyToken(String token) {
+        return verifier.verify(token);
     }
 
     /**
@@ -93,7 +108,7 @@ public class JwtServiceImpl implements JwtService {
      * @return claim extraído
      */
     private <T> T extractClaim(String token, Function<DecodedJWT, T> claimsResolver) {
-        final DecodedJWT jwt = JWT.decode(token);
+        final DecodedJWT jwt = verifyToken(token);
         return claimsResolver.apply(jwt);
     }
 
@@ -105,16 +120,36 @@ public class JwtServiceImpl implements JwtService {
      * @return jwt token
      */
     private String generateToken(HashMap<String, Object> extraClaims, UserDetails userDetails) {
-        Algorithm algorithm = Algorithm.HMAC512(getSigningKey());
         Date now = new Date();
         Date expiration = new Date(now.getTime() + (1000 * jwtExpiration));
-        return JWT.create()
+        JWTCreator.Builder builder = JWT.create()
                 .withHeader(createHeader())
                 .withSubject(userDetails.getUsername())
+                .withJWTId(UUID.randomUUID().toString())
+                .withClaim(CLAIM_ROLES, extractRoles(userDetails))
                 .withIssuedAt(now)
                 .withExpiresAt(expiration)
-                .withClaim("extra", extraClaims)
-                .sign(algorithm);
+                .withClaim("extra", extraClaims);
+        if (userDetails instanceof User user && user.getId() != null) {
+            builder.withClaim(CLAIM_USER_ID, user.getId().toString());
+        }
+        return builder.sign(algorithm);
+    }
+
+    /**
+     * Devuelve los nombres de los roles del usuario sin el prefijo ROLE_
+     *
+     * @param userDetails usuario
+     * @return roles
+     */
+    private List<String> extractRoles(UserDetails userDetails) {
+        if (userDetails instanceof User user) {
+            return user.getRoles() == null ? List.of() : user.getRoles().stream().map(Enum::name).toList();
+        }
+        return userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(authority -> authority.startsWith(ROLE_PREFIX) ? authority.substring(ROLE_PREFIX.length()) : authority)
+                .toList();
     }
 
     /**
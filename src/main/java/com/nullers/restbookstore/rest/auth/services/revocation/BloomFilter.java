@@ -0,0 +1,84 @@
+package com.nullers.restbookstore.rest.auth.services.revocation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sin bloqueos para cadenas. Responde "no está" sin falsos negativos, por lo que
+ * sirve de primer filtro delante de la lista de revocados.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final int size;
+
+    private final int hashes;
+
+    /**
+     * Constructor de la clase
+     *
+     * @param expectedEntries   número de entradas esperadas
+     * @param falsePositiveRate probabilidad de falso positivo deseada
+     */
+    BloomFilter(int expectedEntries, double falsePositiveRate) {
+        int entries = Math.max(1, expectedEntries);
+        long bitCount = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.size = (int) Math.max(64, Math.min(bitCount, Integer.MAX_VALUE - 64L));
+        this.hashes = Math.max(1, (int) Math.round((double) size / entries * Math.log(2)));
+        this.bits = new AtomicLongArray((size + 63) / 64);
+    }
+
+    /**
+     * Añade un valor al filtro
+     *
+     * @param value valor
+     */
+    void put(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, size);
+            long mask = 1L << (bit & 63);
+            bits.getAndAccumulate(bit >>> 6, mask, (current, m) -> current | m);
+        }
+    }
+
+    /**
+     * Indica si el valor puede estar en el filtro
+     *
+     * @param value valor
+     * @return false si el valor seguro que no está, true si puede estar
+     */
+    boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, size);
+            if ((bits.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash FNV-1a de 64 bits con mezcla final
+     *
+     * @param value valor
+     * @return hash
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,35 @@
+package com.nullers.restbookstore.rest.auth.services.revocation;
+
+import java.util.Date;
+
+/**
+ * TokenRevocationService interface
+ * Lista de tokens y usuarios revocados que se consulta en cada petición autenticada
+ */
+public interface TokenRevocationService {
+
+    /**
+     * Revoca un token hasta su expiración
+     *
+     * @param tokenId   id del token (jti)
+     * @param expiresAt fecha de expiración del token
+     */
+    void revokeToken(String tokenId, Date expiresAt);
+
+    /**
+     * Revoca todos los tokens emitidos para un usuario antes del segundo actual
+     *
+     * @param username nombre de usuario
+     */
+    void revokeUser(String username);
+
+    /**
+     * Indica si un token está revocado
+     *
+     * @param tokenId  id del token (jti)
+     * @param username nombre de usuario del token
+     * @param issuedAt fecha de emisión del token
+     * @return true si el token está revocado
+     */
+    boolean isRevoked(String tokenId, String username, Date issuedAt);
+}
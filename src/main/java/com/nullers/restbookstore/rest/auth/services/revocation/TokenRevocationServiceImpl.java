@@ -0,0 +1,139 @@
+package com.nullers.restbookstore.rest.auth.services.revocation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementación de TokenRevocationService
+ * Delante de los mapas de revocados hay un filtro de Bloom, de modo que los tokens no revocados,
+ * que son casi todos, se descartan sin tocar los mapas. Como el filtro no admite borrados, se
+ * reconstruye periódicamente quitando las entradas que ya han expirado.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final String TOKEN_PREFIX = "t:";
+    private static final String USER_PREFIX = "u:";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    private final int expectedEntries;
+
+    private final long tokenLifetimeMillis;
+
+    private volatile BloomFilter filter;
+
+    /**
+     * Constructor de la clase
+     *
+     * @param expectedEntries      número de revocaciones esperadas para dimensionar el filtro
+     * @param jwtExpirationSeconds duración de los tokens en segundos
+     */
+    @Autowired
+    public TokenRevocationServiceImpl(@Value("${jwt.revocation.expected-entries:10000}") int expectedEntries,
+                                      @Value("${jwt.expiration}") long jwtExpirationSeconds) {
+        this.expectedEntries = expectedEntries;
+        this.tokenLifetimeMillis = jwtExpirationSeconds * 1000;
+        this.filter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Revoca un token hasta su expiración
+     *
+     * @param tokenId   id del token (jti)
+     * @param expiresAt fecha de expiración del token
+     */
+    @Override
+    public void revokeToken(String tokenId, Date expiresAt) {
+        if (tokenId == null) {
+            return;
+        }
+        long until = expiresAt != null ? expiresAt.getTime() : System.currentTimeMillis() + tokenLifetimeMillis;
+        revokedTokens.put(tokenId, until);
+        filter.put(TOKEN_PREFIX + tokenId);
+    }
+
+    /**
+     * Revoca todos los tokens emitidos hasta ahora para un usuario
+     *
+     * @param username nombre de usuario
+     */
+    @Override
+    public void revokeUser(String username) {
+        if (username == null) {
+            return;
+        }
+        String key = normalize(username);
+        revokedUsers.put(key, System.currentTimeMillis());
+        filter.put(USER_PREFIX + key);
+    }
+
+    /**
+     * Indica si un token está revocado
+     *
+     * @param tokenId  id del token (jti)
+     * @param username nombre de usuario del token
+     * @param issuedAt fecha de emisión del token
+     * @return true si el token está revocado
+     */
+    @Override
+    public boolean isRevoked(String tokenId, String username, Date issuedAt) {
+        BloomFilter current = filter;
+        if (tokenId != null && current.mightContain(TOKEN_PREFIX + tokenId) && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (username == null) {
+            return false;
+        }
+        String key = normalize(username);
+        if (!current.mightContain(USER_PREFIX + key)) {
+            return false;
+        }
+        Long revokedAt = revokedUsers.get(key);
+        if (revokedAt == null) {
+            return false;
+        }
+        // iat tiene precisión de segundos: se compara con el segundo de la revocación para no rechazar
+        // durante toda su vida el token de un nuevo inicio de sesión hecho en ese mismo segundo
+        long revokedSecond = revokedAt / 1000 * 1000;
+        return issuedAt == null || issuedAt.getTime() < revokedSecond;
+    }
+
+    /**
+     * Elimina las revocaciones de tokens que ya han expirado y reconstruye el filtro
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(until -> until <= now);
+        revokedUsers.values().removeIf(revokedAt -> revokedAt + tokenLifetimeMillis <= now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revokedTokens.size() + revokedUsers.size()), FALSE_POSITIVE_RATE);
+        revokedTokens.keySet().forEach(tokenId -> rebuilt.put(TOKEN_PREFIX + tokenId));
+        revokedUsers.keySet().forEach(username -> rebuilt.put(USER_PREFIX + username));
+        filter = rebuilt;
+        // Las revocaciones añadidas mientras se reconstruía pueden no estar en el filtro nuevo
+        revokedTokens.keySet().forEach(tokenId -> rebuilt.put(TOKEN_PREFIX + tokenId));
+        revokedUsers.keySet().forEach(username -> rebuilt.put(USER_PREFIX + username));
+    }
+
+    /**
+     * Normaliza el nombre de usuario, que se busca sin distinguir mayúsculas
+     *
+     * @param username nombre de usuario
+     * @return nombre de usuario normalizado
+     */
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
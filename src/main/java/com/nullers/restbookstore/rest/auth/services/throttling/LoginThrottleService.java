@@ -0,0 +1,27 @@
+package com.nullers.restbookstore.rest.auth.services.throttling;
+
+/**
+ * Servicio que limita los intentos de autenticación por IP y por usuario
+ */
+public interface LoginThrottleService {
+    /**
+     * Consume un intento de la IP indicada
+     *
+     * @param clientIp ip del cliente
+     */
+    void checkClientIp(String clientIp);
+
+    /**
+     * Consume un intento del usuario indicado
+     *
+     * @param username nombre de usuario
+     */
+    void checkUsername(String username);
+
+    /**
+     * Devuelve el número de peticiones rechazadas desde el arranque
+     *
+     * @return peticiones rechazadas
+     */
+    long getThrottledRequests();
+}
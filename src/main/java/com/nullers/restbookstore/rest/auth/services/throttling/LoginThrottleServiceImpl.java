@@ -0,0 +1,120 @@
+package com.nullers.restbookstore.rest.auth.services.throttling;
+
+import com.nullers.restbookstore.rest.auth.exceptions.AuthTooManyRequests;
+import com.nullers.restbookstore.util.TokenBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementación de LoginThrottleService
+ * Cada IP y cada usuario tienen su propio cubo de tokens; los cubos llenos se descartan
+ * periódicamente para que la memoria no crezca con cada IP vista.
+ */
+@Service
+@Slf4j
+public class LoginThrottleServiceImpl implements LoginThrottleService {
+
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+
+    private final Map<String, TokenBucket> usernameBuckets = new ConcurrentHashMap<>();
+
+    private final LongAdder throttled = new LongAdder();
+
+    private final long ipCapacity;
+
+    private final long ipRefillPerMinute;
+
+    private final long usernameCapacity;
+
+    private final long usernameRefillPerMinute;
+
+    /**
+     * Constructor de LoginThrottleServiceImpl
+     *
+     * @param ipCapacity              intentos en ráfaga permitidos por IP
+     * @param ipRefillPerMinute       intentos recuperados por minuto por IP
+     * @param usernameCapacity        intentos en ráfaga permitidos por usuario
+     * @param usernameRefillPerMinute intentos recuperados por minuto por usuario
+     */
+    @Autowired
+    public LoginThrottleServiceImpl(@Value("${auth.throttle.ip.capacity:20}") long ipCapacity,
+                                    @Value("${auth.throttle.ip.refill-per-minute:20}") long ipRefillPerMinute,
+                                    @Value("${auth.throttle.username.capacity:5}") long usernameCapacity,
+                                    @Value("${auth.throttle.username.refill-per-minute:5}") long usernameRefillPerMinute) {
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerMinute = ipRefillPerMinute;
+        this.usernameCapacity = usernameCapacity;
+        this.usernameRefillPerMinute = usernameRefillPerMinute;
+    }
+
+    /**
+     * Consume un intento de la IP indicada
+     *
+     * @param clientIp ip del cliente
+     */
+    @Override
+    public void checkClientIp(String clientIp) {
+        consume(ipBuckets, clientIp, ipCapacity, ipRefillPerMinute,
+                "Demasiados intentos de autenticación desde esta IP, inténtalo más tarde");
+    }
+
+    /**
+     * Consume un intento del usuario indicado
+     *
+     * @param username nombre de usuario
+     */
+    @Override
+    public void checkUsername(String username) {
+        consume(usernameBuckets, username.toLowerCase(Locale.ROOT), usernameCapacity, usernameRefillPerMinute,
+                "Demasiados intentos de autenticación para este usuario, inténtalo más tarde");
+    }
+
+    /**
+     * Devuelve el número de peticiones rechazadas desde el arranque
+     *
+     * @return peticiones rechazadas
+     */
+    @Override
+    public long getThrottledRequests() {
+        return throttled.sum();
+    }
+
+    /**
+     * Elimina los cubos que se han recargado por completo
+     */
+    @Scheduled(fixedDelayString = "${auth.throttle.cleanup-interval-ms:60000}")
+    public void removeIdleBuckets() {
+        long now = System.nanoTime();
+        ipBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        usernameBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    /**
+     * Consume un token del cubo de la clave indicada
+     *
+     * @param buckets         cubos
+     * @param key             clave del cubo
+     * @param capacity        capacidad del cubo
+     * @param refillPerMinute recarga por minuto
+     * @param message         mensaje de error si no hay tokens
+     */
+    private void consume(Map<String, TokenBucket> buckets, String key, long capacity, long refillPerMinute,
+                         String message) {
+        long now = System.nanoTime();
+        long waitNanos = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerMinute, now))
+                .tryConsume(now);
+        if (waitNanos > 0) {
+            throttled.increment();
+            log.warn("Intento de autenticación limitado: {}", key);
+            throw new AuthTooManyRequests(message, TokenBucket.toRetryAfterSeconds(waitNanos));
+        }
+    }
+}
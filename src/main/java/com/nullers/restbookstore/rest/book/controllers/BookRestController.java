@@ -7,6 +7,7 @@ import com.nullers.restbookstore.rest.book.dto.PatchBookDTO;
 import com.nullers.restbookstore.rest.book.dto.UpdateBookDTO;
 import com.nullers.restbookstore.rest.book.exceptions.BookNotFoundException;
 import com.nullers.restbookstore.rest.book.exceptions.BookNotValidIDException;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherIDNotValid;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherNotFound;
 import jakarta.validation.Valid;
@@ -21,7 +22,7 @@ import org.springframework.web.bind.annotation.RequestBody;
  */
 public interface BookRestController {
 
-    ResponseEntity<GetBookDTO> getBookById(@Valid @PathVariable Long id)
+    ResponseEntity<GetBookDTO> getBookById(@Valid @PathVariable Long id, FieldSelection selection)
             throws BookNotValidIDException, BookNotFoundException;
 
     ResponseEntity<GetBookDTO> postBook(@Valid @RequestBody CreateBookDTO book)
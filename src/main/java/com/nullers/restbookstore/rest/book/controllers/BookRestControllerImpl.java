@@ -2,15 +2,19 @@ package com.nullers.restbookstore.rest.book.controllers;
 
 import com.nullers.restbookstore.pagination.models.PageResponse;
 import com.nullers.restbookstore.pagination.util.PaginationLinksUtils;
+import com.nullers.restbookstore.rest.book.dto.BookImageImportReport;
 import com.nullers.restbookstore.rest.book.dto.CreateBookDTO;
 import com.nullers.restbookstore.rest.book.dto.GetBookDTO;
 import com.nullers.restbookstore.rest.book.dto.PatchBookDTO;
 import com.nullers.restbookstore.rest.book.dto.UpdateBookDTO;
 import com.nullers.restbookstore.rest.book.exceptions.BookNotFoundException;
 import com.nullers.restbookstore.rest.book.exceptions.BookNotValidIDException;
+import com.nullers.restbookstore.rest.book.services.BookImageImportService;
 import com.nullers.restbookstore.rest.book.services.BookServiceImpl;
 import com.nullers.restbookstore.rest.common.PageableRequest;
 import com.nullers.restbookstore.rest.common.PageableUtil;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.fields.SparseFields;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherIDNotValid;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherNotFound;
 import io.swagger.v3.oas.annotations.Operation;
@@ -45,17 +49,21 @@ public class BookRestControllerImpl implements BookRestController {
 
     private final BookServiceImpl service;
     private final PaginationLinksUtils paginationLinksUtils;
+    private final BookImageImportService imageImportService;
 
     /**
      * Constructor de la clase
      *
      * @param service              Servicio de Book
      * @param paginationLinksUtils Utilidades para la paginación
+     * @param imageImportService   Servicio de importación de portadas
      */
     @Autowired
-    public BookRestControllerImpl(BookServiceImpl service, PaginationLinksUtils paginationLinksUtils) {
+    public BookRestControllerImpl(BookServiceImpl service, PaginationLinksUtils paginationLinksUtils,
+                                  BookImageImportService imageImportService) {
         this.service = service;
         this.paginationLinksUtils = paginationLinksUtils;
+        this.imageImportService = imageImportService;
     }
 
     /**
@@ -65,6 +73,7 @@ public class BookRestControllerImpl implements BookRestController {
      * @param maxPrice        Precio máximo por la que filtrar
      * @param category        Categoría por la que filtrar
      * @param pageableRequest Objeto PageableRequest con los parámetros de paginación
+     * @param selection       Campos seleccionados con los parámetros fields y expand
      * @return ResponseEntity con el código de estado
      */
     @Operation(summary = "Obtiene todos los libros", description = "Obtiene una lista de libros")
@@ -75,22 +84,27 @@ public class BookRestControllerImpl implements BookRestController {
     @Parameter(name = "size", description = "Tamaño de la página", example = "10")
     @Parameter(name = "orderBy", description = "Campo de ordenación", example = "id")
     @Parameter(name = "order", description = "Dirección de ordenación", example = "asc")
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "Campos a devolver separados por comas", example = "id,name,price")
+    @Parameter(name = FieldSelection.EXPAND_PARAM, description = "Asociaciones a añadir a los campos", example = "publisher")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Página de libros"),
             @ApiResponse(responseCode = "400", description = "Petición no válida")
     })
     @GetMapping()
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    @SparseFields(GetBookDTO.class)
     public ResponseEntity<PageResponse<GetBookDTO>> getAllBook(
             @Valid @RequestParam(required = false) Optional<String> publisher,
             @RequestParam(required = false) Optional<Double> maxPrice,
             @RequestParam(required = false) Optional<String> category,
             @Valid PageableRequest pageableRequest,
-            HttpServletRequest request
+            HttpServletRequest request,
+            @Parameter(hidden = true) FieldSelection selection
     ) {
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
         Page<GetBookDTO> pageResult = service.getAllBook(publisher, maxPrice, category,
-                PageRequest.of(pageableRequest.getPage(), pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)));
+                PageRequest.of(pageableRequest.getPage(), pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)),
+                selection);
         return ResponseEntity.ok()
                 .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
                 .body(PageResponse.of(pageResult, pageableRequest.getOrderBy(), pageableRequest.getOrder()));
@@ -99,21 +113,27 @@ public class BookRestControllerImpl implements BookRestController {
     /**
      * Método para obtener un Book por su ID
      *
-     * @param id ID del Book
+     * @param id        ID del Book
+     * @param selection Campos seleccionados con los parámetros fields y expand
      * @return ResponseEntity con el código de estado
      * @throws BookNotFoundException Si no se ha encontrado el Book con el ID indicado
      */
     @Operation(summary = "Busca un libro dada su ID", description = "Busca un libro dada su ID")
     @Parameter(name = "id", description = "Identificador del libro", example = "1", required = true)
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "Campos a devolver separados por comas", example = "id,name,price")
+    @Parameter(name = FieldSelection.EXPAND_PARAM, description = "Asociaciones a añadir a los campos", example = "publisher")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Libro encontrado"),
+            @ApiResponse(responseCode = "400", description = "Campos no válidos"),
             @ApiResponse(responseCode = "404", description = "Libro no encontrado"),
     })
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    @SparseFields(GetBookDTO.class)
     @Override
-    public ResponseEntity<GetBookDTO> getBookById(@Valid @PathVariable Long id) throws BookNotFoundException {
-        return ResponseEntity.ok(service.getBookById(id));
+    public ResponseEntity<GetBookDTO> getBookById(@Valid @PathVariable Long id,
+                                                  @Parameter(hidden = true) FieldSelection selection) throws BookNotFoundException {
+        return ResponseEntity.ok(service.getBookById(id, selection));
     }
 
     /**
@@ -239,4 +259,33 @@ public class BookRestControllerImpl implements BookRestController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No se ha enviado una imagen para el Book");
         }
     }
+
+    /**
+     * Método para importar las portadas de muchos libros desde un archivo ZIP o TAR enviado como cuerpo de
+     * la petición. Cada entrada se llama con el id de su libro, por ejemplo 12.png
+     *
+     * @param format  Formato del archivo (zip o tar), si no se indica se toma del Content-Type
+     * @param request Petición con el archivo
+     * @return ResponseEntity con el resultado de cada entrada
+     * @throws IOException Si no se puede leer la petición
+     */
+    @Operation(summary = "Importa portadas de libros", description = "Asigna las imágenes de un archivo ZIP o TAR a los libros cuyo id es el nombre de cada entrada")
+    @Parameter(name = "format", description = "Formato del archivo", example = "zip")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Informe de la importación"),
+            @ApiResponse(responseCode = "400", description = "Formato no válido"),
+    })
+    @PostMapping(value = "/images/import", consumes = {"application/zip", "application/x-tar",
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BookImageImportReport> importBookImages(
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) throws IOException {
+        String type = format != null ? format.toLowerCase() : String.valueOf(request.getContentType()).toLowerCase();
+        boolean tar = type.contains("tar");
+        if (!tar && !type.contains("zip")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato de archivo no válido, use zip o tar");
+        }
+        return ResponseEntity.ok(imageImportService.importImages(request.getInputStream(), tar));
+    }
 }
\ No newline at end of file
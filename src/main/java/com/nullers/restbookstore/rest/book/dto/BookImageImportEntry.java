@@ -0,0 +1,39 @@
+package com.nullers.restbookstore.rest.book.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Class BookImageImportEntry
+ * Resultado de importar una entrada del archivo de portadas
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookImageImportEntry {
+    /**
+     * Resultado de una entrada
+     */
+    public enum Status {
+        UPDATED, SKIPPED, NOT_FOUND, FAILED
+    }
+
+    @Schema(description = "Nombre de la entrada en el archivo", example = "covers/12.png")
+    private String entry;
+
+    @Schema(description = "ID del libro", example = "12")
+    private Long bookId;
+
+    @Schema(description = "Resultado", example = "UPDATED")
+    private Status status;
+
+    @Schema(description = "Imagen asignada al libro", example = "https://localhost:8080/storage/12-2023-11-20-12-00-00-000000.png")
+    private String image;
+
+    @Schema(description = "Motivo si la entrada no se ha importado", example = "Tipo de fichero no permitido 12.gif")
+    private String message;
+}
@@ -0,0 +1,28 @@
+package com.nullers.restbookstore.rest.book.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Class BookImageImportReport
+ * Informe de una importación de portadas
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookImageImportReport {
+    @Schema(description = "Libros actualizados", example = "950")
+    private int updated;
+
+    @Schema(description = "Entradas que no se han importado", example = "50")
+    private int rejected;
+
+    @Schema(description = "Resultado de cada entrada")
+    private List<BookImageImportEntry> entries;
+}
@@ -1,5 +1,6 @@
 package com.nullers.restbookstore.rest.book.dto;
 
+import com.nullers.restbookstore.rest.common.fields.SparseFieldset;
 import com.nullers.restbookstore.rest.publisher.dto.PublisherData;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -18,6 +19,7 @@ import java.time.LocalDateTime;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@SparseFieldset
 public class GetBookDTO {
     @Schema(description = "ID", example = "1")
     private Long id;
@@ -3,6 +3,7 @@ package com.nullers.restbookstore.rest.book.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.nullers.restbookstore.rest.category.model.Category;
+import com.nullers.restbookstore.rest.common.uploads.ImageFiles;
 import com.nullers.restbookstore.rest.publisher.model.Publisher;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
@@ -28,6 +29,7 @@ import java.time.LocalDateTime;
 @ToString
 @Builder
 @Entity
+@Table(indexes = @Index(name = "idx_book_image_file", columnList = "image_file"))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Book {
     public static final String IMAGE_DEFAULT = "https://books.madirex.com/favicon.ico";
@@ -46,7 +48,7 @@ public class Book {
     private String author;
 
     @NotNull(message = "publisher no puede ser nulo")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "publisher_id")
     @ToString.Exclude
     @JsonIgnore
@@ -57,6 +59,11 @@ public class Book {
     @Schema(description = "Imagen", example = "https://blogger.googleusercontent.com/img/b/R29vZ2xl/AVvXsEgPej2LyNLEL2RS-SwcNUVkHV6ZULZ6a6QvaUX68BiNEyCmMaVVUuiU6-MVxXYO-WWwATrUvLuJN7RVLkAC5x-arYpMNYc7-cGFkc0vrlfSP4MAexQV1SopKOgEbfNMVkhfWGm7kTJ5StWsB_f4kOP6DCG8YGe7c7W_w2ReV9v6D8HRc7veA_FsxaL6ec3g/w680/El%20asesino%20sigue%20aqu%C3%AD.png")
     private String image;
 
+    @JsonIgnore
+    @Column(name = "image_file")
+    @Schema(hidden = true)
+    private String imageFile;
+
     @NotBlank(message = "La descripción no puede estar vacía")
     @Schema(description = "Descripción", example = "Manuel es un detective que vive junto a su hijo Toni en el pueblo Risirú. En el pasado, ambos sufrieron la pérdida de un ser querido. La mujer de Manuel había sido asesinada. Pasado un tiempo y con ayuda de profesionales, consiguieron superar el trauma que les había dejado ese asesino.Risirú tenía un pasado muy oscuro, lleno de delincuencia. Manuel consiguió erradicar por completo la mala fama que tenía ese pueblo.Años después... Volvió a morir alguien.Manuel y Toni se preguntaron:¿El asesino sigue aquí?")
     private String description;
@@ -103,6 +110,16 @@ public class Book {
         if (updatedAt == null) {
             updatedAt = LocalDateTime.now();
         }
+        imageFile = ImageFiles.filenameOf(image);
+    }
+
+    /**
+     * Método que se ejecuta antes de actualizar un objeto
+     * Guarda el nombre del fichero de la imagen para buscarlo por índice
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        imageFile = ImageFiles.filenameOf(image);
     }
 
 }
@@ -1,11 +1,20 @@
 package com.nullers.restbookstore.rest.book.repository;
 
 import com.nullers.restbookstore.rest.book.model.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Interface BookRepository
@@ -15,6 +24,25 @@ import java.util.List;
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
 
+    /**
+     * Busca un libro por su id cargando su editorial
+     *
+     * @param id id del libro
+     * @return libro
+     */
+    @Override
+    @EntityGraph(attributePaths = "publisher")
+    Optional<Book> findById(Long id);
+
+    /**
+     * Busca varios libros por su id cargando su editorial
+     *
+     * @param ids ids de los libros
+     * @return libros encontrados
+     */
+    @EntityGraph(attributePaths = "publisher")
+    List<Book> findByIdIn(Collection<Long> ids);
+
     /**
      * Busca libros que contengan una categoría
      *
@@ -22,4 +50,91 @@ public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificat
      * @return lista de libros
      */
     List<Book> findByCategory_Name(String category);
+
+    /**
+     * Busca una página de los libros de una editorial
+     *
+     * @param publisherId id de la editorial
+     * @param pageable    paginación
+     * @return página de libros
+     */
+    Page<Book> findByPublisher_Id(Long publisherId, Pageable pageable);
+
+    /**
+     * Comprueba si existe algún libro de una categoría
+     *
+     * @param categoryId id de la categoría
+     * @return true si existe
+     */
+    boolean existsByCategory_Id(UUID categoryId);
+
+    /**
+     * Comprueba si existe algún libro de una editorial
+     *
+     * @param publisherId id de la editorial
+     * @return true si existe
+     */
+    boolean existsByPublisher_Id(Long publisherId);
+
+    /**
+     * Cuenta los libros de cada categoría
+     *
+     * @return pares [id de la categoría, número de libros]
+     */
+    @Query("SELECT b.category.id, COUNT(b) FROM Book b WHERE b.category IS NOT NULL GROUP BY b.category.id")
+    List<Object[]> countGroupedByCategory();
+
+    /**
+     * Cuenta los libros de cada editorial
+     *
+     * @return pares [id de la editorial, número de libros]
+     */
+    @Query("SELECT b.publisher.id, COUNT(b) FROM Book b WHERE b.publisher IS NOT NULL GROUP BY b.publisher.id")
+    List<Object[]> countGroupedByPublisher();
+
+    /**
+     * Resta stock a un libro solo si tiene stock suficiente
+     *
+     * @param id       id del libro
+     * @param quantity cantidad a restar
+     * @return número de filas actualizadas (0 si no hay stock suficiente)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Book b SET b.stock = b.stock - :quantity WHERE b.id = :id AND b.stock >= :quantity")
+    int decrementStock(Long id, Integer quantity);
+
+    /**
+     * Suma stock a un libro
+     *
+     * @param id       id del libro
+     * @param quantity cantidad a sumar
+     * @return número de filas actualizadas
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Book b SET b.stock = b.stock + :quantity WHERE b.id = :id")
+    int incrementStock(Long id, Integer quantity);
+
+    /**
+     * Busca cuáles de los ficheros indicados son la imagen de algún libro, usando el índice sobre
+     * el nombre del fichero de la imagen
+     *
+     * @param filenames nombres de los ficheros
+     * @return nombres de los ficheros referenciados
+     */
+    @Query("SELECT DISTINCT b.imageFile FROM Book b WHERE b.imageFile IN :filenames")
+    List<String> findImagesReferencing(Collection<String> filenames);
+
+    /**
+     * Rellena el nombre del fichero de la imagen en las filas guardadas antes de que existiera la columna
+     *
+     * @return número de filas actualizadas
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Book b SET b.imageFile = CASE WHEN LOCATE('/storage/', b.image) > 0 " +
+            "THEN SUBSTRING(b.image, LOCATE('/storage/', b.image) + 9) ELSE b.image END " +
+            "WHERE b.imageFile IS NULL AND (LOCATE('/storage/', b.image) > 0 OR LOCATE('/', b.image) = 0)")
+    int fillMissingImageFiles();
 }
@@ -0,0 +1,202 @@
+package com.nullers.restbookstore.rest.book.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Lector secuencial de las entradas de un archivo ZIP o TAR. Las entradas se leen en orden directamente del
+ * stream, sin guardar el archivo completo ni en memoria ni en disco
+ */
+abstract class ArchiveReader {
+
+    /**
+     * Abre un archivo
+     *
+     * @param inputStream contenido del archivo
+     * @param tar         true si es un TAR, false si es un ZIP
+     * @return lector
+     */
+    static ArchiveReader open(InputStream inputStream, boolean tar) {
+        return tar ? new Tar(inputStream) : new Zip(inputStream);
+    }
+
+    /**
+     * Avanza a la siguiente entrada que sea un fichero
+     *
+     * @return nombre de la entrada, o null si no hay más
+     * @throws IOException si el archivo no es válido
+     */
+    abstract String nextEntry() throws IOException;
+
+    /**
+     * Contenido de la entrada actual. Termina al final de la entrada
+     *
+     * @return stream de la entrada
+     */
+    abstract InputStream content();
+
+    /**
+     * Lector de ZIP basado en ZipInputStream
+     */
+    private static final class Zip extends ArchiveReader {
+        private final ZipInputStream zip;
+
+        private Zip(InputStream inputStream) {
+            this.zip = new ZipInputStream(inputStream);
+        }
+
+        @Override
+        String nextEntry() throws IOException {
+            ZipEntry entry = zip.getNextEntry();
+            while (entry != null && entry.isDirectory()) {
+                entry = zip.getNextEntry();
+            }
+            return entry == null ? null : entry.getName();
+        }
+
+        @Override
+        InputStream content() {
+            return zip;
+        }
+    }
+
+    /**
+     * Lector de TAR (ustar y nombres largos de GNU). Cada entrada es una cabecera de 512 bytes seguida del
+     * contenido rellenado hasta múltiplo de 512
+     */
+    private static final class Tar extends ArchiveReader {
+        private static final int BLOCK = 512;
+        private static final int MAX_NAME_LENGTH = 4096;
+        private final InputStream in;
+        private final byte[] header = new byte[BLOCK];
+        private long remaining;
+        private long padding;
+
+        private Tar(InputStream inputStream) {
+            this.in = inputStream;
+        }
+
+        @Override
+        String nextEntry() throws IOException {
+            String longName = null;
+            while (true) {
+                in.skipNBytes(remaining + padding);
+                remaining = 0;
+                padding = 0;
+                if (in.readNBytes(header, 0, BLOCK) < BLOCK || isZeroBlock()) {
+                    return null;
+                }
+                long size = parseOctal(124, 12);
+                char type = (char) header[156];
+                remaining = size;
+                padding = (BLOCK - size % BLOCK) % BLOCK;
+                if (type == 'L') {
+                    if (size > MAX_NAME_LENGTH) {
+                        throw new IOException("Nombre de entrada TAR demasiado largo");
+                    }
+                    longName = new String(in.readNBytes((int) size), StandardCharsets.UTF_8).trim();
+                    remaining = 0;
+                } else if (type == '0' || type == '\0') {
+                    return longName != null ? longName : entryName();
+                } else {
+                    longName = null;
+                }
+            }
+        }
+
+        @Override
+        InputStream content() {
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int b = in.read();
+                    if (b >= 0) {
+                        remaining--;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+                    if (read > 0) {
+                        remaining -= read;
+                    }
+                    return read;
+                }
+            };
+        }
+
+        /**
+         * Nombre de la entrada, con el prefijo de ustar si lo tiene
+         *
+         * @return nombre
+         */
+        private String entryName() {
+            String name = field(0, 100);
+            String magic = field(257, 6);
+            if (magic.startsWith("ustar")) {
+                String prefix = field(345, 155);
+                if (!prefix.isEmpty()) {
+                    return prefix + "/" + name;
+                }
+            }
+            return name;
+        }
+
+        /**
+         * Lee un campo de texto terminado en cero de la cabecera
+         *
+         * @param offset inicio
+         * @param length longitud máxima
+         * @return texto
+         */
+        private String field(int offset, int length) {
+            int end = offset;
+            while (end < offset + length && header[end] != 0) {
+                end++;
+            }
+            return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Lee un número octal de la cabecera
+         *
+         * @param offset inicio
+         * @param length longitud
+         * @return número
+         * @throws IOException si el campo no es un número válido
+         */
+        private long parseOctal(int offset, int length) throws IOException {
+            String value = field(offset, length).trim();
+            try {
+                return value.isEmpty() ? 0 : Long.parseLong(value, 8);
+            } catch (NumberFormatException e) {
+                throw new IOException("Cabecera TAR no válida");
+            }
+        }
+
+        /**
+         * Indica si la cabecera es un bloque de ceros, que marca el final del archivo
+         *
+         * @return true si todos los bytes son cero
+         */
+        private boolean isZeroBlock() {
+            for (byte b : header) {
+                if (b != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
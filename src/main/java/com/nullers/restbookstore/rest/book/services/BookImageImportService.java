@@ -0,0 +1,21 @@
+package com.nullers.restbookstore.rest.book.services;
+
+import com.nullers.restbookstore.rest.book.dto.BookImageImportReport;
+
+import java.io.InputStream;
+
+/**
+ * Interface BookImageImportService
+ * Importación masiva de portadas desde un archivo
+ */
+public interface BookImageImportService {
+    /**
+     * Importa las portadas de un archivo ZIP o TAR cuyas entradas se llaman con el id del libro
+     * (por ejemplo 12.png)
+     *
+     * @param archive contenido del archivo
+     * @param tar     true si es un TAR, false si es un ZIP
+     * @return informe con el resultado de cada entrada
+     */
+    BookImageImportReport importImages(InputStream archive, boolean tar);
+}
@@ -0,0 +1,275 @@
+package com.nullers.restbookstore.rest.book.services;
+
+import com.nullers.restbookstore.rest.book.dto.BookImageImportEntry;
+import com.nullers.restbookstore.rest.book.dto.BookImageImportReport;
+import com.nullers.restbookstore.storage.exceptions.StorageBadRequest;
+import com.nullers.restbookstore.storage.services.StorageService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clase BookImageImportServiceImpl
+ * El archivo se lee una sola vez en el hilo de la petición: cada entrada se copia a un temporal del
+ * almacenamiento y se entrega a un pool que la valida, calcula su hash y la mueve a su sitio con el mismo
+ * proceso que una subida normal. Cuando la cola está llena la entrada la procesa el propio hilo de la
+ * petición, de modo que el archivo no se lee más rápido de lo que se almacena. Los libros se actualizan
+ * al final en lotes, con una consulta y una transacción por lote.
+ */
+@Service
+@Slf4j
+public class BookImageImportServiceImpl implements BookImageImportService {
+    private static final List<String> IMAGE_TYPES = List.of("png", "jpeg", "jpg");
+    private static final DateTimeFormatter FILENAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss-SSSSSS");
+
+    private final BookService bookService;
+    private final StorageService storageService;
+    private final ThreadPoolExecutor executor;
+    private final long maxEntryBytes;
+    private final int maxEntries;
+    private final int batchSize;
+
+    /**
+     * Constructor de BookImageImportServiceImpl
+     *
+     * @param bookService    servicio de libros
+     * @param storageService servicio de almacenamiento
+     * @param workers        hilos que almacenan las imágenes
+     * @param queueCapacity  imágenes leídas esperando a ser almacenadas
+     * @param maxEntryBytes  tamaño máximo de cada imagen
+     * @param maxEntries     número máximo de entradas por archivo
+     * @param batchSize      libros actualizados por transacción
+     */
+    @Autowired
+    public BookImageImportServiceImpl(BookService bookService, StorageService storageService,
+                                      @Value("${books.image-import.workers:4}") int workers,
+                                      @Value("${books.image-import.queue-capacity:16}") int queueCapacity,
+                                      @Value("${books.image-import.max-entry-bytes:10485760}") long maxEntryBytes,
+                                      @Value("${books.image-import.max-entries:10000}") int maxEntries,
+                                      @Value("${books.image-import.batch-size:100}") int batchSize) {
+        this.bookService = bookService;
+        this.storageService = storageService;
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxEntries = maxEntries;
+        this.batchSize = Math.max(batchSize, 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "book-image-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Detiene el pool al cerrar la aplicación
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Importa las portadas de un archivo ZIP o TAR cuyas entradas se llaman con el id del libro
+     *
+     * @param archive contenido del archivo
+     * @param tar     true si es un TAR, false si es un ZIP
+     * @return informe con el resultado de cada entrada
+     */
+    @Override
+    public BookImageImportReport importImages(InputStream archive, boolean tar) {
+        List<BookImageImportEntry> entries = new ArrayList<>();
+        List<PendingImage> pending = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        String timestamp = LocalDateTime.now().format(FILENAME_FORMAT);
+        ArchiveReader reader = ArchiveReader.open(archive, tar);
+        try {
+            for (String name = reader.nextEntry(); name != null; name = reader.nextEntry()) {
+                String filename = StringUtils.getFilename(name);
+                if (filename == null || filename.isEmpty() || filename.startsWith(".") || name.startsWith("__MACOSX/")) {
+                    continue;
+                }
+                BookImageImportEntry entry = BookImageImportEntry.builder().entry(name).build();
+                entries.add(entry);
+                if (entries.size() > maxEntries) {
+                    reject(entry, BookImageImportEntry.Status.SKIPPED,
+                            "Se ha superado el máximo de " + maxEntries + " entradas, no se leen las siguientes");
+                    break;
+                }
+                Long id = bookIdOf(filename);
+                entry.setBookId(id);
+                if (id == null) {
+                    reject(entry, BookImageImportEntry.Status.SKIPPED, "El nombre no es el id de un libro");
+                } else if (!seen.add(id)) {
+                    reject(entry, BookImageImportEntry.Status.SKIPPED, "Imagen repetida para el libro " + id);
+                } else {
+                    Path temp = copyToTemp(reader.content());
+                    if (temp == null) {
+                        reject(entry, BookImageImportEntry.Status.FAILED, "La imagen supera el tamaño máximo de " + maxEntryBytes + " bytes");
+                    } else {
+                        pending.add(new PendingImage(entry, executor.submit(() -> storageService.store(temp, filename,
+                                IMAGE_TYPES, id + "-" + timestamp))));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Error al leer el archivo de portadas", e);
+            entries.add(BookImageImportEntry.builder()
+                    .status(BookImageImportEntry.Status.FAILED)
+                    .message("No se ha podido leer el resto del archivo: " + e.getMessage())
+                    .build());
+        }
+        updateBooks(entries, collect(pending));
+        int updated = (int) entries.stream().filter(e -> e.getStatus() == BookImageImportEntry.Status.UPDATED).count();
+        log.info("Importación de portadas: " + updated + " libros actualizados de " + entries.size() + " entradas");
+        return BookImageImportReport.builder()
+                .updated(updated)
+                .rejected(entries.size() - updated)
+                .entries(entries)
+                .build();
+    }
+
+    /**
+     * Obtiene el id del libro a partir del nombre de la entrada sin extensión
+     *
+     * @param filename nombre de la entrada
+     * @return id, o null si el nombre no es un número
+     */
+    private static Long bookIdOf(String filename) {
+        String stem = StringUtils.stripFilenameExtension(filename);
+        try {
+            return Long.parseLong(stem);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Copia el contenido de una entrada a un temporal del almacenamiento sin superar el tamaño máximo
+     *
+     * @param content contenido de la entrada
+     * @return temporal, o null si la entrada supera el tamaño máximo
+     * @throws IOException si no se puede escribir el temporal
+     */
+    private Path copyToTemp(InputStream content) throws IOException {
+        Path temp = storageService.createTempFile();
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            int read;
+            while ((read = content.read(buffer)) > 0) {
+                total += read;
+                if (total > maxEntryBytes) {
+                    Files.deleteIfExists(temp);
+                    return null;
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    /**
+     * Espera a que se almacenen las imágenes y anota los errores en su entrada
+     *
+     * @param pending entradas en proceso
+     * @return nombre almacenado de cada libro
+     */
+    private Map<Long, String> collect(List<PendingImage> pending) {
+        Map<Long, String> images = new LinkedHashMap<>();
+        for (PendingImage item : pending) {
+            BookImageImportEntry entry = item.entry();
+            try {
+                images.put(entry.getBookId(), item.filename().get());
+            } catch (ExecutionException e) {
+                String message = e.getCause() instanceof StorageBadRequest ? e.getCause().getMessage()
+                        : "No se ha podido almacenar la imagen";
+                log.warn("Error al importar la portada " + entry.getEntry(), e.getCause());
+                reject(entry, BookImageImportEntry.Status.FAILED, message);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject(entry, BookImageImportEntry.Status.FAILED, "Importación interrumpida");
+            }
+        }
+        return images;
+    }
+
+    /**
+     * Asigna las imágenes almacenadas a sus libros por lotes y elimina las de libros que no existen
+     *
+     * @param entries entradas del archivo
+     * @param images  nombre almacenado de cada libro
+     */
+    private void updateBooks(List<BookImageImportEntry> entries, Map<Long, String> images) {
+        Map<Long, String> urls = new LinkedHashMap<>();
+        images.forEach((id, filename) -> urls.put(id, storageService.getUrl(filename)));
+        Set<Long> updated = new HashSet<>();
+        List<Long> ids = new ArrayList<>(urls.keySet());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            Map<Long, String> batch = new LinkedHashMap<>();
+            ids.subList(from, Math.min(from + batchSize, ids.size())).forEach(id -> batch.put(id, urls.get(id)));
+            updated.addAll(bookService.updateImages(batch));
+        }
+        for (BookImageImportEntry entry : entries) {
+            if (entry.getStatus() != null || !images.containsKey(entry.getBookId())) {
+                continue;
+            }
+            if (updated.contains(entry.getBookId())) {
+                entry.setStatus(BookImageImportEntry.Status.UPDATED);
+                entry.setImage(urls.get(entry.getBookId()));
+            } else {
+                storageService.delete(images.get(entry.getBookId()));
+                reject(entry, BookImageImportEntry.Status.NOT_FOUND, "No existe el libro " + entry.getBookId());
+            }
+        }
+    }
+
+    /**
+     * Entrada entregada al pool junto con el nombre con el que se almacenará
+     *
+     * @param entry    entrada del informe
+     * @param filename nombre almacenado
+     */
+    private record PendingImage(BookImageImportEntry entry, Future<String> filename) {
+    }
+
+    /**
+     * Marca una entrada como no importada
+     *
+     * @param entry   entrada
+     * @param status  resultado
+     * @param message motivo
+     */
+    private static void reject(BookImageImportEntry entry, BookImageImportEntry.Status status, String message) {
+        entry.setStatus(status);
+        entry.setMessage(message);
+    }
+}
@@ -6,6 +6,7 @@ import com.nullers.restbookstore.rest.book.dto.PatchBookDTO;
 import com.nullers.restbookstore.rest.book.dto.UpdateBookDTO;
 import com.nullers.restbookstore.rest.book.exceptions.BookNotFoundException;
 import com.nullers.restbookstore.rest.book.exceptions.BookNotValidIDException;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherNotFound;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherIDNotValid;
 import org.springframework.data.domain.Page;
@@ -13,7 +14,9 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Interface BookService
@@ -31,6 +34,19 @@ public interface BookService {
      */
     Page<GetBookDTO> getAllBook(Optional<String> publisher, Optional<Double> maxPrice, Optional<String> category, PageRequest pageable);
 
+    /**
+     * Obtiene todos los libros cargando solo los campos seleccionados
+     *
+     * @param publisher Editorial del libro
+     * @param maxPrice  Precio máximo del libro
+     * @param category  Categoría del libro
+     * @param pageable  Paginación
+     * @param selection Campos seleccionados
+     * @return Page<GetBookDTO>
+     */
+    Page<GetBookDTO> getAllBook(Optional<String> publisher, Optional<Double> maxPrice, Optional<String> category,
+                                PageRequest pageable, FieldSelection selection);
+
     /**
      * Obtiene un libro por su id
      *
@@ -41,6 +57,28 @@ public interface BookService {
      */
     GetBookDTO getBookById(Long id) throws BookNotValidIDException, BookNotFoundException;
 
+    /**
+     * Obtiene un libro por su id cargando solo los campos seleccionados
+     *
+     * @param id        Id del libro
+     * @param selection Campos seleccionados
+     * @return GetBookDTO
+     * @throws BookNotValidIDException Excepción de ID de Book no válida
+     * @throws BookNotFoundException   Excepción de Book no encontrado
+     */
+    GetBookDTO getBookById(Long id, FieldSelection selection) throws BookNotValidIDException, BookNotFoundException;
+
+    /**
+     * Obtiene una página de los libros de una editorial
+     *
+     * @param publisherId Id de la editorial
+     * @param pageable    Paginación
+     * @return Page<GetBookDTO>
+     * @throws PublisherNotFound   Excepción de Publisher no encontrado
+     * @throws PublisherIDNotValid Excepción de ID de Publisher no válido
+     */
+    Page<GetBookDTO> getBooksByPublisher(Long publisherId, PageRequest pageable) throws PublisherNotFound, PublisherIDNotValid;
+
     /**
      * Crea un libro
      *
@@ -100,4 +138,12 @@ public interface BookService {
      * @throws IOException                  Excepción Entrada/Salida
      */
     GetBookDTO updateImage(Long id, MultipartFile image, Boolean withUrl) throws BookNotFoundException, BookNotValidIDException, PublisherNotFound, PublisherIDNotValid, IOException;
+
+    /**
+     * Actualiza la imagen de varios libros en una sola transacción
+     *
+     * @param images Imagen nueva de cada libro por su id
+     * @return Ids de los libros actualizados, los que no existen se ignoran
+     */
+    Set<Long> updateImages(Map<Long, String> images);
 }
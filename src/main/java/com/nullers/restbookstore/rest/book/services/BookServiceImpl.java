@@ -21,12 +21,15 @@ import com.nullers.restbookstore.rest.category.exceptions.CategoryInvalidID;
 import com.nullers.restbookstore.rest.category.model.Category;
 import com.nullers.restbookstore.rest.category.repository.CategoryRepositoryJpa;
 import com.nullers.restbookstore.rest.category.services.CategoryServiceJpa;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherIDNotValid;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherNotFound;
 import com.nullers.restbookstore.rest.publisher.mappers.PublisherMapper;
 import com.nullers.restbookstore.rest.publisher.services.PublisherService;
 import com.nullers.restbookstore.storage.services.StorageService;
 import com.nullers.restbookstore.util.Util;
+import jakarta.persistence.criteria.JoinType;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -41,12 +44,19 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -60,6 +70,8 @@ import java.util.UUID;
 public class BookServiceImpl implements BookService {
 
     public static final String BOOK_NOT_FOUND_MSG = "No se ha encontrado el Book con el ID indicado";
+    private static final String PUBLISHER_FIELD = "publisher";
+    private static final String CATEGORY_FIELD = "category";
 
     private final BookRepository bookRepository;
     private final BookMapperImpl bookMapperImpl;
@@ -74,6 +86,7 @@ public class BookServiceImpl implements BookService {
     private final ObjectMapper mapper;
     private final BookNotificationMapper bookNotificationMapper;
     private final CategoryRepositoryJpa categoryRepositoryJpa;
+    private final ReferenceCountService referenceCountService;
 
 
     /**
@@ -87,12 +100,15 @@ public class BookServiceImpl implements BookService {
      * @param publisherService       PublisherService
      * @param categoryService        CategoryService
      * @param bookNotificationMapper BookNotificationMapper
+     * @param categoryRepository     CategoryRepositoryJpa
+     * @param referenceCountService  ReferenceCountService
      */
     @Autowired
     public BookServiceImpl(BookRepository bookRepository, BookMapperImpl bookMapperImpl,
                            PublisherMapper publisherMapper, WebSocketConfig webSocketConfig, StorageService storageService,
                            PublisherService publisherService, CategoryServiceJpa categoryService,
-                           BookNotificationMapper bookNotificationMapper, CategoryRepositoryJpa categoryRepository) {
+                           BookNotificationMapper bookNotificationMapper, CategoryRepositoryJpa categoryRepository,
+                           ReferenceCountService referenceCountService) {
         this.bookRepository = bookRepository;
         this.bookMapperImpl = bookMapperImpl;
         this.publisherMapper = publisherMapper;
@@ -104,6 +120,7 @@ public class BookServiceImpl implements BookService {
         this.bookNotificationMapper = bookNotificationMapper;
         this.mapper = new ObjectMapper();
         this.categoryRepositoryJpa = categoryRepository;
+        this.referenceCountService = referenceCountService;
     }
 
     /**
@@ -117,6 +134,24 @@ public class BookServiceImpl implements BookService {
     @Cacheable
     @Override
     public Page<GetBookDTO> getAllBook(Optional<String> publisher, Optional<Double> maxPrice, Optional<String> category, PageRequest pageable) {
+        return getAllBook(publisher, maxPrice, category, pageable, FieldSelection.ALL);
+    }
+
+    /**
+     * Obtiene todos los Books cargando solo los campos seleccionados: la editorial solo se une a la
+     * consulta si se ha seleccionado
+     *
+     * @param publisher Publisher por la que filtrar
+     * @param maxPrice  Precio máximo por el que filtrar
+     * @param category  Categoría por la que filtrar
+     * @param pageable  Paginación
+     * @param selection Campos seleccionados
+     * @return Lista de Books
+     */
+    @Cacheable
+    @Override
+    public Page<GetBookDTO> getAllBook(Optional<String> publisher, Optional<Double> maxPrice, Optional<String> category,
+                                       PageRequest pageable, FieldSelection selection) {
         Specification<Book> specType = (root, query, criteriaBuilder) -> publisher.map(m -> {
             try {
                 return criteriaBuilder.equal(criteriaBuilder.upper(root.get("publisher").get("name")), m.toUpperCase());
@@ -129,12 +164,25 @@ public class BookServiceImpl implements BookService {
 
         Specification<Book> specCategory = (root, query, criteriaBuilder) -> category.map(c -> criteriaBuilder.equal(criteriaBuilder.upper(root.get("category").get("name")), c.toUpperCase())).orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
 
+        Specification<Book> specFetch = (root, query, criteriaBuilder) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                if (selection.includes(PUBLISHER_FIELD)) {
+                    root.fetch(PUBLISHER_FIELD, JoinType.LEFT);
+                }
+                if (selection.includes(CATEGORY_FIELD)) {
+                    root.fetch(CATEGORY_FIELD, JoinType.LEFT);
+                }
+            }
+            return criteriaBuilder.conjunction();
+        };
+
         Specification<Book> criterion = Specification.where(specType)
                 .and(specMaxPrice)
-                .and(specCategory);
+                .and(specCategory)
+                .and(specFetch);
         Page<Book> bookPage = bookRepository.findAll(criterion, pageable);
         List<GetBookDTO> dtoList = bookPage.getContent().stream()
-                .map(e -> bookMapperImpl.toGetBookDTO(e, publisherMapper.toPublisherData(e.getPublisher())))
+                .map(e -> toGetBookDTO(e, selection))
                 .toList();
 
         return new PageImpl<>(dtoList, bookPage.getPageable(), bookPage.getTotalElements());
@@ -151,9 +199,40 @@ public class BookServiceImpl implements BookService {
     @Cacheable(key = "#result.id")
     @Override
     public GetBookDTO getBookById(Long id) throws BookNotValidIDException, BookNotFoundException {
+        return getBookById(id, FieldSelection.ALL);
+    }
+
+    /**
+     * Obtiene un Book por su ID con los campos seleccionados
+     *
+     * @param id        ID del Book a obtener
+     * @param selection Campos seleccionados
+     * @return Book con el ID indicado
+     * @throws BookNotValidIDException Si el ID no tiene un formato válido
+     * @throws BookNotFoundException   Si no se ha encontrado el Book con el ID indicado
+     */
+    @Override
+    public GetBookDTO getBookById(Long id, FieldSelection selection) throws BookNotValidIDException, BookNotFoundException {
         var f = bookRepository.findById(id).orElseThrow(() ->
                 new BookNotFoundException(BOOK_NOT_FOUND_MSG));
-        return bookMapperImpl.toGetBookDTO(f, publisherMapper.toPublisherData(f.getPublisher()));
+        return toGetBookDTO(f, selection);
+    }
+
+    /**
+     * Obtiene una página de los libros de una editorial. La editorial se mapea una sola vez para toda
+     * la página
+     *
+     * @param publisherId ID de la editorial
+     * @param pageable    Paginación
+     * @return Page<GetBookDTO>
+     * @throws PublisherNotFound   Si no se ha encontrado la publisher con el ID indicado
+     * @throws PublisherIDNotValid Si el ID no tiene un formato válido
+     */
+    @Override
+    public Page<GetBookDTO> getBooksByPublisher(Long publisherId, PageRequest pageable) throws PublisherNotFound, PublisherIDNotValid {
+        var publisherData = publisherMapper.toPublisherData(publisherService.getPublisherReference(publisherId));
+        return bookRepository.findByPublisher_Id(publisherId, pageable)
+                .map(book -> bookMapperImpl.toGetBookDTO(book, publisherData));
     }
 
     /**
@@ -167,9 +246,10 @@ public class BookServiceImpl implements BookService {
     @CachePut(key = "#result.id")
     @Override
     public GetBookDTO postBook(CreateBookDTO book) throws PublisherNotFound, PublisherIDNotValid {
-        var publisher = publisherMapper.toPublisher(publisherService.findById(book.getPublisherId()));
+        var publisher = publisherService.getPublisherReference(book.getPublisherId());
         var category = checkCategory(book.getCategory());
         var f = bookRepository.save(bookMapperImpl.toBook(book, publisher, category));
+        referenceCountService.bookAdded(categoryIdOf(f), publisherIdOf(f));
         var bookDTO = bookMapperImpl.toGetBookDTO(f, publisherMapper.toPublisherData(f.getPublisher()));
         onChange(Notification.Type.CREATE, bookDTO);
         return bookDTO;
@@ -192,11 +272,14 @@ public class BookServiceImpl implements BookService {
             PublisherNotFound, PublisherIDNotValid, BookNotFoundException {
         Book existingBook = bookRepository.findById(id)
                 .orElseThrow(() -> new BookNotFoundException("Book no encontrado"));
+        UUID oldCategoryId = categoryIdOf(existingBook);
+        Long oldPublisherId = publisherIdOf(existingBook);
         Category category = checkCategory(book.getCategory());
-        var publisher = publisherMapper.toPublisher(publisherService.findById(book.getPublisherId()));
+        var publisher = publisherService.getPublisherReference(book.getPublisherId());
         Book f = bookMapperImpl.toBook(existingBook, book, publisher, category);
         f.setId(id);
         var modified = bookRepository.save(f);
+        trackReferences(oldCategoryId, oldPublisherId, modified);
         var bookDTO = bookMapperImpl.toGetBookDTO(modified, publisherMapper.toPublisherData(modified.getPublisher()));
         onChange(Notification.Type.UPDATE, bookDTO);
         return bookDTO;
@@ -221,11 +304,13 @@ public class BookServiceImpl implements BookService {
         if (opt.isEmpty()) {
             throw new BookNotFoundException(BOOK_NOT_FOUND_MSG);
         }
+        UUID oldCategoryId = categoryIdOf(opt.get());
+        Long oldPublisherId = publisherIdOf(opt.get());
         BeanUtils.copyProperties(book, opt.get(), Util.getNullPropertyNames(book));
         opt.get().setId(id);
         opt.get().setUpdatedAt(LocalDateTime.now());
         if (book.getPublisherId() != null) {
-            opt.get().setPublisher(publisherMapper.toPublisher(publisherService.findById(book.getPublisherId())));
+            opt.get().setPublisher(publisherService.getPublisherReference(book.getPublisherId()));
         }
         if (book.getCategory() != null) {
             try {
@@ -236,6 +321,7 @@ public class BookServiceImpl implements BookService {
             }
         }
         Book modified = bookRepository.save(opt.get());
+        trackReferences(oldCategoryId, oldPublisherId, modified);
         var bookDTO = bookMapperImpl.toGetBookDTO(modified, publisherMapper.toPublisherData(modified.getPublisher()));
         onChange(Notification.Type.UPDATE, bookDTO);
         return bookDTO;
@@ -285,6 +371,117 @@ public class BookServiceImpl implements BookService {
         return patchBook(id, PatchBookDTO.builder().image(storageService.getImageUrl(String.valueOf(id), image, withUrl)).build());
     }
 
+    /**
+     * Actualiza la imagen de varios libros en una sola transacción. Los libros se cargan con una consulta
+     * y las actualizaciones se envían juntas al hacer commit. Las imágenes anteriores se eliminan del
+     * almacenamiento después del commit, para no perderlas si la transacción se deshace
+     *
+     * @param images Imagen nueva de cada libro por su id
+     * @return Ids de los libros actualizados, los que no existen se ignoran
+     */
+    @Override
+    @CacheEvict(allEntries = true)
+    @Transactional
+    public Set<Long> updateImages(Map<Long, String> images) {
+        List<Book> books = bookRepository.findByIdIn(images.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> updated = new HashSet<>();
+        List<String> replaced = new ArrayList<>();
+        for (Book book : books) {
+            String previous = book.getImage();
+            book.setImage(images.get(book.getId()));
+            book.setUpdatedAt(now);
+            updated.add(book.getId());
+            if (previous != null && !previous.equals(Book.IMAGE_DEFAULT) && !previous.equals(book.getImage())) {
+                replaced.add(previous);
+            }
+        }
+        bookRepository.saveAll(books);
+        deleteImagesAfterCommit(replaced);
+        books.forEach(book -> onChange(Notification.Type.UPDATE,
+                bookMapperImpl.toGetBookDTO(book, publisherMapper.toPublisherData(book.getPublisher()))));
+        return updated;
+    }
+
+    /**
+     * Elimina imágenes del almacenamiento cuando la transacción en curso hace commit, o en el momento si no
+     * hay transacción. Si la transacción se deshace las imágenes se conservan y, si nada las referencia,
+     * las elimina el recolector de ficheros huérfanos
+     *
+     * @param images Imágenes a eliminar
+     */
+    private void deleteImagesAfterCommit(List<String> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            images.forEach(storageService::delete);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (String image : images) {
+                    try {
+                        storageService.delete(image);
+                    } catch (RuntimeException e) {
+                        log.warn("No se ha podido eliminar la imagen anterior " + image, e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convierte un Book a DTO sin acceder a la editorial si no se ha seleccionado
+     *
+     * @param book      Book
+     * @param selection Campos seleccionados
+     * @return GetBookDTO
+     */
+    private GetBookDTO toGetBookDTO(Book book, FieldSelection selection) {
+        return bookMapperImpl.toGetBookDTO(book, selection.includes(PUBLISHER_FIELD)
+                ? publisherMapper.toPublisherData(book.getPublisher()) : null);
+    }
+
+    /**
+     * Actualiza los contadores de referencias si el Book ha cambiado de categoría o de publisher
+     *
+     * @param oldCategoryId  ID de la categoría antes del cambio
+     * @param oldPublisherId ID del publisher antes del cambio
+     * @param modified       Book modificado
+     */
+    private void trackReferences(UUID oldCategoryId, Long oldPublisherId, Book modified) {
+        UUID newCategoryId = categoryIdOf(modified);
+        Long newPublisherId = publisherIdOf(modified);
+        boolean categoryChanged = !Objects.equals(oldCategoryId, newCategoryId);
+        boolean publisherChanged = !Objects.equals(oldPublisherId, newPublisherId);
+        if (categoryChanged || publisherChanged) {
+            referenceCountService.bookRemoved(categoryChanged ? oldCategoryId : null, publisherChanged ? oldPublisherId : null);
+            referenceCountService.bookAdded(categoryChanged ? newCategoryId : null, publisherChanged ? newPublisherId : null);
+        }
+    }
+
+    /**
+     * Devuelve el ID de la categoría de un Book
+     *
+     * @param book Book
+     * @return ID de la categoría o null
+     */
+    private static UUID categoryIdOf(Book book) {
+        return book.getCategory() == null ? null : book.getCategory().getId();
+    }
+
+    /**
+     * Devuelve el ID del publisher de un Book
+     *
+     * @param book Book
+     * @return ID del publisher o null
+     */
+    private static Long publisherIdOf(Book book) {
+        return book.getPublisher() == null ? null : book.getPublisher().getId();
+    }
+
     /**
      * Método para enviar una notificación a los clientes ws
      *
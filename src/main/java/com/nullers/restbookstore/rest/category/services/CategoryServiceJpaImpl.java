@@ -1,13 +1,14 @@
 package com.nullers.restbookstore.rest.category.services;
 
 
-import com.nullers.restbookstore.rest.book.repository.BookRepository;
 import com.nullers.restbookstore.rest.category.dto.CategoryCreateDTO;
 import com.nullers.restbookstore.rest.category.exceptions.CategoryConflictException;
 import com.nullers.restbookstore.rest.category.exceptions.CategoryNotFoundException;
 import com.nullers.restbookstore.rest.category.mappers.CategoryCreateMapper;
 import com.nullers.restbookstore.rest.category.model.Category;
 import com.nullers.restbookstore.rest.category.repository.CategoryRepositoryJpa;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
+import com.nullers.restbookstore.rest.common.references.ReferenceType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
@@ -27,18 +28,18 @@ import java.util.UUID;
 public class CategoryServiceJpaImpl implements CategoryServiceJpa {
 
     CategoryRepositoryJpa repository;
-    private final BookRepository bookRepository;
+    private final ReferenceCountService referenceCountService;
 
     /**
      * Constructor
      *
-     * @param repository     repositorio de categorías
-     * @param bookRepository repositorio de libros
+     * @param repository            repositorio de categorías
+     * @param referenceCountService contadores de referencias
      */
     @Autowired
-    public CategoryServiceJpaImpl(CategoryRepositoryJpa repository, BookRepository bookRepository) {
+    public CategoryServiceJpaImpl(CategoryRepositoryJpa repository, ReferenceCountService referenceCountService) {
         this.repository = repository;
-        this.bookRepository = bookRepository;
+        this.referenceCountService = referenceCountService;
     }
 
     /**
@@ -125,7 +126,7 @@ public class CategoryServiceJpaImpl implements CategoryServiceJpa {
     @Cacheable(key = "#id")
     public void deleteById(UUID id) {
         Category category = repository.findById(id).orElseThrow(() -> new CategoryNotFoundException(id));
-        if (!bookRepository.findByCategory_Name(category.getName()).isEmpty()) {
+        if (referenceCountService.hasReferences(ReferenceType.CATEGORY_BOOKS, category.getId())) {
             throw new CategoryConflictException("No se puede eliminar la categoría porque tiene libros asociados");
         }
         repository.deleteById(id);
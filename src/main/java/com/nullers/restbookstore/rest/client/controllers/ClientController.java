@@ -10,6 +10,8 @@ import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
 import com.nullers.restbookstore.rest.client.services.ClientServiceImpl;
 import com.nullers.restbookstore.rest.common.PageableRequest;
 import com.nullers.restbookstore.rest.common.PageableUtil;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.fields.SparseFields;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -87,11 +89,13 @@ public class ClientController {
     @Parameter(name = "size", description = "Tamaño de la pagina", example = "10")
     @Parameter(name = "sortBy", description = "Campo de ordenación", example = "id")
     @Parameter(name = "order", description = "Dirección de ordenación", example = "asc")
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "Campos a devolver separados por comas", example = "id,name,surname")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Página de clientes"),
             @ApiResponse(responseCode = "400", description = "Petición de clientes no válida")
     })
     @GetMapping
+    @SparseFields(ClientDto.class)
     public ResponseEntity<PageResponse<ClientDto>> getAll(
             @RequestParam(required = false) Optional<String> name,
             @RequestParam(required = false) Optional<String> surname,
@@ -114,18 +118,23 @@ public class ClientController {
     /**
      * Obtiene un cliente por su id
      *
-     * @param id id del cliente
+     * @param id        id del cliente
+     * @param selection campos seleccionados con los parámetros fields y expand
      * @return ResponseEntity<ClientDto> con el cliente
      */
     @Operation(summary = "Obtiene un cliente dado un id", description = "Obtiene un cliente dado un id")
     @Parameter(name = "id", description = "id del cliente", example = "550e8400-e29b-41d4-a716-446655440000")
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "Campos a devolver separados por comas", example = "id,name,email")
+    @Parameter(name = FieldSelection.EXPAND_PARAM, description = "Campos calculados a añadir a los campos", example = "orderCount")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cliente"),
+            @ApiResponse(responseCode = "400", description = "Campos no válidos"),
             @ApiResponse(responseCode = "404", description = "Cliente no encontrado")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ClientDto> getById(@PathVariable UUID id) {
-        return ResponseEntity.ok(clientService.findById(id));
+    @SparseFields(ClientDto.class)
+    public ResponseEntity<ClientDto> getById(@PathVariable UUID id, @Parameter(hidden = true) FieldSelection selection) {
+        return ResponseEntity.ok(clientService.findById(id, selection));
     }
 
     /**
@@ -136,11 +145,13 @@ public class ClientController {
      */
     @Operation(summary = "Obtiene un cliente dado un email", description = "Obtiene un cliente dado un email")
     @Parameter(name = "email", description = "Email del cliente", example = "ejemplo@gmail.com")
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "Campos a devolver separados por comas", example = "id,name,email")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cliente"),
             @ApiResponse(responseCode = "404", description = "Cliente no encontrado")
     })
     @GetMapping("/email/{email}")
+    @SparseFields(ClientDto.class)
     public ResponseEntity<ClientDto> getByEmail(@PathVariable String email) {
         return ResponseEntity.ok(clientService.findByEmail(email).orElseThrow(() -> new ClientNotFound("email", email)));
     }
@@ -1,6 +1,7 @@
 package com.nullers.restbookstore.rest.client.dto;
 
 import com.nullers.restbookstore.rest.common.Address;
+import com.nullers.restbookstore.rest.common.fields.SparseFieldset;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 
@@ -13,6 +14,7 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@SparseFieldset
 public class ClientDto {
 
     @Schema(name = "ID", example = "550e8400-e29b-41d4-a716-446655440000")
@@ -29,5 +31,7 @@ public class ClientDto {
     private Address address;
     @Schema(name = "Imagen", example = "https://st4.depositphotos.com/1049680/20734/i/450/depositphotos_207343968-stock-photo-young-hipster-man-happy-face.jpg")
     private String image;
+    @Schema(name = "Número de pedidos", example = "3")
+    private long orderCount;
 
 }
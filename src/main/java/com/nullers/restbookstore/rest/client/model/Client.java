@@ -1,7 +1,9 @@
 package com.nullers.restbookstore.rest.client.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.nullers.restbookstore.rest.book.model.Book;
 import com.nullers.restbookstore.rest.common.Address;
+import com.nullers.restbookstore.rest.common.uploads.ImageFiles;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -21,7 +23,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "clients")
+@Table(name = "clients", indexes = @Index(name = "idx_clients_image_file", columnList = "image_file"))
 @ToString
 public class Client {
     public static final String DEFAULT_IMAGE = "https://via.placeholder.com/150";
@@ -52,6 +54,11 @@ public class Client {
     @Schema(name = "Imagen", example = "https://st4.depositphotos.com/1049680/20734/i/450/depositphotos_207343968-stock-photo-young-hipster-man-happy-face.jpg")
     private String image = DEFAULT_IMAGE;
 
+    @JsonIgnore
+    @Column(name = "image_file")
+    @Schema(hidden = true)
+    private String imageFile;
+
     @CreatedDate
     @Schema(name = "Fecha de creación", example = "2021-03-05T11:11:11")
     private LocalDateTime createdAt;
@@ -60,4 +67,14 @@ public class Client {
     @Embedded
     @Schema(name = "Dirección")
     private Address address;
+
+    /**
+     * Método que se ejecuta antes de persistir o actualizar un objeto
+     * Guarda el nombre del fichero de la imagen para buscarlo por índice
+     */
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        imageFile = ImageFiles.filenameOf(image);
+    }
 }
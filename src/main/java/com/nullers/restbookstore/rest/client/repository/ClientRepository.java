@@ -3,10 +3,16 @@ package com.nullers.restbookstore.rest.client.repository;
 import com.nullers.restbookstore.rest.client.model.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Interfaz ClientRepository
@@ -22,4 +28,34 @@ public interface ClientRepository extends JpaRepository<Client, UUID>, JpaSpecif
      */
     Optional<Client> getClientByEmailEqualsIgnoreCase(String email);
 
+    /**
+     * Método para recorrer los campos indexables de todos los clientes sin cargar las entidades
+     *
+     * @return stream de clientes, debe consumirse dentro de una transacción
+     */
+    @Query("SELECT c.id AS id, c.name AS name, c.surname AS surname, c.email AS email, c.phone AS phone FROM Client c")
+    Stream<ClientSearchView> streamSearchViews();
+
+    /**
+     * Busca cuáles de los ficheros indicados son la imagen de algún cliente, usando el índice sobre
+     * el nombre del fichero de la imagen
+     *
+     * @param filenames nombres de los ficheros
+     * @return nombres de los ficheros referenciados
+     */
+    @Query("SELECT DISTINCT c.imageFile FROM Client c WHERE c.imageFile IN :filenames")
+    List<String> findImagesReferencing(Collection<String> filenames);
+
+    /**
+     * Rellena el nombre del fichero de la imagen en las filas guardadas antes de que existiera la columna
+     *
+     * @return número de filas actualizadas
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Client c SET c.imageFile = CASE WHEN LOCATE('/storage/', c.image) > 0 " +
+            "THEN SUBSTRING(c.image, LOCATE('/storage/', c.image) + 9) ELSE c.image END " +
+            "WHERE c.imageFile IS NULL AND (LOCATE('/storage/', c.image) > 0 OR LOCATE('/', c.image) = 0)")
+    int fillMissingImageFiles();
+
 }
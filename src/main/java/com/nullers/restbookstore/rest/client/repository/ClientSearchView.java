@@ -0,0 +1,43 @@
+package com.nullers.restbookstore.rest.client.repository;
+
+import java.util.UUID;
+
+/**
+ * Proyección con los campos de un cliente que se indexan para la búsqueda
+ */
+public interface ClientSearchView {
+    /**
+     * Id del cliente
+     *
+     * @return id
+     */
+    UUID getId();
+
+    /**
+     * Nombre del cliente
+     *
+     * @return nombre
+     */
+    String getName();
+
+    /**
+     * Apellidos del cliente
+     *
+     * @return apellidos
+     */
+    String getSurname();
+
+    /**
+     * Email del cliente
+     *
+     * @return email
+     */
+    String getEmail();
+
+    /**
+     * Teléfono del cliente
+     *
+     * @return teléfono
+     */
+    String getPhone();
+}
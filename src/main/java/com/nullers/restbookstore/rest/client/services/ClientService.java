@@ -3,6 +3,7 @@ package com.nullers.restbookstore.rest.client.services;
 import com.nullers.restbookstore.rest.client.dto.ClientCreateDto;
 import com.nullers.restbookstore.rest.client.dto.ClientDto;
 import com.nullers.restbookstore.rest.client.dto.ClientUpdateDto;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -42,6 +43,15 @@ public interface ClientService {
      */
     ClientDto findById(UUID id);
 
+    /**
+     * Método para obtener un cliente por su id con los campos seleccionados
+     *
+     * @param id        id del cliente
+     * @param selection campos seleccionados
+     * @return cliente
+     */
+    ClientDto findById(UUID id, FieldSelection selection);
+
     /**
      * Método para crear un cliente
      *
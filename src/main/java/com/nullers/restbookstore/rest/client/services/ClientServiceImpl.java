@@ -19,8 +19,12 @@ import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.client.notifications.dto.ClientNotificationResponse;
 import com.nullers.restbookstore.rest.client.notifications.mapper.ClientNotificationMapper;
 import com.nullers.restbookstore.rest.client.repository.ClientRepository;
+import com.nullers.restbookstore.rest.client.services.search.ClientSearchIndex;
 import com.nullers.restbookstore.rest.common.Address;
-import com.nullers.restbookstore.rest.orders.repositories.OrderRepository;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
+import com.nullers.restbookstore.rest.common.references.ReferenceType;
+import com.nullers.restbookstore.rest.shop.repository.ShopClientRepository;
 import com.nullers.restbookstore.storage.services.StorageService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,7 +32,6 @@ import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -36,6 +39,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -55,7 +59,7 @@ import java.util.UUID;
 public class ClientServiceImpl implements ClientService {
     public static final String EMAIL = "email";
     private final ClientRepository clientRepository;
-    private final OrderRepository orderRepository;
+    private final ReferenceCountService referenceCountService;
 
     private final StorageService storageService;
 
@@ -65,23 +69,31 @@ public class ClientServiceImpl implements ClientService {
 
     private final ObjectMapper mapper;
 
+    private final ClientSearchIndex clientSearchIndex;
+
+    private final ShopClientRepository shopClientRepository;
 
     /**
      * Constructor de ClientServiceImpl
      *
      * @param clientRepository         repositorio de clientes
-     * @param orderRepository          repositorio de pedidos
+     * @param referenceCountService    contadores de referencias
      * @param storageService           servicio de almacenamiento
      * @param webSocketConfig          configuración de websockets
      * @param clientNotificationMapper mapper de notificaciones de clientes
+     * @param clientSearchIndex        índice de búsqueda de clientes
+     * @param shopClientRepository     repositorio de los clientes de las tiendas
      */
     @Autowired
-    public ClientServiceImpl(ClientRepository clientRepository, OrderRepository orderRepository, StorageService storageService, WebSocketConfig webSocketConfig, ClientNotificationMapper clientNotificationMapper) {
+    public ClientServiceImpl(ClientRepository clientRepository, ReferenceCountService referenceCountService, StorageService storageService, WebSocketConfig webSocketConfig, ClientNotificationMapper clientNotificationMapper,
+                             ClientSearchIndex clientSearchIndex, ShopClientRepository shopClientRepository) {
         this.clientRepository = clientRepository;
-        this.orderRepository = orderRepository;
+        this.referenceCountService = referenceCountService;
         this.storageService = storageService;
         this.webSocketConfig = webSocketConfig;
         this.clientNotificationMapper = clientNotificationMapper;
+        this.clientSearchIndex = clientSearchIndex;
+        this.shopClientRepository = shopClientRepository;
         webSocketService = webSocketConfig.webSocketClientsHandler();
         mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
@@ -95,7 +107,8 @@ public class ClientServiceImpl implements ClientService {
      * @param address  dirección del cliente
      * @param pageable paginación
      * @return Page<ClientDto> página con los clientes encontrados
-     * Busca todos los clientes que coincidan con los criterios de búsqueda
+     * Busca todos los clientes que coincidan con los criterios de búsqueda. Si el índice de trigramas
+     * puede acotar la búsqueda, la consulta se limita a los ids candidatos
      */
     @Override
     @Cacheable
@@ -108,6 +121,10 @@ public class ClientServiceImpl implements ClientService {
             Pageable pageable) {
 
         log.info("Buscando clientes con los criterios: name: " + name + ", surname: " + surname + ", email: " + email + ", phone: " + phone + ", address: " + address);
+        Optional<List<UUID>> candidates = clientSearchIndex.search(name, surname, email, phone);
+        if (candidates.isPresent() && candidates.get().isEmpty()) {
+            return Page.empty(pageable);
+        }
         Specification<Client> specName = ((root, query, criteriaBuilder) -> name.map(m -> criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + m.toLowerCase() + "%")).orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true))));
 
         Specification<Client> specSurName = ((root, query, criteriaBuilder) -> surname.map(m -> criteriaBuilder.like(criteriaBuilder.lower(root.get("surname")), "%" + m.toLowerCase() + "%")).orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true))));
@@ -121,6 +138,10 @@ public class ClientServiceImpl implements ClientService {
                 .and(specEmail)
                 .and(specPhone);
 
+        if (candidates.isPresent()) {
+            criterio = criterio.and((root, query, criteriaBuilder) -> root.get("id").in(candidates.get()));
+        }
+
         return clientRepository.findAll(criterio, pageable).map(ClientMapper::toDto);
     }
 
@@ -134,8 +155,25 @@ public class ClientServiceImpl implements ClientService {
     @Override
     @Cacheable(key = "#id")
     public ClientDto findById(UUID id) {
+        return findById(id, FieldSelection.ALL);
+    }
+
+    /**
+     * Busca un cliente por su id contando sus pedidos solo si se han seleccionado
+     *
+     * @param id        id del cliente
+     * @param selection campos seleccionados
+     * @return ClientDto cliente encontrado
+     * @throws ClientNotFound si no existe el cliente
+     */
+    @Override
+    public ClientDto findById(UUID id, FieldSelection selection) {
         log.info("Buscando cliente con id: " + id);
-        return clientRepository.findById(id).map(ClientMapper::toDto).orElseThrow(() -> new ClientNotFound("id", id));
+        ClientDto client = clientRepository.findById(id).map(ClientMapper::toDto).orElseThrow(() -> new ClientNotFound("id", id));
+        if (selection.includes("orderCount")) {
+            client.setOrderCount(referenceCountService.count(ReferenceType.CLIENT_ORDERS, id));
+        }
+        return client;
     }
 
     /**
@@ -167,7 +205,9 @@ public class ClientServiceImpl implements ClientService {
             throw new ClientAlreadyExists(EMAIL, client.getEmail());
         }
         log.info("Guardando cliente " + client);
-        ClientDto clientSave = ClientMapper.toDto(clientRepository.save(ClientCreateMapper.toEntity(client)));
+        Client saved = clientRepository.save(ClientCreateMapper.toEntity(client));
+        clientSearchIndex.index(saved);
+        ClientDto clientSave = ClientMapper.toDto(saved);
         onChange(Notification.Type.CREATE, ClientMapper.toEntity(clientSave));
         return clientSave;
     }
@@ -191,7 +231,9 @@ public class ClientServiceImpl implements ClientService {
         }
         Optional<Client> clientToUpdateOpt = clientRepository.findById(id);
         var clientToUpdate = getClient(id, client, clientToUpdateOpt);
-        ClientDto clientUpdate = ClientMapper.toDto(clientRepository.save(clientToUpdate));
+        Client updated = clientRepository.save(clientToUpdate);
+        clientSearchIndex.index(updated);
+        ClientDto clientUpdate = ClientMapper.toDto(updated);
         onChange(Notification.Type.UPDATE, ClientMapper.toEntity(clientUpdate));
         return clientUpdate;
     }
@@ -235,14 +277,15 @@ public class ClientServiceImpl implements ClientService {
         if (clientToDelete.isEmpty()) {
             throw new ClientNotFound("id", id);
         }
-        int ordersClient = orderRepository.findByClientId(id, PageRequest.of(0, 10)).getContent().size();
-        if (ordersClient > 0) {
+        if (referenceCountService.hasReferences(ReferenceType.CLIENT_ORDERS, id)) {
             log.error("El cliente con id: " + id + " tiene pedidos asociados");
             throw new ClientInOrderException(id);
         }
         log.info("Eliminando cliente con id: " + id);
         onChange(Notification.Type.DELETE, clientToDelete.get());
+        shopClientRepository.deleteByClientId(id);
         clientRepository.deleteById(id);
+        clientSearchIndex.remove(id);
 
     }
 
@@ -252,7 +295,9 @@ public class ClientServiceImpl implements ClientService {
     @Override
     public void deleteAll() {
         log.info("Eliminando todos los clientes");
+        shopClientRepository.deleteAllInBatch();
         clientRepository.deleteAll();
+        clientSearchIndex.clear();
     }
 
 
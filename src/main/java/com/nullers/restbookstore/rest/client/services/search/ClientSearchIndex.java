@@ -0,0 +1,80 @@
+package com.nullers.restbookstore.rest.client.services.search;
+
+import com.nullers.restbookstore.rest.client.model.Client;
+import com.nullers.restbookstore.rest.client.repository.ClientRepository;
+import com.nullers.restbookstore.rest.client.repository.ClientSearchView;
+import com.nullers.restbookstore.rest.common.search.SearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Índice de trigramas sobre el nombre, apellidos, email y teléfono de los clientes
+ */
+@Component
+public class ClientSearchIndex extends SearchIndex {
+
+    private final ClientRepository clientRepository;
+
+    /**
+     * Constructor ClientSearchIndex
+     *
+     * @param clientRepository repositorio de clientes
+     * @param enabled          si el índice está activo
+     * @param maxCandidates    número máximo de candidatos antes de consultar directamente la base de datos
+     */
+    @Autowired
+    public ClientSearchIndex(ClientRepository clientRepository,
+                             @Value("${search.index.enabled:true}") boolean enabled,
+                             @Value("${search.index.max-candidates:5000}") int maxCandidates) {
+        super(4, enabled, maxCandidates);
+        this.clientRepository = clientRepository;
+    }
+
+    /**
+     * Indexa un cliente
+     *
+     * @param client cliente
+     */
+    public void index(Client client) {
+        put(client.getId(), client.getName(), client.getSurname(), client.getEmail(), client.getPhone());
+    }
+
+    /**
+     * Busca los ids de los clientes que pueden contener los términos indicados
+     *
+     * @param name    nombre
+     * @param surname apellidos
+     * @param email   email
+     * @param phone   teléfono
+     * @return candidatos, o vacío si el índice no puede acotar la búsqueda
+     */
+    public Optional<List<UUID>> search(Optional<String> name, Optional<String> surname,
+                                       Optional<String> email, Optional<String> phone) {
+        return searchTerms(name.orElse(null), surname.orElse(null), email.orElse(null), phone.orElse(null));
+    }
+
+    /**
+     * Reconstruye el índice al arrancar y periódicamente para liberar las entradas obsoletas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${search.index.rebuild-cron:0 0 4 * * *}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildFrom(index -> {
+            try (Stream<ClientSearchView> clients = clientRepository.streamSearchViews()) {
+                clients.forEach(client -> index.putIfAbsent(client.getId(),
+                        client.getName(), client.getSurname(), client.getEmail(), client.getPhone()));
+            }
+        });
+    }
+}
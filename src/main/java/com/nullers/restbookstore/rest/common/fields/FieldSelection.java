@@ -0,0 +1,136 @@
+package com.nullers.restbookstore.rest.common.fields;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Selección de campos de una lectura: los parámetros fields (campos que se devuelven) y expand
+ * (asociaciones que se añaden a esos campos). Sin fields se devuelven todos los campos, como hasta ahora.
+ * El id se devuelve siempre.
+ *
+ * @param type   clase del DTO al que se aplica la selección
+ * @param fields campos seleccionados
+ * @param expand asociaciones expandidas
+ */
+public record FieldSelection(Class<?> type, Set<String> fields, Set<String> expand) {
+
+    public static final String FIELDS_PARAM = "fields";
+    public static final String EXPAND_PARAM = "expand";
+    public static final String REQUEST_ATTRIBUTE = FieldSelection.class.getName();
+    public static final FieldSelection ALL = new FieldSelection(null, Set.of(), Set.of());
+
+    private static final String ID = "id";
+
+    /**
+     * Construye una selección a partir de los parámetros de la petición y comprueba que los campos
+     * existen en el DTO
+     *
+     * @param type   clase del DTO
+     * @param fields lista de campos separados por comas
+     * @param expand lista de asociaciones separadas por comas
+     * @return selección, o ALL si no se ha indicado ningún campo
+     * @throws FieldSelectionException si algún campo no existe en el DTO
+     */
+    public static FieldSelection parse(Class<?> type, String fields, String expand) {
+        Set<String> selectedFields = split(fields);
+        Set<String> expanded = split(expand);
+        Set<String> unknown = new TreeSet<>(selectedFields);
+        unknown.addAll(expanded);
+        unknown.removeAll(propertiesOf(type));
+        if (!unknown.isEmpty()) {
+            throw new FieldSelectionException("Campos no válidos: " + String.join(", ", unknown));
+        }
+        if (selectedFields.isEmpty()) {
+            return ALL;
+        }
+        return new FieldSelection(type, Collections.unmodifiableSet(selectedFields), Collections.unmodifiableSet(expanded));
+    }
+
+    /**
+     * Devuelve la selección de la petición en curso
+     *
+     * @return selección, o ALL si no hay petición o no se ha indicado ningún campo
+     */
+    public static FieldSelection current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return ALL;
+        }
+        Object selection = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return selection instanceof FieldSelection fieldSelection ? fieldSelection : ALL;
+    }
+
+    /**
+     * Indica si se devuelven todos los campos
+     *
+     * @return true si no hay selección de campos
+     */
+    public boolean isAll() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * Indica si un campo forma parte de la selección
+     *
+     * @param name nombre del campo
+     * @return true si se debe cargar y devolver
+     */
+    public boolean includes(String name) {
+        return isAll() || ID.equals(name) || fields.contains(name) || expand.contains(name);
+    }
+
+    /**
+     * Indica si la selección se aplica a un objeto que se va a serializar
+     *
+     * @param bean objeto
+     * @return true si es una instancia del DTO de la selección
+     */
+    public boolean appliesTo(Object bean) {
+        return type != null && type.isInstance(bean);
+    }
+
+    /**
+     * Separa una lista de nombres por comas
+     *
+     * @param value lista
+     * @return nombres sin espacios ni vacíos
+     */
+    private static Set<String> split(String value) {
+        if (value == null || value.isBlank()) {
+            return new LinkedHashSet<>();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Devuelve los nombres de los campos serializables de una clase y sus superclases
+     *
+     * @param type clase
+     * @return nombres de los campos
+     */
+    private static Set<String> propertiesOf(Class<?> type) {
+        Set<String> properties = new HashSet<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isAnnotationPresent(JsonIgnore.class)) {
+                    properties.add(field.getName());
+                }
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,20 @@
+package com.nullers.restbookstore.rest.common.fields;
+
+import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionBadRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase FieldSelectionException: los parámetros fields o expand contienen campos que no existen
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class FieldSelectionException extends ResponseExceptionBadRequest {
+    /**
+     * Constructor FieldSelectionException
+     *
+     * @param message Mensaje de error
+     */
+    public FieldSelectionException(String message) {
+        super(message);
+    }
+}
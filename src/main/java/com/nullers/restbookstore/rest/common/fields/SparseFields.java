@@ -0,0 +1,23 @@
+package com.nullers.restbookstore.rest.common.fields;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un endpoint de lectura que acepta los parámetros fields y expand sobre el DTO indicado
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SparseFields {
+
+    /**
+     * DTO que devuelve el endpoint (o que contiene cada página)
+     *
+     * @return clase del DTO
+     */
+    Class<?> value();
+}
@@ -0,0 +1,16 @@
+package com.nullers.restbookstore.rest.common.fields;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un DTO cuyos campos se pueden filtrar con los parámetros fields y expand al serializarlo
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SparseFieldset {
+}
@@ -0,0 +1,65 @@
+package com.nullers.restbookstore.rest.common.references;
+
+import com.nullers.restbookstore.rest.orders.models.Order;
+
+import java.util.UUID;
+
+/**
+ * Servicio que mantiene en memoria cuántos libros tiene cada categoría y editorial y cuántos pedidos
+ * tiene cada cliente, usuario y tienda
+ */
+public interface ReferenceCountService {
+    /**
+     * Devuelve el número de referencias de un propietario
+     *
+     * @param type    tipo de referencia
+     * @param ownerId id del propietario
+     * @return número de referencias
+     */
+    long count(ReferenceType type, Object ownerId);
+
+    /**
+     * Indica si un propietario tiene referencias. Si el contador es cero se confirma con una
+     * consulta de existencia para no permitir borrados por un contador desfasado
+     *
+     * @param type    tipo de referencia
+     * @param ownerId id del propietario
+     * @return true si tiene referencias
+     */
+    boolean hasReferences(ReferenceType type, Object ownerId);
+
+    /**
+     * Registra un libro nuevo o uno que ha pasado a la categoría y editorial indicadas
+     *
+     * @param categoryId  id de la categoría
+     * @param publisherId id de la editorial
+     */
+    void bookAdded(UUID categoryId, Long publisherId);
+
+    /**
+     * Registra que un libro ha dejado la categoría y editorial indicadas
+     *
+     * @param categoryId  id de la categoría
+     * @param publisherId id de la editorial
+     */
+    void bookRemoved(UUID categoryId, Long publisherId);
+
+    /**
+     * Registra un pedido nuevo
+     *
+     * @param order pedido
+     */
+    void orderAdded(Order order);
+
+    /**
+     * Registra un pedido eliminado. Archivar un pedido no lo elimina como referencia
+     *
+     * @param order pedido
+     */
+    void orderRemoved(Order order);
+
+    /**
+     * Recalcula todos los contadores a partir de las bases de datos
+     */
+    void reconcile();
+}
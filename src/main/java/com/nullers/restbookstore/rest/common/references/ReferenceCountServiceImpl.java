@@ -0,0 +1,316 @@
+package com.nullers.restbookstore.rest.common.references;
+
+import com.nullers.restbookstore.rest.book.repository.BookRepository;
+import com.nullers.restbookstore.rest.orders.models.Order;
+import com.nullers.restbookstore.rest.orders.repositories.OrderRepository;
+import com.nullers.restbookstore.rest.orders.services.OrderArchiveService;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationPipeline;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementación de ReferenceCountService
+ * Los contadores se actualizan en cada escritura y se recalculan periódicamente contra las bases de
+ * datos para corregir las desviaciones (escrituras fallidas, cambios externos). Los pedidos archivados
+ * siguen contando, ya que sus ids siguen apuntando al cliente, usuario y tienda.
+ * Mientras se recalcula, los cambios que llegan se apuntan aparte y se suman al resultado antes de
+ * sustituir los contadores, para no perderlos. Un cambio que ya estaba en la base de datos cuando se
+ * contó puede sumarse dos veces; el siguiente recálculo lo corrige y la consulta de existencia que
+ * se hace con el contador a cero impide borrados indebidos.
+ */
+@Service
+@Slf4j
+public class ReferenceCountServiceImpl implements ReferenceCountService {
+
+    private final BookRepository bookRepository;
+
+    private final OrderRepository orderRepository;
+
+    private final OrderArchiveService orderArchiveService;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final boolean reconcileEnabled;
+
+    private final Map<ReferenceType, Map<Object, AtomicLong>> counters = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+
+    private volatile Map<ReferenceType, Map<Object, AtomicLong>> pendingDeltas;
+
+    /**
+     * Constructor ReferenceCountServiceImpl
+     *
+     * @param bookRepository      repositorio de libros
+     * @param orderRepository     repositorio de pedidos
+     * @param orderArchiveService archivo de pedidos
+     * @param mongoTemplate       mongo template
+     * @param reconcileEnabled    si se recalculan los contadores al arrancar y periódicamente
+     */
+    @Autowired
+    public ReferenceCountServiceImpl(BookRepository bookRepository, OrderRepository orderRepository,
+                                     OrderArchiveService orderArchiveService, MongoTemplate mongoTemplate,
+                                     @Value("${references.reconcile.enabled:true}") boolean reconcileEnabled) {
+        this.bookRepository = bookRepository;
+        this.orderRepository = orderRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.mongoTemplate = mongoTemplate;
+        this.reconcileEnabled = reconcileEnabled;
+        counters.putAll(emptyCounters());
+    }
+
+    /**
+     * Devuelve el número de referencias de un propietario
+     *
+     * @param type    tipo de referencia
+     * @param ownerId id del propietario
+     * @return número de referencias
+     */
+    @Override
+    public long count(ReferenceType type, Object ownerId) {
+        if (ownerId == null) {
+            return 0;
+        }
+        AtomicLong counter = counters.get(type).get(ownerId);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Indica si un propietario tiene referencias
+     *
+     * @param type    tipo de referencia
+     * @param ownerId id del propietario
+     * @return true si tiene referencias
+     */
+    @Override
+    public boolean hasReferences(ReferenceType type, Object ownerId) {
+        if (count(type, ownerId) > 0) {
+            return true;
+        }
+        return switch (type) {
+            case CATEGORY_BOOKS -> bookRepository.existsByCategory_Id((UUID) ownerId);
+            case PUBLISHER_BOOKS -> bookRepository.existsByPublisher_Id((Long) ownerId);
+            case CLIENT_ORDERS -> orderRepository.existsByClientId((UUID) ownerId)
+                    || orderArchiveService.existsInArchives("clientId", (UUID) ownerId);
+            case USER_ORDERS -> orderRepository.existsByUserId((UUID) ownerId)
+                    || orderArchiveService.existsInArchives("userId", (UUID) ownerId);
+            case SHOP_ORDERS -> orderRepository.existsByShopId((UUID) ownerId)
+                    || orderArchiveService.existsInArchives("shopId", (UUID) ownerId);
+        };
+    }
+
+    /**
+     * Registra un libro nuevo o uno que ha pasado a la categoría y editorial indicadas
+     *
+     * @param categoryId  id de la categoría
+     * @param publisherId id de la editorial
+     */
+    @Override
+    public void bookAdded(UUID categoryId, Long publisherId) {
+        add(ReferenceType.CATEGORY_BOOKS, categoryId, 1);
+        add(ReferenceType.PUBLISHER_BOOKS, publisherId, 1);
+    }
+
+    /**
+     * Registra que un libro ha dejado la categoría y editorial indicadas
+     *
+     * @param categoryId  id de la categoría
+     * @param publisherId id de la editorial
+     */
+    @Override
+    public void bookRemoved(UUID categoryId, Long publisherId) {
+        add(ReferenceType.CATEGORY_BOOKS, categoryId, -1);
+        add(ReferenceType.PUBLISHER_BOOKS, publisherId, -1);
+    }
+
+    /**
+     * Registra un pedido nuevo
+     *
+     * @param order pedido
+     */
+    @Override
+    public void orderAdded(Order order) {
+        addOrder(order, 1);
+    }
+
+    /**
+     * Registra un pedido eliminado
+     *
+     * @param order pedido
+     */
+    @Override
+    public void orderRemoved(Order order) {
+        addOrder(order, -1);
+    }
+
+    /**
+     * Recalcula todos los contadores a partir de las bases de datos
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${references.reconcile.interval-ms:3600000}",
+            initialDelayString = "${references.reconcile.interval-ms:3600000}")
+    public synchronized void reconcile() {
+        if (!reconcileEnabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Map<ReferenceType, Map<Object, AtomicLong>> deltas = emptyCounters();
+        reconcileLock.writeLock().lock();
+        try {
+            pendingDeltas = deltas;
+        } finally {
+            reconcileLock.writeLock().unlock();
+        }
+        Map<ReferenceType, Map<Object, AtomicLong>> totals = null;
+        try {
+            List<String> archives = orderArchiveService.getArchiveCollections();
+            totals = new EnumMap<>(ReferenceType.class);
+            totals.put(ReferenceType.CATEGORY_BOOKS, fromRows(bookRepository.countGroupedByCategory()));
+            totals.put(ReferenceType.PUBLISHER_BOOKS, fromRows(bookRepository.countGroupedByPublisher()));
+            totals.put(ReferenceType.CLIENT_ORDERS, countOrdersBy("clientId", archives));
+            totals.put(ReferenceType.USER_ORDERS, countOrdersBy("userId", archives));
+            totals.put(ReferenceType.SHOP_ORDERS, countOrdersBy("shopId", archives));
+        } catch (RuntimeException e) {
+            totals = null;
+            log.error("Error al recalcular los contadores de referencias", e);
+        } finally {
+            replaceCounters(totals, deltas);
+        }
+        if (totals != null) {
+            log.info("Contadores de referencias recalculados en {} ms", System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Sustituye los contadores por los recalculados sumando los cambios apuntados mientras se calculaban
+     * y deja de apuntar cambios
+     *
+     * @param totals contadores recalculados, o null si el recálculo ha fallado
+     * @param deltas cambios apuntados durante el recálculo
+     */
+    private void replaceCounters(Map<ReferenceType, Map<Object, AtomicLong>> totals,
+                                 Map<ReferenceType, Map<Object, AtomicLong>> deltas) {
+        reconcileLock.writeLock().lock();
+        try {
+            if (totals != null) {
+                totals.forEach((type, fresh) -> {
+                    deltas.get(type).forEach((ownerId, delta) -> fresh.computeIfAbsent(ownerId, k -> new AtomicLong())
+                            .updateAndGet(value -> Math.max(0, value + delta.get())));
+                    counters.put(type, fresh);
+                });
+            }
+            pendingDeltas = null;
+        } finally {
+            reconcileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Suma al contador de un propietario sin bajar de cero
+     *
+     * @param type    tipo de referencia
+     * @param ownerId id del propietario
+     * @param delta   cantidad a sumar
+     */
+    private void add(ReferenceType type, Object ownerId, long delta) {
+        if (ownerId == null) {
+            return;
+        }
+        reconcileLock.readLock().lock();
+        try {
+            counters.get(type).computeIfAbsent(ownerId, k -> new AtomicLong())
+                    .updateAndGet(value -> Math.max(0, value + delta));
+            Map<ReferenceType, Map<Object, AtomicLong>> pending = pendingDeltas;
+            if (pending != null) {
+                pending.get(type).computeIfAbsent(ownerId, k -> new AtomicLong()).addAndGet(delta);
+            }
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Crea un mapa de contadores vacío para cada tipo de referencia
+     *
+     * @return contadores vacíos
+     */
+    private static Map<ReferenceType, Map<Object, AtomicLong>> emptyCounters() {
+        Map<ReferenceType, Map<Object, AtomicLong>> result = new EnumMap<>(ReferenceType.class);
+        for (ReferenceType type : ReferenceType.values()) {
+            result.put(type, new ConcurrentHashMap<>());
+        }
+        return result;
+    }
+
+    /**
+     * Suma a los contadores del cliente, usuario y tienda de un pedido
+     *
+     * @param order pedido
+     * @param delta cantidad a sumar
+     */
+    private void addOrder(Order order, long delta) {
+        add(ReferenceType.CLIENT_ORDERS, order.getClientId(), delta);
+        add(ReferenceType.USER_ORDERS, order.getUserId(), delta);
+        add(ReferenceType.SHOP_ORDERS, order.getShopId(), delta);
+    }
+
+    /**
+     * Convierte las filas [id, total] de una consulta agrupada en contadores
+     *
+     * @param rows filas
+     * @return contadores
+     */
+    private static Map<Object, AtomicLong> fromRows(List<Object[]> rows) {
+        Map<Object, AtomicLong> result = new ConcurrentHashMap<>();
+        rows.forEach(row -> result.put(row[0], new AtomicLong(((Number) row[1]).longValue())));
+        return result;
+    }
+
+    /**
+     * Cuenta los pedidos de la colección principal y de las de archivo agrupados por un campo
+     *
+     * @param field    campo por el que agrupar
+     * @param archives colecciones de archivo
+     * @return contadores
+     */
+    private Map<Object, AtomicLong> countOrdersBy(String field, List<String> archives) {
+        Criteria criteria = Criteria.where(field).ne(null);
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(criteria));
+        archives.forEach(collection -> operations.add(UnionWithOperation.unionWith(collection)
+                .pipeline(new AggregationPipeline(List.of(Aggregation.match(criteria))))));
+        operations.add(Aggregation.group(field).count().as("total"));
+        Aggregation aggregation = Aggregation.newAggregation(operations)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        Map<Object, AtomicLong> result = new ConcurrentHashMap<>();
+        mongoTemplate.aggregate(aggregation, Order.class, Document.class).forEach(document -> {
+            if (document.get("_id") instanceof UUID id) {
+                result.put(id, new AtomicLong(((Number) document.get("total")).longValue()));
+            }
+        });
+        return result;
+    }
+}
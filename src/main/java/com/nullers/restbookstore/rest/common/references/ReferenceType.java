@@ -0,0 +1,12 @@
+package com.nullers.restbookstore.rest.common.references;
+
+/**
+ * Tipos de referencia que se cuentan: el propietario es la entidad referenciada
+ */
+public enum ReferenceType {
+    CATEGORY_BOOKS,
+    PUBLISHER_BOOKS,
+    CLIENT_ORDERS,
+    USER_ORDERS,
+    SHOP_ORDERS
+}
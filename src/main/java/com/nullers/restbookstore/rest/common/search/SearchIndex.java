@@ -0,0 +1,150 @@
+package com.nullers.restbookstore.rest.common.search;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Base de los índices de búsqueda por subcadena. Mantiene un TrigramIndex que se actualiza en cada
+ * escritura y se reconstruye desde la base de datos; durante la reconstrucción las escrituras se
+ * aplican también al índice nuevo para no perderlas al sustituirlo.
+ */
+@Slf4j
+public abstract class SearchIndex {
+
+    private final int fieldCount;
+
+    private final boolean enabled;
+
+    private final int maxCandidates;
+
+    private final Object writeLock = new Object();
+
+    private TrigramIndex current;
+
+    private TrigramIndex building;
+
+    private volatile boolean ready;
+
+    /**
+     * Constructor SearchIndex
+     *
+     * @param fieldCount    número de campos indexados
+     * @param enabled       si el índice está activo
+     * @param maxCandidates número máximo de candidatos antes de consultar directamente la base de datos
+     */
+    protected SearchIndex(int fieldCount, boolean enabled, int maxCandidates) {
+        this.fieldCount = fieldCount;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+        this.current = new TrigramIndex(fieldCount);
+    }
+
+    /**
+     * Indica si el índice está construido y puede usarse
+     *
+     * @return true si está listo
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Elimina un documento del índice
+     *
+     * @param id id del documento
+     */
+    public void remove(UUID id) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            current.remove(id);
+            if (building != null) {
+                building.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Vacía el índice
+     */
+    public void clear() {
+        synchronized (writeLock) {
+            current = new TrigramIndex(fieldCount);
+            if (building != null) {
+                building = new TrigramIndex(fieldCount);
+            }
+        }
+    }
+
+    /**
+     * Indexa un documento
+     *
+     * @param id     id del documento
+     * @param values valores de los campos
+     */
+    protected void put(UUID id, String... values) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            current.put(id, values);
+            if (building != null) {
+                building.put(id, values);
+            }
+        }
+    }
+
+    /**
+     * Busca los ids candidatos para los términos indicados
+     *
+     * @param terms término de cada campo o null
+     * @return candidatos, o vacío si el índice no puede acotar la búsqueda
+     */
+    protected Optional<List<UUID>> searchTerms(String... terms) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        TrigramIndex index;
+        synchronized (writeLock) {
+            index = current;
+        }
+        return index.search(maxCandidates, terms);
+    }
+
+    /**
+     * Reconstruye el índice con los documentos que proporciona el cargador
+     *
+     * @param loader carga los documentos con TrigramIndex.putIfAbsent
+     */
+    protected void rebuildFrom(Consumer<TrigramIndex> loader) {
+        if (!enabled) {
+            return;
+        }
+        TrigramIndex next = new TrigramIndex(fieldCount);
+        synchronized (writeLock) {
+            building = next;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            loader.accept(next);
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                building = null;
+            }
+            log.error("Error al reconstruir el índice de búsqueda " + getClass().getSimpleName(), e);
+            return;
+        }
+        synchronized (writeLock) {
+            current = building;
+            building = null;
+        }
+        ready = true;
+        log.info("Índice de búsqueda {} reconstruido con {} documentos en {} ms",
+                getClass().getSimpleName(), next.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,266 @@
+package com.nullers.restbookstore.rest.common.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de trigramas en memoria sobre varios campos de texto.
+ * Cada versión de un documento recibe un número nuevo y creciente, así las listas de cada trigrama
+ * se mantienen ordenadas añadiendo al final. Las versiones anteriores solo se marcan como
+ * eliminadas, por lo que el índice puede devolver falsos positivos que se descartan al consultar
+ * la base de datos; reconstruirlo periódicamente libera esas entradas.
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+
+    private final List<Map<Long, IntList>> postings;
+
+    private final List<UUID> docs = new ArrayList<>();
+
+    private final Map<UUID, Integer> docOf = new HashMap<>();
+
+    private final BitSet live = new BitSet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor TrigramIndex
+     *
+     * @param fieldCount número de campos indexados
+     */
+    public TrigramIndex(int fieldCount) {
+        this.postings = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            postings.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Indexa un documento sustituyendo la versión anterior si existe
+     *
+     * @param id     id del documento
+     * @param values valores de los campos, en el mismo orden que en la búsqueda
+     */
+    public void put(UUID id, String... values) {
+        lock.writeLock().lock();
+        try {
+            add(id, values);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa un documento solo si no está ya indexado
+     *
+     * @param id     id del documento
+     * @param values valores de los campos
+     * @return true si se ha indexado
+     */
+    public boolean putIfAbsent(UUID id, String... values) {
+        lock.writeLock().lock();
+        try {
+            if (docOf.containsKey(id)) {
+                return false;
+            }
+            add(id, values);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un documento del índice
+     *
+     * @param id id del documento
+     */
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docOf.remove(id);
+            if (doc != null) {
+                live.clear(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve el número de documentos indexados
+     *
+     * @return documentos indexados
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los documentos cuyos campos contienen los términos indicados
+     *
+     * @param maxCandidates número máximo de candidatos que se devuelven
+     * @param terms         término de cada campo o null si no se filtra por él
+     * @return ids candidatos, o vacío si ningún término tiene al menos tres caracteres o hay
+     * demasiados candidatos y conviene consultar directamente la base de datos
+     */
+    public Optional<List<UUID>> search(int maxCandidates, String... terms) {
+        lock.readLock().lock();
+        try {
+            List<IntList> lists = new ArrayList<>();
+            for (int field = 0; field < terms.length; field++) {
+                String term = terms[field] == null ? null : normalize(terms[field]);
+                if (term == null || term.length() < GRAM) {
+                    continue;
+                }
+                for (int i = 0; i + GRAM <= term.length(); i++) {
+                    IntList list = postings.get(field).get(key(term, i));
+                    if (list == null) {
+                        return Optional.of(List.of());
+                    }
+                    lists.add(list);
+                }
+            }
+            if (lists.isEmpty()) {
+                return Optional.empty();
+            }
+            lists.sort(Comparator.comparingInt(IntList::size));
+            int[] result = Arrays.copyOf(lists.get(0).data, lists.get(0).size);
+            int length = result.length;
+            for (int i = 1; i < lists.size() && length > 0; i++) {
+                length = intersect(result, length, lists.get(i));
+            }
+            List<UUID> ids = new ArrayList<>();
+            for (int i = 0; i < length; i++) {
+                if (live.get(result[i])) {
+                    if (ids.size() == maxCandidates) {
+                        return Optional.empty();
+                    }
+                    ids.add(docs.get(result[i]));
+                }
+            }
+            return Optional.of(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Añade una nueva versión del documento. Debe llamarse con el bloqueo de escritura
+     *
+     * @param id     id del documento
+     * @param values valores de los campos
+     */
+    private void add(UUID id, String... values) {
+        Integer previous = docOf.get(id);
+        if (previous != null) {
+            live.clear(previous);
+        }
+        int doc = docs.size();
+        docs.add(id);
+        docOf.put(id, doc);
+        live.set(doc);
+        for (int field = 0; field < values.length && field < postings.size(); field++) {
+            if (values[field] == null) {
+                continue;
+            }
+            String value = normalize(values[field]);
+            Map<Long, IntList> fieldPostings = postings.get(field);
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                fieldPostings.computeIfAbsent(key(value, i), k -> new IntList()).addIfAbsent(doc);
+            }
+        }
+    }
+
+    /**
+     * Interseca en el sitio una lista ordenada con una lista de un trigrama
+     *
+     * @param result lista ordenada que se reduce
+     * @param length longitud válida de result
+     * @param other  lista del trigrama
+     * @return nueva longitud de result
+     */
+    private static int intersect(int[] result, int length, IntList other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < length && j < other.size; i++) {
+            int value = result[i];
+            while (j < other.size && other.data[j] < value) {
+                j++;
+            }
+            if (j < other.size && other.data[j] == value) {
+                result[kept++] = value;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Normaliza un texto para indexarlo o buscarlo
+     *
+     * @param value texto
+     * @return texto en minúsculas
+     */
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Codifica el trigrama que empieza en la posición indicada en un long
+     *
+     * @param value texto
+     * @param start posición
+     * @return clave del trigrama
+     */
+    private static long key(String value, int start) {
+        return ((long) value.charAt(start) << 32) | ((long) value.charAt(start + 1) << 16) | value.charAt(start + 2);
+    }
+
+    /**
+     * Lista de enteros ordenada y ampliable
+     */
+    private static final class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        /**
+         * Añade un documento si no es el último añadido
+         *
+         * @param value documento
+         */
+        void addIfAbsent(int value) {
+            if (size > 0 && data[size - 1] == value) {
+                return;
+            }
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size + (size >> 1));
+            }
+            data[size++] = value;
+        }
+
+        /**
+         * Devuelve el tamaño de la lista
+         *
+         * @return tamaño
+         */
+        int size() {
+            return size;
+        }
+    }
+}
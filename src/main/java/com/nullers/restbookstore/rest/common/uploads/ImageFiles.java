@@ -0,0 +1,35 @@
+package com.nullers.restbookstore.rest.common.uploads;
+
+/**
+ * Utilidades para relacionar las imágenes de las entidades con los ficheros del almacenamiento.
+ * Una imagen puede guardarse como nombre de fichero o como URL de /storage; las entidades guardan
+ * además el nombre del fichero en una columna indexada para que el recolector de ficheros huérfanos
+ * pueda buscarlo con una consulta IN sobre el índice
+ */
+public final class ImageFiles {
+
+    private static final String STORAGE_PATH = "/storage/";
+
+    /**
+     * Constructor
+     */
+    private ImageFiles() {
+    }
+
+    /**
+     * Devuelve el nombre del fichero almacenado al que apunta una imagen
+     *
+     * @param image imagen, como nombre de fichero o como URL
+     * @return nombre del fichero, o null si la imagen no apunta al almacenamiento
+     */
+    public static String filenameOf(String image) {
+        if (image == null || image.isBlank()) {
+            return null;
+        }
+        int index = image.indexOf(STORAGE_PATH);
+        if (index >= 0) {
+            return image.substring(index + STORAGE_PATH.length());
+        }
+        return image.contains("/") ? null : image;
+    }
+}
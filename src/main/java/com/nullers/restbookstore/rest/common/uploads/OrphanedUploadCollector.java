@@ -0,0 +1,14 @@
+package com.nullers.restbookstore.rest.common.uploads;
+
+/**
+ * Servicio que elimina los ficheros subidos a los que ya no apunta ningún libro, editorial o cliente
+ */
+public interface OrphanedUploadCollector {
+    /**
+     * Recorre los ficheros almacenados y elimina los que no están referenciados y son más antiguos que
+     * el periodo de gracia
+     *
+     * @return número de ficheros eliminados
+     */
+    long collect();
+}
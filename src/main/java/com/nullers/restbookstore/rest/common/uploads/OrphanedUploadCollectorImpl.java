@@ -0,0 +1,196 @@
+package com.nullers.restbookstore.rest.common.uploads;
+
+import com.nullers.restbookstore.rest.book.repository.BookRepository;
+import com.nullers.restbookstore.rest.client.repository.ClientRepository;
+import com.nullers.restbookstore.rest.publisher.repository.PublisherRepository;
+import com.nullers.restbookstore.storage.services.StorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de OrphanedUploadCollector
+ * Las imágenes antiguas se borran al actualizar una imagen, pero una transacción fallida o una caída
+ * entre la subida y el guardado dejan ficheros sin referencia. El recolector recorre el almacenamiento
+ * por lotes, comprueba cada lote con una consulta IN por tabla sobre la columna indexada con el nombre
+ * del fichero de la imagen y hace una pausa entre lotes para no competir con las peticiones. Los ficheros más recientes que el periodo de gracia no se tocan, porque
+ * pueden pertenecer a una subida cuya transacción todavía no ha terminado.
+ */
+@Service
+@Slf4j
+public class OrphanedUploadCollectorImpl implements OrphanedUploadCollector {
+
+    private final StorageService storageService;
+
+    private final BookRepository bookRepository;
+
+    private final PublisherRepository publisherRepository;
+
+    private final ClientRepository clientRepository;
+
+    private final boolean enabled;
+
+    private final long gracePeriodMs;
+
+    private final int batchSize;
+
+    private final long pauseMs;
+
+    private final long maxDeletesPerRun;
+
+    /**
+     * Constructor OrphanedUploadCollectorImpl
+     *
+     * @param storageService      servicio de almacenamiento
+     * @param bookRepository      repositorio de libros
+     * @param publisherRepository repositorio de editoriales
+     * @param clientRepository    repositorio de clientes
+     * @param enabled             indica si la recolección programada está activa
+     * @param gracePeriodMs       antigüedad mínima de un fichero para poder borrarlo
+     * @param batchSize           ficheros comprobados por consulta
+     * @param pauseMs             pausa entre lotes
+     * @param maxDeletesPerRun    ficheros eliminados como máximo en cada ejecución
+     */
+    @Autowired
+    public OrphanedUploadCollectorImpl(StorageService storageService, BookRepository bookRepository,
+                                       PublisherRepository publisherRepository, ClientRepository clientRepository,
+                                       @Value("${upload.gc.enabled:true}") boolean enabled,
+                                       @Value("${upload.gc.grace-period-ms:86400000}") long gracePeriodMs,
+                                       @Value("${upload.gc.batch-size:200}") int batchSize,
+                                       @Value("${upload.gc.pause-ms:200}") long pauseMs,
+                                       @Value("${upload.gc.max-deletes-per-run:1000}") long maxDeletesPerRun) {
+        this.storageService = storageService;
+        this.bookRepository = bookRepository;
+        this.publisherRepository = publisherRepository;
+        this.clientRepository = clientRepository;
+        this.enabled = enabled;
+        this.gracePeriodMs = gracePeriodMs;
+        this.batchSize = Math.max(batchSize, 1);
+        this.pauseMs = pauseMs;
+        this.maxDeletesPerRun = maxDeletesPerRun;
+    }
+
+    /**
+     * Rellena al arrancar el nombre del fichero de las imágenes guardadas antes de que existiera la
+     * columna, para que el recolector no las tome por huérfanas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissingImageFiles() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int filled = bookRepository.fillMissingImageFiles() + publisherRepository.fillMissingImageFiles()
+                    + clientRepository.fillMissingImageFiles();
+            if (filled > 0) {
+                log.info("Nombre del fichero de la imagen rellenado en {} filas", filled);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error al rellenar el nombre del fichero de las imágenes", e);
+        }
+    }
+
+    /**
+     * Tarea programada que elimina los ficheros huérfanos
+     */
+    @Scheduled(fixedDelayString = "${upload.gc.interval-ms:3600000}",
+            initialDelayString = "${upload.gc.interval-ms:3600000}")
+    public void scheduledCollect() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collect();
+        } catch (RuntimeException e) {
+            log.error("Error al eliminar los ficheros huérfanos", e);
+        }
+    }
+
+    /**
+     * Recorre los ficheros almacenados y elimina los que no están referenciados y son más antiguos que
+     * el periodo de gracia
+     *
+     * @return número de ficheros eliminados
+     */
+    @Override
+    public long collect() {
+        long start = System.currentTimeMillis();
+        Instant cutoff = Instant.ofEpochMilli(start - gracePeriodMs);
+        long scanned = 0;
+        long deleted = 0;
+        try (Stream<String> filenames = storageService.loadAllStoredBefore(cutoff)) {
+            Iterator<String> iterator = filenames.iterator();
+            List<String> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext() && deleted < maxDeletesPerRun) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize || !iterator.hasNext()) {
+                    scanned += batch.size();
+                    deleted += deleteUnreferenced(batch, maxDeletesPerRun - deleted);
+                    batch.clear();
+                    if (iterator.hasNext() && !pause()) {
+                        break;
+                    }
+                }
+            }
+        }
+        long purged = storageService.purgeUnreferenced(cutoff);
+        log.info("Ficheros huérfanos eliminados: {} de {} revisados, contenidos sin nombre eliminados: {}, en {} ms",
+                deleted, scanned, purged, System.currentTimeMillis() - start);
+        return deleted + purged;
+    }
+
+    /**
+     * Elimina los ficheros de un lote que no aparecen en las imágenes de libros, editoriales ni clientes
+     *
+     * @param batch nombres de los ficheros
+     * @param limit ficheros que se pueden eliminar como máximo
+     * @return número de ficheros eliminados
+     */
+    private long deleteUnreferenced(List<String> batch, long limit) {
+        Set<String> referenced = new HashSet<>(bookRepository.findImagesReferencing(batch));
+        referenced.addAll(publisherRepository.findImagesReferencing(batch));
+        referenced.addAll(clientRepository.findImagesReferencing(batch));
+        long deleted = 0;
+        for (String filename : batch) {
+            if (deleted >= limit) {
+                break;
+            }
+            if (!referenced.contains(filename)) {
+                log.debug("Eliminando fichero huérfano {}", filename);
+                storageService.delete(filename);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Espera entre dos lotes
+     *
+     * @return false si el hilo se ha interrumpido y la recolección debe parar
+     */
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package com.nullers.restbookstore.rest.orders.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nullers.restbookstore.config.async.AsyncTimeoutInterceptor;
 import com.nullers.restbookstore.pagination.models.PageResponse;
 import com.nullers.restbookstore.pagination.util.PaginationLinksUtils;
 import com.nullers.restbookstore.rest.common.PageableRequest;
 import com.nullers.restbookstore.rest.common.PageableUtil;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.fields.SparseFields;
+import com.nullers.restbookstore.rest.orders.dto.OrderBulkCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderBulkResult;
 import com.nullers.restbookstore.rest.orders.dto.OrderCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
+import com.nullers.restbookstore.rest.orders.dto.OrderTicket;
 import com.nullers.restbookstore.rest.orders.models.Order;
 import com.nullers.restbookstore.rest.orders.services.OrderServiceImpl;
+import com.nullers.restbookstore.rest.orders.services.OrderSubmissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,16 +26,26 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Clase OrderRestController
@@ -34,20 +55,36 @@ import java.util.UUID;
 @PreAuthorize("hasRole('ADMIN')")
 public class OrderRestController {
 
+    private static final int EXPORT_FLUSH_EVERY = 100;
+
     private final OrderServiceImpl orderService;
 
     private final PaginationLinksUtils paginationLinksUtils;
 
+    private final OrderSubmissionService orderSubmissionService;
+
+    private final ObjectMapper objectMapper;
+
+    private final long exportTimeout;
+
     /**
      * Constructor
      *
-     * @param orderService         servicio de pedido
-     * @param paginationLinksUtils utilidad de paginación
+     * @param orderService           servicio de pedido
+     * @param paginationLinksUtils   utilidad de paginación
+     * @param orderSubmissionService servicio de envío asíncrono de pedidos
+     * @param objectMapper           mapper para serializar las exportaciones
+     * @param exportTimeout          tiempo máximo de una exportación en milisegundos, sin límite si es menor o igual que cero
      */
     @Autowired
-    public OrderRestController(OrderServiceImpl orderService, PaginationLinksUtils paginationLinksUtils) {
+    public OrderRestController(OrderServiceImpl orderService, PaginationLinksUtils paginationLinksUtils,
+                               OrderSubmissionService orderSubmissionService, ObjectMapper objectMapper,
+                               @Value("${orders.export.timeout-ms:-1}") long exportTimeout) {
         this.orderService = orderService;
         this.paginationLinksUtils = paginationLinksUtils;
+        this.orderSubmissionService = orderSubmissionService;
+        this.objectMapper = objectMapper;
+        this.exportTimeout = exportTimeout;
     }
 
     /**
@@ -55,19 +92,21 @@ public class OrderRestController {
      *
      * @param pageableRequest paginación
      * @param request         petición
-     * @return ResponseEntity<PageResponse < Order>> con los pedidos
+     * @return ResponseEntity<PageResponse < OrderSummary>> con el resumen de los pedidos
      */
     @Operation(summary = "Obtiene todos los pedidos", description = "Obtiene una lista de pedidos")
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "Campos a devolver separados por comas", example = "total,createdAt")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Página de pedidos"),
             @ApiResponse(responseCode = "400", description = "Petición de pedidos no válida")
     })
     @GetMapping
-    public ResponseEntity<PageResponse<Order>> getAllOrders(
+    @SparseFields(OrderSummary.class)
+    public ResponseEntity<PageResponse<OrderSummary>> getAllOrders(
             @Valid PageableRequest pageableRequest,
             HttpServletRequest request
     ) {
-        Page<Order> orders = orderService.getAllOrders(
+        Page<OrderSummary> orders = orderService.getAllOrderSummaries(
                 PageRequest.of(pageableRequest.getPage(), pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)));
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
         return ResponseEntity.ok()
@@ -78,18 +117,23 @@ public class OrderRestController {
     /**
      * Método para obtener un pedido por ID
      *
-     * @param id id del pedido
+     * @param id        id del pedido
+     * @param selection campos seleccionados con los parámetros fields y expand
      * @return ResponseEntity<Order> con el pedido
      */
     @Operation(summary = "Obtiene un pedido dado un id", description = "Obtiene un pedido dado un id")
     @Parameter(name = "id", description = "id del pedido", example = "770e8400-e29b-41d4-a716-446655440000")
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "Campos a devolver separados por comas", example = "clientId,total,createdAt")
+    @Parameter(name = FieldSelection.EXPAND_PARAM, description = "Asociaciones a añadir a los campos", example = "orderLines")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Pedido"),
+            @ApiResponse(responseCode = "400", description = "Campos no válidos"),
             @ApiResponse(responseCode = "404", description = "Pedido no encontrado")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable ObjectId id) {
-        return ResponseEntity.ok(orderService.getOrderById(id));
+    @SparseFields(Order.class)
+    public ResponseEntity<Order> getOrderById(@PathVariable ObjectId id, @Parameter(hidden = true) FieldSelection selection) {
+        return ResponseEntity.ok(orderService.getOrderById(id, selection));
     }
 
     /**
@@ -109,6 +153,66 @@ public class OrderRestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(order));
     }
 
+    /**
+     * Método para crear un pedido de forma asíncrona
+     *
+     * @param order   pedido a crear
+     * @param request petición
+     * @return ResponseEntity<OrderTicket> con el ticket del pedido
+     */
+    @Operation(summary = "Crea un pedido de forma asíncrona", description = "Encola un pedido y devuelve un ticket para consultar su estado")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Pedido a crear", required = true)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Pedido encolado"),
+            @ApiResponse(responseCode = "400", description = "Pedido no válido"),
+            @ApiResponse(responseCode = "429", description = "Cola de pedidos llena")
+    })
+    @PostMapping(params = "async=true")
+    public ResponseEntity<OrderTicket> createOrderAsync(@Valid @RequestBody OrderCreateDto order, HttpServletRequest request) {
+        OrderTicket ticket = orderSubmissionService.submit(order);
+        return ResponseEntity.accepted()
+                .location(UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString())
+                        .replaceQuery(null)
+                        .path("/tickets/{id}")
+                        .buildAndExpand(ticket.getId())
+                        .toUri())
+                .body(ticket);
+    }
+
+    /**
+     * Método para obtener el estado de un pedido asíncrono
+     *
+     * @param id id del ticket
+     * @return ResponseEntity<OrderTicket> con el ticket
+     */
+    @Operation(summary = "Obtiene el estado de un pedido asíncrono", description = "Obtiene el estado de un pedido asíncrono")
+    @Parameter(name = "id", description = "id del ticket", example = "770e8400-e29b-41d4-a716-446655440000")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ticket"),
+            @ApiResponse(responseCode = "404", description = "Ticket no encontrado")
+    })
+    @GetMapping("/tickets/{id}")
+    public ResponseEntity<OrderTicket> getOrderTicket(@PathVariable UUID id) {
+        return ResponseEntity.ok(orderSubmissionService.getTicket(id));
+    }
+
+    /**
+     * Método para crear un lote de pedidos
+     *
+     * @param orders lote de pedidos a crear
+     * @return ResponseEntity<List < OrderBulkResult>> con el resultado de cada pedido
+     */
+    @Operation(summary = "Crea un lote de pedidos", description = "Crea un lote de pedidos y devuelve el resultado de cada uno")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Lote de pedidos a crear", required = true)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultado de cada pedido del lote"),
+            @ApiResponse(responseCode = "400", description = "Lote no válido")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<List<OrderBulkResult>> createOrders(@Valid @RequestBody OrderBulkCreateDto orders) {
+        return ResponseEntity.ok(orderService.createOrders(orders.getOrders()));
+    }
+
     /**
      * Método para actualizar un pedido
      *
@@ -170,7 +274,7 @@ public class OrderRestController {
      * @param id              id del cliente
      * @param pageableRequest paginación
      * @param request         petición
-     * @return ResponseEntity<PageResponse < Order>> con los pedidos
+     * @return ResponseEntity<PageResponse < OrderSummary>> con el resumen de los pedidos
      */
     @Operation(summary = "Obtiene un pedido dado el id de un cliente", description = "Obtiene un pedido dado el id de un cliente")
     @Parameter(name = "id", description = "id del cliente", example = "770e8400-e29b-41d4-a716-446655440000")
@@ -179,12 +283,13 @@ public class OrderRestController {
             @ApiResponse(responseCode = "404", description = "Cliente no encontrado")
     })
     @GetMapping("/client/{id}")
-    public ResponseEntity<PageResponse<Order>> getOrdersByClientId(
+    @SparseFields(OrderSummary.class)
+    public ResponseEntity<PageResponse<OrderSummary>> getOrdersByClientId(
             @PathVariable UUID id,
             @Valid PageableRequest pageableRequest,
             HttpServletRequest request
     ) {
-        Page<Order> orders = orderService.getOrdersByClientId(id,
+        Page<OrderSummary> orders = orderService.getOrderSummariesByClientId(id,
                 PageRequest.of(pageableRequest.getPage(), pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)));
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
 
@@ -199,7 +304,7 @@ public class OrderRestController {
      * @param id              id del usuario
      * @param pageableRequest paginación
      * @param request         petición
-     * @return ResponseEntity<PageResponse < Order>> con los pedidos
+     * @return ResponseEntity<PageResponse < OrderSummary>> con el resumen de los pedidos
      */
     @Operation(summary = "Obtiene un pedido dado el id de un usuario", description = "Obtiene un pedido dado el id de un usuario")
     @Parameter(name = "id", description = "id del usuario", example = "770e8400-e29b-41d4-a716-446655440000")
@@ -208,7 +313,8 @@ public class OrderRestController {
             @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
     })
     @GetMapping("/user/{id}")
-    public ResponseEntity<PageResponse<Order>> getOrdersByUserId(
+    @SparseFields(OrderSummary.class)
+    public ResponseEntity<PageResponse<OrderSummary>> getOrdersByUserId(
             @PathVariable UUID id,
             @Valid PageableRequest pageableRequest,
             HttpServletRequest request
@@ -218,7 +324,7 @@ public class OrderRestController {
         Integer page = pageableRequest.getPage();
         Integer size = pageableRequest.getSize();
         Sort sort = order.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(orderBy).ascending() : Sort.by(orderBy).descending();
-        Page<Order> orders = orderService.getOrdersByUserId(id, PageRequest.of(page, size, sort));
+        Page<OrderSummary> orders = orderService.getOrderSummariesByUserId(id, PageRequest.of(page, size, sort));
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
 
         return ResponseEntity.ok()
@@ -232,7 +338,7 @@ public class OrderRestController {
      * @param id              id de la tienda
      * @param pageableRequest paginación
      * @param request         petición
-     * @return ResponseEntity<PageResponse < Order>> con los pedidos
+     * @return ResponseEntity<PageResponse < OrderSummary>> con el resumen de los pedidos
      */
     @Operation(summary = "Obtiene un pedido dado el id de una tienda", description = "Obtiene un pedido dado el id de una tienda")
     @Parameter(name = "id", description = "id de la tienda", example = "770e8400-e29b-41d4-a716-446655440000")
@@ -241,12 +347,13 @@ public class OrderRestController {
             @ApiResponse(responseCode = "404", description = "Tienda no encontrada")
     })
     @GetMapping("/shop/{id}")
-    public ResponseEntity<PageResponse<Order>> getOrdersByShopId(
+    @SparseFields(OrderSummary.class)
+    public ResponseEntity<PageResponse<OrderSummary>> getOrdersByShopId(
             @PathVariable UUID id,
             @Valid PageableRequest pageableRequest,
             HttpServletRequest request
     ) {
-        Page<Order> orders = orderService.getOrdersByShopId(id,
+        Page<OrderSummary> orders = orderService.getOrderSummariesByShopId(id,
                 PageRequest.of(pageableRequest.getPage(), pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)));
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
 
@@ -254,4 +361,65 @@ public class OrderRestController {
                 .header("link", paginationLinksUtils.createLinkHeader(orders, uriBuilder))
                 .body(PageResponse.of(orders, pageableRequest.getOrderBy(), pageableRequest.getOrder()));
     }
+
+    /**
+     * Método para exportar todos los pedidos de una tienda como NDJSON (un pedido por línea) o como
+     * Server-Sent Events. Los pedidos se leen con un cursor y se escriben según se reciben, por lo que
+     * la memoria usada no depende del número de pedidos de la tienda. La exportación tiene su propio
+     * tiempo máximo (orders.export.timeout-ms) para que el tiempo general de las peticiones asíncronas
+     * no la corte a la mitad.
+     *
+     * @param id      id de la tienda
+     * @param accept  cabecera Accept de la petición
+     * @param request petición
+     * @return ResponseEntity<StreamingResponseBody> con los pedidos
+     */
+    @Operation(summary = "Exporta los pedidos de una tienda", description = "Exporta en streaming todos los pedidos de una tienda como NDJSON o Server-Sent Events")
+    @Parameter(name = "id", description = "id de la tienda", example = "770e8400-e29b-41d4-a716-446655440000")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pedidos de la tienda")
+    })
+    @GetMapping(value = "/shop/{id}/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportOrdersByShopId(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletRequest request
+    ) {
+        request.setAttribute(AsyncTimeoutInterceptor.TIMEOUT_ATTRIBUTE, exportTimeout);
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        StreamingResponseBody body = sse
+                ? out -> writeOrders(id, out, "data: ", "\n\n")
+                : out -> writeOrders(id, out, "", "\n");
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Método que escribe los pedidos de una tienda en la salida, uno por registro
+     *
+     * @param shopId id de la tienda
+     * @param out    salida
+     * @param prefix texto antes de cada pedido
+     * @param suffix texto después de cada pedido
+     * @throws IOException si falla la escritura
+     */
+    private void writeOrders(UUID shopId, OutputStream out, String prefix, String suffix) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+        try (Stream<Order> orders = orderService.streamOrdersByShopId(shopId)) {
+            Iterator<Order> iterator = orders.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                out.write(prefixBytes);
+                writer.writeValue(out, iterator.next());
+                out.write(suffixBytes);
+                if (++written % EXPORT_FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
+    }
 }
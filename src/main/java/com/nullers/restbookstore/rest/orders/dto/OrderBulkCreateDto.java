@@ -0,0 +1,30 @@
+package com.nullers.restbookstore.rest.orders.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Clase OrderBulkCreateDto
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderBulkCreateDto {
+
+    public static final int MAX_ORDERS = 5000;
+
+    @NotEmpty(message = "El lote debe tener al menos un pedido")
+    @Size(max = MAX_ORDERS, message = "El lote no puede tener más de " + MAX_ORDERS + " pedidos")
+    @Schema(name = "Pedidos")
+    private List<@Valid OrderCreateDto> orders;
+
+}
@@ -0,0 +1,53 @@
+package com.nullers.restbookstore.rest.orders.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clase OrderBulkResult
+ * Resultado de un pedido dentro de una carga masiva
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderBulkResult {
+
+    @Schema(name = "Posición del pedido en el lote", example = "0")
+    private Integer index;
+
+    @Schema(name = "IDPedido", example = "6536518de9b0d305f193b5ef")
+    private String id;
+
+    @Schema(name = "Código de estado", example = "201")
+    private Integer status;
+
+    @Schema(name = "Error", example = "El producto con id 1 no tiene stock")
+    private String error;
+
+    /**
+     * Método que crea un resultado correcto
+     *
+     * @param index posición del pedido en el lote
+     * @param id    id del pedido creado
+     * @return resultado
+     */
+    public static OrderBulkResult created(int index, String id) {
+        return OrderBulkResult.builder().index(index).id(id).status(201).build();
+    }
+
+    /**
+     * Método que crea un resultado fallido
+     *
+     * @param index  posición del pedido en el lote
+     * @param status código de estado
+     * @param error  mensaje de error
+     * @return resultado
+     */
+    public static OrderBulkResult failed(int index, int status, String error) {
+        return OrderBulkResult.builder().index(index).status(status).error(error).build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.nullers.restbookstore.rest.orders.dto;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Proyección de un pedido que solo carga su ID
+ */
+public interface OrderIdProjection {
+
+    /**
+     * Método que devuelve el ID del pedido
+     *
+     * @return id del pedido
+     */
+    ObjectId getId();
+}
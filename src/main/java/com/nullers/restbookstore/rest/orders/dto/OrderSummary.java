@@ -0,0 +1,49 @@
+package com.nullers.restbookstore.rest.orders.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.nullers.restbookstore.rest.common.fields.SparseFieldset;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Clase OrderSummary
+ * Proyección ligera de un pedido (sin líneas de pedido) usada en los listados
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@SparseFieldset
+public class OrderSummary {
+
+    private ObjectId id;
+
+    @Schema(name = "Total", example = "100.0")
+    private Double total;
+
+    @Schema(name = "Libros totales", example = "10")
+    private Integer totalBooks;
+
+    @Schema(name = "Fecha de creación", example = "2021-03-05T11:11:11")
+    private LocalDateTime createdAt;
+
+    @Schema(name = "IDTienda", example = "770e8400-e29b-41d4-a716-446655440000")
+    private UUID shopId;
+
+    /**
+     * Método que devuelve el ID del pedido
+     *
+     * @return id del pedido
+     */
+    @JsonProperty("id")
+    public String getIdStr() {
+        return id.toHexString();
+    }
+}
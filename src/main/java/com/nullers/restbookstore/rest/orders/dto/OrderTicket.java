@@ -0,0 +1,43 @@
+package com.nullers.restbookstore.rest.orders.dto;
+
+import com.nullers.restbookstore.rest.orders.models.OrderTicketStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Clase OrderTicket
+ * Estado de un pedido enviado de forma asíncrona
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderTicket {
+
+    @Schema(name = "IDTicket", example = "770e8400-e29b-41d4-a716-446655440000")
+    private UUID id;
+
+    @Schema(name = "Estado", example = "PENDING")
+    private OrderTicketStatus status;
+
+    @Schema(name = "IDPedido", example = "6536518de9b0d305f193b5ef")
+    private String orderId;
+
+    @Schema(name = "Código de estado del error", example = "404")
+    private Integer errorStatus;
+
+    @Schema(name = "Error", example = "El producto con id 1 no tiene stock")
+    private String error;
+
+    @Schema(name = "Fecha de creación", example = "2021-03-05T11:11:11")
+    private LocalDateTime createdAt;
+
+    @Schema(name = "Fecha de actualización", example = "2021-03-05T11:11:11")
+    private LocalDateTime updatedAt;
+}
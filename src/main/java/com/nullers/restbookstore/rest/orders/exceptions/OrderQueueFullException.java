@@ -0,0 +1,20 @@
+package com.nullers.restbookstore.rest.orders.exceptions;
+
+import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionTooManyRequests;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase OrderQueueFullException
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class OrderQueueFullException extends ResponseExceptionTooManyRequests {
+    /**
+     * Constructor OrderQueueFullException
+     *
+     * @param retryAfterSeconds segundos que el cliente debe esperar antes de reintentar
+     */
+    public OrderQueueFullException(long retryAfterSeconds) {
+        super("La cola de pedidos está llena, inténtalo más tarde", retryAfterSeconds);
+    }
+}
@@ -0,0 +1,22 @@
+package com.nullers.restbookstore.rest.orders.exceptions;
+
+import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionNotFound;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+/**
+ * Clase OrderTicketNotFoundException
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class OrderTicketNotFoundException extends ResponseExceptionNotFound {
+    /**
+     * Constructor OrderTicketNotFoundException
+     *
+     * @param id id del ticket
+     */
+    public OrderTicketNotFoundException(UUID id) {
+        super("El ticket con id " + id + " no existe");
+    }
+}
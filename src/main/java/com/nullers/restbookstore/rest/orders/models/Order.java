@@ -1,6 +1,8 @@
 package com.nullers.restbookstore.rest.orders.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.nullers.restbookstore.rest.common.fields.SparseFieldset;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -28,6 +30,7 @@ import java.util.UUID;
 @Builder
 @Document("orders")
 @TypeAlias("Order")
+@SparseFieldset
 public class Order {
 
     @Id
@@ -72,6 +75,9 @@ public class Order {
     @Schema(name = "Usuario borrado", example = "true")
     private Boolean isDeleted = false;
 
+    @JsonIgnore
+    private Boolean shopStockReserved;
+
     /**
      * Método que devuelve el ID del pedido
      *
@@ -0,0 +1,8 @@
+package com.nullers.restbookstore.rest.orders.models;
+
+/**
+ * Enum OrderTicketStatus
+ */
+public enum OrderTicketStatus {
+    PENDING, PROCESSING, COMPLETED, FAILED
+}
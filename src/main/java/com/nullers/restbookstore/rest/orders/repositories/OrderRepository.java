@@ -1,20 +1,24 @@
 package com.nullers.restbookstore.rest.orders.repositories;
 
+import com.nullers.restbookstore.rest.orders.dto.OrderIdProjection;
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
 import com.nullers.restbookstore.rest.orders.models.Order;
 import org.bson.types.ObjectId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Interfaz de OrderRepository
  */
 @Repository
-public interface OrderRepository extends MongoRepository<Order, ObjectId> {
+public interface OrderRepository extends MongoRepository<Order, ObjectId>, OrderRepositoryCustom {
     /**
      * Método que devuelve los pedidos por el ID del cliente
      *
@@ -25,12 +29,12 @@ public interface OrderRepository extends MongoRepository<Order, ObjectId> {
     Page<Order> findByClientId(UUID clientId, Pageable pageable);
 
     /**
-     * Método que devuelve los pedidos por el ID del cliente
+     * Método que devuelve los IDs de los pedidos por el ID del cliente (solo se carga el campo _id)
      *
      * @param clientId id del cliente
-     * @return pedidos por el ID del cliente
+     * @return IDs de los pedidos por el ID del cliente
      */
-    List<Order> findOrderIdsByClientId(UUID clientId);
+    List<OrderIdProjection> findOrderIdsByClientId(UUID clientId);
 
     /**
      * Método que devuelve los pedidos por el ID del usuario
@@ -50,6 +54,16 @@ public interface OrderRepository extends MongoRepository<Order, ObjectId> {
      */
     Page<Order> findByShopId(UUID shopId, Pageable pageable);
 
+    /**
+     * Método que recorre con un cursor los pedidos de una tienda sin cargarlos todos en memoria.
+     * El stream debe cerrarse para liberar el cursor.
+     *
+     * @param shopId id de la tienda
+     * @return stream de pedidos de la tienda
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Order> streamAllByShopIdOrderByIdAsc(UUID shopId);
+
     /**
      * Método que comprueba si existe un pedido por el ID del usuario
      *
@@ -57,4 +71,55 @@ public interface OrderRepository extends MongoRepository<Order, ObjectId> {
      * @return true si existe, false si no existe
      */
     boolean existsByUserId(UUID userId);
+
+    /**
+     * Método que comprueba si existe un pedido por el ID del cliente
+     *
+     * @param clientId id del cliente
+     * @return true si existe, false si no existe
+     */
+    boolean existsByClientId(UUID clientId);
+
+    /**
+     * Método que comprueba si existe un pedido por el ID de la tienda
+     *
+     * @param shopId id de la tienda
+     * @return true si existe, false si no existe
+     */
+    boolean existsByShopId(UUID shopId);
+
+    /**
+     * Método que devuelve el resumen de todos los pedidos (sin líneas de pedido)
+     *
+     * @param pageable paginación
+     * @return resumen de los pedidos
+     */
+    Page<OrderSummary> findSummariesBy(Pageable pageable);
+
+    /**
+     * Método que devuelve el resumen de los pedidos por el ID del cliente (sin líneas de pedido)
+     *
+     * @param clientId id del cliente
+     * @param pageable paginación
+     * @return resumen de los pedidos por el ID del cliente
+     */
+    Page<OrderSummary> findSummariesByClientId(UUID clientId, Pageable pageable);
+
+    /**
+     * Método que devuelve el resumen de los pedidos por el ID del usuario (sin líneas de pedido)
+     *
+     * @param userId   id del usuario
+     * @param pageable paginación
+     * @return resumen de los pedidos por el ID del usuario
+     */
+    Page<OrderSummary> findSummariesByUserId(UUID userId, Pageable pageable);
+
+    /**
+     * Método que devuelve el resumen de los pedidos por el ID de la tienda (sin líneas de pedido)
+     *
+     * @param shopId   id de la tienda
+     * @param pageable paginación
+     * @return resumen de los pedidos por el ID de la tienda
+     */
+    Page<OrderSummary> findSummariesByShopId(UUID shopId, Pageable pageable);
 }
@@ -0,0 +1,33 @@
+package com.nullers.restbookstore.rest.orders.repositories;
+
+import com.nullers.restbookstore.rest.orders.models.Order;
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Interfaz de OrderRepositoryCustom
+ * Operaciones sobre pedidos que no se pueden expresar con consultas derivadas
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Método que inserta un lote de pedidos con una única escritura masiva no ordenada
+     *
+     * @param orders pedidos a insertar
+     * @return errores de escritura indexados por la posición del pedido en el lote
+     */
+    Map<Integer, String> insertAllUnordered(List<Order> orders);
+
+    /**
+     * Método que busca un pedido por su ID leyendo solo los campos indicados del documento
+     *
+     * @param id     id del pedido
+     * @param fields campos a leer (el id se lee siempre)
+     * @return pedido con los campos indicados
+     */
+    Optional<Order> findByIdIncluding(ObjectId id, Collection<String> fields);
+}
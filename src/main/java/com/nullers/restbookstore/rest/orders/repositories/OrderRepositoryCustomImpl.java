@@ -0,0 +1,73 @@
+package com.nullers.restbookstore.rest.orders.repositories;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.nullers.restbookstore.rest.orders.models.Order;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Clase OrderRepositoryCustomImpl
+ */
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor para crear un nuevo OrderRepositoryCustomImpl
+     *
+     * @param mongoTemplate mongo template
+     */
+    @Autowired
+    public OrderRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Método que inserta un lote de pedidos con una única escritura masiva no ordenada
+     *
+     * @param orders pedidos a insertar
+     * @return errores de escritura indexados por la posición del pedido en el lote
+     */
+    @Override
+    public Map<Integer, String> insertAllUnordered(List<Order> orders) {
+        Map<Integer, String> errors = new HashMap<>();
+        if (orders.isEmpty()) {
+            return errors;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)
+                    .insert(orders)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                errors.put(error.getIndex(), error.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Método que busca un pedido por su ID leyendo solo los campos indicados del documento
+     *
+     * @param id     id del pedido
+     * @param fields campos a leer (el id se lee siempre)
+     * @return pedido con los campos indicados
+     */
+    @Override
+    public Optional<Order> findByIdIncluding(ObjectId id, Collection<String> fields) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        fields.forEach(field -> query.fields().include(field));
+        return Optional.ofNullable(mongoTemplate.findOne(query, Order.class));
+    }
+}
@@ -0,0 +1,104 @@
+package com.nullers.restbookstore.rest.orders.services;
+
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
+import com.nullers.restbookstore.rest.orders.models.Order;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Interfaz de OrderArchiveService
+ * Gestiona el archivado de pedidos antiguos o borrados en colecciones mensuales
+ */
+public interface OrderArchiveService {
+
+    /**
+     * Método que mueve los pedidos antiguos y los borrados lógicamente a las colecciones de archivo
+     *
+     * @return número de pedidos archivados
+     */
+    long archiveOrders();
+
+    /**
+     * Método que busca un pedido en las colecciones de archivo
+     *
+     * @param id id del pedido
+     * @return pedido archivado si existe
+     */
+    Optional<Order> findArchivedById(ObjectId id);
+
+    /**
+     * Método que guarda un pedido archivado en su colección de archivo
+     *
+     * @param order pedido archivado
+     * @return pedido guardado
+     */
+    Order saveArchived(Order order);
+
+    /**
+     * Método que elimina un pedido de su colección de archivo
+     *
+     * @param id id del pedido
+     */
+    void deleteArchived(ObjectId id);
+
+    /**
+     * Método que indica si existen colecciones de archivo
+     *
+     * @return true si hay pedidos archivados, false si no
+     */
+    boolean hasArchives();
+
+    /**
+     * Método que devuelve los nombres de las colecciones de archivo
+     *
+     * @return nombres de las colecciones de archivo ordenados
+     */
+    List<String> getArchiveCollections();
+
+    /**
+     * Método que indica si algún pedido archivado cumple un criterio
+     *
+     * @param field campo por el que filtrar (userId, clientId, shopId)
+     * @param value valor del campo
+     * @return true si existe algún pedido archivado
+     */
+    boolean existsInArchives(String field, UUID value);
+
+    /**
+     * Método que devuelve el resumen de los pedidos que cumplen un criterio leyendo de la colección
+     * principal y de las colecciones de archivo. Los pedidos de la colección principal van antes que
+     * los archivados, y estos de la colección más reciente a la más antigua
+     *
+     * @param field    campo por el que filtrar (userId, clientId, shopId)
+     * @param value    valor del campo
+     * @param pageable paginación
+     * @return resumen de los pedidos
+     */
+    Page<OrderSummary> findSummariesAcrossTiers(String field, UUID value, Pageable pageable);
+
+    /**
+     * Método que devuelve el resumen de todos los pedidos leyendo de la colección principal y de las
+     * colecciones de archivo. Los pedidos de la colección principal van antes que los archivados, y
+     * estos de la colección más reciente a la más antigua
+     *
+     * @param pageable paginación
+     * @return resumen de los pedidos
+     */
+    Page<OrderSummary> findAllSummariesAcrossTiers(Pageable pageable);
+
+    /**
+     * Método que recorre con un cursor, ordenados por id, los pedidos que cumplen un criterio de la
+     * colección principal y de las colecciones de archivo. El stream debe cerrarse
+     *
+     * @param field campo por el que filtrar (userId, clientId, shopId)
+     * @param value valor del campo
+     * @return stream de pedidos
+     */
+    Stream<Order> streamAcrossTiers(String field, UUID value);
+}
@@ -0,0 +1,478 @@
+package com.nullers.restbookstore.rest.orders.services;
+
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
+import com.nullers.restbookstore.rest.orders.models.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Clase OrderArchiveServiceImpl
+ * Los pedidos se archivan en colecciones mensuales (orders_archive_yyyy_MM) según la fecha
+ * codificada en su ObjectId, de modo que un pedido archivado se localiza sin consultar
+ * todas las colecciones de archivo. Un pedido archivado sigue contando como referencia de su
+ * cliente, usuario y tienda, por eso archivar no toca los contadores de referencias.
+ */
+@Service
+@Slf4j
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+
+    public static final String HOT_COLLECTION = "orders";
+    public static final String ARCHIVE_PREFIX = "orders_archive_";
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM").withZone(ZoneOffset.UTC);
+    private static final long ARCHIVE_NAMES_TTL_MS = 60_000L;
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final boolean enabled;
+
+    private final long maxAgeDays;
+
+    private final int batchSize;
+
+    private volatile List<String> archiveCollections;
+
+    private volatile long archiveCollectionsLoadedAt;
+
+    /**
+     * Constructor para crear un nuevo OrderArchiveServiceImpl
+     *
+     * @param mongoTemplate mongo template
+     * @param enabled       indica si el archivado programado está activo
+     * @param maxAgeDays    antigüedad en días a partir de la cual se archiva un pedido
+     * @param batchSize     número de pedidos movidos por lote
+     */
+    @Autowired
+    public OrderArchiveServiceImpl(MongoTemplate mongoTemplate,
+                                   @Value("${orders.archive.enabled:true}") boolean enabled,
+                                   @Value("${orders.archive.max-age-days:365}") long maxAgeDays,
+                                   @Value("${orders.archive.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxAgeDays = maxAgeDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Tarea programada que archiva los pedidos
+     */
+    @Scheduled(cron = "${orders.archive.cron:0 0 3 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        long archived = archiveOrders();
+        log.info("Pedidos archivados: " + archived);
+    }
+
+    /**
+     * Método que mueve los pedidos antiguos y los borrados lógicamente a las colecciones de archivo.
+     * Un pedido solo se borra de la colección principal si no ha cambiado desde que se copió (mismo
+     * updatedAt); si se actualizó entretanto, se descarta la copia y se archiva en otra pasada
+     *
+     * @return número de pedidos archivados
+     */
+    @Override
+    public long archiveOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("createdAt").lt(cutoff),
+                Criteria.where("isDeleted").is(true)
+        )).limit(batchSize);
+
+        long total = 0;
+        List<Order> batch = mongoTemplate.find(query, Order.class, HOT_COLLECTION);
+        while (!batch.isEmpty()) {
+            Map<String, List<Order>> byPartition = batch.stream()
+                    .collect(Collectors.groupingBy(order -> collectionFor(order.getId())));
+            byPartition.forEach(this::copyToArchive);
+
+            long removed = removeUnchanged(batch);
+            if (removed < batch.size()) {
+                discardChangedCopies(batch.stream().map(Order::getId).toList());
+            }
+            total += removed;
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+            batch = mongoTemplate.find(query, Order.class, HOT_COLLECTION);
+        }
+        if (total > 0) {
+            archiveCollections = null;
+        }
+        return total;
+    }
+
+    /**
+     * Método que borra de la colección principal los pedidos copiados que no han cambiado desde la copia
+     *
+     * @param batch pedidos copiados
+     * @return número de pedidos borrados
+     */
+    private long removeUnchanged(List<Order> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class, HOT_COLLECTION);
+        batch.forEach(order -> bulk.remove(new Query(Criteria.where("_id").is(order.getId())
+                .and("updatedAt").is(order.getUpdatedAt()))));
+        return bulk.execute().getDeletedCount();
+    }
+
+    /**
+     * Método que elimina del archivo la copia de los pedidos que siguen en la colección principal porque
+     * se actualizaron mientras se archivaban, para que no queden dos versiones del mismo pedido
+     *
+     * @param ids ids de los pedidos copiados
+     */
+    private void discardChangedCopies(List<ObjectId> ids) {
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        Map<String, List<ObjectId>> changed = mongoTemplate.find(query, Order.class, HOT_COLLECTION).stream()
+                .map(Order::getId)
+                .collect(Collectors.groupingBy(OrderArchiveServiceImpl::collectionFor));
+        changed.forEach((collection, stale) ->
+                mongoTemplate.remove(new Query(Criteria.where("_id").in(stale)), Order.class, collection));
+        log.info("Pedidos actualizados durante el archivado, se archivarán en otra pasada: " + changed.values().stream().mapToInt(List::size).sum());
+    }
+
+    /**
+     * Método que busca un pedido en las colecciones de archivo
+     *
+     * @param id id del pedido
+     * @return pedido archivado si existe
+     */
+    @Override
+    public Optional<Order> findArchivedById(ObjectId id) {
+        String collection = collectionFor(id);
+        if (!getArchiveCollections().contains(collection)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(mongoTemplate.findById(id, Order.class, collection));
+    }
+
+    /**
+     * Método que indica si algún pedido archivado cumple un criterio
+     *
+     * @param field campo por el que filtrar (userId, clientId, shopId)
+     * @param value valor del campo
+     * @return true si existe algún pedido archivado
+     */
+    @Override
+    public boolean existsInArchives(String field, UUID value) {
+        Query query = new Query(Criteria.where(field).is(value));
+        return getArchiveCollections().stream().anyMatch(collection -> mongoTemplate.exists(query, collection));
+    }
+
+    /**
+     * Método que guarda un pedido archivado en su colección de archivo
+     *
+     * @param order pedido archivado
+     * @return pedido guardado
+     */
+    @Override
+    public Order saveArchived(Order order) {
+        return mongoTemplate.save(order, collectionFor(order.getId()));
+    }
+
+    /**
+     * Método que elimina un pedido de su colección de archivo
+     *
+     * @param id id del pedido
+     */
+    @Override
+    public void deleteArchived(ObjectId id) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(id)), Order.class, collectionFor(id));
+    }
+
+    /**
+     * Método que indica si existen colecciones de archivo
+     *
+     * @return true si hay pedidos archivados, false si no
+     */
+    @Override
+    public boolean hasArchives() {
+        return !getArchiveCollections().isEmpty();
+    }
+
+    /**
+     * Método que devuelve el resumen de los pedidos que cumplen un criterio leyendo de la colección
+     * principal y de las colecciones de archivo. Los pedidos de la colección principal van antes que
+     * los archivados, y estos de la colección más reciente a la más antigua
+     *
+     * @param field    campo por el que filtrar (userId, clientId, shopId)
+     * @param value    valor del campo
+     * @param pageable paginación
+     * @return resumen de los pedidos
+     */
+    @Override
+    public Page<OrderSummary> findSummariesAcrossTiers(String field, UUID value, Pageable pageable) {
+        return summariesAcrossTiers(Criteria.where(field).is(value), pageable);
+    }
+
+    /**
+     * Método que devuelve el resumen de todos los pedidos leyendo de la colección principal y de las
+     * colecciones de archivo. Los pedidos de la colección principal van antes que los archivados, y
+     * estos de la colección más reciente a la más antigua
+     *
+     * @param pageable paginación
+     * @return resumen de los pedidos
+     */
+    @Override
+    public Page<OrderSummary> findAllSummariesAcrossTiers(Pageable pageable) {
+        return summariesAcrossTiers(new Criteria(), pageable);
+    }
+
+    /**
+     * Método que pagina el resumen de los pedidos recorriendo las colecciones por niveles: primero la
+     * colección principal y después las de archivo, de la más reciente a la más antigua. La ordenación
+     * pedida se aplica dentro de cada colección. Cada colección se cuenta por separado con el filtro y
+     * solo se leen las colecciones en las que cae la página, así las primeras páginas no tocan el archivo
+     *
+     * @param criteria filtro aplicado a cada colección
+     * @param pageable paginación
+     * @return resumen de los pedidos
+     */
+    private Page<OrderSummary> summariesAcrossTiers(Criteria criteria, Pageable pageable) {
+        List<String> tiers = new ArrayList<>(getArchiveCollections());
+        tiers.add(HOT_COLLECTION);
+        Collections.reverse(tiers);
+
+        Query filter = new Query(criteria);
+        long[] counts = new long[tiers.size()];
+        long total = 0;
+        for (int i = 0; i < tiers.size(); i++) {
+            counts[i] = mongoTemplate.count(filter, tiers.get(i));
+            total += counts[i];
+        }
+
+        List<OrderSummary> content = new ArrayList<>();
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        for (int i = 0; i < tiers.size(); i++) {
+            if (pageable.isPaged() && content.size() >= pageable.getPageSize()) {
+                break;
+            }
+            if (offset >= counts[i]) {
+                offset -= counts[i];
+                continue;
+            }
+            Query page = new Query(criteria).with(toDocumentSort(pageable.getSort())).skip(offset);
+            if (pageable.isPaged()) {
+                page.limit(pageable.getPageSize() - content.size());
+            }
+            page.fields().include("total", "totalBooks", "createdAt", "shopId");
+            content.addAll(mongoTemplate.find(page, OrderSummary.class, tiers.get(i)));
+            offset = 0;
+        }
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Método que recorre con un cursor, ordenados por id, los pedidos que cumplen un criterio de la
+     * colección principal y de las colecciones de archivo. Cada colección se lee con su propio cursor
+     * ordenado por _id y los cursores se mezclan según se avanza, sin ordenar nada en el servidor.
+     * Las colecciones de archivo no se solapan entre sí (una por mes del ObjectId), así que se leen una
+     * tras otra y solo hay abiertos a la vez el cursor de la colección principal y el de un archivo
+     *
+     * @param field campo por el que filtrar (userId, clientId, shopId)
+     * @param value valor del campo
+     * @return stream de pedidos
+     */
+    @Override
+    public Stream<Order> streamAcrossTiers(String field, UUID value) {
+        Query query = new Query(Criteria.where(field).is(value))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        Stream<Order> hot = mongoTemplate.stream(query, Order.class, HOT_COLLECTION);
+        TierMergeIterator merged = new TierMergeIterator(hot.iterator(), getArchiveCollections().iterator(),
+                collection -> mongoTemplate.stream(query, Order.class, collection));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(hot::close)
+                .onClose(merged::close);
+    }
+
+    /**
+     * Método que devuelve la colección de archivo que corresponde a un pedido
+     *
+     * @param id id del pedido
+     * @return nombre de la colección de archivo
+     */
+    public static String collectionFor(ObjectId id) {
+        return ARCHIVE_PREFIX + PARTITION_FORMAT.format(Instant.ofEpochSecond(id.getTimestamp()));
+    }
+
+    /**
+     * Método que copia un lote de pedidos a su colección de archivo
+     *
+     * @param collection colección de archivo
+     * @param orders     pedidos a copiar
+     */
+    private void copyToArchive(String collection, List<Order> orders) {
+        if (!mongoTemplate.collectionExists(collection)) {
+            mongoTemplate.createCollection(collection);
+            mongoTemplate.indexOps(collection).ensureIndex(new Index().on("clientId", Sort.Direction.ASC));
+            mongoTemplate.indexOps(collection).ensureIndex(new Index().on("userId", Sort.Direction.ASC));
+            mongoTemplate.indexOps(collection).ensureIndex(new Index().on("shopId", Sort.Direction.ASC));
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class, collection);
+        orders.forEach(order -> bulk.replaceOne(new Query(Criteria.where("_id").is(order.getId())), order,
+                FindAndReplaceOptions.options().upsert()));
+        bulk.execute();
+    }
+
+    /**
+     * Método que devuelve los nombres de las colecciones de archivo, cargados de forma perezosa
+     *
+     * @return nombres de las colecciones de archivo
+     */
+    @Override
+    public List<String> getArchiveCollections() {
+        List<String> cached = archiveCollections;
+        if (cached == null || System.currentTimeMillis() - archiveCollectionsLoadedAt > ARCHIVE_NAMES_TTL_MS) {
+            cached = mongoTemplate.getCollectionNames().stream()
+                    .filter(name -> name.startsWith(ARCHIVE_PREFIX))
+                    .sorted()
+                    .toList();
+            archiveCollections = cached;
+            archiveCollectionsLoadedAt = System.currentTimeMillis();
+        }
+        return cached;
+    }
+
+    /**
+     * Iterador que mezcla por id el cursor de la colección principal con los cursores de las colecciones
+     * de archivo, abiertos uno tras otro. Si un pedido aparece en ambas (se está archivando) se devuelve
+     * una sola vez, con la versión de la colección principal
+     */
+    private static final class TierMergeIterator implements Iterator<Order>, AutoCloseable {
+
+        private final Iterator<Order> hot;
+
+        private final Iterator<String> archiveCollections;
+
+        private final Function<String, Stream<Order>> openArchive;
+
+        private Stream<Order> archiveStream;
+
+        private Iterator<Order> archive = Collections.emptyIterator();
+
+        private Order nextHot;
+
+        private Order nextArchived;
+
+        /**
+         * Constructor
+         *
+         * @param hot                cursor de la colección principal
+         * @param archiveCollections colecciones de archivo en orden cronológico
+         * @param openArchive        función que abre el cursor de una colección de archivo
+         */
+        private TierMergeIterator(Iterator<Order> hot, Iterator<String> archiveCollections,
+                                  Function<String, Stream<Order>> openArchive) {
+            this.hot = hot;
+            this.archiveCollections = archiveCollections;
+            this.openArchive = openArchive;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return nextHot != null || nextArchived != null;
+        }
+
+        @Override
+        public Order next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Order result;
+            if (nextArchived == null || (nextHot != null && nextHot.getId().compareTo(nextArchived.getId()) <= 0)) {
+                result = nextHot;
+                if (nextArchived != null && nextArchived.getId().equals(nextHot.getId())) {
+                    nextArchived = null;
+                }
+                nextHot = null;
+            } else {
+                result = nextArchived;
+                nextArchived = null;
+            }
+            return result;
+        }
+
+        /**
+         * Lee el siguiente pedido de cada lado si no hay uno pendiente, pasando a la siguiente
+         * colección de archivo cuando se agota la actual
+         */
+        private void fill() {
+            if (nextHot == null && hot.hasNext()) {
+                nextHot = hot.next();
+            }
+            while (nextArchived == null) {
+                if (archive.hasNext()) {
+                    nextArchived = archive.next();
+                } else if (archiveCollections.hasNext()) {
+                    close();
+                    archiveStream = openArchive.apply(archiveCollections.next());
+                    archive = archiveStream.iterator();
+                } else {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Cierra el cursor de archivo abierto
+         */
+        @Override
+        public void close() {
+            if (archiveStream != null) {
+                archiveStream.close();
+                archiveStream = null;
+            }
+        }
+    }
+
+    /**
+     * Método que traduce la ordenación al nombre de los campos en mongo
+     *
+     * @param sort ordenación
+     * @return ordenación sobre los campos del documento
+     */
+    private Sort toDocumentSort(Sort sort) {
+        return Sort.by(sort.stream()
+                .map(order -> "id".equals(order.getProperty()) ? new Sort.Order(order.getDirection(), "_id") : order)
+                .toList());
+    }
+}
@@ -1,13 +1,18 @@
 package com.nullers.restbookstore.rest.orders.services;
 
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.orders.dto.OrderBulkResult;
 import com.nullers.restbookstore.rest.orders.dto.OrderCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderNotFoundException;
 import com.nullers.restbookstore.rest.orders.models.Order;
 import org.bson.types.ObjectId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Interfaz de OrderService
@@ -30,6 +35,15 @@ public interface OrderService {
      */
     Order getOrderById(ObjectId id);
 
+    /**
+     * Método que devuelve un pedido por el ID leyendo solo los campos seleccionados
+     *
+     * @param id        id del pedido
+     * @param selection campos seleccionados
+     * @return pedido por el ID
+     */
+    Order getOrderById(ObjectId id, FieldSelection selection);
+
     /**
      * Método que crea un pedido
      *
@@ -38,6 +52,14 @@ public interface OrderService {
      */
     Order createOrder(OrderCreateDto order);
 
+    /**
+     * Método que crea un lote de pedidos validándolos y reservando su stock de forma conjunta
+     *
+     * @param orders pedidos
+     * @return resultado de cada pedido en el mismo orden que el lote
+     */
+    List<OrderBulkResult> createOrders(List<OrderCreateDto> orders);
+
     /**
      * Método que actualiza un pedido por el ID
      *
@@ -97,4 +119,47 @@ public interface OrderService {
      * @return pedido eliminada
      */
     Order deleteLogicOrder(ObjectId id);
+
+    /**
+     * Método que devuelve el resumen de todos los pedidos
+     *
+     * @param pageable paginación
+     * @return resumen de todos los pedidos
+     */
+    Page<OrderSummary> getAllOrderSummaries(Pageable pageable);
+
+    /**
+     * Método que devuelve el resumen de los pedidos de un usuario por el ID del usuario
+     *
+     * @param userId   id del usuario
+     * @param pageable paginación
+     * @return resumen de los pedidos del usuario
+     */
+    Page<OrderSummary> getOrderSummariesByUserId(UUID userId, Pageable pageable);
+
+    /**
+     * Método que devuelve el resumen de los pedidos de un cliente por el ID del cliente
+     *
+     * @param clientId id del cliente
+     * @param pageable paginación
+     * @return resumen de los pedidos del cliente
+     */
+    Page<OrderSummary> getOrderSummariesByClientId(UUID clientId, Pageable pageable);
+
+    /**
+     * Método que devuelve el resumen de los pedidos de una tienda por el ID de la tienda
+     *
+     * @param shopId   id de la tienda
+     * @param pageable paginación
+     * @return resumen de los pedidos de la tienda
+     */
+    Page<OrderSummary> getOrderSummariesByShopId(UUID shopId, Pageable pageable);
+
+    /**
+     * Método que recorre todos los pedidos de una tienda con un cursor. El stream debe cerrarse
+     *
+     * @param shopId id de la tienda
+     * @return stream de pedidos de la tienda
+     */
+    Stream<Order> streamOrdersByShopId(UUID shopId);
 }
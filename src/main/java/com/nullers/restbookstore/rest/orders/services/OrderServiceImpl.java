@@ -1,11 +1,17 @@
 package com.nullers.restbookstore.rest.orders.services;
 
+import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionInterface;
 import com.nullers.restbookstore.rest.book.exceptions.BookNotFoundException;
 import com.nullers.restbookstore.rest.book.model.Book;
 import com.nullers.restbookstore.rest.book.repository.BookRepository;
 import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
+import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.client.repository.ClientRepository;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
+import com.nullers.restbookstore.rest.orders.dto.OrderBulkResult;
 import com.nullers.restbookstore.rest.orders.dto.OrderCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderBadPriceException;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderNotFoundException;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderNotItemsExceptions;
@@ -15,9 +21,13 @@ import com.nullers.restbookstore.rest.orders.models.Order;
 import com.nullers.restbookstore.rest.orders.models.OrderLine;
 import com.nullers.restbookstore.rest.orders.repositories.OrderRepository;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopNotFoundException;
+import com.nullers.restbookstore.rest.shop.model.Shop;
 import com.nullers.restbookstore.rest.shop.repository.ShopRepository;
+import com.nullers.restbookstore.rest.shop.services.stock.ShopStockService;
 import com.nullers.restbookstore.rest.user.exceptions.UserNotFound;
+import com.nullers.restbookstore.rest.user.models.User;
 import com.nullers.restbookstore.rest.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheConfig;
@@ -26,18 +36,27 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Clase OrderServiceImpl
  */
 @Service
+@Slf4j
 @CacheConfig(cacheNames = "orders")
 public class OrderServiceImpl implements OrderService {
 
@@ -53,22 +72,35 @@ public class OrderServiceImpl implements OrderService {
 
     private final ShopRepository shopRepository;
 
+    private final OrderArchiveService orderArchiveService;
+
+    private final ReferenceCountService referenceCountService;
+
+    private final ShopStockService shopStockService;
+
     /**
      * Constructor para crear una nueva OrderServiceImpl
      *
-     * @param orderRepository  order repository
-     * @param bookRepository   book repository
-     * @param userRepository   user repository
-     * @param clientRepository client repository
-     * @param shopRepository   shop repository
+     * @param orderRepository     order repository
+     * @param bookRepository      book repository
+     * @param userRepository      user repository
+     * @param clientRepository    client repository
+     * @param shopRepository      shop repository
+     * @param orderArchiveService   order archive service
+     * @param referenceCountService reference count service
+     * @param shopStockService      shop stock service
      */
     @Autowired
-    public OrderServiceImpl(OrderRepository orderRepository, BookRepository bookRepository, UserRepository userRepository, ClientRepository clientRepository, ShopRepository shopRepository) {
+    public OrderServiceImpl(OrderRepository orderRepository, BookRepository bookRepository, UserRepository userRepository, ClientRepository clientRepository, ShopRepository shopRepository, OrderArchiveService orderArchiveService, ReferenceCountService referenceCountService,
+                            ShopStockService shopStockService) {
         this.orderRepository = orderRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.clientRepository = clientRepository;
         this.shopRepository = shopRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.referenceCountService = referenceCountService;
+        this.shopStockService = shopStockService;
     }
 
     /**
@@ -91,7 +123,28 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Cacheable(key = "#id")
     public Order getOrderById(ObjectId id) {
-        return orderRepository.findById(id).orElseThrow(() -> new OrderNotFoundException(id));
+        return orderRepository.findById(id)
+                .or(() -> orderArchiveService.findArchivedById(id))
+                .orElseThrow(() -> new OrderNotFoundException(id));
+    }
+
+    /**
+     * Método que devuelve un pedido por el ID leyendo de la colección solo los campos seleccionados
+     *
+     * @param id        id del pedido
+     * @param selection campos seleccionados
+     * @return pedido por el ID
+     */
+    @Override
+    public Order getOrderById(ObjectId id, FieldSelection selection) {
+        if (selection.isAll()) {
+            return getOrderById(id);
+        }
+        Set<String> fields = new HashSet<>(selection.fields());
+        fields.addAll(selection.expand());
+        return orderRepository.findByIdIncluding(id, fields)
+                .or(() -> orderArchiveService.findArchivedById(id))
+                .orElseThrow(() -> new OrderNotFoundException(id));
     }
 
     /**
@@ -106,7 +159,211 @@ public class OrderServiceImpl implements OrderService {
         Order order = OrderCreateMapper.toOrder(orderCreateDto);
         checkOrder(order);
         order = reserveStockOrder(order);
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        referenceCountService.orderAdded(order);
+        return saved;
+    }
+
+    /**
+     * Método que crea un lote de pedidos validándolos y reservando su stock de forma conjunta.
+     * Los usuarios, clientes, tiendas, libros y el stock de esos libros en esas tiendas se cargan con
+     * una consulta por tipo. Los pedidos que superan el stock que queda (global o de su tienda) se
+     * rechazan antes de reservar, así un pedido demasiado grande no hace fallar al resto. El stock se
+     * reserva con una actualización condicional por libro (y por tienda y libro en el inventario
+     * de las tiendas) y los pedidos se escriben con una única escritura masiva no ordenada.
+     *
+     * @param orderCreateDtos pedidos
+     * @return resultado de cada pedido en el mismo orden que el lote
+     */
+    @Override
+    public List<OrderBulkResult> createOrders(List<OrderCreateDto> orderCreateDtos) {
+        OrderBulkResult[] results = new OrderBulkResult[orderCreateDtos.size()];
+        List<Order> orders = orderCreateDtos.stream().map(OrderCreateMapper::toOrder).toList();
+        orders.forEach(order -> order.setOrderLines(order.getOrderLines() == null ? List.of() : mergeOrderLines(order.getOrderLines())));
+
+        Set<UUID> userIds = idsOf(userRepository.findAllById(distinct(orders, Order::getUserId)), User::getId);
+        Set<UUID> clientIds = idsOf(clientRepository.findAllById(distinct(orders, Order::getClientId)), Client::getId);
+        Set<UUID> shopIds = idsOf(shopRepository.findAllById(distinct(orders, Order::getShopId)), Shop::getId);
+        Set<Long> bookIds = orders.stream()
+                .flatMap(order -> order.getOrderLines().stream())
+                .map(OrderLine::getBookId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Book> books = bookRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Map<Long, Integer> available = new HashMap<>();
+        books.values().forEach(book -> available.put(book.getId(), book.getStock()));
+        Map<UUID, Map<Long, Integer>> shopAvailable = shopStockService.findStock(shopIds, books.keySet());
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            try {
+                Map<Long, Integer> shopStock = shopAvailable.getOrDefault(order.getShopId(), new HashMap<>());
+                checkBulkOrder(order, userIds, clientIds, shopIds, books, available, shopStock);
+                order.getOrderLines().forEach(lp -> {
+                    available.merge(lp.getBookId(), -lp.getQuantity(), Integer::sum);
+                    shopStock.computeIfPresent(lp.getBookId(), (bookId, stock) -> stock - lp.getQuantity());
+                });
+                accepted.add(i);
+            } catch (RuntimeException e) {
+                results[i] = failedResult(i, e);
+            }
+        }
+
+        Map<Long, Integer> reserved = new HashMap<>();
+        accepted.forEach(i -> orders.get(i).getOrderLines()
+                .forEach(lp -> reserved.merge(lp.getBookId(), lp.getQuantity(), Integer::sum)));
+        Set<Long> outOfStock = new HashSet<>();
+        reserved.forEach((bookId, quantity) -> {
+            if (bookRepository.decrementStock(bookId, quantity) == 0) {
+                outOfStock.add(bookId);
+            }
+        });
+
+        Map<UUID, Map<Long, Integer>> shopReserved = new HashMap<>();
+        accepted.forEach(i -> orders.get(i).getOrderLines()
+                .forEach(lp -> shopReserved.computeIfAbsent(orders.get(i).getShopId(), shopId -> new HashMap<>())
+                        .merge(lp.getBookId(), lp.getQuantity(), Integer::sum)));
+        Map<UUID, Set<Long>> shopOutOfStock = new HashMap<>();
+        shopReserved.forEach((shopId, quantities) -> shopOutOfStock.put(shopId, shopStockService.reserve(shopId, quantities)));
+
+        Map<Long, Integer> toReturn = new HashMap<>();
+        Map<UUID, Map<Long, Integer>> shopToReturn = new HashMap<>();
+        List<Integer> toInsert = new ArrayList<>();
+        for (Integer i : accepted) {
+            Order order = orders.get(i);
+            Set<Long> shopMissing = shopOutOfStock.getOrDefault(order.getShopId(), Set.of());
+            Long missing = order.getOrderLines().stream()
+                    .map(OrderLine::getBookId)
+                    .filter(bookId -> outOfStock.contains(bookId) || shopMissing.contains(bookId))
+                    .findFirst()
+                    .orElse(null);
+            if (missing != null) {
+                results[i] = failedResult(i, new OrderNotStockException(missing));
+                order.getOrderLines().stream()
+                        .filter(lp -> !outOfStock.contains(lp.getBookId()))
+                        .forEach(lp -> toReturn.merge(lp.getBookId(), lp.getQuantity(), Integer::sum));
+                order.getOrderLines().stream()
+                        .filter(lp -> !shopMissing.contains(lp.getBookId()))
+                        .forEach(lp -> shopToReturn.computeIfAbsent(order.getShopId(), shopId -> new HashMap<>())
+                                .merge(lp.getBookId(), lp.getQuantity(), Integer::sum));
+            } else {
+                order.getOrderLines().forEach(lp -> lp.setTotal(lp.getQuantity() * lp.getPrice()));
+                order.calculateLines();
+                order.setShopStockReserved(true);
+                toInsert.add(i);
+            }
+        }
+
+        Map<Integer, String> writeErrors;
+        RuntimeException insertFailure = null;
+        try {
+            writeErrors = orderRepository.insertAllUnordered(toInsert.stream().map(orders::get).toList());
+        } catch (RuntimeException e) {
+            insertFailure = e;
+            writeErrors = Map.of();
+        }
+        for (int pos = 0; pos < toInsert.size(); pos++) {
+            int i = toInsert.get(pos);
+            Order order = orders.get(i);
+            if (insertFailure != null || writeErrors.containsKey(pos)) {
+                results[i] = insertFailure != null ? failedResult(i, insertFailure)
+                        : OrderBulkResult.failed(i, HttpStatus.CONFLICT.value(), writeErrors.get(pos));
+                order.getOrderLines().forEach(lp -> toReturn.merge(lp.getBookId(), lp.getQuantity(), Integer::sum));
+                order.getOrderLines().forEach(lp -> shopToReturn.computeIfAbsent(order.getShopId(), shopId -> new HashMap<>())
+                        .merge(lp.getBookId(), lp.getQuantity(), Integer::sum));
+            } else {
+                results[i] = OrderBulkResult.created(i, order.getIdStr());
+                referenceCountService.orderAdded(order);
+            }
+        }
+        toReturn.forEach(bookRepository::incrementStock);
+        shopToReturn.forEach(shopStockService::release);
+
+        return List.of(results);
+    }
+
+    /**
+     * Método que comprueba un pedido de un lote con los datos precargados
+     *
+     * @param order     pedido
+     * @param userIds   ids de los usuarios existentes
+     * @param clientIds ids de los clientes existentes
+     * @param shopIds   ids de las tiendas existentes
+     * @param books     libros existentes por id
+     * @param available stock disponible por libro tras los pedidos aceptados del lote
+     * @param shopStock stock disponible en la tienda del pedido tras los pedidos aceptados del lote,
+     *                  solo de los libros de su inventario
+     */
+    private void checkBulkOrder(Order order, Set<UUID> userIds, Set<UUID> clientIds, Set<UUID> shopIds,
+                                Map<Long, Book> books, Map<Long, Integer> available, Map<Long, Integer> shopStock) {
+        if (!userIds.contains(order.getUserId())) {
+            throw new UserNotFound("El usuario con id " + order.getUserId() + NO_EXISTS_MSG);
+        }
+        if (!clientIds.contains(order.getClientId())) {
+            throw new ClientNotFound("id", String.valueOf(order.getClientId()));
+        }
+        if (!shopIds.contains(order.getShopId())) {
+            throw new ShopNotFoundException("La tienda con id " + order.getShopId() + NO_EXISTS_MSG);
+        }
+        if (order.getOrderLines().isEmpty()) {
+            throw new OrderNotItemsExceptions(order.getIdStr());
+        }
+        order.getOrderLines().forEach(lp -> {
+            Book book = books.get(lp.getBookId());
+            if (book == null) {
+                throw new BookNotFoundException(BOOK_WITH_ID_STR + lp.getBookId() + NO_EXISTS_MSG);
+            }
+            if (available.get(book.getId()) < lp.getQuantity() && lp.getQuantity() > 0) {
+                throw new OrderNotStockException(book.getId());
+            }
+            Integer inShop = shopStock.get(book.getId());
+            if (inShop != null && inShop < lp.getQuantity() && lp.getQuantity() > 0) {
+                throw new OrderNotStockException(book.getId());
+            }
+            if (!lp.getPrice().equals(book.getPrice())) {
+                throw new OrderBadPriceException(book.getId());
+            }
+        });
+    }
+
+    /**
+     * Método que construye el resultado fallido de un pedido de un lote. Los errores inesperados se
+     * devuelven como un 500 del pedido para no perder el resultado del resto del lote
+     *
+     * @param index posición del pedido en el lote
+     * @param e     excepción producida
+     * @return resultado fallido
+     */
+    private OrderBulkResult failedResult(int index, RuntimeException e) {
+        if (e instanceof ResponseExceptionInterface responseException) {
+            return OrderBulkResult.failed(index, responseException.getHttpStatus().value(), e.getMessage());
+        }
+        log.error("Error inesperado al procesar el pedido " + index + " del lote", e);
+        return OrderBulkResult.failed(index, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Error inesperado al procesar el pedido");
+    }
+
+    /**
+     * Método que devuelve los valores distintos y no nulos de un campo de los pedidos
+     *
+     * @param orders pedidos
+     * @param field  campo
+     * @return valores distintos
+     */
+    private static <T> Set<T> distinct(List<Order> orders, Function<Order, T> field) {
+        return orders.stream().map(field).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    /**
+     * Método que devuelve los ids de las entidades encontradas
+     *
+     * @param entities entidades
+     * @param getId    función que devuelve el id de la entidad
+     * @return ids de las entidades
+     */
+    private static <E, T> Set<T> idsOf(List<E> entities, Function<E, T> getId) {
+        return entities.stream().map(getId).collect(Collectors.toSet());
     }
 
     /**
@@ -119,18 +376,28 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @CachePut(key = "#id")
     public Order updateOrder(ObjectId id, OrderCreateDto orderCreateDto) {
-        Order orderToUpdate = orderRepository.findById(id).orElseThrow(() -> new OrderNotFoundException(id));
+        Optional<Order> hot = orderRepository.findById(id);
+        Order orderToUpdate = hot.or(() -> orderArchiveService.findArchivedById(id))
+                .orElseThrow(() -> new OrderNotFoundException(id));
         Order order = OrderCreateMapper.toOrder(orderCreateDto);
         checkOrder(order);
-        returnStockOrder(orderToUpdate);
-        ObjectId idOrder = orderToUpdate.getId();
-        orderToUpdate = reserveStockOrder(order);
-        orderToUpdate.setId(idOrder);
-        return orderRepository.save(orderToUpdate);
+        Order previous = orderToUpdate;
+        returnStockOrder(previous);
+        try {
+            orderToUpdate = reserveStockOrder(order);
+        } catch (RuntimeException e) {
+            restoreStockOrder(previous);
+            throw e;
+        }
+        orderToUpdate.setId(previous.getId());
+        Order saved = hot.isPresent() ? orderRepository.save(orderToUpdate) : orderArchiveService.saveArchived(orderToUpdate);
+        referenceCountService.orderRemoved(previous);
+        referenceCountService.orderAdded(orderToUpdate);
+        return saved;
     }
 
     /**
-     * Método que elimina un pedido por el ID
+     * Método que elimina un pedido por el ID, tanto de la colección principal como del archivo
      *
      * @param id id del pedido
      * @throws OrderNotFoundException excepción si no existe el pedido
@@ -138,9 +405,16 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @CacheEvict(key = "#id")
     public void deleteOrder(ObjectId id) throws OrderNotFoundException {
-        Order order = orderRepository.findById(id).orElseThrow(() -> new OrderNotFoundException(id));
+        Optional<Order> hot = orderRepository.findById(id);
+        Order order = hot.or(() -> orderArchiveService.findArchivedById(id))
+                .orElseThrow(() -> new OrderNotFoundException(id));
         returnStockOrder(order);
-        orderRepository.deleteById(id);
+        if (hot.isPresent()) {
+            orderRepository.deleteById(id);
+        } else {
+            orderArchiveService.deleteArchived(id);
+        }
+        referenceCountService.orderRemoved(order);
     }
 
     /**
@@ -198,9 +472,85 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public Order deleteLogicOrder(ObjectId id) {
-        Order order = orderRepository.findById(id).orElseThrow(() -> new OrderNotFoundException(id));
+        Optional<Order> hot = orderRepository.findById(id);
+        Order order = hot.or(() -> orderArchiveService.findArchivedById(id))
+                .orElseThrow(() -> new OrderNotFoundException(id));
         order.setIsDeleted(true);
-        return orderRepository.save(order);
+        return hot.isPresent() ? orderRepository.save(order) : orderArchiveService.saveArchived(order);
+    }
+
+    /**
+     * Método que devuelve el resumen de todos los pedidos
+     *
+     * @param pageable paginación
+     * @return resumen de todos los pedidos
+     */
+    @Override
+    public Page<OrderSummary> getAllOrderSummaries(Pageable pageable) {
+        if (orderArchiveService.hasArchives()) {
+            return orderArchiveService.findAllSummariesAcrossTiers(pageable);
+        }
+        return orderRepository.findSummariesBy(pageable);
+    }
+
+    /**
+     * Método que devuelve el resumen de los pedidos de un usuario por el ID del usuario
+     *
+     * @param userId   id del usuario
+     * @param pageable paginación
+     * @return resumen de los pedidos del usuario
+     */
+    @Override
+    public Page<OrderSummary> getOrderSummariesByUserId(UUID userId, Pageable pageable) {
+        if (orderArchiveService.hasArchives()) {
+            return orderArchiveService.findSummariesAcrossTiers("userId", userId, pageable);
+        }
+        return orderRepository.findSummariesByUserId(userId, pageable);
+    }
+
+    /**
+     * Método que devuelve el resumen de los pedidos de un cliente por el ID del cliente
+     *
+     * @param clientId id del cliente
+     * @param pageable paginación
+     * @return resumen de los pedidos del cliente
+     */
+    @Override
+    public Page<OrderSummary> getOrderSummariesByClientId(UUID clientId, Pageable pageable) {
+        if (orderArchiveService.hasArchives()) {
+            return orderArchiveService.findSummariesAcrossTiers("clientId", clientId, pageable);
+        }
+        return orderRepository.findSummariesByClientId(clientId, pageable);
+    }
+
+    /**
+     * Método que devuelve el resumen de los pedidos de una tienda por el ID de la tienda
+     *
+     * @param shopId   id de la tienda
+     * @param pageable paginación
+     * @return resumen de los pedidos de la tienda
+     */
+    @Override
+    public Page<OrderSummary> getOrderSummariesByShopId(UUID shopId, Pageable pageable) {
+        if (orderArchiveService.hasArchives()) {
+            return orderArchiveService.findSummariesAcrossTiers("shopId", shopId, pageable);
+        }
+        return orderRepository.findSummariesByShopId(shopId, pageable);
+    }
+
+    /**
+     * Método que recorre todos los pedidos de una tienda con un cursor, incluidos los archivados.
+     * El stream debe cerrarse
+     *
+     * @param shopId id de la tienda
+     * @return stream de pedidos de la tienda
+     */
+    @Override
+    public Stream<Order> streamOrdersByShopId(UUID shopId) {
+        if (orderArchiveService.hasArchives()) {
+            return orderArchiveService.streamAcrossTiers("shopId", shopId);
+        }
+        return orderRepository.streamAllByShopIdOrderByIdAsc(shopId);
     }
 
     /**
@@ -225,24 +575,9 @@ public class OrderServiceImpl implements OrderService {
             throw new ShopNotFoundException("La tienda con id " + idShop + NO_EXISTS_MSG);
         }
 
+        order.setOrderLines(mergeOrderLines(order.getOrderLines()));
         List<OrderLine> orderLines = order.getOrderLines();
 
-        Map<Long, List<OrderLine>> groupedOrderLines = orderLines.stream()
-                .collect(Collectors.groupingBy(OrderLine::getBookId));
-        List<OrderLine> mergedOrderLines = groupedOrderLines.values().stream()
-                .map(lines -> lines.stream()
-                        .reduce((line1, line2) -> {
-                            line1.setQuantity(line1.getQuantity() + line2.getQuantity());
-                            line1.calculatePrice(line1.getPrice());
-                            return line1;
-                        })
-                        .orElse(null))
-                .filter(Objects::nonNull)
-                .toList();
-
-        order.setOrderLines(mergedOrderLines);
-        orderLines = order.getOrderLines();
-
         if (orderLines == null || orderLines.isEmpty()) {
             throw new OrderNotItemsExceptions(order.getIdStr());
         }
@@ -260,7 +595,42 @@ public class OrderServiceImpl implements OrderService {
     }
 
     /**
-     * Método que reserva el stock de un pedido
+     * Método que agrupa las líneas de pedido del mismo libro sumando sus cantidades
+     *
+     * @param orderLines líneas de pedido
+     * @return líneas de pedido agrupadas
+     */
+    private List<OrderLine> mergeOrderLines(List<OrderLine> orderLines) {
+        Map<Long, List<OrderLine>> groupedOrderLines = orderLines.stream()
+                .collect(Collectors.groupingBy(OrderLine::getBookId));
+        return groupedOrderLines.values().stream()
+                .map(lines -> lines.stream()
+                        .reduce((line1, line2) -> {
+                            line1.setQuantity(line1.getQuantity() + line2.getQuantity());
+                            line1.calculatePrice(line1.getPrice());
+                            return line1;
+                        })
+                        .orElse(null))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Método que devuelve la cantidad por libro de las líneas de un pedido
+     *
+     * @param orderLines líneas de pedido
+     * @return cantidad por id de libro
+     */
+    private static Map<Long, Integer> quantitiesOf(List<OrderLine> orderLines) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        orderLines.forEach(lp -> quantities.merge(lp.getBookId(), lp.getQuantity(), Integer::sum));
+        return quantities;
+    }
+
+    /**
+     * Método que reserva el stock de un pedido, primero en el inventario de la tienda del pedido
+     * y después en el stock global de los libros. Los libros se buscan antes de reservar nada, así
+     * un libro inexistente no deja reservado el stock de la tienda ni el de los libros anteriores
      *
      * @param order pedido
      * @return pedido
@@ -271,13 +641,27 @@ public class OrderServiceImpl implements OrderService {
             throw new OrderNotItemsExceptions(order.getIdStr());
         }
 
-        orderLines.forEach(lp -> {
-            Book book = bookRepository.findById(lp.getBookId()).orElseThrow(() ->
-                    new BookNotFoundException(BOOK_WITH_ID_STR + lp.getBookId() + NO_EXISTS_MSG));
+        List<Book> books = orderLines.stream()
+                .map(lp -> bookRepository.findById(lp.getBookId()).orElseThrow(() ->
+                        new BookNotFoundException(BOOK_WITH_ID_STR + lp.getBookId() + NO_EXISTS_MSG)))
+                .toList();
+
+        Map<Long, Integer> quantities = quantitiesOf(orderLines);
+        Set<Long> shopOutOfStock = shopStockService.reserve(order.getShopId(), quantities);
+        if (!shopOutOfStock.isEmpty()) {
+            quantities.keySet().removeAll(shopOutOfStock);
+            shopStockService.release(order.getShopId(), quantities);
+            throw new OrderNotStockException(shopOutOfStock.iterator().next());
+        }
+        order.setShopStockReserved(true);
+
+        for (int i = 0; i < orderLines.size(); i++) {
+            OrderLine lp = orderLines.get(i);
+            Book book = books.get(i);
             book.setStock(book.getStock() - lp.getQuantity());
             bookRepository.save(book);
             lp.setTotal(lp.getQuantity() * lp.getPrice());
-        });
+        }
 
         order.calculateLines();
         order.getOrderLines().forEach(line -> line.calculatePrice(line.getPrice()));
@@ -291,6 +675,9 @@ public class OrderServiceImpl implements OrderService {
      */
     public void returnStockOrder(Order order) {
         if (order.getOrderLines() != null && !order.getOrderLines().isEmpty()) {
+            if (Boolean.TRUE.equals(order.getShopStockReserved())) {
+                shopStockService.release(order.getShopId(), quantitiesOf(order.getOrderLines()));
+            }
             order.getOrderLines().forEach(lp -> {
                 Book book = bookRepository.findById(lp.getBookId())
                         .orElseThrow(() -> new BookNotFoundException(BOOK_WITH_ID_STR + lp.getBookId() + NO_EXISTS_MSG));
@@ -299,4 +686,31 @@ public class OrderServiceImpl implements OrderService {
             });
         }
     }
+
+    /**
+     * Método que vuelve a reservar el stock que devolvió returnStockOrder cuando la actualización del
+     * pedido falla, para no dejar el stock inflado. Solo vuelve a reservar en la tienda si el pedido
+     * tenía el stock de la tienda reservado
+     *
+     * @param order pedido anterior a la actualización
+     */
+    private void restoreStockOrder(Order order) {
+        try {
+            if (Boolean.TRUE.equals(order.getShopStockReserved())) {
+                Map<Long, Integer> quantities = quantitiesOf(order.getOrderLines());
+                Set<Long> shopOutOfStock = shopStockService.reserve(order.getShopId(), quantities);
+                if (!shopOutOfStock.isEmpty()) {
+                    quantities.keySet().removeAll(shopOutOfStock);
+                    shopStockService.release(order.getShopId(), quantities);
+                    throw new OrderNotStockException(shopOutOfStock.iterator().next());
+                }
+            }
+            order.getOrderLines().forEach(lp -> bookRepository.findById(lp.getBookId()).ifPresent(book -> {
+                book.setStock(book.getStock() - lp.getQuantity());
+                bookRepository.save(book);
+            }));
+        } catch (RuntimeException e) {
+            log.error("No se ha podido volver a reservar el stock del pedido " + order.getIdStr(), e);
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package com.nullers.restbookstore.rest.orders.services;
+
+import com.nullers.restbookstore.rest.orders.dto.OrderCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderTicket;
+
+import java.util.UUID;
+
+/**
+ * Interfaz de OrderSubmissionService
+ * Gestiona la creación asíncrona de pedidos mediante una cola acotada
+ */
+public interface OrderSubmissionService {
+
+    /**
+     * Método que encola un pedido para crearlo de forma asíncrona
+     *
+     * @param orderCreateDto pedido
+     * @return ticket con el que consultar el estado del pedido
+     */
+    OrderTicket submit(OrderCreateDto orderCreateDto);
+
+    /**
+     * Método que devuelve el estado de un ticket
+     *
+     * @param id id del ticket
+     * @return ticket
+     */
+    OrderTicket getTicket(UUID id);
+}
@@ -0,0 +1,181 @@
+package com.nullers.restbookstore.rest.orders.services;
+
+import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionInterface;
+import com.nullers.restbookstore.rest.orders.dto.OrderCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderTicket;
+import com.nullers.restbookstore.rest.orders.exceptions.OrderQueueFullException;
+import com.nullers.restbookstore.rest.orders.exceptions.OrderTicketNotFoundException;
+import com.nullers.restbookstore.rest.orders.models.Order;
+import com.nullers.restbookstore.rest.orders.models.OrderTicketStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clase OrderSubmissionServiceImpl
+ * Los pedidos se encolan en una cola acotada que procesa un conjunto fijo de hilos; cuando la
+ * cola está llena se rechaza el pedido para que el cliente lo reintente más tarde.
+ */
+@Service
+@Slf4j
+public class OrderSubmissionServiceImpl implements OrderSubmissionService {
+
+    private final OrderService orderService;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Map<UUID, OrderTicket> tickets = new ConcurrentHashMap<>();
+
+    private final long retryAfterSeconds;
+
+    private final long ticketTtlMinutes;
+
+    /**
+     * Constructor para crear un nuevo OrderSubmissionServiceImpl
+     *
+     * @param orderService      servicio de pedidos
+     * @param workers           número de hilos que procesan la cola
+     * @param queueCapacity     capacidad máxima de la cola
+     * @param retryAfterSeconds segundos que el cliente debe esperar cuando la cola está llena
+     * @param ticketTtlMinutes  minutos que se conserva un ticket terminado
+     */
+    @Autowired
+    public OrderSubmissionServiceImpl(OrderService orderService,
+                                      @Value("${orders.async.workers:4}") int workers,
+                                      @Value("${orders.async.queue-capacity:1000}") int queueCapacity,
+                                      @Value("${orders.async.retry-after-seconds:1}") long retryAfterSeconds,
+                                      @Value("${orders.async.ticket-ttl-minutes:30}") long ticketTtlMinutes) {
+        this.orderService = orderService;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.ticketTtlMinutes = ticketTtlMinutes;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Método que encola un pedido para crearlo de forma asíncrona
+     *
+     * @param orderCreateDto pedido
+     * @return ticket con el que consultar el estado del pedido
+     */
+    @Override
+    public OrderTicket submit(OrderCreateDto orderCreateDto) {
+        LocalDateTime now = LocalDateTime.now();
+        OrderTicket ticket = OrderTicket.builder()
+                .id(UUID.randomUUID())
+                .status(OrderTicketStatus.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        tickets.put(ticket.getId(), ticket);
+        try {
+            executor.execute(() -> process(ticket.getId(), orderCreateDto));
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticket.getId());
+            throw new OrderQueueFullException(retryAfterSeconds);
+        }
+        return ticket;
+    }
+
+    /**
+     * Método que devuelve el estado de un ticket
+     *
+     * @param id id del ticket
+     * @return ticket
+     */
+    @Override
+    public OrderTicket getTicket(UUID id) {
+        OrderTicket ticket = tickets.get(id);
+        if (ticket == null) {
+            throw new OrderTicketNotFoundException(id);
+        }
+        return ticket;
+    }
+
+    /**
+     * Método que elimina los tickets terminados que han superado su tiempo de vida
+     */
+    @Scheduled(fixedDelayString = "${orders.async.cleanup-interval-ms:60000}")
+    public void removeExpiredTickets() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(ticketTtlMinutes);
+        tickets.values().removeIf(ticket -> isFinished(ticket) && ticket.getUpdatedAt().isBefore(limit));
+    }
+
+    /**
+     * Método que detiene los hilos de la cola al cerrar la aplicación
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Método que crea el pedido de un ticket y actualiza su estado
+     *
+     * @param id             id del ticket
+     * @param orderCreateDto pedido
+     */
+    private void process(UUID id, OrderCreateDto orderCreateDto) {
+        updateTicket(id, OrderTicketStatus.PROCESSING, null, null, null);
+        try {
+            Order order = orderService.createOrder(orderCreateDto);
+            updateTicket(id, OrderTicketStatus.COMPLETED, order.getIdStr(), null, null);
+        } catch (RuntimeException e) {
+            int status = e instanceof ResponseExceptionInterface responseException
+                    ? responseException.getHttpStatus().value() : 500;
+            log.error("Error al procesar el pedido del ticket " + id + ": " + e.getMessage());
+            updateTicket(id, OrderTicketStatus.FAILED, null, status, e.getMessage());
+        }
+    }
+
+    /**
+     * Método que sustituye un ticket por una copia con el nuevo estado
+     *
+     * @param id          id del ticket
+     * @param status      nuevo estado
+     * @param orderId     id del pedido creado
+     * @param errorStatus código de estado del error
+     * @param error       mensaje de error
+     */
+    private void updateTicket(UUID id, OrderTicketStatus status, String orderId, Integer errorStatus, String error) {
+        tickets.computeIfPresent(id, (key, ticket) -> OrderTicket.builder()
+                .id(ticket.getId())
+                .status(status)
+                .orderId(orderId)
+                .errorStatus(errorStatus)
+                .error(error)
+                .createdAt(ticket.getCreatedAt())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Método que indica si un ticket ha terminado
+     *
+     * @param ticket ticket
+     * @return true si está completado o ha fallado
+     */
+    private boolean isFinished(OrderTicket ticket) {
+        return ticket.getStatus() == OrderTicketStatus.COMPLETED || ticket.getStatus() == OrderTicketStatus.FAILED;
+    }
+}
@@ -2,8 +2,12 @@ package com.nullers.restbookstore.rest.publisher.controller;
 
 import com.nullers.restbookstore.pagination.models.PageResponse;
 import com.nullers.restbookstore.pagination.util.PaginationLinksUtils;
+import com.nullers.restbookstore.rest.book.dto.GetBookDTO;
+import com.nullers.restbookstore.rest.book.services.BookService;
 import com.nullers.restbookstore.rest.common.PageableRequest;
 import com.nullers.restbookstore.rest.common.PageableUtil;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.fields.SparseFields;
 import com.nullers.restbookstore.rest.publisher.dto.CreatePublisherDto;
 import com.nullers.restbookstore.rest.publisher.dto.PublisherDTO;
 import com.nullers.restbookstore.rest.publisher.services.PublisherServiceImpl;
@@ -37,17 +41,21 @@ import java.util.Optional;
 @RequestMapping("/api/publishers")
 public class PublisherController {
     private final PublisherServiceImpl publisherService;
+    private final BookService bookService;
     private final PaginationLinksUtils paginationLinksUtils;
 
     /**
      * Constructor
      *
      * @param publisherService     Servicio de Publisher
+     * @param bookService          Servicio de Book
      * @param paginationLinksUtils Utilidad de paginación
      */
     @Autowired
-    public PublisherController(PublisherServiceImpl publisherService, PaginationLinksUtils paginationLinksUtils) {
+    public PublisherController(PublisherServiceImpl publisherService, BookService bookService,
+                               PaginationLinksUtils paginationLinksUtils) {
         this.publisherService = publisherService;
+        this.bookService = bookService;
         this.paginationLinksUtils = paginationLinksUtils;
     }
 
@@ -56,6 +64,7 @@ public class PublisherController {
      *
      * @param name            nombre por el que filtrar
      * @param pageableRequest paginación
+     * @param selection       campos seleccionados con los parámetros fields y expand
      * @return ResponseEntity<List < PublisherDto>> con las editoriales
      */
     @Operation(summary = "Obtiene todas las editoriales", description = "Obtiene una lista de editoriales")
@@ -64,20 +73,24 @@ public class PublisherController {
     @Parameter(name = "size", description = "tamaño de la pagina", example = "10")
     @Parameter(name = "sortBy", description = "campo de ordenación", example = "id")
     @Parameter(name = "direction", description = "dirección de ordenación", example = "asc")
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "campos a devolver separados por comas", example = "id,name,image")
+    @Parameter(name = FieldSelection.EXPAND_PARAM, description = "campos a añadir a los seleccionados", example = "bookCount")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "página de editoriales"),
             @ApiResponse(responseCode = "400", description = "petición de editoriales no válida")
     })
     @GetMapping()
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    @SparseFields(PublisherDTO.class)
     public ResponseEntity<PageResponse<PublisherDTO>> getAll(
             @Valid @RequestParam(required = false) Optional<String> name,
             @Valid PageableRequest pageableRequest,
-            HttpServletRequest request
+            HttpServletRequest request,
+            @Parameter(hidden = true) FieldSelection selection
     ) {
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
         Page<PublisherDTO> pageRes = publisherService.findAll(name, PageRequest.of(pageableRequest.getPage(),
-                pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)));
+                pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)), selection);
 
         return ResponseEntity.ok()
                 .header("link", paginationLinksUtils.createLinkHeader(pageRes, uriBuilder))
@@ -87,19 +100,55 @@ public class PublisherController {
     /**
      * Método que obtiene una editorial dada su id
      *
-     * @param id id por la que filtrar
+     * @param id        id por la que filtrar
+     * @param selection campos seleccionados con los parámetros fields y expand
      * @return ResponseEntity<PublisherDto>
      */
     @Operation(summary = "Obtiene una editorial dado un id", description = "Obtiene una editorial dado un id")
     @Parameter(name = "id", description = "id de la editorial", example = "1")
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "campos a devolver separados por comas", example = "id,name,bookCount")
+    @Parameter(name = FieldSelection.EXPAND_PARAM, description = "campos a añadir a los seleccionados", example = "createdAt")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Publisher"),
+            @ApiResponse(responseCode = "400", description = "Campos no válidos"),
             @ApiResponse(responseCode = "404", description = "Publisher no encontrado")
     })
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
-    public ResponseEntity<PublisherDTO> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(publisherService.findById(id));
+    @SparseFields(PublisherDTO.class)
+    public ResponseEntity<PublisherDTO> getById(@PathVariable Long id, @Parameter(hidden = true) FieldSelection selection) {
+        return ResponseEntity.ok(publisherService.findById(id, selection));
+    }
+
+    /**
+     * Método que obtiene una página de los libros de una editorial
+     *
+     * @param id              id de la editorial
+     * @param pageableRequest paginación
+     * @param request         petición
+     * @return ResponseEntity<PageResponse<GetBookDTO>> con los libros
+     */
+    @Operation(summary = "Obtiene los libros de una editorial", description = "Obtiene una página de los libros de una editorial")
+    @Parameter(name = "id", description = "id de la editorial", example = "1")
+    @Parameter(name = "page", description = "número de la pagina", example = "0")
+    @Parameter(name = "size", description = "tamaño de la pagina", example = "10")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "página de libros"),
+            @ApiResponse(responseCode = "404", description = "Publisher no encontrado")
+    })
+    @GetMapping("/{id}/books")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<PageResponse<GetBookDTO>> getBooks(
+            @PathVariable Long id,
+            @Valid PageableRequest pageableRequest,
+            HttpServletRequest request
+    ) {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        Page<GetBookDTO> pageRes = bookService.getBooksByPublisher(id, PageRequest.of(pageableRequest.getPage(),
+                pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)));
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(pageRes, uriBuilder))
+                .body(PageResponse.of(pageRes, pageableRequest.getOrderBy(), pageableRequest.getOrder()));
     }
 
     /**
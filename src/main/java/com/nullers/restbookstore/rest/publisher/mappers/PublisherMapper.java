@@ -33,7 +33,6 @@ public class PublisherMapper {
                 .id(dto.getId())
                 .name(dto.getName())
                 .image(dto.getImage())
-                .books(dto.getBooks())
                 .active(true)
                 .build();
     }
@@ -49,7 +48,6 @@ public class PublisherMapper {
                 .id(publisher.getId())
                 .name(publisher.getName())
                 .image(publisher.getImage())
-                .books(publisher.getBooks())
                 .createdAt(publisher.getCreatedAt())
                 .updatedAt(publisher.getUpdatedAt())
                 .active(publisher.getActive())
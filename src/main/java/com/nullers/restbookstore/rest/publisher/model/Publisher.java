@@ -1,6 +1,8 @@
 package com.nullers.restbookstore.rest.publisher.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.nullers.restbookstore.rest.book.model.Book;
+import com.nullers.restbookstore.rest.common.uploads.ImageFiles;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -23,6 +25,7 @@ import java.util.Set;
 @Setter
 @Builder
 @Entity
+@Table(indexes = @Index(name = "idx_publisher_image_file", columnList = "image_file"))
 public class Publisher {
     public static final String DEFAULT_IMAGE = "https://books.madirex.com/favicon.ico";
 
@@ -39,6 +42,11 @@ public class Publisher {
     @Schema(name = "Imagen", example = "https://proassetspdlcom.cdnstatics2.com/usuaris/editorial/logo/d8253153-6647-454f-884e-b923429307f3-planeta.svg")
     private String image;
 
+    @JsonIgnore
+    @Column(name = "image_file")
+    @Schema(hidden = true)
+    private String imageFile;
+
     @OneToMany(mappedBy = "publisher")
     @Builder.Default
     @Schema(name = "Libros")
@@ -55,4 +63,14 @@ public class Publisher {
     @LastModifiedDate
     @Schema(name = "Fecha de actualización", example = "2021-03-05T11:11:11")
     private LocalDateTime updatedAt;
+
+    /**
+     * Método que se ejecuta antes de persistir o actualizar un objeto
+     * Guarda el nombre del fichero de la imagen para buscarlo por índice
+     */
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        imageFile = ImageFiles.filenameOf(image);
+    }
 }
@@ -3,7 +3,13 @@ package com.nullers.restbookstore.rest.publisher.repository;
 import com.nullers.restbookstore.rest.publisher.model.Publisher;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Interface PublisherRepository
@@ -13,4 +19,25 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface PublisherRepository extends JpaRepository<Publisher, Long>, JpaSpecificationExecutor<Publisher> {
 
+    /**
+     * Busca cuáles de los ficheros indicados son la imagen de alguna editorial, usando el índice sobre
+     * el nombre del fichero de la imagen
+     *
+     * @param filenames nombres de los ficheros
+     * @return nombres de los ficheros referenciados
+     */
+    @Query("SELECT DISTINCT p.imageFile FROM Publisher p WHERE p.imageFile IN :filenames")
+    List<String> findImagesReferencing(Collection<String> filenames);
+
+    /**
+     * Rellena el nombre del fichero de la imagen en las filas guardadas antes de que existiera la columna
+     *
+     * @return número de filas actualizadas
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Publisher p SET p.imageFile = CASE WHEN LOCATE('/storage/', p.image) > 0 " +
+            "THEN SUBSTRING(p.image, LOCATE('/storage/', p.image) + 9) ELSE p.image END " +
+            "WHERE p.imageFile IS NULL AND (LOCATE('/storage/', p.image) > 0 OR LOCATE('/', p.image) = 0)")
+    int fillMissingImageFiles();
 }
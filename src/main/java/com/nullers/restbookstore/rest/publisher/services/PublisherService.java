@@ -1,11 +1,13 @@
 package com.nullers.restbookstore.rest.publisher.services;
 
 import com.nullers.restbookstore.rest.book.exceptions.BookNotFoundException;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import com.nullers.restbookstore.rest.publisher.dto.CreatePublisherDto;
 import com.nullers.restbookstore.rest.publisher.dto.PatchPublisherDto;
 import com.nullers.restbookstore.rest.publisher.dto.PublisherDTO;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherIDNotValid;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherNotFound;
+import com.nullers.restbookstore.rest.publisher.model.Publisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.web.multipart.MultipartFile;
@@ -28,6 +30,16 @@ public interface PublisherService {
      */
     Page<PublisherDTO> findAll(Optional<String> name, PageRequest pageable);
 
+    /**
+     * Método que devuelve todos los editores con los campos seleccionados
+     *
+     * @param name      nombre del editor
+     * @param pageable  paginación
+     * @param selection campos seleccionados
+     * @return todos los editores
+     */
+    Page<PublisherDTO> findAll(Optional<String> name, PageRequest pageable, FieldSelection selection);
+
     /**
      * Método que devuelve un editor por el ID
      *
@@ -36,6 +48,25 @@ public interface PublisherService {
      */
     PublisherDTO findById(Long id);
 
+    /**
+     * Método que devuelve un editor por el ID con los campos seleccionados
+     *
+     * @param id        id del editor
+     * @param selection campos seleccionados
+     * @return editor por el ID
+     */
+    PublisherDTO findById(Long id, FieldSelection selection);
+
+    /**
+     * Método que devuelve una referencia a un editor sin cargarlo
+     *
+     * @param id id del editor
+     * @return referencia al editor
+     * @throws PublisherIDNotValid si el ID del editor no es válido
+     * @throws PublisherNotFound   si no existe el editor
+     */
+    Publisher getPublisherReference(Long id) throws PublisherIDNotValid, PublisherNotFound;
+
     /**
      * Método que crea un editor
      *
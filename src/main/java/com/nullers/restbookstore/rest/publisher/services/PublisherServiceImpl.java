@@ -2,6 +2,9 @@ package com.nullers.restbookstore.rest.publisher.services;
 
 import com.nullers.restbookstore.rest.book.exceptions.BookNotFoundException;
 import com.nullers.restbookstore.rest.book.model.Book;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
+import com.nullers.restbookstore.rest.common.references.ReferenceType;
 import com.nullers.restbookstore.rest.publisher.dto.CreatePublisherDto;
 import com.nullers.restbookstore.rest.publisher.dto.PatchPublisherDto;
 import com.nullers.restbookstore.rest.publisher.dto.PublisherDTO;
@@ -46,6 +49,7 @@ public class PublisherServiceImpl implements PublisherService {
     private final PublisherMapper publisherMapper;
     private final CreatePublisherMapper createPublisherMapper;
     private final StorageService storageService;
+    private final ReferenceCountService referenceCountService;
 
     /**
      * Constructor de PublisherServiceImpl
@@ -54,15 +58,17 @@ public class PublisherServiceImpl implements PublisherService {
      * @param publisherMapper       mapper de publisher
      * @param createPublisherMapper mapper de createPublisher
      * @param storageService        servicio de storage
+     * @param referenceCountService contadores de referencias
      */
     @Autowired
     public PublisherServiceImpl(PublisherRepository publisherRepository,
                                 PublisherMapper publisherMapper, CreatePublisherMapper createPublisherMapper,
-                                StorageService storageService) {
+                                StorageService storageService, ReferenceCountService referenceCountService) {
         this.publisherRepository = publisherRepository;
         this.publisherMapper = publisherMapper;
         this.createPublisherMapper = createPublisherMapper;
         this.storageService = storageService;
+        this.referenceCountService = referenceCountService;
     }
 
     /**
@@ -75,6 +81,19 @@ public class PublisherServiceImpl implements PublisherService {
     @Cacheable
     @Override
     public Page<PublisherDTO> findAll(Optional<String> name, PageRequest pageable) {
+        return findAll(name, pageable, FieldSelection.ALL);
+    }
+
+    /**
+     * Método que devuelve todos los publishers con los campos seleccionados
+     *
+     * @param name      nombre del publisher
+     * @param pageable  paginación
+     * @param selection campos seleccionados
+     * @return Page<PublisherDto>
+     */
+    @Override
+    public Page<PublisherDTO> findAll(Optional<String> name, PageRequest pageable, FieldSelection selection) {
 
         Specification<Publisher> specNamePublisher = (root, query, criteriaBuilder) ->
                 name.map(m -> criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" +
@@ -83,7 +102,7 @@ public class PublisherServiceImpl implements PublisherService {
 
         Page<Publisher> publisherPage = publisherRepository.findAll(specNamePublisher, pageable);
         List<PublisherDTO> dtoList = publisherPage.getContent().stream()
-                .map(publisherMapper::toDto)
+                .map(publisher -> toDto(publisher, selection))
                 .toList();
 
         return new PageImpl<>(dtoList, publisherPage.getPageable(), publisherPage.getTotalElements());
@@ -98,14 +117,61 @@ public class PublisherServiceImpl implements PublisherService {
     @Cacheable(key = "#result.id")
     @Override
     public PublisherDTO findById(Long id) {
+        return findById(id, FieldSelection.ALL);
+    }
+
+    /**
+     * Encuentra un publisher dado un ID con los campos seleccionados
+     *
+     * @param id        id por el que filtrar
+     * @param selection campos seleccionados
+     * @return PublisherDto
+     */
+    @Override
+    public PublisherDTO findById(Long id, FieldSelection selection) {
         if (id == null) {
             throw new PublisherIDNotValid("El ID del Publisher no es válido");
         }
         return publisherRepository.findById(id)
-                .map(publisherMapper::toDto)
+                .map(p -> toDto(p, selection))
                 .orElseThrow(() -> new PublisherNotFound("id " + id));
     }
 
+    /**
+     * Devuelve una referencia al publisher sin cargarlo, para asignarlo a un libro
+     *
+     * @param id id del publisher
+     * @return referencia al publisher
+     * @throws PublisherIDNotValid si el ID no es válido
+     * @throws PublisherNotFound   si no existe el publisher
+     */
+    @Override
+    public Publisher getPublisherReference(Long id) throws PublisherIDNotValid, PublisherNotFound {
+        if (id == null) {
+            throw new PublisherIDNotValid("El ID del Publisher no es válido");
+        }
+        if (!publisherRepository.existsById(id)) {
+            throw new PublisherNotFound("id " + id);
+        }
+        return publisherRepository.getReferenceById(id);
+    }
+
+    /**
+     * Convierte un publisher a DTO con el número de libros si se ha seleccionado, sacado de los
+     * contadores en memoria en lugar de la colección de libros
+     *
+     * @param publisher publisher
+     * @param selection campos seleccionados
+     * @return PublisherDto
+     */
+    private PublisherDTO toDto(Publisher publisher, FieldSelection selection) {
+        PublisherDTO dto = publisherMapper.toDto(publisher);
+        if (selection.includes("bookCount")) {
+            dto.setBookCount(referenceCountService.count(ReferenceType.PUBLISHER_BOOKS, publisher.getId()));
+        }
+        return dto;
+    }
+
     /**
      * crea un publisher
      *
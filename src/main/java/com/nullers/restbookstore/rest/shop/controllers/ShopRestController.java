@@ -1,14 +1,24 @@
 package com.nullers.restbookstore.rest.shop.controllers;
 
+import com.nullers.restbookstore.pagination.models.PageResponse;
+import com.nullers.restbookstore.rest.client.dto.ClientDto;
+import com.nullers.restbookstore.rest.common.PageableRequest;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import com.nullers.restbookstore.rest.shop.dto.CreateShopDto;
 import com.nullers.restbookstore.rest.shop.dto.GetShopDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopBookDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopDistanceDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopStockDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopStockRequest;
 import com.nullers.restbookstore.rest.shop.dto.UpdateShopDto;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -22,11 +32,12 @@ public interface ShopRestController {
     /**
      * Obtiene una tienda específica por su identificador.
      *
-     * @param id Identificador de la tienda.
+     * @param id        Identificador de la tienda.
+     * @param selection Campos seleccionados.
      * @return ResponseEntity con la tienda encontrada en formato DTO.
      * @throws ShopNotFoundException Si la tienda no se encuentra.
      */
-    ResponseEntity<GetShopDto> getShopById(@Valid @PathVariable UUID id)
+    ResponseEntity<GetShopDto> getShopById(@Valid @PathVariable UUID id, FieldSelection selection)
             throws ShopNotFoundException;
 
     /**
@@ -93,4 +104,57 @@ public interface ShopRestController {
      */
     ResponseEntity<GetShopDto> removeClientFromShop(@PathVariable UUID id, @PathVariable UUID clientId);
 
+    /**
+     * Obtiene una página del inventario de libros de una tienda
+     *
+     * @param id              Identificador de la tienda
+     * @param pageableRequest Parámetros de paginación
+     * @param request         Petición http
+     * @return ResponseEntity con la página de libros y su stock en la tienda
+     */
+    ResponseEntity<PageResponse<ShopBookDto>> getShopBooks(@PathVariable UUID id, @Valid PageableRequest pageableRequest,
+                                                           HttpServletRequest request);
+
+    /**
+     * Obtiene una página de los clientes de una tienda
+     *
+     * @param id              Identificador de la tienda
+     * @param pageableRequest Parámetros de paginación
+     * @param request         Petición http
+     * @return ResponseEntity con la página de clientes
+     */
+    ResponseEntity<PageResponse<ClientDto>> getShopClients(@PathVariable UUID id, @Valid PageableRequest pageableRequest,
+                                                           HttpServletRequest request);
+
+    /**
+     * Fija el stock de un libro en una tienda
+     *
+     * @param id           Identificador de la tienda
+     * @param bookId       Identificador del libro
+     * @param stockRequest Stock del libro en la tienda
+     * @return ResponseEntity con el libro del inventario y su stock
+     */
+    ResponseEntity<ShopBookDto> setBookStock(@PathVariable UUID id, @PathVariable Long bookId,
+                                             @Valid @RequestBody ShopStockRequest stockRequest);
+
+    /**
+     * Obtiene las tiendas que tienen stock de un libro
+     *
+     * @param bookId Identificador del libro
+     * @return ResponseEntity con las tiendas y su stock
+     */
+    ResponseEntity<List<ShopStockDto>> getBookAvailability(@PathVariable Long bookId);
+
+    /**
+     * Obtiene las tiendas más cercanas a un punto o a un código postal
+     *
+     * @param lat        Latitud
+     * @param lon        Longitud
+     * @param postalCode Código postal, si no se indican coordenadas
+     * @param radiusKm   Radio en kilómetros, opcional
+     * @param limit      Número máximo de tiendas
+     * @return ResponseEntity con las tiendas ordenadas por distancia
+     */
+    ResponseEntity<List<ShopDistanceDto>> getNearbyShops(Double lat, Double lon, String postalCode, Double radiusKm, int limit);
+
 }
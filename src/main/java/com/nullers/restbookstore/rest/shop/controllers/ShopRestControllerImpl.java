@@ -2,10 +2,17 @@ package com.nullers.restbookstore.rest.shop.controllers;
 
 import com.nullers.restbookstore.pagination.models.PageResponse;
 import com.nullers.restbookstore.pagination.util.PaginationLinksUtils;
+import com.nullers.restbookstore.rest.client.dto.ClientDto;
 import com.nullers.restbookstore.rest.common.PageableRequest;
 import com.nullers.restbookstore.rest.common.PageableUtil;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.fields.SparseFields;
 import com.nullers.restbookstore.rest.shop.dto.CreateShopDto;
 import com.nullers.restbookstore.rest.shop.dto.GetShopDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopBookDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopDistanceDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopStockDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopStockRequest;
 import com.nullers.restbookstore.rest.shop.dto.UpdateShopDto;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopNotFoundException;
 import com.nullers.restbookstore.rest.shop.services.ShopServiceImpl;
@@ -23,6 +30,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -55,47 +63,86 @@ public class ShopRestControllerImpl implements ShopRestController {
     /**
      * Obtiene todas las tiendas disponibles.
      *
+     * @param selection Campos seleccionados con los parámetros fields y expand.
      * @return ResponseEntity con una lista de todas las tiendas en formato DTO.
      */
     @Operation(summary = "Obtiene todas las tiendas", description = "Obtiene una lista de todas las tiendas disponibles.")
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "Campos a devolver separados por comas", example = "id,name,location")
+    @Parameter(name = FieldSelection.EXPAND_PARAM, description = "Campos calculados a añadir a los campos", example = "bookCount")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de tiendas obtenida con éxito"),
             @ApiResponse(responseCode = "400", description = "Solicitud incorrecta")
     })
     @GetMapping()
     @PreAuthorize("hasRole('USER')")
+    @SparseFields(GetShopDto.class)
     public ResponseEntity<PageResponse<GetShopDto>> getAllShops(
             @Parameter(description = "Nombre de la tienda para filtrar") @Valid @RequestParam(required = false) Optional<String> name,
             @Parameter(description = "Ubicación de la tienda para filtrar") @RequestParam(required = false) Optional<String> location,
             @Parameter(description = "Parámetros de paginación") @Valid PageableRequest pageableRequest,
-            HttpServletRequest request
+            HttpServletRequest request,
+            @Parameter(hidden = true) FieldSelection selection
     ) {
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
         var pageResult = shopService.getAllShops(name, location, PageRequest.of(pageableRequest.getPage(),
-                pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)));
+                pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)), selection);
         return ResponseEntity.ok()
                 .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
                 .body(PageResponse.of(pageResult, pageableRequest.getOrderBy(), pageableRequest.getOrder()));
     }
 
+    /**
+     * Obtiene las tiendas más cercanas a un punto o al centroide de un código postal.
+     *
+     * @param lat        Latitud del punto de búsqueda.
+     * @param lon        Longitud del punto de búsqueda.
+     * @param postalCode Código postal, si no se indican coordenadas.
+     * @param radiusKm   Radio en kilómetros; sin radio se devuelven las más cercanas.
+     * @param limit      Número máximo de tiendas.
+     * @return ResponseEntity con las tiendas ordenadas por distancia.
+     */
+    @Operation(summary = "Obtiene las tiendas cercanas", description = "Obtiene las tiendas más cercanas a unas coordenadas o a un código postal, opcionalmente dentro de un radio.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tiendas cercanas obtenidas con éxito"),
+            @ApiResponse(responseCode = "400", description = "Ubicación no válida o código postal desconocido")
+    })
+    @GetMapping("/near")
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<ShopDistanceDto>> getNearbyShops(
+            @Parameter(description = "Latitud") @RequestParam(required = false) Double lat,
+            @Parameter(description = "Longitud") @RequestParam(required = false) Double lon,
+            @Parameter(description = "Código postal") @RequestParam(required = false) String postalCode,
+            @Parameter(description = "Radio en kilómetros") @RequestParam(required = false) Double radiusKm,
+            @Parameter(description = "Número máximo de tiendas") @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(shopService.getNearbyShops(lat, lon, postalCode, radiusKm, limit));
+    }
+
     /**
      * Obtiene una tienda específica por su ID.
      *
-     * @param id ID de la tienda en formato String.
+     * @param id        ID de la tienda en formato String.
+     * @param selection Campos seleccionados con los parámetros fields y expand.
      * @return ResponseEntity con los detalles de la tienda en formato DTO.
      * @throws ShopNotFoundException Si la tienda no se encuentra.
      */
     @Operation(summary = "Obtiene una tienda por su ID", description = "Obtiene los detalles de una tienda específica por su ID.")
     @Parameter(name = "id", description = "Identificador de la tienda", required = true)
+    @Parameter(name = FieldSelection.FIELDS_PARAM, description = "Campos a devolver separados por comas", example = "id,name,location")
+    @Parameter(name = FieldSelection.EXPAND_PARAM, description = "Campos calculados a añadir a los campos", example = "bookCount,orderCount")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Detalles de la tienda obtenidos con éxito"),
+            @ApiResponse(responseCode = "400", description = "Campos no válidos"),
             @ApiResponse(responseCode = "404", description = "Tienda no encontrada")
     })
     @GetMapping("/{id}")
     @Override
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<GetShopDto> getShopById(@Valid @PathVariable UUID id) throws ShopNotFoundException {
-        return ResponseEntity.ok(shopService.getShopById(id));
+    @SparseFields(GetShopDto.class)
+    public ResponseEntity<GetShopDto> getShopById(@Valid @PathVariable UUID id,
+                                                  @Parameter(hidden = true) FieldSelection selection) throws ShopNotFoundException {
+        return ResponseEntity.ok(shopService.getShopById(id, selection));
     }
 
     /**
@@ -162,6 +209,110 @@ public class ShopRestControllerImpl implements ShopRestController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Obtiene una página del inventario de libros de una tienda.
+     *
+     * @param id              Id de la tienda.
+     * @param pageableRequest Parámetros de paginación.
+     * @param request         Petición http.
+     * @return ResponseEntity con la página de libros y su stock en la tienda.
+     */
+    @Operation(summary = "Obtiene el inventario de una tienda", description = "Obtiene una página de los libros de una tienda con su stock en la tienda.")
+    @Parameter(name = "id", description = "Identificador de la tienda", required = true)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Inventario obtenido con éxito"),
+            @ApiResponse(responseCode = "404", description = "Tienda no encontrada")
+    })
+    @GetMapping("/{id}/books")
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<PageResponse<ShopBookDto>> getShopBooks(
+            @PathVariable UUID id,
+            @Parameter(description = "Parámetros de paginación") @Valid PageableRequest pageableRequest,
+            HttpServletRequest request
+    ) {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        var pageResult = shopService.getShopBooks(id, PageRequest.of(pageableRequest.getPage(),
+                pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)));
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
+                .body(PageResponse.of(pageResult, pageableRequest.getOrderBy(), pageableRequest.getOrder()));
+    }
+
+    /**
+     * Obtiene una página de los clientes de una tienda.
+     *
+     * @param id              Id de la tienda.
+     * @param pageableRequest Parámetros de paginación.
+     * @param request         Petición http.
+     * @return ResponseEntity con la página de clientes.
+     */
+    @Operation(summary = "Obtiene los clientes de una tienda", description = "Obtiene una página de los clientes de una tienda.")
+    @Parameter(name = "id", description = "Identificador de la tienda", required = true)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clientes obtenidos con éxito"),
+            @ApiResponse(responseCode = "404", description = "Tienda no encontrada")
+    })
+    @GetMapping("/{id}/clients")
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PageResponse<ClientDto>> getShopClients(
+            @PathVariable UUID id,
+            @Parameter(description = "Parámetros de paginación") @Valid PageableRequest pageableRequest,
+            HttpServletRequest request
+    ) {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        var pageResult = shopService.getShopClients(id, PageRequest.of(pageableRequest.getPage(),
+                pageableRequest.getSize(), PageableUtil.getSort(pageableRequest)));
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
+                .body(PageResponse.of(pageResult, pageableRequest.getOrderBy(), pageableRequest.getOrder()));
+    }
+
+    /**
+     * Fija el stock de un libro en una tienda, añadiéndolo al inventario si no estaba.
+     *
+     * @param id           Id de la tienda.
+     * @param bookId       Id del libro.
+     * @param stockRequest Stock del libro en la tienda.
+     * @return ResponseEntity con el libro del inventario y su stock.
+     */
+    @Operation(summary = "Fija el stock de un libro en una tienda", description = "Fija el stock de un libro en el inventario de una tienda.")
+    @Parameter(name = "id", description = "Identificador de la tienda", required = true)
+    @Parameter(name = "bookId", description = "Identificador del libro", required = true)
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Stock del libro en la tienda")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock actualizado con éxito"),
+            @ApiResponse(responseCode = "400", description = "Stock no válido"),
+            @ApiResponse(responseCode = "404", description = "Tienda o libro no encontrado")
+    })
+    @PutMapping("/{id}/books/{bookId}/stock")
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ShopBookDto> setBookStock(@PathVariable UUID id, @PathVariable Long bookId,
+                                                    @Valid @RequestBody ShopStockRequest stockRequest) {
+        return ResponseEntity.ok(shopService.setBookStock(id, bookId, stockRequest.getStock()));
+    }
+
+    /**
+     * Obtiene las tiendas que tienen stock de un libro.
+     *
+     * @param bookId Id del libro.
+     * @return ResponseEntity con las tiendas y su stock, de mayor a menor stock.
+     */
+    @Operation(summary = "Obtiene la disponibilidad de un libro", description = "Obtiene las tiendas que tienen stock de un libro.")
+    @Parameter(name = "bookId", description = "Identificador del libro", required = true)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Disponibilidad obtenida con éxito"),
+            @ApiResponse(responseCode = "404", description = "Libro no encontrado")
+    })
+    @GetMapping("/availability/{bookId}")
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<ShopStockDto>> getBookAvailability(@PathVariable Long bookId) {
+        return ResponseEntity.ok(shopService.getBookAvailability(bookId));
+    }
+
     /**
      * Añade un libro a una tienda específica.
      *
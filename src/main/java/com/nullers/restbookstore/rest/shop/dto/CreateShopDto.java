@@ -3,6 +3,8 @@ package com.nullers.restbookstore.rest.shop.dto;
 import com.nullers.restbookstore.rest.common.Address;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
@@ -24,5 +26,15 @@ public class CreateShopDto {
     @Schema(description = "Dirección de la tienda")
     @Valid
     private Address location;
+
+    @DecimalMin(value = "-90.0", message = "La latitud debe estar entre -90 y 90")
+    @DecimalMax(value = "90.0", message = "La latitud debe estar entre -90 y 90")
+    @Schema(description = "Latitud; si no se indica se usa la del código postal", example = "40.4168")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "La longitud debe estar entre -180 y 180")
+    @DecimalMax(value = "180.0", message = "La longitud debe estar entre -180 y 180")
+    @Schema(description = "Longitud; si no se indica se usa la del código postal", example = "-3.7038")
+    private Double longitude;
 }
 
@@ -1,15 +1,16 @@
 package com.nullers.restbookstore.rest.shop.dto;
 
 import com.nullers.restbookstore.rest.common.Address;
+import com.nullers.restbookstore.rest.common.fields.SparseFieldset;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.time.LocalDateTime;
-import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -22,6 +23,7 @@ import java.util.UUID;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@SparseFieldset
 public class GetShopDto {
 
     @Schema(description = "ID", example = "1")
@@ -33,11 +35,23 @@ public class GetShopDto {
     @NotNull(message = "La ubicación no puede estar vacía")
     private Address location;
 
-    @Schema(description = "IDs de libros asociados a la tienda")
-    private Set<Long> booksId;
+    @Schema(description = "Latitud", example = "40.4168")
+    private Double latitude;
 
-    @Schema(description = "IDs de clientes asociados a la tienda")
-    private Set<UUID> clientsId;
+    @Schema(description = "Longitud", example = "-3.7038")
+    private Double longitude;
+
+    @Setter
+    @Schema(description = "Número de libros en el inventario de la tienda", example = "1500")
+    private long bookCount;
+
+    @Setter
+    @Schema(description = "Número de clientes asociados a la tienda", example = "40")
+    private long clientCount;
+
+    @Setter
+    @Schema(description = "Número de pedidos de la tienda", example = "12")
+    private long orderCount;
 
     @Schema(description = "Fecha de creación", example = "2021-08-01T00:00:00.000Z")
     private LocalDateTime createdAt;
@@ -0,0 +1,37 @@
+package com.nullers.restbookstore.rest.shop.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de un libro del inventario de una tienda
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShopBookDto {
+
+    @Schema(description = "ID del libro", example = "1")
+    private Long bookId;
+
+    @Schema(description = "Nombre", example = "¿El asesino sigue aquí?")
+    private String name;
+
+    @Schema(description = "Autor", example = "Madirex")
+    private String author;
+
+    @Schema(description = "Precio", example = "12.99")
+    private Double price;
+
+    @Schema(description = "Stock del libro en la tienda", example = "4")
+    private Integer stock;
+
+    @Schema(description = "Fecha de actualización en la tienda", example = "2021-08-01T00:00:00.000Z")
+    private LocalDateTime updatedAt;
+}
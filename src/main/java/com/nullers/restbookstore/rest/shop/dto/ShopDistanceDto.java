@@ -0,0 +1,37 @@
+package com.nullers.restbookstore.rest.shop.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO de una tienda cercana con su distancia al punto de búsqueda
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShopDistanceDto {
+
+    @Schema(description = "ID de la tienda", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID id;
+
+    @Schema(description = "Nombre", example = "Tienda Nullers")
+    private String name;
+
+    @Schema(description = "Ciudad", example = "Madrid")
+    private String city;
+
+    @Schema(description = "Latitud", example = "40.4168")
+    private Double latitude;
+
+    @Schema(description = "Longitud", example = "-3.7038")
+    private Double longitude;
+
+    @Schema(description = "Distancia en kilómetros", example = "2.4")
+    private Double distanceKm;
+}
@@ -0,0 +1,25 @@
+package com.nullers.restbookstore.rest.shop.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO con el stock de un libro en una tienda
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShopStockDto {
+
+    @Schema(description = "ID de la tienda", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID shopId;
+
+    @Schema(description = "Stock del libro en la tienda", example = "4")
+    private Integer stock;
+}
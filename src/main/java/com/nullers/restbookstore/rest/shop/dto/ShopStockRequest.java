@@ -0,0 +1,24 @@
+package com.nullers.restbookstore.rest.shop.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para fijar el stock de un libro en una tienda
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShopStockRequest {
+
+    @NotNull(message = "El stock no puede estar vacío")
+    @Min(value = 0, message = "El stock no puede estar en negativo")
+    @Schema(description = "Stock del libro en la tienda", example = "4")
+    private Integer stock;
+}
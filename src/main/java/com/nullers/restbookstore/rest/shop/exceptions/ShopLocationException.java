@@ -0,0 +1,20 @@
+package com.nullers.restbookstore.rest.shop.exceptions;
+
+import com.nullers.restbookstore.manager.error.exceptions.ResponseExceptionBadRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase ShopLocationException: la ubicación de una búsqueda de tiendas cercanas no es válida
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ShopLocationException extends ResponseExceptionBadRequest {
+    /**
+     * Constructor para crear una nueva ShopLocationException con un mensaje específico.
+     *
+     * @param message El mensaje que describe la excepción.
+     */
+    public ShopLocationException(String message) {
+        super(message);
+    }
+}
@@ -1,9 +1,12 @@
 package com.nullers.restbookstore.rest.shop.mappers;
 
+import com.nullers.restbookstore.rest.book.model.Book;
 import com.nullers.restbookstore.rest.shop.dto.CreateShopDto;
 import com.nullers.restbookstore.rest.shop.dto.GetShopDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopBookDto;
 import com.nullers.restbookstore.rest.shop.dto.UpdateShopDto;
 import com.nullers.restbookstore.rest.shop.model.Shop;
+import com.nullers.restbookstore.rest.shop.model.ShopBook;
 
 import java.util.List;
 
@@ -45,5 +48,14 @@ public interface ShopMapper {
      * @return Lista de GetShopDto
      */
     List<GetShopDto> toShopList(List<Shop> shops);
+
+    /**
+     * Método para convertir un libro del inventario de una tienda a un ShopBookDto
+     *
+     * @param shopBook libro del inventario
+     * @param book     Book, o null si el libro ya no existe
+     * @return ShopBookDto
+     */
+    ShopBookDto toShopBookDto(ShopBook shopBook, Book book);
 }
 
@@ -2,17 +2,17 @@ package com.nullers.restbookstore.rest.shop.mappers;
 
 
 import com.nullers.restbookstore.rest.book.model.Book;
-import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.shop.dto.CreateShopDto;
 import com.nullers.restbookstore.rest.shop.dto.GetShopDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopBookDto;
 import com.nullers.restbookstore.rest.shop.dto.UpdateShopDto;
 import com.nullers.restbookstore.rest.shop.model.Shop;
+import com.nullers.restbookstore.rest.shop.model.ShopBook;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Clase ShopMapperImpl
@@ -34,6 +34,8 @@ public class ShopMapperImpl implements ShopMapper {
                 .id(UUID.randomUUID())
                 .name(dto.getName())
                 .location(dto.getLocation())
+                .latitude(dto.getLatitude())
+                .longitude(dto.getLongitude())
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
@@ -49,6 +51,8 @@ public class ShopMapperImpl implements ShopMapper {
     public Shop toShop(Shop shop, UpdateShopDto dto) {
         shop.setName(dto.getName());
         shop.setLocation(dto.getLocation());
+        shop.setLatitude(dto.getLatitude());
+        shop.setLongitude(dto.getLongitude());
         shop.setUpdatedAt(LocalDateTime.now());
         return shop;
     }
@@ -64,10 +68,10 @@ public class ShopMapperImpl implements ShopMapper {
                 .id(shop.getId())
                 .name(shop.getName())
                 .location(shop.getLocation())
+                .latitude(shop.getLatitude())
+                .longitude(shop.getLongitude())
                 .createdAt(shop.getCreatedAt())
                 .updatedAt(shop.getUpdatedAt())
-                .booksId(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()))
-                .clientsId(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()))
                 .build();
     }
 
@@ -82,4 +86,22 @@ public class ShopMapperImpl implements ShopMapper {
                 .map(this::toGetShopDto)
                 .toList();
     }
+
+    /**
+     * Método para convertir un libro del inventario de una tienda a un ShopBookDto
+     *
+     * @param shopBook libro del inventario
+     * @param book     Book, o null si el libro ya no existe
+     * @return ShopBookDto
+     */
+    public ShopBookDto toShopBookDto(ShopBook shopBook, Book book) {
+        return ShopBookDto.builder()
+                .bookId(shopBook.getBookId())
+                .name(book == null ? null : book.getName())
+                .author(book == null ? null : book.getAuthor())
+                .price(book == null ? null : book.getPrice())
+                .stock(shopBook.getStock())
+                .updatedAt(shopBook.getUpdatedAt())
+                .build();
+    }
 }
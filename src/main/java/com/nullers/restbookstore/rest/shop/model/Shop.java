@@ -1,8 +1,6 @@
 package com.nullers.restbookstore.rest.shop.model;
 
 
-import com.nullers.restbookstore.rest.book.model.Book;
-import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.common.Address;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
@@ -14,7 +12,6 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 
 import java.time.LocalDateTime;
-import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -46,6 +43,12 @@ public class Shop {
     @Valid
     private Address location;
 
+    @Schema(description = "Latitud", example = "40.4168")
+    private Double latitude;
+
+    @Schema(description = "Longitud", example = "-3.7038")
+    private Double longitude;
+
     @CreatedDate
     @Schema(description = "Fecha de creación", example = "2021-08-01T00:00:00.000Z")
     private LocalDateTime createdAt;
@@ -54,18 +57,4 @@ public class Shop {
     @Schema(description = "Fecha de actualización", example = "2021-08-01T00:00:00.000Z")
     private LocalDateTime updatedAt;
 
-    @OneToMany
-    @JoinColumn(name = "book_id")
-    @Schema(description = "Conjunto de libros disponibles en la tienda")
-    @NotNull(message = "La tienda debe tener al menos un libro")
-    @Builder.Default()
-    private Set<Book> books = Set.of();
-
-    @OneToMany
-    @JoinColumn(name = "client_id")
-    @Schema(description = "Conjunto de clientes de la tienda")
-    @NotNull(message = "La tienda debe tener al menos un cliente")
-    @Builder.Default()
-    private Set<Client> clients = Set.of();
-
 }
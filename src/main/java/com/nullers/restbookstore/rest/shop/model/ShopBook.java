@@ -0,0 +1,48 @@
+package com.nullers.restbookstore.rest.shop.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Clase ShopBook: libro del inventario de una tienda con su stock en la tienda
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Getter
+@Setter
+@Table(name = "shop_books",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"shop_id", "book_id"}),
+        indexes = @Index(name = "idx_shop_books_book", columnList = "book_id"))
+public class ShopBook {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @Schema(description = "ID", example = "1")
+    private Long id;
+
+    @NotNull
+    @Column(name = "shop_id", nullable = false)
+    @Schema(description = "ID de la tienda", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID shopId;
+
+    @NotNull
+    @Column(name = "book_id", nullable = false)
+    @Schema(description = "ID del libro", example = "1")
+    private Long bookId;
+
+    @Min(value = 0, message = "El stock no puede estar en negativo")
+    @Builder.Default
+    @Schema(description = "Stock del libro en la tienda", example = "4")
+    private Integer stock = 0;
+
+    @Schema(description = "Fecha de actualización", example = "2021-08-01T00:00:00.000Z")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,42 @@
+package com.nullers.restbookstore.rest.shop.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Clase ShopClient: cliente asociado a una tienda
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Getter
+@Setter
+@Table(name = "shop_clients",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"shop_id", "client_id"}),
+        indexes = @Index(name = "idx_shop_clients_client", columnList = "client_id"))
+public class ShopClient {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @Schema(description = "ID", example = "1")
+    private Long id;
+
+    @NotNull
+    @Column(name = "shop_id", nullable = false)
+    @Schema(description = "ID de la tienda", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID shopId;
+
+    @NotNull
+    @Column(name = "client_id", nullable = false)
+    @Schema(description = "ID del cliente", example = "9def16db-362b-44c4-9fc9-77117758b5b0")
+    private UUID clientId;
+
+    @Schema(description = "Fecha de alta en la tienda", example = "2021-08-01T00:00:00.000Z")
+    private LocalDateTime createdAt;
+}
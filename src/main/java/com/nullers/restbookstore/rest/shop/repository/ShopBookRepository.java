@@ -0,0 +1,143 @@
+package com.nullers.restbookstore.rest.shop.repository;
+
+import com.nullers.restbookstore.rest.shop.model.ShopBook;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Repositorio del inventario de libros de las tiendas
+ */
+@Repository
+public interface ShopBookRepository extends JpaRepository<ShopBook, Long> {
+
+    /**
+     * Devuelve una página del inventario de una tienda
+     *
+     * @param shopId   id de la tienda
+     * @param pageable paginación
+     * @return página de libros de la tienda
+     */
+    Page<ShopBook> findByShopId(UUID shopId, Pageable pageable);
+
+    /**
+     * Comprueba si un libro está en el inventario de una tienda
+     *
+     * @param shopId id de la tienda
+     * @param bookId id del libro
+     * @return true si está
+     */
+    boolean existsByShopIdAndBookId(UUID shopId, Long bookId);
+
+    /**
+     * Devuelve un libro del inventario de una tienda
+     *
+     * @param shopId id de la tienda
+     * @param bookId id del libro
+     * @return libro del inventario
+     */
+    Optional<ShopBook> findByShopIdAndBookId(UUID shopId, Long bookId);
+
+    /**
+     * Devuelve las tiendas que tienen stock de un libro
+     *
+     * @param bookId id del libro
+     * @param stock  stock mínimo (exclusivo)
+     * @return libros del inventario con stock
+     */
+    List<ShopBook> findByBookIdAndStockGreaterThan(Long bookId, Integer stock);
+
+    /**
+     * Recorre el stock de todos los inventarios sin cargar las entidades
+     *
+     * @return filas [id de la tienda, id del libro, stock]
+     */
+    @Query("SELECT sb.shopId, sb.bookId, sb.stock FROM ShopBook sb")
+    Stream<Object[]> streamStock();
+
+    /**
+     * Devuelve el stock de varios libros en varias tiendas
+     *
+     * @param shopIds ids de las tiendas
+     * @param bookIds ids de los libros
+     * @return filas [id de la tienda, id del libro, stock] de los libros que están en el inventario
+     */
+    @Query("SELECT sb.shopId, sb.bookId, sb.stock FROM ShopBook sb WHERE sb.shopId IN :shopIds AND sb.bookId IN :bookIds")
+    List<Object[]> findStock(Collection<UUID> shopIds, Collection<Long> bookIds);
+
+    /**
+     * Resta stock de un libro en una tienda solo si hay suficiente
+     *
+     * @param shopId   id de la tienda
+     * @param bookId   id del libro
+     * @param quantity cantidad a restar
+     * @return número de filas actualizadas (0 si no está en el inventario o no hay stock suficiente)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ShopBook sb SET sb.stock = sb.stock - :quantity WHERE sb.shopId = :shopId AND sb.bookId = :bookId AND sb.stock >= :quantity")
+    int decrementStock(UUID shopId, Long bookId, Integer quantity);
+
+    /**
+     * Suma stock de un libro en una tienda
+     *
+     * @param shopId   id de la tienda
+     * @param bookId   id del libro
+     * @param quantity cantidad a sumar
+     * @return número de filas actualizadas (0 si no está en el inventario)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ShopBook sb SET sb.stock = sb.stock + :quantity WHERE sb.shopId = :shopId AND sb.bookId = :bookId")
+    int incrementStock(UUID shopId, Long bookId, Integer quantity);
+
+    /**
+     * Cuenta los libros del inventario de una tienda
+     *
+     * @param shopId id de la tienda
+     * @return número de libros
+     */
+    long countByShopId(UUID shopId);
+
+    /**
+     * Cuenta los libros del inventario de varias tiendas
+     *
+     * @param shopIds ids de las tiendas
+     * @return pares [id de la tienda, número de libros]
+     */
+    @Query("SELECT sb.shopId, COUNT(sb) FROM ShopBook sb WHERE sb.shopId IN :shopIds GROUP BY sb.shopId")
+    List<Object[]> countByShopIds(Collection<UUID> shopIds);
+
+    /**
+     * Quita un libro del inventario de una tienda
+     *
+     * @param shopId id de la tienda
+     * @param bookId id del libro
+     * @return filas eliminadas
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ShopBook sb WHERE sb.shopId = :shopId AND sb.bookId = :bookId")
+    int deleteByShopIdAndBookId(UUID shopId, Long bookId);
+
+    /**
+     * Vacía el inventario de una tienda
+     *
+     * @param shopId id de la tienda
+     * @return filas eliminadas
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ShopBook sb WHERE sb.shopId = :shopId")
+    int deleteByShopId(UUID shopId);
+}
@@ -0,0 +1,90 @@
+package com.nullers.restbookstore.rest.shop.repository;
+
+import com.nullers.restbookstore.rest.shop.model.ShopClient;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio de los clientes de las tiendas
+ */
+@Repository
+public interface ShopClientRepository extends JpaRepository<ShopClient, Long> {
+
+    /**
+     * Devuelve una página de los clientes de una tienda
+     *
+     * @param shopId   id de la tienda
+     * @param pageable paginación
+     * @return página de clientes de la tienda
+     */
+    Page<ShopClient> findByShopId(UUID shopId, Pageable pageable);
+
+    /**
+     * Comprueba si un cliente está asociado a una tienda
+     *
+     * @param shopId   id de la tienda
+     * @param clientId id del cliente
+     * @return true si está
+     */
+    boolean existsByShopIdAndClientId(UUID shopId, UUID clientId);
+
+    /**
+     * Cuenta los clientes de una tienda
+     *
+     * @param shopId id de la tienda
+     * @return número de clientes
+     */
+    long countByShopId(UUID shopId);
+
+    /**
+     * Cuenta los clientes de varias tiendas
+     *
+     * @param shopIds ids de las tiendas
+     * @return pares [id de la tienda, número de clientes]
+     */
+    @Query("SELECT sc.shopId, COUNT(sc) FROM ShopClient sc WHERE sc.shopId IN :shopIds GROUP BY sc.shopId")
+    List<Object[]> countByShopIds(Collection<UUID> shopIds);
+
+    /**
+     * Quita un cliente de una tienda
+     *
+     * @param shopId   id de la tienda
+     * @param clientId id del cliente
+     * @return filas eliminadas
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ShopClient sc WHERE sc.shopId = :shopId AND sc.clientId = :clientId")
+    int deleteByShopIdAndClientId(UUID shopId, UUID clientId);
+
+    /**
+     * Quita todos los clientes de una tienda
+     *
+     * @param shopId id de la tienda
+     * @return filas eliminadas
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ShopClient sc WHERE sc.shopId = :shopId")
+    int deleteByShopId(UUID shopId);
+
+    /**
+     * Quita un cliente de todas las tiendas
+     *
+     * @param clientId id del cliente
+     * @return filas eliminadas
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ShopClient sc WHERE sc.clientId = :clientId")
+    int deleteByClientId(UUID clientId);
+}
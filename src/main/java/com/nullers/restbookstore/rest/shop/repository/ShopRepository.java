@@ -4,9 +4,12 @@ package com.nullers.restbookstore.rest.shop.repository;
 import com.nullers.restbookstore.rest.shop.model.Shop;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Clase ShopRepository
@@ -16,4 +19,18 @@ import java.util.UUID;
 @Repository
 public interface ShopRepository extends JpaRepository<Shop, UUID>, JpaSpecificationExecutor<Shop> {
 
+    /**
+     * Devuelve las tiendas con coordenadas
+     *
+     * @return tiendas con coordenadas
+     */
+    List<Shop> findByLatitudeIsNotNullAndLongitudeIsNotNull();
+
+    /**
+     * Recorre los datos del índice espacial de las tiendas con coordenadas sin cargar las entidades
+     *
+     * @return filas [id, nombre, ciudad, latitud, longitud]
+     */
+    @Query("SELECT s.id, s.name, s.location.city, s.latitude, s.longitude FROM Shop s WHERE s.latitude IS NOT NULL AND s.longitude IS NOT NULL")
+    Stream<Object[]> streamGeoViews();
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.nullers.restbookstore.rest.shop.services;
+
+import com.nullers.restbookstore.rest.shop.model.ShopBook;
+import com.nullers.restbookstore.rest.shop.model.ShopClient;
+import com.nullers.restbookstore.rest.shop.repository.ShopBookRepository;
+import com.nullers.restbookstore.rest.shop.repository.ShopClientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Copia única de los enlaces antiguos de las tiendas a las tablas shop_books y shop_clients.
+ * Antes la tienda guardaba sus libros y clientes en las columnas book.book_id y clients.client_id
+ * (el id de la tienda en la fila del libro o del cliente). Con ddl-auto=update esas columnas siguen
+ * existiendo en las bases de datos ya desplegadas, así que al arrancar se copian los enlaces que aún no
+ * están en las tablas nuevas y se vacían las columnas antiguas, cuya clave ajena a shops impediría
+ * borrar la tienda. Si las columnas no existen no hace nada. Se ejecuta antes de construir el índice
+ * de stock para que incluya los libros copiados.
+ */
+@Slf4j
+@Component
+public class ShopLinksBackfill {
+
+    static final String SELECT_LEGACY_BOOKS = "SELECT b.book_id, b.id FROM book b WHERE b.book_id IS NOT NULL";
+
+    static final String CLEAR_LEGACY_BOOKS = "UPDATE book SET book_id = NULL WHERE book_id IS NOT NULL";
+
+    static final String SELECT_LEGACY_CLIENTS = "SELECT c.client_id, c.id FROM clients c WHERE c.client_id IS NOT NULL";
+
+    static final String CLEAR_LEGACY_CLIENTS = "UPDATE clients SET client_id = NULL WHERE client_id IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ShopBookRepository shopBookRepository;
+
+    private final ShopClientRepository shopClientRepository;
+
+    private final boolean enabled;
+
+    /**
+     * Constructor ShopLinksBackfill
+     *
+     * @param jdbcTemplate         jdbc template
+     * @param shopBookRepository   repositorio del inventario de las tiendas
+     * @param shopClientRepository repositorio de los clientes de las tiendas
+     * @param enabled              si se copian los enlaces antiguos al arrancar
+     */
+    @Autowired
+    public ShopLinksBackfill(JdbcTemplate jdbcTemplate, ShopBookRepository shopBookRepository,
+                             ShopClientRepository shopClientRepository,
+                             @Value("${shops.legacy-links.backfill:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shopBookRepository = shopBookRepository;
+        this.shopClientRepository = shopClientRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Copia los enlaces antiguos que falten en las tablas nuevas y vacía las columnas antiguas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        List<LegacyLink<Long>> books = findLegacyLinks("book", "book_id", SELECT_LEGACY_BOOKS, Long.class);
+        if (!books.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<ShopBook> missing = books.stream()
+                    .filter(link -> !shopBookRepository.existsByShopIdAndBookId(link.shopId(), link.targetId()))
+                    .map(link -> ShopBook.builder().shopId(link.shopId()).bookId(link.targetId()).updatedAt(now).build())
+                    .toList();
+            shopBookRepository.saveAll(missing);
+            jdbcTemplate.update(CLEAR_LEGACY_BOOKS);
+            log.info("Copiados {} libros de tiendas desde la columna book.book_id", missing.size());
+        }
+        List<LegacyLink<UUID>> clients = findLegacyLinks("clients", "client_id", SELECT_LEGACY_CLIENTS, UUID.class);
+        if (!clients.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<ShopClient> missing = clients.stream()
+                    .filter(link -> !shopClientRepository.existsByShopIdAndClientId(link.shopId(), link.targetId()))
+                    .map(link -> ShopClient.builder().shopId(link.shopId()).clientId(link.targetId()).createdAt(now).build())
+                    .toList();
+            shopClientRepository.saveAll(missing);
+            jdbcTemplate.update(CLEAR_LEGACY_CLIENTS);
+            log.info("Copiados {} clientes de tiendas desde la columna clients.client_id", missing.size());
+        }
+    }
+
+    /**
+     * Lee los enlaces de una columna antigua. Se comprueba antes que la columna existe porque una
+     * consulta fallida deja abortada la transacción en PostgreSQL
+     *
+     * @param table      tabla del libro o cliente
+     * @param column     columna antigua con el id de la tienda
+     * @param sql        consulta que devuelve [id de la tienda, id del libro o cliente]
+     * @param targetType tipo del id del libro o cliente
+     * @param <T>        tipo del id del libro o cliente
+     * @return enlaces, vacío si la columna ya no existe
+     */
+    private <T> List<LegacyLink<T>> findLegacyLinks(String table, String column, String sql, Class<T> targetType) {
+        if (!hasColumn(table, column)) {
+            return List.of();
+        }
+        return jdbcTemplate.query(sql, (rs, rowNum) ->
+                new LegacyLink<>(rs.getObject(1, UUID.class), rs.getObject(2, targetType)));
+    }
+
+    /**
+     * Comprueba si una columna existe. Los nombres se buscan en minúsculas (PostgreSQL) y en
+     * mayúsculas (H2)
+     *
+     * @param table  tabla
+     * @param column columna
+     * @return true si existe
+     */
+    boolean hasColumn(String table, String column) {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+                try (ResultSet columns = metaData.getColumns(null, null, names[0], names[1])) {
+                    if (columns.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * Enlace antiguo entre una tienda y un libro o cliente
+     *
+     * @param shopId   id de la tienda
+     * @param targetId id del libro o cliente
+     * @param <T>      tipo del id del libro o cliente
+     */
+    record LegacyLink<T>(UUID shopId, T targetId) {
+    }
+}
@@ -1,10 +1,18 @@
 package com.nullers.restbookstore.rest.shop.services;
 
+import com.nullers.restbookstore.rest.client.dto.ClientDto;
 import com.nullers.restbookstore.rest.shop.dto.CreateShopDto;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import com.nullers.restbookstore.rest.shop.dto.GetShopDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopBookDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopDistanceDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopStockDto;
 import com.nullers.restbookstore.rest.shop.dto.UpdateShopDto;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopNotFoundException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -23,6 +31,16 @@ public interface ShopService {
      */
     GetShopDto getShopById(UUID id) throws ShopNotFoundException;
 
+    /**
+     * Obtiene los detalles de una tienda calculando solo los contadores seleccionados.
+     *
+     * @param id        El identificador de la tienda.
+     * @param selection Campos seleccionados.
+     * @return GetShopDto con los detalles de la tienda.
+     * @throws ShopNotFoundException Si la tienda no se encuentra.
+     */
+    GetShopDto getShopById(UUID id, FieldSelection selection) throws ShopNotFoundException;
+
     /**
      * Crea una nueva tienda basada en los datos proporcionados.
      *
@@ -85,4 +103,52 @@ public interface ShopService {
      */
     GetShopDto removeClientFromShop(UUID id, UUID clientId);
 
+    /**
+     * Obtiene una página del inventario de libros de la tienda
+     *
+     * @param id       Shop id
+     * @param pageable paginación
+     * @return página de libros con su stock en la tienda
+     */
+    Page<ShopBookDto> getShopBooks(UUID id, Pageable pageable);
+
+    /**
+     * Fija el stock de un libro en la tienda
+     *
+     * @param id     Shop id
+     * @param bookId Book id
+     * @param stock  stock del libro en la tienda
+     * @return libro del inventario con su stock
+     */
+    ShopBookDto setBookStock(UUID id, Long bookId, Integer stock);
+
+    /**
+     * Obtiene las tiendas que tienen stock de un libro
+     *
+     * @param bookId Book id
+     * @return tiendas con stock
+     */
+    List<ShopStockDto> getBookAvailability(Long bookId);
+
+    /**
+     * Obtiene las tiendas más cercanas a un punto o al centroide de un código postal
+     *
+     * @param latitude   latitud del punto de búsqueda
+     * @param longitude  longitud del punto de búsqueda
+     * @param postalCode código postal, si no se indican coordenadas
+     * @param radiusKm   radio en kilómetros, opcional
+     * @param limit      número máximo de tiendas
+     * @return tiendas ordenadas por distancia
+     */
+    List<ShopDistanceDto> getNearbyShops(Double latitude, Double longitude, String postalCode, Double radiusKm, int limit);
+
+    /**
+     * Obtiene una página de los clientes de la tienda
+     *
+     * @param id       Shop id
+     * @param pageable paginación
+     * @return página de clientes
+     */
+    Page<ClientDto> getShopClients(UUID id, Pageable pageable);
+
 }
@@ -3,29 +3,47 @@ package com.nullers.restbookstore.rest.shop.services;
 import com.nullers.restbookstore.rest.book.exceptions.BookNotFoundException;
 import com.nullers.restbookstore.rest.book.model.Book;
 import com.nullers.restbookstore.rest.book.repository.BookRepository;
+import com.nullers.restbookstore.rest.client.dto.ClientDto;
 import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
-import com.nullers.restbookstore.rest.client.model.Client;
+import com.nullers.restbookstore.rest.client.mappers.ClientMapper;
 import com.nullers.restbookstore.rest.client.repository.ClientRepository;
-import com.nullers.restbookstore.rest.orders.models.Order;
-import com.nullers.restbookstore.rest.orders.repositories.OrderRepository;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
+import com.nullers.restbookstore.rest.common.references.ReferenceType;
 import com.nullers.restbookstore.rest.shop.dto.CreateShopDto;
 import com.nullers.restbookstore.rest.shop.dto.GetShopDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopBookDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopDistanceDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopStockDto;
 import com.nullers.restbookstore.rest.shop.dto.UpdateShopDto;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopHasOrders;
+import com.nullers.restbookstore.rest.shop.exceptions.ShopLocationException;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopNotFoundException;
 import com.nullers.restbookstore.rest.shop.mappers.ShopMapperImpl;
 import com.nullers.restbookstore.rest.shop.model.Shop;
+import com.nullers.restbookstore.rest.shop.model.ShopBook;
+import com.nullers.restbookstore.rest.shop.model.ShopClient;
+import com.nullers.restbookstore.rest.shop.repository.ShopBookRepository;
+import com.nullers.restbookstore.rest.shop.repository.ShopClientRepository;
 import com.nullers.restbookstore.rest.shop.repository.ShopRepository;
+import com.nullers.restbookstore.rest.shop.services.geo.GeoPoint;
+import com.nullers.restbookstore.rest.shop.services.geo.PostalCodeCentroids;
+import com.nullers.restbookstore.rest.shop.services.geo.ShopGeoIndex;
+import com.nullers.restbookstore.rest.shop.services.stock.ShopStockIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -38,6 +56,10 @@ import java.util.stream.Collectors;
 public class ShopServiceImpl implements ShopService {
 
     public static final String SHOP_NOT_FOUND_WITH_ID_MSG = "Tienda no encontrada con ID: ";
+    public static final int MAX_NEARBY_SHOPS = 100;
+    private static final String BOOK_COUNT_FIELD = "bookCount";
+    private static final String CLIENT_COUNT_FIELD = "clientCount";
+    private static final String ORDER_COUNT_FIELD = "orderCount";
     private final ShopRepository shopRepository;
     private final ShopMapperImpl shopMapper;
 
@@ -45,7 +67,17 @@ public class ShopServiceImpl implements ShopService {
 
     private final ClientRepository clientRepository;
 
-    private final OrderRepository orderRepository;
+    private final ReferenceCountService referenceCountService;
+
+    private final ShopBookRepository shopBookRepository;
+
+    private final ShopClientRepository shopClientRepository;
+
+    private final ShopStockIndex shopStockIndex;
+
+    private final ShopGeoIndex shopGeoIndex;
+
+    private final PostalCodeCentroids postalCodeCentroids;
 
     /**
      * Constructor que inyecta el repositorio de tiendas y el mapper.
@@ -54,15 +86,27 @@ public class ShopServiceImpl implements ShopService {
      * @param shopMapper       Mapper para convertir entre Shop y sus DTOs.
      * @param bookRepository   Repositorio para las operaciones de base de datos de Book.
      * @param clientRepository Repositorio para las operaciones de base de datos de Client.
-     * @param orderRepository  Repositorio para las operaciones de base de datos de Order.
+     * @param referenceCountService Contadores de referencias (pedidos por tienda).
+     * @param shopBookRepository    Repositorio del inventario de libros de las tiendas.
+     * @param shopClientRepository  Repositorio de los clientes de las tiendas.
+     * @param shopStockIndex        Índice en memoria del stock de las tiendas.
+     * @param shopGeoIndex          Índice espacial en memoria de las tiendas.
+     * @param postalCodeCentroids   Centroides de los códigos postales.
      */
     @Autowired
-    public ShopServiceImpl(ShopRepository shopRepository, ShopMapperImpl shopMapper, BookRepository bookRepository, ClientRepository clientRepository, OrderRepository orderRepository) {
+    public ShopServiceImpl(ShopRepository shopRepository, ShopMapperImpl shopMapper, BookRepository bookRepository, ClientRepository clientRepository, ReferenceCountService referenceCountService,
+                           ShopBookRepository shopBookRepository, ShopClientRepository shopClientRepository, ShopStockIndex shopStockIndex,
+                           ShopGeoIndex shopGeoIndex, PostalCodeCentroids postalCodeCentroids) {
         this.shopRepository = shopRepository;
         this.shopMapper = shopMapper;
         this.bookRepository = bookRepository;
         this.clientRepository = clientRepository;
-        this.orderRepository = orderRepository;
+        this.referenceCountService = referenceCountService;
+        this.shopBookRepository = shopBookRepository;
+        this.shopClientRepository = shopClientRepository;
+        this.shopStockIndex = shopStockIndex;
+        this.shopGeoIndex = shopGeoIndex;
+        this.postalCodeCentroids = postalCodeCentroids;
     }
 
     /**
@@ -73,6 +117,21 @@ public class ShopServiceImpl implements ShopService {
      */
     @Cacheable("shops")
     public Page<GetShopDto> getAllShops(Optional<String> name, Optional<String> locate, PageRequest pageable) {
+        return getAllShops(name, locate, pageable, FieldSelection.ALL);
+    }
+
+    /**
+     * Obtiene todas las tiendas y las convierte a DTO, calculando solo los contadores seleccionados.
+     *
+     * @param name      Nombre por el que filtrar.
+     * @param locate    Ciudad o provincia por la que filtrar.
+     * @param pageable  Paginación.
+     * @param selection Campos seleccionados.
+     * @return Página de tiendas en forma de DTO.
+     */
+    @Cacheable("shops")
+    public Page<GetShopDto> getAllShops(Optional<String> name, Optional<String> locate, PageRequest pageable,
+                                        FieldSelection selection) {
         Specification<Shop> nameType = (root, query, criteriaBuilder) -> name.map(m -> {
             try {
                 return criteriaBuilder.equal(criteriaBuilder.upper(root.get("name")), m.toUpperCase());
@@ -82,7 +141,9 @@ public class ShopServiceImpl implements ShopService {
         }).orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
         Specification<Shop> locateType = (root, query, criteriaBuilder) -> locate.map(m -> {
             try {
-                return criteriaBuilder.equal(criteriaBuilder.upper(root.get("location")), m.toUpperCase());
+                return criteriaBuilder.or(
+                        criteriaBuilder.equal(criteriaBuilder.upper(root.get("location").get("city")), m.toUpperCase()),
+                        criteriaBuilder.equal(criteriaBuilder.upper(root.get("location").get("province")), m.toUpperCase()));
             } catch (IllegalArgumentException e) {
                 return criteriaBuilder.isTrue(criteriaBuilder.literal(false));
             }
@@ -90,8 +151,22 @@ public class ShopServiceImpl implements ShopService {
         Specification<Shop> criterion = Specification.where(nameType)
                 .and(locateType);
         Page<Shop> shopPage = shopRepository.findAll(criterion, pageable);
+        List<UUID> shopIds = shopPage.getContent().stream().map(Shop::getId).toList();
+        Map<UUID, Long> bookCounts = shopIds.isEmpty() || !selection.includes(BOOK_COUNT_FIELD)
+                ? Map.of() : toCountMap(shopBookRepository.countByShopIds(shopIds));
+        Map<UUID, Long> clientCounts = shopIds.isEmpty() || !selection.includes(CLIENT_COUNT_FIELD)
+                ? Map.of() : toCountMap(shopClientRepository.countByShopIds(shopIds));
+        boolean withOrderCount = selection.includes(ORDER_COUNT_FIELD);
         List<GetShopDto> dtoList = shopPage.getContent().stream()
-                .map(shopMapper::toGetShopDto)
+                .map(shop -> {
+                    GetShopDto dto = shopMapper.toGetShopDto(shop);
+                    dto.setBookCount(bookCounts.getOrDefault(shop.getId(), 0L));
+                    dto.setClientCount(clientCounts.getOrDefault(shop.getId(), 0L));
+                    if (withOrderCount) {
+                        dto.setOrderCount(referenceCountService.count(ReferenceType.SHOP_ORDERS, shop.getId()));
+                    }
+                    return dto;
+                })
                 .toList();
 
         return new PageImpl<>(dtoList, shopPage.getPageable(), shopPage.getTotalElements());
@@ -106,9 +181,22 @@ public class ShopServiceImpl implements ShopService {
      */
     @Override
     public GetShopDto getShopById(UUID id) throws ShopNotFoundException {
+        return getShopById(id, FieldSelection.ALL);
+    }
+
+    /**
+     * Obtiene una tienda por su UUID y la convierte a DTO, calculando solo los contadores seleccionados.
+     *
+     * @param id        Identificador UUID de la tienda.
+     * @param selection Campos seleccionados.
+     * @return DTO de la tienda encontrada.
+     * @throws ShopNotFoundException Si la tienda no se encuentra.
+     */
+    @Override
+    public GetShopDto getShopById(UUID id, FieldSelection selection) throws ShopNotFoundException {
         Shop shop = shopRepository.findById(id)
                 .orElseThrow(() -> new ShopNotFoundException(SHOP_NOT_FOUND_WITH_ID_MSG + id));
-        return shopMapper.toGetShopDto(shop);
+        return toDetailDto(shop, selection);
     }
 
     /**
@@ -120,7 +208,9 @@ public class ShopServiceImpl implements ShopService {
     @Override
     public GetShopDto createShop(CreateShopDto shopDto) {
         Shop shop = shopMapper.toShop(shopDto);
+        resolveCoordinates(shop);
         shop = shopRepository.save(shop);
+        shopGeoIndex.put(shop);
         return shopMapper.toGetShopDto(shop);
     }
 
@@ -137,8 +227,10 @@ public class ShopServiceImpl implements ShopService {
         Shop shop = shopRepository.findById(id)
                 .orElseThrow(() -> new ShopNotFoundException(SHOP_NOT_FOUND_WITH_ID_MSG + id));
         shop = shopMapper.toShop(shop, shopDto);
+        resolveCoordinates(shop);
         shop = shopRepository.save(shop);
-        return shopMapper.toGetShopDto(shop);
+        shopGeoIndex.put(shop);
+        return toDetailDto(shop);
     }
 
     /**
@@ -149,19 +241,23 @@ public class ShopServiceImpl implements ShopService {
      */
     @CacheEvict(value = "shops", allEntries = true)
     @Override
+    @Transactional
     public void deleteShop(UUID id) {
         Shop shop = shopRepository.findById(id)
                 .orElseThrow(() -> new ShopNotFoundException(SHOP_NOT_FOUND_WITH_ID_MSG + id));
-        Page<Order> order = orderRepository.findByShopId(id, PageRequest.of(0, 1));
-        if (order.getTotalElements() > 0) {
+        if (referenceCountService.hasReferences(ReferenceType.SHOP_ORDERS, id)) {
             throw new ShopHasOrders("La tienda no se puede eliminar porque tiene pedidos asociados");
         }
+        shopBookRepository.deleteByShopId(id);
+        shopClientRepository.deleteByShopId(id);
+        shopStockIndex.removeShop(id);
+        shopGeoIndex.remove(id);
 
         shopRepository.delete(shop);
     }
 
     /**
-     * Añade un libro a la tienda
+     * Añade un libro al inventario de la tienda sin cargar el resto del inventario
      *
      * @param id     Shop id
      * @param bookId Book id
@@ -169,19 +265,24 @@ public class ShopServiceImpl implements ShopService {
      */
     @Override
     public GetShopDto addBookToShop(UUID id, Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new BookNotFoundException(bookId.toString()));
+        if (!bookRepository.existsById(bookId)) {
+            throw new BookNotFoundException(bookId.toString());
+        }
         Shop shop = shopRepository.findById(id)
                 .orElseThrow(() -> new ShopNotFoundException(id.toString()));
-        Set<Book> books = new HashSet<>(shop.getBooks());
-
-        books.add(book);
-        shop.setBooks(books);
-        return shopMapper.toGetShopDto(shopRepository.save(shop));
+        if (!shopBookRepository.existsByShopIdAndBookId(id, bookId)) {
+            shopBookRepository.save(ShopBook.builder()
+                    .shopId(id)
+                    .bookId(bookId)
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+            shopStockIndex.set(id, bookId, 0);
+        }
+        return toDetailDto(shop);
     }
 
     /**
-     * Elimina un libro de la tienda
+     * Elimina un libro del inventario de la tienda
      *
      * @param id     Shop id
      * @param bookId Book id
@@ -189,17 +290,57 @@ public class ShopServiceImpl implements ShopService {
      */
     @Override
     public GetShopDto removeBookFromShop(UUID id, Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new BookNotFoundException(bookId.toString()));
+        if (!bookRepository.existsById(bookId)) {
+            throw new BookNotFoundException(bookId.toString());
+        }
         Shop shop = shopRepository.findById(id)
                 .orElseThrow(() -> new ShopNotFoundException(id.toString()));
+        shopBookRepository.deleteByShopIdAndBookId(id, bookId);
+        shopStockIndex.remove(id, bookId);
+        return toDetailDto(shop);
+    }
+
+    /**
+     * Fija el stock de un libro en la tienda, añadiéndolo al inventario si no estaba
+     *
+     * @param id     Shop id
+     * @param bookId Book id
+     * @param stock  stock del libro en la tienda
+     * @return libro del inventario con su stock
+     * @throws ShopNotFoundException Si la tienda no se encuentra.
+     */
+    @Override
+    public ShopBookDto setBookStock(UUID id, Long bookId, Integer stock) {
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new BookNotFoundException(bookId.toString()));
+        if (!shopRepository.existsById(id)) {
+            throw new ShopNotFoundException(SHOP_NOT_FOUND_WITH_ID_MSG + id);
+        }
+        ShopBook shopBook = shopBookRepository.findByShopIdAndBookId(id, bookId)
+                .orElseGet(() -> ShopBook.builder().shopId(id).bookId(bookId).build());
+        shopBook.setStock(stock);
+        shopBook.setUpdatedAt(LocalDateTime.now());
+        shopBook = shopBookRepository.save(shopBook);
+        shopStockIndex.set(id, bookId, stock);
+        return shopMapper.toShopBookDto(shopBook, book);
+    }
 
-        Set<Book> books = shop.getBooks()
-                .stream()
-                .filter(b -> !b.equals(book))
-                .collect(Collectors.toSet());
-        shop.setBooks(books);
-        return shopMapper.toGetShopDto(shopRepository.save(shop));
+    /**
+     * Obtiene las tiendas que tienen stock de un libro. Se resuelve con el índice en memoria y, si
+     * todavía no está construido, con una única consulta al inventario.
+     *
+     * @param bookId Book id
+     * @return tiendas con stock ordenadas de mayor a menor stock
+     */
+    @Override
+    public List<ShopStockDto> getBookAvailability(Long bookId) {
+        if (!bookRepository.existsById(bookId)) {
+            throw new BookNotFoundException(bookId.toString());
+        }
+        return shopStockIndex.find(bookId).orElseGet(() -> shopBookRepository.findByBookIdAndStockGreaterThan(bookId, 0).stream()
+                .map(shopBook -> new ShopStockDto(shopBook.getShopId(), shopBook.getStock()))
+                .sorted(Comparator.comparing(ShopStockDto::getStock).reversed())
+                .toList());
     }
 
     /**
@@ -211,15 +352,19 @@ public class ShopServiceImpl implements ShopService {
      */
     @Override
     public GetShopDto addClientToShop(UUID id, UUID clientId) {
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new ClientNotFound("id", clientId.toString()));
+        if (!clientRepository.existsById(clientId)) {
+            throw new ClientNotFound("id", clientId.toString());
+        }
         Shop shop = shopRepository.findById(id)
                 .orElseThrow(() -> new ShopNotFoundException(id.toString()));
-
-        Set<Client> clients = new HashSet<>(shop.getClients());
-        clients.add(client);
-        shop.setClients(clients);
-        return shopMapper.toGetShopDto(shopRepository.save(shop));
+        if (!shopClientRepository.existsByShopIdAndClientId(id, clientId)) {
+            shopClientRepository.save(ShopClient.builder()
+                    .shopId(id)
+                    .clientId(clientId)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        return toDetailDto(shop);
     }
 
     /**
@@ -231,17 +376,173 @@ public class ShopServiceImpl implements ShopService {
      */
     @Override
     public GetShopDto removeClientFromShop(UUID id, UUID clientId) {
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new ClientNotFound("id", clientId.toString()));
+        if (!clientRepository.existsById(clientId)) {
+            throw new ClientNotFound("id", clientId.toString());
+        }
         Shop shop = shopRepository.findById(id)
                 .orElseThrow(() -> new ShopNotFoundException(id.toString()));
+        shopClientRepository.deleteByShopIdAndClientId(id, clientId);
+        return toDetailDto(shop);
+    }
 
-        Set<Client> clients = shop.getClients()
-                .stream()
-                .filter(c -> !c.equals(client))
-                .collect(Collectors.toSet());
-        shop.setClients(clients);
-        return shopMapper.toGetShopDto(shopRepository.save(shop));
+    /**
+     * Obtiene una página del inventario de libros de la tienda
+     *
+     * @param id       Shop id
+     * @param pageable paginación
+     * @return página de libros con su stock en la tienda
+     * @throws ShopNotFoundException Si la tienda no se encuentra.
+     */
+    @Override
+    public Page<ShopBookDto> getShopBooks(UUID id, Pageable pageable) {
+        if (!shopRepository.existsById(id)) {
+            throw new ShopNotFoundException(SHOP_NOT_FOUND_WITH_ID_MSG + id);
+        }
+        Page<ShopBook> page = shopBookRepository.findByShopId(id, pageable);
+        Map<Long, Book> books = bookRepository.findAllById(page.map(ShopBook::getBookId).getContent()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return page.map(shopBook -> shopMapper.toShopBookDto(shopBook, books.get(shopBook.getBookId())));
+    }
+
+    /**
+     * Obtiene una página de los clientes de la tienda
+     *
+     * @param id       Shop id
+     * @param pageable paginación
+     * @return página de clientes
+     * @throws ShopNotFoundException Si la tienda no se encuentra.
+     */
+    @Override
+    public Page<ClientDto> getShopClients(UUID id, Pageable pageable) {
+        if (!shopRepository.existsById(id)) {
+            throw new ShopNotFoundException(SHOP_NOT_FOUND_WITH_ID_MSG + id);
+        }
+        Page<ShopClient> page = shopClientRepository.findByShopId(id, pageable);
+        List<ClientDto> clients = clientRepository.findAllById(page.map(ShopClient::getClientId).getContent()).stream()
+                .map(ClientMapper::toDto)
+                .toList();
+        return new PageImpl<>(clients, page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Obtiene las tiendas más cercanas a un punto o al centroide de un código postal. Con radio devuelve
+     * las tiendas dentro del radio; sin radio, las más cercanas. Se resuelve con el índice espacial en
+     * memoria y, si todavía no está construido, con una única consulta de las tiendas con coordenadas.
+     *
+     * @param latitude   latitud del punto de búsqueda
+     * @param longitude  longitud del punto de búsqueda
+     * @param postalCode código postal, si no se indican coordenadas
+     * @param radiusKm   radio en kilómetros, opcional
+     * @param limit      número máximo de tiendas
+     * @return tiendas ordenadas por distancia
+     * @throws ShopLocationException Si la ubicación no es válida o el código postal no se conoce.
+     */
+    @Override
+    public List<ShopDistanceDto> getNearbyShops(Double latitude, Double longitude, String postalCode, Double radiusKm, int limit) {
+        GeoPoint origin = resolveOrigin(latitude, longitude, postalCode);
+        if (radiusKm != null && radiusKm <= 0) {
+            throw new ShopLocationException("El radio debe ser mayor que 0");
+        }
+        int max = Math.max(1, Math.min(limit, MAX_NEARBY_SHOPS));
+        Optional<List<ShopDistanceDto>> indexed = radiusKm == null
+                ? shopGeoIndex.nearest(origin, max)
+                : shopGeoIndex.within(origin, radiusKm, max);
+        return indexed.orElseGet(() -> shopRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull().stream()
+                .map(shop -> new ShopDistanceDto(shop.getId(), shop.getName(),
+                        shop.getLocation() == null ? null : shop.getLocation().city(),
+                        shop.getLatitude(), shop.getLongitude(),
+                        Math.round(origin.distanceKm(shop.getLatitude(), shop.getLongitude()) * 1000) / 1000.0))
+                .filter(dto -> radiusKm == null || dto.getDistanceKm() <= radiusKm)
+                .sorted(Comparator.comparing(ShopDistanceDto::getDistanceKm))
+                .limit(max)
+                .toList());
+    }
+
+    /**
+     * Resuelve el punto de búsqueda de las coordenadas o del código postal
+     *
+     * @param latitude   latitud
+     * @param longitude  longitud
+     * @param postalCode código postal
+     * @return punto de búsqueda
+     */
+    private GeoPoint resolveOrigin(Double latitude, Double longitude, String postalCode) {
+        if (latitude != null && longitude != null) {
+            if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+                throw new ShopLocationException("Coordenadas no válidas: " + latitude + ", " + longitude);
+            }
+            return new GeoPoint(latitude, longitude);
+        }
+        if (latitude != null || longitude != null) {
+            throw new ShopLocationException("Hay que indicar la latitud y la longitud");
+        }
+        if (postalCode == null || postalCode.isBlank()) {
+            throw new ShopLocationException("Hay que indicar las coordenadas o el código postal");
+        }
+        return postalCodeCentroids.resolve(postalCode)
+                .orElseThrow(() -> new ShopLocationException("Código postal desconocido: " + postalCode));
+    }
+
+    /**
+     * Completa las coordenadas de la tienda con el centroide de su código postal si no las tiene
+     *
+     * @param shop Shop
+     */
+    private void resolveCoordinates(Shop shop) {
+        if (shop.getLatitude() != null && shop.getLongitude() != null) {
+            return;
+        }
+        if (shop.getLatitude() != null || shop.getLongitude() != null) {
+            throw new ShopLocationException("Hay que indicar la latitud y la longitud");
+        }
+        if (shop.getLocation() != null) {
+            postalCodeCentroids.resolve(shop.getLocation().postalCode()).ifPresent(point -> {
+                shop.setLatitude(point.latitude());
+                shop.setLongitude(point.longitude());
+            });
+        }
+    }
+
+    /**
+     * Convierte una tienda a DTO con los contadores de libros, clientes y pedidos
+     *
+     * @param shop Shop
+     * @return GetShopDto
+     */
+    private GetShopDto toDetailDto(Shop shop) {
+        return toDetailDto(shop, FieldSelection.ALL);
+    }
+
+    /**
+     * Convierte una tienda a DTO con los contadores seleccionados de libros, clientes y pedidos
+     *
+     * @param shop      Shop
+     * @param selection Campos seleccionados
+     * @return GetShopDto
+     */
+    private GetShopDto toDetailDto(Shop shop, FieldSelection selection) {
+        GetShopDto dto = shopMapper.toGetShopDto(shop);
+        if (selection.includes(BOOK_COUNT_FIELD)) {
+            dto.setBookCount(shopBookRepository.countByShopId(shop.getId()));
+        }
+        if (selection.includes(CLIENT_COUNT_FIELD)) {
+            dto.setClientCount(shopClientRepository.countByShopId(shop.getId()));
+        }
+        if (selection.includes(ORDER_COUNT_FIELD)) {
+            dto.setOrderCount(referenceCountService.count(ReferenceType.SHOP_ORDERS, shop.getId()));
+        }
+        return dto;
     }
 
+    /**
+     * Convierte las filas [id de la tienda, total] de una consulta agrupada en un mapa
+     *
+     * @param rows filas
+     * @return totales por tienda
+     */
+    private static Map<UUID, Long> toCountMap(List<Object[]> rows) {
+        Map<UUID, Long> counts = new HashMap<>();
+        rows.forEach(row -> counts.put((UUID) row[0], ((Number) row[1]).longValue()));
+        return counts;
+    }
 }
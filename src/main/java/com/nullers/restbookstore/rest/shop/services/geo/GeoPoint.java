@@ -0,0 +1,31 @@
+package com.nullers.restbookstore.rest.shop.services.geo;
+
+/**
+ * Punto geográfico en grados decimales
+ *
+ * @param latitude  latitud
+ * @param longitude longitud
+ */
+public record GeoPoint(double latitude, double longitude) {
+
+    /**
+     * Radio medio de la Tierra en kilómetros
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /**
+     * Distancia de círculo máximo (haversine) a otro punto
+     *
+     * @param latitude  latitud del otro punto
+     * @param longitude longitud del otro punto
+     * @return distancia en kilómetros
+     */
+    public double distanceKm(double latitude, double longitude) {
+        double dLat = Math.toRadians(latitude - this.latitude);
+        double dLon = Math.toRadians(longitude - this.longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(this.latitude)) * Math.cos(Math.toRadians(latitude))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
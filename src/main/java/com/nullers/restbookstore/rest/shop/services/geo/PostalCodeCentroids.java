@@ -0,0 +1,96 @@
+package com.nullers.restbookstore.rest.shop.services.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Centroides de los códigos postales cargados del fichero incluido en la aplicación. Cada línea tiene
+ * el formato codigo;latitud;longitud y el código puede ser completo (5 dígitos) o el prefijo de la
+ * provincia (2 dígitos); un código postal se resuelve por coincidencia exacta y, si no está, por el
+ * centroide de su provincia.
+ */
+@Slf4j
+@Component
+public class PostalCodeCentroids {
+
+    private static final int PROVINCE_PREFIX_LENGTH = 2;
+
+    private final Map<String, GeoPoint> centroids;
+
+    /**
+     * Constructor PostalCodeCentroids
+     *
+     * @param resource ruta del fichero de centroides en el classpath
+     */
+    @Autowired
+    public PostalCodeCentroids(@Value("${shops.geo.postal-codes:geo/postal-codes.csv}") String resource) {
+        this.centroids = load(resource);
+    }
+
+    /**
+     * Resuelve el centroide de un código postal
+     *
+     * @param postalCode código postal
+     * @return centroide, o vacío si no se conoce ni el código ni su provincia
+     */
+    public Optional<GeoPoint> resolve(String postalCode) {
+        if (postalCode == null || postalCode.isBlank()) {
+            return Optional.empty();
+        }
+        String code = postalCode.trim();
+        GeoPoint point = centroids.get(code);
+        if (point == null && code.length() > PROVINCE_PREFIX_LENGTH) {
+            point = centroids.get(code.substring(0, PROVINCE_PREFIX_LENGTH));
+        }
+        return Optional.ofNullable(point);
+    }
+
+    /**
+     * Número de centroides cargados
+     *
+     * @return centroides
+     */
+    public int size() {
+        return centroids.size();
+    }
+
+    /**
+     * Carga el fichero de centroides ignorando las líneas vacías, los comentarios y las líneas mal formadas
+     *
+     * @param resource ruta del fichero en el classpath
+     * @return centroides por código
+     */
+    private static Map<String, GeoPoint> load(String resource) {
+        Map<String, GeoPoint> loaded = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(resource).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(";");
+                if (parts.length < 3 || parts[0].startsWith("#")) {
+                    continue;
+                }
+                try {
+                    loaded.put(parts[0].trim(), new GeoPoint(Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim())));
+                } catch (NumberFormatException e) {
+                    log.warn("Línea de centroides no válida: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            log.error("No se han podido cargar los centroides de los códigos postales de " + resource, e);
+        }
+        log.info("Cargados {} centroides de códigos postales", loaded.size());
+        return Map.copyOf(loaded);
+    }
+}
@@ -0,0 +1,443 @@
+package com.nullers.restbookstore.rest.shop.services.geo;
+
+import com.nullers.restbookstore.rest.shop.dto.ShopDistanceDto;
+import com.nullers.restbookstore.rest.shop.model.Shop;
+import com.nullers.restbookstore.rest.shop.repository.ShopRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Índice espacial en memoria de las tiendas con coordenadas: una rejilla de celdas de latitud/longitud
+ * con búsquedas de las k tiendas más cercanas (recorriendo anillos de celdas alrededor del origen) y por
+ * radio. Se actualiza en cada escritura de una tienda y se reconstruye desde la base de datos; durante
+ * la reconstrucción las escrituras se aplican también al índice nuevo.
+ */
+@Slf4j
+@Component
+public class ShopGeoIndex {
+
+    /**
+     * Tamaño de celda en grados (unos 28 km de latitud)
+     */
+    static final double CELL_DEGREES = 0.25;
+
+    private static final double KM_PER_DEGREE = Math.PI * GeoPoint.EARTH_RADIUS_KM / 180;
+
+    private static final int COLUMNS = (int) Math.round(360 / CELL_DEGREES);
+
+    private static final int MAX_RINGS = 32;
+
+    private static final long MAX_SCANNED_CELLS = 4096;
+
+    private final ShopRepository shopRepository;
+
+    private final boolean enabled;
+
+    private final Object writeLock = new Object();
+
+    private Grid current = new Grid();
+
+    private Grid building;
+
+    private volatile boolean ready;
+
+    /**
+     * Constructor ShopGeoIndex
+     *
+     * @param shopRepository repositorio de tiendas
+     * @param enabled        si el índice está activo
+     */
+    @Autowired
+    public ShopGeoIndex(ShopRepository shopRepository, @Value("${shops.geo-index.enabled:true}") boolean enabled) {
+        this.shopRepository = shopRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Indica si el índice está construido y puede usarse
+     *
+     * @return true si está listo
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Indexa una tienda; si no tiene coordenadas se quita del índice
+     *
+     * @param shop tienda
+     */
+    public void put(Shop shop) {
+        if (!enabled) {
+            return;
+        }
+        if (shop.getLatitude() == null || shop.getLongitude() == null) {
+            remove(shop.getId());
+            return;
+        }
+        Entry entry = new Entry(shop.getId(), shop.getName(),
+                shop.getLocation() == null ? null : shop.getLocation().city(),
+                shop.getLatitude(), shop.getLongitude());
+        synchronized (writeLock) {
+            current.put(entry);
+            if (building != null) {
+                building.put(entry);
+            }
+        }
+    }
+
+    /**
+     * Quita una tienda del índice
+     *
+     * @param id id de la tienda
+     */
+    public void remove(UUID id) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            current.remove(id);
+            if (building != null) {
+                building.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Devuelve las k tiendas más cercanas a un punto
+     *
+     * @param origin punto de búsqueda
+     * @param k      número de tiendas
+     * @return tiendas ordenadas por distancia, o vacío si el índice no está disponible
+     */
+    public Optional<List<ShopDistanceDto>> nearest(GeoPoint origin, int k) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        return Optional.of(grid().nearest(origin, k));
+    }
+
+    /**
+     * Devuelve las tiendas a menos de un radio de un punto
+     *
+     * @param origin   punto de búsqueda
+     * @param radiusKm radio en kilómetros
+     * @param limit    número máximo de tiendas
+     * @return tiendas ordenadas por distancia, o vacío si el índice no está disponible
+     */
+    public Optional<List<ShopDistanceDto>> within(GeoPoint origin, double radiusKm, int limit) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        return Optional.of(grid().within(origin, radiusKm, limit));
+    }
+
+    /**
+     * Reconstruye el índice al arrancar y periódicamente
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shops.geo-index.rebuild-cron:0 45 4 * * *}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Grid next = new Grid();
+        synchronized (writeLock) {
+            building = next;
+        }
+        long start = System.currentTimeMillis();
+        try (Stream<Object[]> rows = shopRepository.streamGeoViews()) {
+            rows.forEach(row -> next.putIfAbsent(new Entry((UUID) row[0], (String) row[1], (String) row[2],
+                    ((Number) row[3]).doubleValue(), ((Number) row[4]).doubleValue())));
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                building = null;
+            }
+            log.error("Error al reconstruir el índice espacial de tiendas", e);
+            return;
+        }
+        synchronized (writeLock) {
+            current = building;
+            building = null;
+        }
+        ready = true;
+        log.info("Índice espacial de tiendas reconstruido con {} tiendas en {} ms",
+                next.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Devuelve la rejilla actual
+     *
+     * @return rejilla
+     */
+    private Grid grid() {
+        synchronized (writeLock) {
+            return current;
+        }
+    }
+
+    /**
+     * Fila de la rejilla de una latitud
+     *
+     * @param latitude latitud
+     * @return fila
+     */
+    static int row(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    /**
+     * Columna de la rejilla de una longitud
+     *
+     * @param longitude longitud
+     * @return columna
+     */
+    static int column(double longitude) {
+        return Math.floorMod((int) Math.floor(longitude / CELL_DEGREES), COLUMNS);
+    }
+
+    /**
+     * Clave de una celda
+     *
+     * @param row    fila
+     * @param column columna
+     * @return clave
+     */
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (Math.floorMod(column, COLUMNS) & 0xffffffffL);
+    }
+
+    /**
+     * Tienda indexada
+     *
+     * @param id        id de la tienda
+     * @param name      nombre
+     * @param city      ciudad
+     * @param latitude  latitud
+     * @param longitude longitud
+     */
+    private record Entry(UUID id, String name, String city, double latitude, double longitude) {
+    }
+
+    /**
+     * Tienda candidata con su distancia al origen
+     *
+     * @param entry      tienda
+     * @param distanceKm distancia en kilómetros
+     */
+    private record Candidate(Entry entry, double distanceKm) {
+
+        /**
+         * Convierte el candidato a DTO
+         *
+         * @return ShopDistanceDto
+         */
+        ShopDistanceDto toDto() {
+            return new ShopDistanceDto(entry.id(), entry.name(), entry.city(), entry.latitude(), entry.longitude(),
+                    Math.round(distanceKm * 1000) / 1000.0);
+        }
+    }
+
+    /**
+     * Rejilla de celdas con las tiendas de cada celda
+     */
+    private static final class Grid {
+
+        private final Map<Long, List<Entry>> cells = new HashMap<>();
+
+        private final Map<UUID, Entry> entries = new HashMap<>();
+
+        /**
+         * Indexa una tienda sustituyendo su posición anterior
+         *
+         * @param entry tienda
+         */
+        synchronized void put(Entry entry) {
+            remove(entry.id());
+            entries.put(entry.id(), entry);
+            cells.computeIfAbsent(cellKey(row(entry.latitude()), column(entry.longitude())), key -> new ArrayList<>()).add(entry);
+        }
+
+        /**
+         * Indexa una tienda si no estaba ya indexada por una escritura posterior
+         *
+         * @param entry tienda
+         */
+        synchronized void putIfAbsent(Entry entry) {
+            if (!entries.containsKey(entry.id())) {
+                put(entry);
+            }
+        }
+
+        /**
+         * Quita una tienda
+         *
+         * @param id id de la tienda
+         */
+        synchronized void remove(UUID id) {
+            Entry old = entries.remove(id);
+            if (old == null) {
+                return;
+            }
+            long key = cellKey(row(old.latitude()), column(old.longitude()));
+            List<Entry> cell = cells.get(key);
+            cell.remove(old);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+
+        /**
+         * Busca las k tiendas más cercanas recorriendo anillos de celdas hasta que la k-ésima está más
+         * cerca que cualquier celda sin recorrer; si el origen está demasiado lejos de las tiendas se
+         * recorren todas
+         *
+         * @param origin punto de búsqueda
+         * @param k      número de tiendas
+         * @return tiendas ordenadas por distancia
+         */
+        synchronized List<ShopDistanceDto> nearest(GeoPoint origin, int k) {
+            if (entries.isEmpty() || k <= 0) {
+                return List.of();
+            }
+            PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distanceKm).reversed());
+            Consumer<Entry> offer = entry -> {
+                best.add(new Candidate(entry, origin.distanceKm(entry.latitude(), entry.longitude())));
+                if (best.size() > k) {
+                    best.poll();
+                }
+            };
+            int row = row(origin.latitude());
+            int column = column(origin.longitude());
+            int seen = 0;
+            for (int ring = 0; ring <= MAX_RINGS; ring++) {
+                seen += scanRing(row, column, ring, offer);
+                if (seen == entries.size()
+                        || (best.size() == k && best.peek().distanceKm() <= coveredKm(origin, ring))) {
+                    return sorted(best);
+                }
+            }
+            best.clear();
+            entries.values().forEach(offer);
+            return sorted(best);
+        }
+
+        /**
+         * Busca las tiendas a menos de un radio recorriendo las celdas que cubren el radio; si son demasiadas
+         * se recorren todas las tiendas
+         *
+         * @param origin   punto de búsqueda
+         * @param radiusKm radio en kilómetros
+         * @param limit    número máximo de tiendas
+         * @return tiendas ordenadas por distancia
+         */
+        synchronized List<ShopDistanceDto> within(GeoPoint origin, double radiusKm, int limit) {
+            List<Candidate> found = new ArrayList<>();
+            Consumer<Entry> offer = entry -> {
+                double distance = origin.distanceKm(entry.latitude(), entry.longitude());
+                if (distance <= radiusKm) {
+                    found.add(new Candidate(entry, distance));
+                }
+            };
+            int rows = (int) Math.ceil(radiusKm / (CELL_DEGREES * KM_PER_DEGREE));
+            double cos = Math.cos(Math.toRadians(Math.min(89.0, Math.abs(origin.latitude()) + (rows + 1) * CELL_DEGREES)));
+            int columns = (int) Math.ceil(radiusKm / (CELL_DEGREES * KM_PER_DEGREE * cos));
+            if ((2L * rows + 1) * (2L * columns + 1) > Math.min(MAX_SCANNED_CELLS, Math.max(entries.size(), 1))) {
+                entries.values().forEach(offer);
+            } else {
+                int row = row(origin.latitude());
+                int column = column(origin.longitude());
+                for (int r = row - rows; r <= row + rows; r++) {
+                    for (int c = column - columns; c <= column + columns; c++) {
+                        List<Entry> cell = cells.get(cellKey(r, c));
+                        if (cell != null) {
+                            cell.forEach(offer);
+                        }
+                    }
+                }
+            }
+            return found.stream()
+                    .sorted(Comparator.comparingDouble(Candidate::distanceKm))
+                    .limit(limit)
+                    .map(Candidate::toDto)
+                    .toList();
+        }
+
+        /**
+         * Número de tiendas indexadas
+         *
+         * @return tiendas
+         */
+        synchronized int size() {
+            return entries.size();
+        }
+
+        /**
+         * Recorre las celdas del anillo indicado alrededor de una celda
+         *
+         * @param row    fila central
+         * @param column columna central
+         * @param ring   distancia en celdas al centro
+         * @param offer  consumidor de las tiendas
+         * @return tiendas recorridas
+         */
+        private int scanRing(int row, int column, int ring, Consumer<Entry> offer) {
+            int seen = 0;
+            for (int r = row - ring; r <= row + ring; r++) {
+                boolean edge = r == row - ring || r == row + ring;
+                int step = edge || ring == 0 ? 1 : 2 * ring;
+                for (int c = column - ring; c <= column + ring; c += step) {
+                    List<Entry> cell = cells.get(cellKey(r, c));
+                    if (cell != null) {
+                        cell.forEach(offer);
+                        seen += cell.size();
+                    }
+                }
+            }
+            return seen;
+        }
+
+        /**
+         * Distancia mínima desde el origen a cualquier celda fuera de los anillos ya recorridos
+         *
+         * @param origin punto de búsqueda
+         * @param ring   último anillo recorrido
+         * @return distancia en kilómetros
+         */
+        private static double coveredKm(GeoPoint origin, int ring) {
+            double cos = Math.cos(Math.toRadians(Math.min(90.0, Math.abs(origin.latitude()) + (ring + 1) * CELL_DEGREES)));
+            return ring * CELL_DEGREES * KM_PER_DEGREE * cos;
+        }
+
+        /**
+         * Ordena los candidatos por distancia
+         *
+         * @param candidates candidatos
+         * @return tiendas ordenadas por distancia
+         */
+        private static List<ShopDistanceDto> sorted(PriorityQueue<Candidate> candidates) {
+            return candidates.stream()
+                    .sorted(Comparator.comparingDouble(Candidate::distanceKm))
+                    .map(Candidate::toDto)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.nullers.restbookstore.rest.shop.services.stock;
+
+import com.nullers.restbookstore.rest.shop.dto.ShopStockDto;
+import com.nullers.restbookstore.rest.shop.repository.ShopBookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido en memoria del stock de las tiendas: para cada libro guarda un mapa de bits con las
+ * tiendas que tienen stock y el stock de cada una. Las tiendas se numeran con ordinales consecutivos para
+ * que el mapa de bits sea denso. Se actualiza en cada escritura del inventario y se reconstruye desde la
+ * base de datos; durante la reconstrucción las escrituras se aplican también al índice nuevo.
+ */
+@Slf4j
+@Component
+public class ShopStockIndex {
+
+    private final ShopBookRepository shopBookRepository;
+
+    private final boolean enabled;
+
+    private final Object writeLock = new Object();
+
+    private Inventory current = new Inventory();
+
+    private Inventory building;
+
+    private volatile boolean ready;
+
+    /**
+     * Constructor ShopStockIndex
+     *
+     * @param shopBookRepository repositorio del inventario de las tiendas
+     * @param enabled            si el índice está activo
+     */
+    @Autowired
+    public ShopStockIndex(ShopBookRepository shopBookRepository,
+                          @Value("${shops.stock-index.enabled:true}") boolean enabled) {
+        this.shopBookRepository = shopBookRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Indica si el índice está construido y puede usarse
+     *
+     * @return true si está listo
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Fija el stock de un libro en una tienda
+     *
+     * @param shopId id de la tienda
+     * @param bookId id del libro
+     * @param stock  stock
+     */
+    public void set(UUID shopId, Long bookId, int stock) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            current.set(shopId, bookId, stock, true);
+            if (building != null) {
+                building.set(shopId, bookId, stock, true);
+            }
+        }
+    }
+
+    /**
+     * Suma o resta stock de un libro en una tienda ya indexado
+     *
+     * @param shopId id de la tienda
+     * @param bookId id del libro
+     * @param delta  cantidad a sumar (negativa para restar)
+     */
+    public void adjust(UUID shopId, Long bookId, int delta) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            current.adjust(shopId, bookId, delta);
+            if (building != null) {
+                building.adjust(shopId, bookId, delta);
+            }
+        }
+    }
+
+    /**
+     * Quita un libro del inventario de una tienda
+     *
+     * @param shopId id de la tienda
+     * @param bookId id del libro
+     */
+    public void remove(UUID shopId, Long bookId) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            current.remove(shopId, bookId);
+            if (building != null) {
+                building.remove(shopId, bookId);
+            }
+        }
+    }
+
+    /**
+     * Quita todo el inventario de una tienda
+     *
+     * @param shopId id de la tienda
+     */
+    public void removeShop(UUID shopId) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            current.removeShop(shopId);
+            if (building != null) {
+                building.removeShop(shopId);
+            }
+        }
+    }
+
+    /**
+     * Devuelve las tiendas con stock de un libro ordenadas de mayor a menor stock
+     *
+     * @param bookId id del libro
+     * @return tiendas con stock, o vacío si el índice no está disponible
+     */
+    public Optional<List<ShopStockDto>> find(Long bookId) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        Inventory inventory;
+        synchronized (writeLock) {
+            inventory = current;
+        }
+        return Optional.of(inventory.find(bookId));
+    }
+
+    /**
+     * Reconstruye el índice al arrancar y periódicamente para corregir desviaciones y liberar los ordinales
+     * de las tiendas eliminadas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shops.stock-index.rebuild-cron:0 30 4 * * *}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Inventory next = new Inventory();
+        synchronized (writeLock) {
+            building = next;
+        }
+        long start = System.currentTimeMillis();
+        try (Stream<Object[]> rows = shopBookRepository.streamStock()) {
+            rows.forEach(row -> next.set((UUID) row[0], ((Number) row[1]).longValue(),
+                    row[2] == null ? 0 : ((Number) row[2]).intValue(), false));
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                building = null;
+            }
+            log.error("Error al reconstruir el índice de stock de las tiendas", e);
+            return;
+        }
+        synchronized (writeLock) {
+            current = building;
+            building = null;
+        }
+        ready = true;
+        log.info("Índice de stock de las tiendas reconstruido con {} libros en {} ms",
+                next.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Inventario indexado: ordinales de las tiendas y stock por libro
+     */
+    private static final class Inventory {
+
+        private final Map<UUID, Integer> ordinals = new HashMap<>();
+
+        private final List<UUID> shops = new ArrayList<>();
+
+        private final Map<Long, BookStock> books = new HashMap<>();
+
+        /**
+         * Fija el stock de un libro en una tienda
+         *
+         * @param shopId    id de la tienda
+         * @param bookId    id del libro
+         * @param stock     stock
+         * @param overwrite si se sobrescribe un valor ya indexado
+         */
+        synchronized void set(UUID shopId, Long bookId, int stock, boolean overwrite) {
+            int ordinal = ordinals.computeIfAbsent(shopId, id -> {
+                shops.add(id);
+                return shops.size() - 1;
+            });
+            BookStock book = books.computeIfAbsent(bookId, id -> new BookStock());
+            if (overwrite || !book.tracks(ordinal)) {
+                book.set(ordinal, stock);
+            }
+        }
+
+        /**
+         * Suma o resta stock de un libro ya indexado en una tienda
+         *
+         * @param shopId id de la tienda
+         * @param bookId id del libro
+         * @param delta  cantidad a sumar
+         */
+        synchronized void adjust(UUID shopId, Long bookId, int delta) {
+            Integer ordinal = ordinals.get(shopId);
+            BookStock book = books.get(bookId);
+            if (ordinal != null && book != null && book.tracks(ordinal)) {
+                book.set(ordinal, book.stock(ordinal) + delta);
+            }
+        }
+
+        /**
+         * Quita un libro del inventario de una tienda
+         *
+         * @param shopId id de la tienda
+         * @param bookId id del libro
+         */
+        synchronized void remove(UUID shopId, Long bookId) {
+            Integer ordinal = ordinals.get(shopId);
+            BookStock book = books.get(bookId);
+            if (ordinal != null && book != null) {
+                book.clear(ordinal);
+                if (book.isEmpty()) {
+                    books.remove(bookId);
+                }
+            }
+        }
+
+        /**
+         * Quita todo el inventario de una tienda
+         *
+         * @param shopId id de la tienda
+         */
+        synchronized void removeShop(UUID shopId) {
+            Integer ordinal = ordinals.get(shopId);
+            if (ordinal != null) {
+                books.values().forEach(book -> book.clear(ordinal));
+                books.values().removeIf(BookStock::isEmpty);
+            }
+        }
+
+        /**
+         * Devuelve las tiendas con stock de un libro recorriendo su mapa de bits
+         *
+         * @param bookId id del libro
+         * @return tiendas con stock ordenadas de mayor a menor stock
+         */
+        synchronized List<ShopStockDto> find(Long bookId) {
+            BookStock book = books.get(bookId);
+            if (book == null) {
+                return List.of();
+            }
+            List<ShopStockDto> result = new ArrayList<>(book.inStock.cardinality());
+            for (int i = book.inStock.nextSetBit(0); i >= 0; i = book.inStock.nextSetBit(i + 1)) {
+                result.add(new ShopStockDto(shops.get(i), book.stock(i)));
+            }
+            result.sort(Comparator.comparing(ShopStockDto::getStock).reversed());
+            return result;
+        }
+
+        /**
+         * Número de libros indexados
+         *
+         * @return libros indexados
+         */
+        synchronized int size() {
+            return books.size();
+        }
+    }
+
+    /**
+     * Stock de un libro por ordinal de tienda: un mapa de bits con las tiendas que lo tienen en el
+     * inventario, otro con las que tienen stock y el stock de cada una
+     */
+    private static final class BookStock {
+
+        private final BitSet tracked = new BitSet();
+
+        private final BitSet inStock = new BitSet();
+
+        private int[] counts = new int[0];
+
+        /**
+         * Indica si la tienda tiene el libro en el inventario
+         *
+         * @param ordinal ordinal de la tienda
+         * @return true si lo tiene
+         */
+        boolean tracks(int ordinal) {
+            return tracked.get(ordinal);
+        }
+
+        /**
+         * Devuelve el stock en una tienda
+         *
+         * @param ordinal ordinal de la tienda
+         * @return stock
+         */
+        int stock(int ordinal) {
+            return ordinal < counts.length ? counts[ordinal] : 0;
+        }
+
+        /**
+         * Fija el stock en una tienda
+         *
+         * @param ordinal ordinal de la tienda
+         * @param stock   stock
+         */
+        void set(int ordinal, int stock) {
+            if (ordinal >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(ordinal + 1, counts.length * 2));
+            }
+            counts[ordinal] = Math.max(stock, 0);
+            tracked.set(ordinal);
+            inStock.set(ordinal, stock > 0);
+        }
+
+        /**
+         * Quita el libro del inventario de una tienda
+         *
+         * @param ordinal ordinal de la tienda
+         */
+        void clear(int ordinal) {
+            if (ordinal < counts.length) {
+                counts[ordinal] = 0;
+            }
+            tracked.clear(ordinal);
+            inStock.clear(ordinal);
+        }
+
+        /**
+         * Indica si ninguna tienda tiene el libro en el inventario
+         *
+         * @return true si está vacío
+         */
+        boolean isEmpty() {
+            return tracked.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.nullers.restbookstore.rest.shop.services.stock;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Servicio que reserva y devuelve el stock de los libros en el inventario de las tiendas
+ */
+public interface ShopStockService {
+
+    /**
+     * Devuelve con una consulta el stock de varios libros en el inventario de varias tiendas
+     *
+     * @param shopIds ids de las tiendas
+     * @param bookIds ids de los libros
+     * @return stock por id de tienda y de libro, solo de los libros que están en el inventario
+     */
+    Map<UUID, Map<Long, Integer>> findStock(Collection<UUID> shopIds, Collection<Long> bookIds);
+
+    /**
+     * Resta el stock de los libros que la tienda tiene en el inventario. Los libros que la tienda no
+     * tiene en el inventario no se controlan y se ignoran.
+     *
+     * @param shopId     id de la tienda
+     * @param quantities cantidad por id de libro
+     * @return ids de los libros del inventario sin stock suficiente, que no se han restado
+     */
+    Set<Long> reserve(UUID shopId, Map<Long, Integer> quantities);
+
+    /**
+     * Devuelve stock a los libros que la tienda tiene en el inventario
+     *
+     * @param shopId     id de la tienda
+     * @param quantities cantidad por id de libro
+     */
+    void release(UUID shopId, Map<Long, Integer> quantities);
+}
@@ -0,0 +1,95 @@
+package com.nullers.restbookstore.rest.shop.services.stock;
+
+import com.nullers.restbookstore.rest.shop.repository.ShopBookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Implementación de ShopStockService con actualizaciones condicionales por libro que mantienen
+ * actualizado el índice de stock de las tiendas
+ */
+@Service
+public class ShopStockServiceImpl implements ShopStockService {
+
+    private final ShopBookRepository shopBookRepository;
+
+    private final ShopStockIndex shopStockIndex;
+
+    /**
+     * Constructor ShopStockServiceImpl
+     *
+     * @param shopBookRepository repositorio del inventario de las tiendas
+     * @param shopStockIndex     índice de stock de las tiendas
+     */
+    @Autowired
+    public ShopStockServiceImpl(ShopBookRepository shopBookRepository, ShopStockIndex shopStockIndex) {
+        this.shopBookRepository = shopBookRepository;
+        this.shopStockIndex = shopStockIndex;
+    }
+
+    /**
+     * Devuelve con una consulta el stock de varios libros en el inventario de varias tiendas
+     *
+     * @param shopIds ids de las tiendas
+     * @param bookIds ids de los libros
+     * @return stock por id de tienda y de libro, solo de los libros que están en el inventario
+     */
+    @Override
+    public Map<UUID, Map<Long, Integer>> findStock(Collection<UUID> shopIds, Collection<Long> bookIds) {
+        Map<UUID, Map<Long, Integer>> stock = new HashMap<>();
+        if (shopIds.isEmpty() || bookIds.isEmpty()) {
+            return stock;
+        }
+        for (Object[] row : shopBookRepository.findStock(shopIds, bookIds)) {
+            stock.computeIfAbsent((UUID) row[0], shopId -> new HashMap<>()).put((Long) row[1], (Integer) row[2]);
+        }
+        return stock;
+    }
+
+    /**
+     * Resta el stock de los libros que la tienda tiene en el inventario. Si la actualización condicional
+     * no modifica ninguna fila se comprueba si el libro está en el inventario para distinguir la falta de
+     * stock de un libro que la tienda no controla.
+     *
+     * @param shopId     id de la tienda
+     * @param quantities cantidad por id de libro
+     * @return ids de los libros del inventario sin stock suficiente, que no se han restado
+     */
+    @Override
+    public Set<Long> reserve(UUID shopId, Map<Long, Integer> quantities) {
+        Set<Long> outOfStock = new HashSet<>();
+        quantities.forEach((bookId, quantity) -> {
+            if (quantity <= 0) {
+                return;
+            }
+            if (shopBookRepository.decrementStock(shopId, bookId, quantity) > 0) {
+                shopStockIndex.adjust(shopId, bookId, -quantity);
+            } else if (shopBookRepository.existsByShopIdAndBookId(shopId, bookId)) {
+                outOfStock.add(bookId);
+            }
+        });
+        return outOfStock;
+    }
+
+    /**
+     * Devuelve stock a los libros que la tienda tiene en el inventario
+     *
+     * @param shopId     id de la tienda
+     * @param quantities cantidad por id de libro
+     */
+    @Override
+    public void release(UUID shopId, Map<Long, Integer> quantities) {
+        quantities.forEach((bookId, quantity) -> {
+            if (quantity > 0 && shopBookRepository.incrementStock(shopId, bookId, quantity) > 0) {
+                shopStockIndex.adjust(shopId, bookId, quantity);
+            }
+        });
+    }
+}
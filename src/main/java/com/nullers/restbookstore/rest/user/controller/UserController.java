@@ -5,6 +5,7 @@ import com.nullers.restbookstore.pagination.util.PaginationLinksUtils;
 import com.nullers.restbookstore.rest.common.PageableRequest;
 import com.nullers.restbookstore.rest.common.PageableUtil;
 import com.nullers.restbookstore.rest.orders.dto.OrderCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
 import com.nullers.restbookstore.rest.orders.models.Order;
 import com.nullers.restbookstore.rest.orders.services.OrderService;
 import com.nullers.restbookstore.rest.user.dto.UserInfoResponse;
@@ -246,13 +247,13 @@ public class UserController {
     })
     @GetMapping("/me/orders")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<PageResponse<Order>> getOrdersByUser(
+    public ResponseEntity<PageResponse<OrderSummary>> getOrdersByUser(
             @AuthenticationPrincipal User user,
             @Valid PageableRequest pageableRequest
     ) {
         Pageable pageable = PageRequest.of(pageableRequest.getPage(), pageableRequest.getSize(),
                 PageableUtil.getSort(pageableRequest));
-        return ResponseEntity.ok(PageResponse.of(orderService.getOrdersByClientId(user.getId(), pageable),
+        return ResponseEntity.ok(PageResponse.of(orderService.getOrderSummariesByClientId(user.getId(), pageable),
                 pageableRequest.getOrderBy(), pageableRequest.getOrder()));
     }
 
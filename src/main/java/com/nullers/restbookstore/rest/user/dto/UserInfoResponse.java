@@ -5,6 +5,7 @@ import com.nullers.restbookstore.rest.user.models.Role;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.Setter;
 
 import java.util.List;
 import java.util.Set;
@@ -34,6 +35,9 @@ public class UserInfoResponse {
     private Set<Role> roles = Set.of(Role.USER);
     @Schema(name = "Pedidos")
     private List<String> order;
+    @Setter
+    @Schema(name = "Número de pedidos", example = "3")
+    private long orderCount;
     @Builder.Default
     @Schema(name = "Usuario borrado", example = "true")
     private Boolean isDeleted = false;
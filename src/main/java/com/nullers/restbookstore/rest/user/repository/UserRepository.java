@@ -11,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for User entity
@@ -69,4 +70,12 @@ public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificat
     @Modifying
     @Query("UPDATE User u SET u.isDeleted = true WHERE u.id = :id")
     void updateIsDeletedToTrueById(UUID id);
+
+    /**
+     * Stream the indexed fields of all users without loading the entities
+     *
+     * @return stream of users, must be consumed inside a transaction
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User u")
+    Stream<UserSearchView> streamSearchViews();
 }
@@ -0,0 +1,29 @@
+package com.nullers.restbookstore.rest.user.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection with the user fields indexed for search
+ */
+public interface UserSearchView {
+    /**
+     * User id
+     *
+     * @return id
+     */
+    UUID getId();
+
+    /**
+     * Username
+     *
+     * @return username
+     */
+    String getUsername();
+
+    /**
+     * Email
+     *
+     * @return email
+     */
+    String getEmail();
+}
@@ -1,5 +1,9 @@
 package com.nullers.restbookstore.rest.user.services;
 
+import com.nullers.restbookstore.rest.auth.services.cache.AuthCacheService;
+import com.nullers.restbookstore.rest.auth.services.revocation.TokenRevocationService;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
+import com.nullers.restbookstore.rest.common.references.ReferenceType;
 import com.nullers.restbookstore.rest.orders.repositories.OrderRepository;
 import com.nullers.restbookstore.rest.user.dto.UserInfoResponse;
 import com.nullers.restbookstore.rest.user.dto.UserRequest;
@@ -9,6 +13,7 @@ import com.nullers.restbookstore.rest.user.exceptions.UserNotFound;
 import com.nullers.restbookstore.rest.user.mapper.UserMapper;
 import com.nullers.restbookstore.rest.user.models.User;
 import com.nullers.restbookstore.rest.user.repository.UserRepository;
+import com.nullers.restbookstore.rest.user.services.search.UserSearchIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
@@ -21,6 +26,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -38,20 +45,34 @@ public class UserServiceImpl implements UserService {
     private final OrderRepository orderRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncode;
+    private final AuthCacheService authCacheService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserSearchIndex userSearchIndex;
+    private final ReferenceCountService referenceCountService;
 
     /**
      * Constructor de la clase
      *
-     * @param userRepository  repositorio de usuarios
-     * @param orderRepository repositorio Order
-     * @param userMapper      mapper de usuarios
-     * @param passwordEncode  encoder de contraseñas
+     * @param userRepository         repositorio de usuarios
+     * @param orderRepository        repositorio Order
+     * @param userMapper             mapper de usuarios
+     * @param passwordEncode         encoder de contraseñas
+     * @param authCacheService       caché de autenticación
+     * @param tokenRevocationService lista de tokens revocados
+     * @param userSearchIndex        índice de búsqueda de usuarios
+     * @param referenceCountService  contadores de referencias
      */
-    public UserServiceImpl(UserRepository userRepository, OrderRepository orderRepository, UserMapper userMapper, PasswordEncoder passwordEncode) {
+    public UserServiceImpl(UserRepository userRepository, OrderRepository orderRepository, UserMapper userMapper, PasswordEncoder passwordEncode,
+                           AuthCacheService authCacheService, TokenRevocationService tokenRevocationService, UserSearchIndex userSearchIndex,
+                           ReferenceCountService referenceCountService) {
         this.userRepository = userRepository;
         this.orderRepository = orderRepository;
         this.userMapper = userMapper;
         this.passwordEncode = passwordEncode;
+        this.authCacheService = authCacheService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userSearchIndex = userSearchIndex;
+        this.referenceCountService = referenceCountService;
     }
 
     /**
@@ -67,6 +88,11 @@ public class UserServiceImpl implements UserService {
     @Cacheable
     public Page<UserResponse> findAll(Optional<String> username, Optional<String> email, Optional<Boolean> isDeleted, Pageable pageable) {
         log.info("Buscando todos los usuarios con username: " + username + " y borrados: " + isDeleted);
+        // Candidatos del índice de trigramas, si puede acotar la búsqueda
+        Optional<List<UUID>> candidates = userSearchIndex.search(username, email);
+        if (candidates.isPresent() && candidates.get().isEmpty()) {
+            return Page.empty(pageable);
+        }
         // Criterio de búsqueda por nombre
         Specification<User> specUsernameUser = (root, query, criteriaBuilder) ->
                 username.map(m -> criteriaBuilder.like(criteriaBuilder.lower(root.get("username")), "%" + m.toLowerCase() + "%"))
@@ -86,6 +112,9 @@ public class UserServiceImpl implements UserService {
         Specification<User> criterio = Specification.where(specUsernameUser)
                 .and(specEmailUser)
                 .and(specIsDeleted);
+        if (candidates.isPresent()) {
+            criterio = criterio.and((root, query, criteriaBuilder) -> root.get("id").in(candidates.get()));
+        }
 
         // Debe devolver un Page, por eso usamos el findAll de JPA
         return userRepository.findAll(criterio, pageable).map(userMapper::toUserResponse);
@@ -104,7 +133,9 @@ public class UserServiceImpl implements UserService {
         log.info("Buscando usuario por id: " + id);
         var user = userRepository.findById(id).orElseThrow(() -> new UserNotFound(USER_NOT_FOUND_MSG));
         var order = orderRepository.findOrderIdsByClientId(id).stream().map(p -> p.getId().toHexString()).toList();
-        return userMapper.toUserInfoResponse(user, order);
+        var response = userMapper.toUserInfoResponse(user, order);
+        response.setOrderCount(referenceCountService.count(ReferenceType.USER_ORDERS, id));
+        return response;
     }
 
     /**
@@ -123,7 +154,9 @@ public class UserServiceImpl implements UserService {
                     throw new UserNameOrEmailExists("El usuario ya existe");
                 });
         userRequest.setPassword(passwordEncode.encode(userRequest.getPassword()));
-        return userMapper.toUserResponse(userRepository.save(userMapper.toUser(userRequest)));
+        var saved = userRepository.save(userMapper.toUser(userRequest));
+        userSearchIndex.index(saved);
+        return userMapper.toUserResponse(saved);
     }
 
     /**
@@ -145,7 +178,10 @@ public class UserServiceImpl implements UserService {
                     });
         }
         userRequest.setPassword(passwordEncode.encode(userRequest.getPassword()));
-        return userMapper.toUserResponse(userRepository.save(userMapper.toUser(userRequest, id)));
+        var updated = userRepository.save(userMapper.toUser(userRequest, id));
+        userSearchIndex.index(updated);
+        invalidateCredentials(actualUser, updated);
+        return userMapper.toUserResponse(updated);
     }
 
     /**
@@ -164,7 +200,10 @@ public class UserServiceImpl implements UserService {
         if (userRequest.getPassword() != null) {
             userRequest.setPassword(passwordEncode.encode(userRequest.getPassword()));
         }
-        return userMapper.toUserResponse(userRepository.save(userMapper.toUser(userRequest, id)));
+        var updated = userRepository.save(userMapper.toUser(userRequest, id));
+        userSearchIndex.index(updated);
+        invalidateCredentials(user.get(), updated);
+        return userMapper.toUserResponse(updated);
     }
 
     /**
@@ -178,10 +217,28 @@ public class UserServiceImpl implements UserService {
     public void deleteById(UUID id) {
         log.info("Borrando usuario por id: " + id);
         User user = userRepository.findById(id).orElseThrow(() -> new UserNotFound(USER_NOT_FOUND_MSG));
-        if (orderRepository.existsByUserId(id)) {
+        if (referenceCountService.hasReferences(ReferenceType.USER_ORDERS, id)) {
             userRepository.updateIsDeletedToTrueById(id);
         } else {
             userRepository.delete(user);
+            userSearchIndex.remove(id);
+        }
+        authCacheService.invalidateUser(user.getUsername());
+        tokenRevocationService.revokeUser(user.getUsername());
+    }
+
+    /**
+     * Invalida la caché de autenticación de un usuario actualizado y revoca sus tokens si han
+     * cambiado sus roles o su nombre de usuario, ya que ambos van dentro del token
+     *
+     * @param previous usuario antes de actualizar
+     * @param updated  usuario actualizado
+     */
+    private void invalidateCredentials(User previous, User updated) {
+        authCacheService.invalidateUser(previous.getUsername());
+        if (!Objects.equals(previous.getRoles(), updated.getRoles())
+                || !Objects.equals(previous.getUsername(), updated.getUsername())) {
+            tokenRevocationService.revokeUser(previous.getUsername());
         }
     }
 }
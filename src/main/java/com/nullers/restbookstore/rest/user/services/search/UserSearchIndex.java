@@ -0,0 +1,76 @@
+package com.nullers.restbookstore.rest.user.services.search;
+
+import com.nullers.restbookstore.rest.common.search.SearchIndex;
+import com.nullers.restbookstore.rest.user.models.User;
+import com.nullers.restbookstore.rest.user.repository.UserRepository;
+import com.nullers.restbookstore.rest.user.repository.UserSearchView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Índice de trigramas sobre el nombre de usuario y el email de los usuarios
+ */
+@Component
+public class UserSearchIndex extends SearchIndex {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Constructor UserSearchIndex
+     *
+     * @param userRepository repositorio de usuarios
+     * @param enabled        si el índice está activo
+     * @param maxCandidates  número máximo de candidatos antes de consultar directamente la base de datos
+     */
+    @Autowired
+    public UserSearchIndex(UserRepository userRepository,
+                           @Value("${search.index.enabled:true}") boolean enabled,
+                           @Value("${search.index.max-candidates:5000}") int maxCandidates) {
+        super(2, enabled, maxCandidates);
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Indexa un usuario
+     *
+     * @param user usuario
+     */
+    public void index(User user) {
+        put(user.getId(), user.getUsername(), user.getEmail());
+    }
+
+    /**
+     * Busca los ids de los usuarios que pueden contener los términos indicados
+     *
+     * @param username nombre de usuario
+     * @param email    email
+     * @return candidatos, o vacío si el índice no puede acotar la búsqueda
+     */
+    public Optional<List<UUID>> search(Optional<String> username, Optional<String> email) {
+        return searchTerms(username.orElse(null), email.orElse(null));
+    }
+
+    /**
+     * Reconstruye el índice al arrancar y periódicamente para liberar las entradas obsoletas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${search.index.rebuild-cron:0 0 4 * * *}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildFrom(index -> {
+            try (Stream<UserSearchView> users = userRepository.streamSearchViews()) {
+                users.forEach(user -> index.putIfAbsent(user.getId(), user.getUsername(), user.getEmail()));
+            }
+        });
+    }
+}
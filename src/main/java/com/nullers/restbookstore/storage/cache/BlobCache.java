@@ -0,0 +1,35 @@
+package com.nullers.restbookstore.storage.cache;
+
+import com.nullers.restbookstore.storage.dto.StorageCacheMetrics;
+import com.nullers.restbookstore.storage.models.StoredFile;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * In-memory cache of the content of the most requested files
+ */
+public interface BlobCache {
+    /**
+     * Content of a file if it is cached. Every call counts as a request for the file, which is loaded into
+     * the cache once it has been requested often enough
+     *
+     * @param file Stored file
+     * @return Read-only content, or empty if it must be read from disk
+     */
+    Optional<ByteBuffer> get(StoredFile file);
+
+    /**
+     * Drop a content from the cache
+     *
+     * @param hash Hash of the content
+     */
+    void invalidate(String hash);
+
+    /**
+     * Cache metrics
+     *
+     * @return Metrics
+     */
+    StorageCacheMetrics getMetrics();
+}
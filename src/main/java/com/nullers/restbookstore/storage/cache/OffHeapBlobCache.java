@@ -0,0 +1,194 @@
+package com.nullers.restbookstore.storage.cache;
+
+import com.nullers.restbookstore.storage.dto.StorageCacheMetrics;
+import com.nullers.restbookstore.storage.models.StoredFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded LRU cache of file contents held in direct buffers, outside the Java heap. Stored contents
+ * are keyed by hash and never change, so entries only leave the cache when evicted or when their blob is
+ * deleted. A content is only admitted after it has been requested admissionHits times, so one-off
+ * requests do not push hot files out. Request counts are forgotten once too many files are tracked
+ */
+@Component
+@Slf4j
+public class OffHeapBlobCache implements BlobCache {
+    private static final int MAX_TRACKED = 10_000;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final int admissionHits;
+    private final LinkedHashMap<String, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Integer> frequencies = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong admissions = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long usedBytes;
+
+    /**
+     * Constructor
+     *
+     * @param enabled       Whether the cache is used
+     * @param maxBytes      Maximum bytes held by the cache
+     * @param maxEntryBytes Largest file that can be cached
+     * @param admissionHits Requests needed before a file is cached
+     */
+    @Autowired
+    public OffHeapBlobCache(@Value("${upload.cache.enabled:false}") boolean enabled,
+                            @Value("${upload.cache.max-bytes:67108864}") long maxBytes,
+                            @Value("${upload.cache.max-entry-bytes:2097152}") long maxEntryBytes,
+                            @Value("${upload.cache.admission-hits:2}") int admissionHits) {
+        this.enabled = enabled && maxBytes > 0;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(Math.min(maxEntryBytes, maxBytes), Integer.MAX_VALUE);
+        this.admissionHits = Math.max(admissionHits, 1);
+    }
+
+    /**
+     * Content of a file if it is cached, loading it when it has been requested often enough
+     *
+     * @param file Stored file
+     * @return Read-only content, or empty if it must be read from disk
+     */
+    @Override
+    public Optional<ByteBuffer> get(StoredFile file) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        ByteBuffer cached;
+        synchronized (entries) {
+            cached = entries.get(file.hash());
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached.duplicate());
+        }
+        misses.incrementAndGet();
+        if (file.size() > maxEntryBytes || !admit(file.hash())) {
+            return Optional.empty();
+        }
+        return load(file).map(ByteBuffer::duplicate);
+    }
+
+    /**
+     * Count a request for a content and decide whether it is hot enough to be cached
+     *
+     * @param hash Hash of the content
+     * @return true if the content should be cached
+     */
+    private boolean admit(String hash) {
+        if (frequencies.size() >= MAX_TRACKED) {
+            frequencies.clear();
+        }
+        int count = frequencies.merge(hash, 1, Integer::sum);
+        return count >= admissionHits;
+    }
+
+    /**
+     * Read a file into a direct buffer and add it to the cache, evicting the least recently used entries
+     *
+     * @param file Stored file
+     * @return Read-only content, or empty if the file could not be read
+     */
+    private Optional<ByteBuffer> load(StoredFile file) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) file.size());
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until the buffer is full
+            }
+        } catch (IOException e) {
+            log.warn("No se puede cargar en caché el fichero " + file.path().getFileName() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+        if (buffer.hasRemaining()) {
+            return Optional.empty();
+        }
+        ByteBuffer content = buffer.flip().asReadOnlyBuffer();
+        frequencies.remove(file.hash());
+        synchronized (entries) {
+            ByteBuffer previous = entries.put(file.hash(), content);
+            if (previous != null) {
+                usedBytes -= previous.capacity();
+            } else {
+                admissions.incrementAndGet();
+            }
+            usedBytes += content.capacity();
+            evict();
+        }
+        return Optional.of(content);
+    }
+
+    /**
+     * Drop the least recently used entries until the cache fits in maxBytes. Must hold the entries lock
+     */
+    private void evict() {
+        Iterator<ByteBuffer> iterator = entries.values().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().capacity();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drop a content from the cache. The direct buffer is freed by the garbage collector once no response is
+     * still writing it
+     *
+     * @param hash Hash of the content
+     */
+    @Override
+    public void invalidate(String hash) {
+        frequencies.remove(hash);
+        synchronized (entries) {
+            ByteBuffer removed = entries.remove(hash);
+            if (removed != null) {
+                usedBytes -= removed.capacity();
+            }
+        }
+    }
+
+    /**
+     * Cache metrics
+     *
+     * @return Metrics
+     */
+    @Override
+    public StorageCacheMetrics getMetrics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+        int size;
+        long used;
+        synchronized (entries) {
+            size = entries.size();
+            used = usedBytes;
+        }
+        return StorageCacheMetrics.builder()
+                .enabled(enabled)
+                .entries(size)
+                .usedBytes(used)
+                .maxBytes(maxBytes)
+                .hits(hitCount)
+                .misses(missCount)
+                .admissions(admissions.get())
+                .evictions(evictions.get())
+                .hitRate(requests == 0 ? 0 : (double) hitCount / requests)
+                .build();
+    }
+}
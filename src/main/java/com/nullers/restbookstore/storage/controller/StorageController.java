@@ -1,17 +1,39 @@
 package com.nullers.restbookstore.storage.controller;
 
+import com.nullers.restbookstore.storage.cache.BlobCache;
+import com.nullers.restbookstore.storage.dto.CreateUploadSessionDto;
+import com.nullers.restbookstore.storage.dto.StorageCacheMetrics;
+import com.nullers.restbookstore.storage.dto.UploadSessionDto;
+import com.nullers.restbookstore.storage.exceptions.StorageNotFound;
+import com.nullers.restbookstore.storage.models.StoredFile;
+import com.nullers.restbookstore.storage.services.ResumableUploadService;
 import com.nullers.restbookstore.storage.services.StorageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * StorageController
@@ -20,36 +42,284 @@ import java.io.IOException;
 @Slf4j
 @RequestMapping("/storage")
 public class StorageController {
+    /**
+     * Los ficheros almacenados llevan una marca de tiempo en el nombre y nunca cambian
+     */
+    public static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    /**
+     * Mientras el derivado no existe se sirve el original, que no debe quedarse en caché para esa URL
+     */
+    public static final String FALLBACK_CACHE_CONTROL = "no-cache";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final StorageService storageService;
+    private final BlobCache blobCache;
+    private final ResumableUploadService resumableUploadService;
 
     /**
      * StorageController
      *
-     * @param storageService Servicio de almacenamiento
+     * @param storageService         Servicio de almacenamiento
+     * @param blobCache              Caché de los ficheros más pedidos
+     * @param resumableUploadService Servicio de subidas por partes
      */
     @Autowired
-    public StorageController(StorageService storageService) {
+    public StorageController(StorageService storageService, BlobCache blobCache,
+                             ResumableUploadService resumableUploadService) {
         this.storageService = storageService;
+        this.blobCache = blobCache;
+        this.resumableUploadService = resumableUploadService;
+    }
+
+    /**
+     * Inicia una subida por partes
+     *
+     * @param request Nombre y tamaño del fichero
+     * @return Estado de la subida
+     * @throws IOException si no se puede reservar el fichero
+     */
+    @Operation(summary = "iniciar subida por partes", description = "reserva un fichero del tamaño indicado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Subida iniciada"),
+            @ApiResponse(responseCode = "400", description = "Tamaño o tipo de fichero no válido"),
+            @ApiResponse(responseCode = "429", description = "Demasiadas subidas en curso"),
+    })
+    @PostMapping("/uploads")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UploadSessionDto> createUpload(@Valid @RequestBody CreateUploadSessionDto request)
+            throws IOException {
+        UploadSessionDto session = resumableUploadService.create(request);
+        return ResponseEntity.created(URI.create("/storage/uploads/" + session.getId())).body(session);
+    }
+
+    /**
+     * Obtiene el estado de una subida por partes, para saber desde dónde reanudarla
+     *
+     * @param id Identificador de la subida
+     * @return Estado de la subida
+     */
+    @Operation(summary = "estado de una subida por partes", description = "bytes recibidos y caducidad")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estado de la subida"),
+            @ApiResponse(responseCode = "404", description = "Subida no encontrada o caducada"),
+    })
+    @GetMapping("/uploads/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UploadSessionDto> getUpload(@PathVariable String id) {
+        return ResponseEntity.ok(resumableUploadService.get(id));
+    }
+
+    /**
+     * Envía una parte de una subida. El cuerpo de la petición se escribe tal cual a partir del desplazamiento
+     *
+     * @param id      Identificador de la subida
+     * @param offset  Posición del primer byte de la parte
+     * @param request Petición con el contenido de la parte
+     * @return Estado de la subida
+     * @throws IOException si no se puede escribir la parte
+     */
+    @Operation(summary = "enviar parte de una subida", description = "escribe el cuerpo a partir del desplazamiento")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Parte recibida"),
+            @ApiResponse(responseCode = "400", description = "Desplazamiento o tamaño no válido"),
+            @ApiResponse(responseCode = "404", description = "Subida no encontrada o caducada"),
+    })
+    @PutMapping("/uploads/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UploadSessionDto> uploadChunk(@PathVariable String id, @RequestParam long offset,
+                                                        HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(resumableUploadService.writeChunk(id, offset, request.getInputStream()));
+    }
+
+    /**
+     * Finaliza una subida por partes y almacena el fichero
+     *
+     * @param id Identificador de la subida
+     * @return Estado de la subida con el nombre y la URL del fichero
+     * @throws IOException si no se puede almacenar el fichero
+     */
+    @Operation(summary = "finalizar subida por partes", description = "almacena el fichero recibido")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Fichero almacenado"),
+            @ApiResponse(responseCode = "400", description = "Tipo de fichero no permitido"),
+            @ApiResponse(responseCode = "404", description = "Subida no encontrada o caducada"),
+            @ApiResponse(responseCode = "409", description = "Faltan partes por recibir"),
+    })
+    @PostMapping("/uploads/{id}/complete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UploadSessionDto> completeUpload(@PathVariable String id) throws IOException {
+        UploadSessionDto session = resumableUploadService.complete(id);
+        return ResponseEntity.created(URI.create(session.getUrl())).body(session);
+    }
+
+    /**
+     * Cancela una subida por partes
+     *
+     * @param id Identificador de la subida
+     * @return Respuesta vacía
+     * @throws IOException si no se puede eliminar el fichero
+     */
+    @Operation(summary = "cancelar subida por partes", description = "elimina lo recibido")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Subida cancelada"),
+            @ApiResponse(responseCode = "404", description = "Subida no encontrada o caducada"),
+    })
+    @DeleteMapping("/uploads/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> abortUpload(@PathVariable String id) throws IOException {
+        resumableUploadService.abort(id);
+        return ResponseEntity.noContent().build();
     }
 
     /**
-     * Obtiene un fichero del sistema de almacenamiento
+     * Obtiene las métricas de la caché de ficheros
+     *
+     * @return Aciertos, fallos y ocupación de la caché
+     */
+    @Operation(summary = "métricas de la caché de ficheros", description = "aciertos, fallos y bytes en memoria")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Métricas"),
+            @ApiResponse(responseCode = "403", description = "Denegado"),
+    })
+    @GetMapping("/cache/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StorageCacheMetrics> getCacheMetrics() {
+        return ResponseEntity.ok(blobCache.getMetrics());
+    }
+
+    /**
+     * Obtiene un fichero del sistema de almacenamiento. Las cabeceras salen del índice de metadatos y el
+     * contenido se copia del fichero al socket sin pasar por memoria de la JVM
      *
      * @param filename Nombre del fichero a obtener
+     * @param size     Derivado de la imagen a obtener (thumb, medium), o el original si no se indica
      * @param request  Objeto de petición
-     * @return Fichero
+     * @param response Objeto de respuesta
+     * @throws IOException si no se puede enviar el fichero
      */
     @GetMapping(value = "{filename:.+}")
-    @ResponseBody
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename, HttpServletRequest request) {
+    public void serveFile(@PathVariable String filename, @RequestParam(required = false) String size,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<StoredFile> derivative = size == null ? Optional.empty()
+                : storageService.getDerivativeMetadata(filename, size);
+        StoredFile file = derivative.orElseGet(() -> storageService.getMetadata(filename));
+        response.setHeader(HttpHeaders.ETAG, file.eTag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                size != null && derivative.isEmpty() ? FALLBACK_CACHE_CONTROL : CACHE_CONTROL);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.lastModified());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matchesETag(request.getHeader(HttpHeaders.IF_NONE_MATCH), file)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(file.contentType());
+
+        long start = 0;
+        long length = file.size();
+        HttpRange range = requestedRange(request, file);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(file.size());
+                length = range.getRangeEnd(file.size()) - start + 1;
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + start + "-" + (start + length - 1) + "/" + file.size());
+        }
+        response.setContentLengthLong(length);
+        if (!HttpMethod.HEAD.matches(request.getMethod())) {
+            transfer(request, response, file, start, length);
+        }
+    }
+
+    /**
+     * Comprueba si la cabecera If-None-Match contiene el ETag del fichero
+     *
+     * @param ifNoneMatch cabecera If-None-Match
+     * @param file        fichero
+     * @return true si el cliente ya tiene el fichero
+     */
+    private static boolean matchesETag(String ifNoneMatch, StoredFile file) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(file.eTag()));
+    }
+
+    /**
+     * Devuelve el rango pedido si hay uno solo y sigue siendo válido según If-Range. Los rangos múltiples
+     * o mal formados se ignoran y se envía el fichero completo
+     *
+     * @param request petición
+     * @param file    fichero
+     * @return rango, o null si se envía el fichero completo
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, StoredFile file) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (header == null || (ifRange != null && !ifRange.equals(file.eTag()))) {
+            return null;
+        }
         try {
-            Resource file = storageService.loadAsResource(filename);
-            String contentType = request.getServletContext().getMimeType(file.getFile().getAbsolutePath());
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .body(file);
-        } catch (IOException ex) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No se puede determinar el tipo de fichero");
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Envía el fichero con sendfile si el servidor lo permite. Si no, desde la caché cuando el fichero es
+     * de los más pedidos o con FileChannel.transferTo
+     *
+     * @param request  petición
+     * @param response respuesta
+     * @param file     fichero
+     * @param start    primer byte
+     * @param length   número de bytes
+     * @throws IOException si no se puede enviar el fichero
+     */
+    private void transfer(HttpServletRequest request, HttpServletResponse response, StoredFile file, long start,
+                          long length) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        Optional<ByteBuffer> cached = blobCache.get(file);
+        if (cached.isPresent()) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            ByteBuffer content = cached.get().slice((int) start, (int) length);
+            while (content.hasRemaining()) {
+                out.write(content);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (NoSuchFileException e) {
+            throw new StorageNotFound("No se puede leer el fichero: " + file.path().getFileName());
         }
     }
-}
\ No newline at end of file
+}
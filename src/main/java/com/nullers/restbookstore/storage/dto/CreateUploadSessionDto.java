@@ -0,0 +1,28 @@
+package com.nullers.restbookstore.storage.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para iniciar una subida por partes
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreateUploadSessionDto {
+    @NotBlank(message = "El nombre del fichero no puede estar vacío")
+    @Schema(description = "Nombre original del fichero", example = "portada.png")
+    private String filename;
+
+    @NotNull(message = "El tamaño no puede ser nulo")
+    @Positive(message = "El tamaño debe ser mayor que 0")
+    @Schema(description = "Tamaño total en bytes", example = "15728640")
+    private Long size;
+}
@@ -0,0 +1,43 @@
+package com.nullers.restbookstore.storage.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las métricas de la caché de ficheros
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorageCacheMetrics {
+    @Schema(description = "Caché activada", example = "true")
+    private boolean enabled;
+
+    @Schema(description = "Ficheros en caché", example = "12")
+    private int entries;
+
+    @Schema(description = "Bytes ocupados fuera del heap", example = "4194304")
+    private long usedBytes;
+
+    @Schema(description = "Bytes máximos de la caché", example = "67108864")
+    private long maxBytes;
+
+    @Schema(description = "Peticiones servidas desde memoria", example = "950")
+    private long hits;
+
+    @Schema(description = "Peticiones servidas desde disco", example = "50")
+    private long misses;
+
+    @Schema(description = "Ficheros admitidos en la caché", example = "14")
+    private long admissions;
+
+    @Schema(description = "Ficheros expulsados de la caché", example = "2")
+    private long evictions;
+
+    @Schema(description = "Proporción de aciertos", example = "0.95")
+    private double hitRate;
+}
@@ -0,0 +1,40 @@
+package com.nullers.restbookstore.storage.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con el estado de una subida por partes
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionDto {
+    @Schema(description = "Identificador de la subida", example = "0b6a2f1e-4c3d-4b7a-9f0e-2d1c3b4a5f6e")
+    private String id;
+
+    @Schema(description = "Tamaño total en bytes", example = "15728640")
+    private long size;
+
+    @Schema(description = "Bytes recibidos de forma contigua desde el principio", example = "5242880")
+    private long offset;
+
+    @Schema(description = "Bytes recibidos en total", example = "5242880")
+    private long receivedBytes;
+
+    @Schema(description = "Fecha a partir de la cual la subida caduca si no recibe más partes",
+            example = "2023-11-20T12:00:00")
+    private LocalDateTime expiresAt;
+
+    @Schema(description = "Nombre del fichero almacenado, al finalizar", example = "0b6a2f1e-2023-11-20.png")
+    private String storedFilename;
+
+    @Schema(description = "URL del fichero almacenado, al finalizar", example = "https://localhost:8080/storage/0b6a2f1e-2023-11-20.png")
+    private String url;
+}
@@ -0,0 +1,24 @@
+package com.nullers.restbookstore.storage.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+/**
+ * StorageConflict
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class StorageConflict extends StorageException {
+    @Serial
+    private static final long serialVersionUID = 81248974575434657L;
+
+    /**
+     * StorageConflict
+     *
+     * @param msg Mensaje de error
+     */
+    public StorageConflict(String msg) {
+        super(msg);
+    }
+}
\ No newline at end of file
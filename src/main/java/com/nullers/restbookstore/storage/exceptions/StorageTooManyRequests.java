@@ -0,0 +1,24 @@
+package com.nullers.restbookstore.storage.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+/**
+ * StorageTooManyRequests
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class StorageTooManyRequests extends StorageException {
+    @Serial
+    private static final long serialVersionUID = 81248974575434657L;
+
+    /**
+     * StorageTooManyRequests
+     *
+     * @param msg Mensaje de error
+     */
+    public StorageTooManyRequests(String msg) {
+        super(msg);
+    }
+}
\ No newline at end of file
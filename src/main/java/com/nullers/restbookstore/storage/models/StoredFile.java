@@ -0,0 +1,24 @@
+package com.nullers.restbookstore.storage.models;
+
+import java.nio.file.Path;
+
+/**
+ * Metadatos de un fichero almacenado, calculados una sola vez para servirlo sin volver a leerlo
+ *
+ * @param path         ruta del fichero
+ * @param size         tamaño en bytes
+ * @param contentType  tipo MIME
+ * @param hash         hash SHA-256 del contenido en hexadecimal
+ * @param lastModified fecha de modificación en milisegundos
+ */
+public record StoredFile(Path path, long size, String contentType, String hash, long lastModified) {
+
+    /**
+     * Devuelve el ETag del fichero
+     *
+     * @return hash entre comillas
+     */
+    public String eTag() {
+        return "\"" + hash + "\"";
+    }
+}
@@ -0,0 +1,97 @@
+package com.nullers.restbookstore.storage.models;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Subida por partes en curso. Las partes se escriben en un fichero temporal del tamaño final y pueden
+ * llegar en cualquier orden; la sesión guarda los rangos recibidos fusionados
+ */
+public class UploadSession {
+    @Getter
+    private final String id;
+    @Getter
+    private final String filename;
+    @Getter
+    private final long size;
+    @Getter
+    private final Path path;
+    private final TreeMap<Long, Long> received = new TreeMap<>();
+    @Getter
+    private volatile long lastActivity;
+
+    /**
+     * Constructor
+     *
+     * @param id       identificador de la sesión
+     * @param filename nombre original del fichero
+     * @param size     tamaño total en bytes
+     * @param path     fichero temporal
+     * @param now      instante de creación en milisegundos
+     */
+    public UploadSession(String id, String filename, long size, Path path, long now) {
+        this.id = id;
+        this.filename = filename;
+        this.size = size;
+        this.path = path;
+        this.lastActivity = now;
+    }
+
+    /**
+     * Registra un rango de bytes recibido y lo fusiona con los rangos contiguos o solapados
+     *
+     * @param start primer byte
+     * @param end   byte siguiente al último
+     * @param now   instante actual en milisegundos
+     */
+    public synchronized void addRange(long start, long end, long now) {
+        lastActivity = now;
+        if (end <= start) {
+            return;
+        }
+        Map.Entry<Long, Long> previous = received.floorEntry(start);
+        if (previous != null && previous.getValue() >= start) {
+            start = previous.getKey();
+            end = Math.max(end, previous.getValue());
+        }
+        Map.Entry<Long, Long> next = received.ceilingEntry(start);
+        while (next != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            received.remove(next.getKey());
+            next = received.ceilingEntry(start);
+        }
+        received.put(start, end);
+    }
+
+    /**
+     * Devuelve el número de bytes recibidos de forma contigua desde el principio, que es el desplazamiento
+     * desde el que debe continuar una subida secuencial
+     *
+     * @return desplazamiento
+     */
+    public synchronized long getOffset() {
+        Map.Entry<Long, Long> first = received.firstEntry();
+        return first != null && first.getKey() == 0 ? first.getValue() : 0;
+    }
+
+    /**
+     * Devuelve el número total de bytes recibidos
+     *
+     * @return bytes recibidos
+     */
+    public synchronized long getReceivedBytes() {
+        return received.entrySet().stream().mapToLong(range -> range.getValue() - range.getKey()).sum();
+    }
+
+    /**
+     * Indica si se han recibido todos los bytes
+     *
+     * @return true si la subida está completa
+     */
+    public boolean isComplete() {
+        return getOffset() == size;
+    }
+}
@@ -0,0 +1,337 @@
+package com.nullers.restbookstore.storage.services;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed layout of the upload directory. Each distinct content is stored once under
+ * objects/ab/cd/{sha256}; each public filename is a small file under names/{shard}/{filename} holding the
+ * hash it points to. The name to hash mapping and the reference count of every blob are kept in memory and
+ * rebuilt from the names tree on startup. Names that no entity column points to but must be kept anyway are
+ * marked with an empty file under retained/{shard}/{filename}, so the orphan collector skips them
+ */
+@Slf4j
+final class BlobStore {
+    private final Path objectsLocation;
+    private final Path namesLocation;
+    private final Path tempLocation;
+    private final Path retainedLocation;
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+    private final Set<String> retained = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> refCounts = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param root Upload directory
+     */
+    BlobStore(Path root) {
+        this.objectsLocation = root.resolve("objects");
+        this.namesLocation = root.resolve("names");
+        this.tempLocation = root.resolve("tmp");
+        this.retainedLocation = root.resolve("retained");
+    }
+
+    /**
+     * Path of a file sharded by the first two bytes of its hash
+     *
+     * @param base Base directory
+     * @param hash Hash in hex
+     * @return Path
+     */
+    static Path sharded(Path base, String hash) {
+        return base.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /**
+     * Create the directories, rebuild the in-memory mapping from the names tree and move the files of the
+     * old flat layout found directly under the upload directory into the store
+     *
+     * @param root Upload directory
+     * @throws IOException IOException
+     */
+    synchronized void init(Path root) throws IOException {
+        Files.createDirectories(objectsLocation);
+        Files.createDirectories(namesLocation);
+        Files.createDirectories(tempLocation);
+        Files.createDirectories(retainedLocation);
+        names.clear();
+        refCounts.clear();
+        retained.clear();
+        try (Stream<Path> pointers = Files.walk(namesLocation, 2)) {
+            for (Path pointer : pointers.filter(Files::isRegularFile).toList()) {
+                String hash = Files.readString(pointer, StandardCharsets.US_ASCII).trim();
+                names.put(pointer.getFileName().toString(), hash);
+                refCounts.merge(hash, 1, Integer::sum);
+            }
+        }
+        try (Stream<Path> markers = Files.walk(retainedLocation, 2)) {
+            markers.filter(Files::isRegularFile).forEach(marker -> retained.add(marker.getFileName().toString()));
+        }
+        try (Stream<Path> legacy = Files.list(root)) {
+            List<Path> files = legacy.filter(Files::isRegularFile).toList();
+            if (!files.isEmpty()) {
+                log.info("Migrando " + files.size() + " ficheros al almacenamiento por contenido");
+            }
+            for (Path file : files) {
+                link(file.getFileName().toString(), file, FileHashing.sha256Hex(file));
+            }
+        }
+    }
+
+    /**
+     * Forget the in-memory mapping
+     */
+    synchronized void clear() {
+        names.clear();
+        refCounts.clear();
+        retained.clear();
+    }
+
+    /**
+     * Create a temporary file in the same file system as the blobs, so it can be moved atomically
+     *
+     * @return Temporary file
+     * @throws IOException IOException
+     */
+    Path newTempFile() throws IOException {
+        Files.createDirectories(tempLocation);
+        return Files.createTempFile(tempLocation, "upload-", ".tmp");
+    }
+
+    /**
+     * Point a name at a content. The content is moved into the store if it is new and discarded if an equal
+     * blob already exists
+     *
+     * @param name    Filename
+     * @param content File with the content, moved or deleted by this method
+     * @param hash    Hash of the content
+     * @return Hash of the blob released if the name pointed to another content that is no longer referenced
+     * @throws IOException IOException
+     */
+    synchronized Optional<String> link(String name, Path content, String hash) throws IOException {
+        Path blob = blobPath(hash);
+        if (Files.exists(blob)) {
+            Files.delete(content);
+        } else {
+            Files.createDirectories(blob.getParent());
+            Files.move(content, blob, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Path pointer = namePath(name);
+        Files.createDirectories(pointer.getParent());
+        Path temp = newTempFile();
+        Files.writeString(temp, hash, StandardCharsets.US_ASCII);
+        Files.move(temp, pointer, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        refCounts.merge(hash, 1, Integer::sum);
+        String previous = names.put(name, hash);
+        return previous == null ? Optional.empty() : release(previous);
+    }
+
+    /**
+     * Remove a name
+     *
+     * @param name Filename
+     * @return Hash of the blob deleted if this was its last name
+     * @throws IOException IOException
+     */
+    synchronized Optional<String> unlink(String name) throws IOException {
+        Files.deleteIfExists(namePath(name));
+        if (retained.remove(name)) {
+            Files.deleteIfExists(retainedPath(name));
+        }
+        String hash = names.remove(name);
+        return hash == null ? Optional.empty() : release(hash);
+    }
+
+    /**
+     * Mark a name as retained, so it is kept even if nothing references it. The mark is dropped when the
+     * name is removed
+     *
+     * @param name Filename
+     * @return false if the name does not exist
+     * @throws IOException IOException
+     */
+    synchronized boolean retain(String name) throws IOException {
+        if (!names.containsKey(name)) {
+            return false;
+        }
+        Path marker = retainedPath(name);
+        Files.createDirectories(marker.getParent());
+        if (!Files.exists(marker)) {
+            Files.createFile(marker);
+        }
+        retained.add(name);
+        return true;
+    }
+
+    /**
+     * Whether a name is retained
+     *
+     * @param name Filename
+     * @return true if it is retained
+     */
+    boolean isRetained(String name) {
+        return retained.contains(name);
+    }
+
+    /**
+     * Drop a reference to a blob and delete it when no name points to it
+     *
+     * @param hash Hash of the blob
+     * @return The hash if the blob was deleted
+     * @throws IOException IOException
+     */
+    private Optional<String> release(String hash) throws IOException {
+        int count = refCounts.merge(hash, -1, Integer::sum);
+        if (count > 0) {
+            return Optional.empty();
+        }
+        refCounts.remove(hash);
+        Files.deleteIfExists(blobPath(hash));
+        return Optional.of(hash);
+    }
+
+    /**
+     * Hash a name points to
+     *
+     * @param name Filename
+     * @return Hash, or empty if the name does not exist
+     */
+    Optional<String> hashOf(String name) {
+        return Optional.ofNullable(names.get(name));
+    }
+
+    /**
+     * Number of names pointing to a blob
+     *
+     * @param hash Hash of the blob
+     * @return Number of names
+     */
+    synchronized int references(String hash) {
+        return refCounts.getOrDefault(hash, 0);
+    }
+
+    /**
+     * Path of a blob
+     *
+     * @param hash Hash of the blob
+     * @return Path
+     */
+    Path blobPath(String hash) {
+        return sharded(objectsLocation, hash);
+    }
+
+    /**
+     * Path of the pointer file of a name
+     *
+     * @param name Filename
+     * @return Path
+     */
+    Path namePath(String name) {
+        return namesLocation.resolve(shard(name)).resolve(name);
+    }
+
+    /**
+     * Path of the retention mark of a name
+     *
+     * @param name Filename
+     * @return Path
+     */
+    private Path retainedPath(String name) {
+        return retainedLocation.resolve(shard(name)).resolve(name);
+    }
+
+    /**
+     * Shard directory of a name
+     *
+     * @param name Filename
+     * @return Two hex digits
+     */
+    private static String shard(String name) {
+        return String.format("%02x", name.hashCode() & 0xff);
+    }
+
+    /**
+     * Walk the pointer files of the names stored on disk. The tree is read lazily as the stream is consumed
+     * and the stream must be closed
+     *
+     * @return Pointer files
+     * @throws IOException IOException
+     */
+    Stream<Path> walkNames() throws IOException {
+        return Files.walk(namesLocation, 2).filter(Files::isRegularFile);
+    }
+
+    /**
+     * Delete the blobs no name points to and the temporary files left behind by interrupted uploads. Only
+     * files last modified before the cutoff are deleted, so uploads in progress are not touched
+     *
+     * @param cutoff   Files modified after this instant are kept
+     * @param released Receives the hash of every blob deleted
+     * @return Number of files deleted
+     * @throws IOException IOException
+     */
+    long sweep(Instant cutoff, Consumer<String> released) throws IOException {
+        long deleted = 0;
+        try (Stream<Path> blobs = Files.walk(objectsLocation, 3)) {
+            for (Path blob : (Iterable<Path>) blobs.filter(Files::isRegularFile)::iterator) {
+                if (olderThan(blob, cutoff) && deleteIfUnreferenced(blob)) {
+                    released.accept(blob.getFileName().toString());
+                    deleted++;
+                }
+            }
+        }
+        try (Stream<Path> temps = Files.list(tempLocation)) {
+            for (Path temp : (Iterable<Path>) temps::iterator) {
+                if (olderThan(temp, cutoff) && Files.deleteIfExists(temp)) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete a blob if no name points to it, holding the same lock as link so a new name cannot be added in
+     * between
+     *
+     * @param blob Path of the blob
+     * @return true if it was deleted
+     * @throws IOException IOException
+     */
+    private synchronized boolean deleteIfUnreferenced(Path blob) throws IOException {
+        return !refCounts.containsKey(blob.getFileName().toString()) && Files.deleteIfExists(blob);
+    }
+
+    /**
+     * Check whether a file was last modified before an instant
+     *
+     * @param file   Path
+     * @param cutoff Instant
+     * @return true if it is older, false if it is newer or no longer exists
+     * @throws IOException IOException
+     */
+    static boolean olderThan(Path file, Instant cutoff) throws IOException {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+}
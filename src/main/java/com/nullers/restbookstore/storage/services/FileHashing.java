@@ -0,0 +1,61 @@
+package com.nullers.restbookstore.storage.services;
+
+import com.nullers.restbookstore.storage.exceptions.StorageInternal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 helpers for stored files
+ */
+final class FileHashing {
+
+    /**
+     * Constructor
+     */
+    private FileHashing() {
+    }
+
+    /**
+     * SHA-256 digest
+     *
+     * @return MessageDigest
+     */
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new StorageInternal("SHA-256 no disponible " + e);
+        }
+    }
+
+    /**
+     * Hex value of a digest
+     *
+     * @param digest Digest
+     * @return Hash in hex
+     */
+    static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hash a file
+     *
+     * @param file Path
+     * @return Hash in hex
+     * @throws IOException IOException
+     */
+    static String sha256Hex(Path file) throws IOException {
+        try (DigestInputStream inputStream = new DigestInputStream(Files.newInputStream(file), sha256())) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+            return hex(inputStream.getMessageDigest());
+        }
+    }
+}
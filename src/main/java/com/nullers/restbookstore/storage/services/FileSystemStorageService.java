@@ -1,31 +1,55 @@
 package com.nullers.restbookstore.storage.services;
 
+import com.nullers.restbookstore.storage.cache.BlobCache;
+import com.nullers.restbookstore.storage.cache.OffHeapBlobCache;
 import com.nullers.restbookstore.storage.controller.StorageController;
 import com.nullers.restbookstore.storage.exceptions.StorageBadRequest;
 import com.nullers.restbookstore.storage.exceptions.StorageInternal;
 import com.nullers.restbookstore.storage.exceptions.StorageNotFound;
+import com.nullers.restbookstore.storage.models.StoredFile;
 import com.nullers.restbookstore.util.Util;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -36,18 +60,82 @@ import java.util.stream.Stream;
 public class FileSystemStorageService implements StorageService {
     private final Path rootLocation;
     private final List<String> currentImageTypesAllowed = List.of("png", "jpeg", "jpg");
+    private final Map<String, StoredFile> metadataIndex = new ConcurrentHashMap<>();
+    private final Path derivativesLocation;
+    private final BlobStore blobStore;
+    private final Map<String, Integer> derivativeSizes;
+    private final ThreadPoolExecutor derivativeExecutor;
+    private final BlobCache blobCache;
 
     /**
-     * Constructor
+     * Constructor without image derivatives
      *
      * @param path Path
      */
-    public FileSystemStorageService(@Value("${upload.root-location}") String path) {
+    public FileSystemStorageService(String path) {
+        this(path, "", 1, 1);
+    }
+
+    /**
+     * Constructor without content cache
+     *
+     * @param path          Path
+     * @param derivatives   Derivative sizes as name:pixels separated by commas
+     * @param workers       Threads that generate derivatives
+     * @param queueCapacity Images waiting for their derivatives
+     */
+    public FileSystemStorageService(String path, String derivatives, int workers, int queueCapacity) {
+        this(path, derivatives, workers, queueCapacity, new OffHeapBlobCache(false, 0, 0, 1));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param path          Path
+     * @param derivatives   Derivative sizes as name:pixels separated by commas
+     * @param workers       Threads that generate derivatives
+     * @param queueCapacity Images waiting for their derivatives
+     * @param blobCache     Cache of hot contents, invalidated when a blob is deleted
+     */
+    @Autowired
+    public FileSystemStorageService(@Value("${upload.root-location}") String path,
+                                    @Value("${upload.derivatives.sizes:thumb:100,medium:400}") String derivatives,
+                                    @Value("${upload.derivatives.workers:2}") int workers,
+                                    @Value("${upload.derivatives.queue-capacity:100}") int queueCapacity,
+                                    BlobCache blobCache) {
+        this.blobCache = blobCache;
         this.rootLocation = Paths.get(path);
+        this.derivativesLocation = rootLocation.resolve("derivatives");
+        this.blobStore = new BlobStore(rootLocation);
+        this.derivativeSizes = Arrays.stream(derivatives.split(","))
+                .map(String::trim)
+                .filter(size -> !size.isEmpty())
+                .map(size -> size.split(":"))
+                .collect(Collectors.toMap(size -> size[0].trim(), size -> Integer.parseInt(size[1].trim()),
+                        (a, b) -> b, LinkedHashMap::new));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.derivativeExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivative-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Stop the derivative workers
+     */
+    @PreDestroy
+    public void shutdown() {
+        derivativeExecutor.shutdown();
     }
 
     /**
-     * Store file
+     * Store file. The upload is read once: its first bytes are checked against the allowed types and the
+     * whole content is hashed while it is copied to a temporary file, which is then moved into place. The
+     * content is stored once per distinct hash; the returned filename points to it
      *
      * @param file      File
      * @param fileTypes File types
@@ -64,54 +152,281 @@ public class FileSystemStorageService implements StorageService {
         if (file.isEmpty()) {
             throw new StorageBadRequest("Fichero vacío " + filename);
         }
+        checkRelativePath(filename);
+        String hash;
+        Path temp;
+        try (DigestInputStream inputStream = new DigestInputStream(file.getInputStream(), FileHashing.sha256())) {
+            byte[] header = inputStream.readNBytes(Util.FILE_TYPE_HEADER_LENGTH);
+            checkFileType(filename, header, fileTypes);
+            log.info("Almacenando fichero " + filename + " como " + storedFilename);
+            temp = blobStore.newTempFile();
+            try (OutputStream outputStream = Files.newOutputStream(temp)) {
+                outputStream.write(header);
+                inputStream.transferTo(outputStream);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            hash = FileHashing.hex(inputStream.getMessageDigest());
+        }
+        return link(storedFilename, temp, hash);
+    }
+
+    /**
+     * Store a file already written to a temporary file of this storage, such as an upload received in
+     * chunks. Its first bytes are checked against the allowed types and it is hashed and moved into place
+     * without copying it
+     *
+     * @param content          Temporary file created with createTempFile, moved or deleted by this method
+     * @param originalFilename Filename sent by the client
+     * @param fileTypes        File types
+     * @param name             Name
+     * @return Filename
+     * @throws IOException IOException
+     */
+    @Override
+    public String store(Path content, String originalFilename, List<String> fileTypes, String name)
+            throws IOException {
+        String filename = StringUtils.cleanPath(originalFilename);
+        String storedFilename = name + "." + StringUtils.getFilenameExtension(filename);
+        try {
+            if (Files.size(content) == 0) {
+                throw new StorageBadRequest("Fichero vacío " + filename);
+            }
+            checkRelativePath(filename);
+            byte[] header;
+            try (InputStream inputStream = Files.newInputStream(content)) {
+                header = inputStream.readNBytes(Util.FILE_TYPE_HEADER_LENGTH);
+            }
+            checkFileType(filename, header, fileTypes);
+        } catch (StorageBadRequest e) {
+            Files.deleteIfExists(content);
+            throw e;
+        }
+        log.info("Almacenando fichero " + filename + " como " + storedFilename);
+        return link(storedFilename, content, FileHashing.sha256Hex(content));
+    }
+
+    /**
+     * Create a temporary file in the same file system as the stored files, so it can be stored without
+     * copying it
+     *
+     * @return Temporary file
+     * @throws IOException IOException
+     */
+    @Override
+    public Path createTempFile() throws IOException {
+        return blobStore.newTempFile();
+    }
+
+    /**
+     * Reject filenames that point outside the storage directory
+     *
+     * @param filename Filename
+     */
+    private static void checkRelativePath(String filename) {
         if (filename.contains("..")) {
             throw new StorageBadRequest(
                     "No se puede almacenar un fichero con una ruta relativa fuera del directorio actual "
                             + filename);
         }
+    }
+
+    /**
+     * Check the extension and the first bytes of a file against the allowed types
+     *
+     * @param filename  Filename
+     * @param header    First bytes of the content
+     * @param fileTypes File types, or null or empty to allow any
+     */
+    private static void checkFileType(String filename, byte[] header, List<String> fileTypes) {
+        String extension = StringUtils.getFilenameExtension(filename);
         if (fileTypes != null && !fileTypes.isEmpty() && (!fileTypes.contains(extension) ||
-                !fileTypes.contains(Util.detectFileType(file.getBytes())))) {
+                !fileTypes.contains(Util.detectFileType(header)))) {
             throw new StorageBadRequest("Tipo de fichero no permitido " + filename);
         }
-        try (InputStream inputStream = file.getInputStream()) {
-            log.info("Almacenando fichero " + filename + " como " + storedFilename);
-            Files.copy(inputStream, this.rootLocation.resolve(storedFilename),
-                    StandardCopyOption.REPLACE_EXISTING);
-            return storedFilename;
+    }
+
+    /**
+     * Point a filename at a content, index its metadata and schedule its derivatives
+     *
+     * @param storedFilename Filename
+     * @param content        Temporary file with the content
+     * @param hash           Hash of the content
+     * @return Filename
+     * @throws IOException IOException
+     */
+    private String link(String storedFilename, Path content, String hash) throws IOException {
+        blobStore.link(storedFilename, content, hash).ifPresent(this::forgetBlob);
+        metadataIndex.put(storedFilename, describe(blobStore.blobPath(hash), storedFilename, hash));
+        if (currentImageTypesAllowed.contains(StringUtils.getFilenameExtension(storedFilename))) {
+            scheduleDerivatives(storedFilename);
         }
+        return storedFilename;
     }
 
     /**
-     * Load all files
+     * Queue the generation of the derivatives of an image. If the queue is full the image is served at
+     * its original size
+     *
+     * @param filename Filename
+     */
+    private void scheduleDerivatives(String filename) {
+        if (derivativeSizes.isEmpty()) {
+            return;
+        }
+        try {
+            derivativeExecutor.execute(() -> generateDerivatives(filename));
+        } catch (RejectedExecutionException e) {
+            log.warn("Cola de derivados llena, " + filename + " se servirá a tamaño original");
+        }
+    }
+
+    /**
+     * Generate the derivatives of an image. Derivatives belong to the content, so an image uploaded again
+     * under another name reuses them. Each one is written to a temporary file and moved into place so a
+     * request never reads a half-written derivative
+     *
+     * @param filename Filename
+     */
+    void generateDerivatives(String filename) {
+        Optional<String> hash = blobStore.hashOf(filename);
+        if (hash.isEmpty()) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, Integer>> missing = derivativeSizes.entrySet().stream()
+                    .filter(size -> !Files.exists(derivativePath(size.getKey(), hash.get())))
+                    .toList();
+            if (missing.isEmpty()) {
+                return;
+            }
+            BufferedImage image = ImageIO.read(blobStore.blobPath(hash.get()).toFile());
+            if (image == null) {
+                log.warn("No se pueden generar derivados de " + filename);
+                return;
+            }
+            String extension = StringUtils.getFilenameExtension(filename);
+            String format = "png".equalsIgnoreCase(extension) ? "png" : "jpeg";
+            for (Map.Entry<String, Integer> size : missing) {
+                Path target = derivativePath(size.getKey(), hash.get());
+                Files.createDirectories(target.getParent());
+                Path temp = blobStore.newTempFile();
+                try {
+                    ImageIO.write(ImageResizer.fit(image, size.getValue(), "png".equals(format)), format, temp.toFile());
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            if (blobStore.references(hash.get()) == 0) {
+                forgetBlob(hash.get());
+            }
+        } catch (IOException e) {
+            log.error("Error al generar los derivados de " + filename, e);
+        }
+    }
+
+    /**
+     * Path of a derivative
+     *
+     * @param size Derivative name
+     * @param hash Hash of the original content
+     * @return Path
+     */
+    private Path derivativePath(String size, String hash) {
+        return BlobStore.sharded(derivativesLocation.resolve(size), hash);
+    }
+
+    /**
+     * Delete the derivatives of a content that is no longer referenced and drop it from the cache
+     *
+     * @param hash Hash of the content
+     */
+    private void forgetBlob(String hash) {
+        blobCache.invalidate(hash);
+        try {
+            for (String size : derivativeSizes.keySet()) {
+                Files.deleteIfExists(derivativePath(size, hash));
+                StoredFile derivative = metadataIndex.remove(size + "/" + hash);
+                if (derivative != null) {
+                    blobCache.invalidate(derivative.hash());
+                }
+            }
+        } catch (IOException e) {
+            throw new StorageInternal("No se pueden eliminar los derivados de " + hash + " " + e);
+        }
+    }
+
+    /**
+     * Load all files. The names tree is walked lazily, so the stream must be closed
      *
      * @return Stream of paths
      */
     @Override
     public Stream<Path> loadAll() {
         log.info("Cargando todos los ficheros almacenados");
-        try (Stream<Path> pathStream = Files.walk(this.rootLocation, 1)
-                .filter(path -> !path.equals(this.rootLocation))
-                .map(this.rootLocation::relativize)) {
-            return pathStream.toList().stream();
+        try {
+            return blobStore.walkNames().map(Path::getFileName);
         } catch (IOException e) {
             throw new StorageInternal("Fallo al leer ficheros almacenados " + e);
         }
     }
 
+    /**
+     * Load the names of the files stored before an instant, skipping the retained ones. The names tree is
+     * walked lazily, so the stream must be closed
+     *
+     * @param cutoff Files stored after this instant are skipped
+     * @return Stream of filenames
+     */
+    @Override
+    public Stream<String> loadAllStoredBefore(Instant cutoff) {
+        try {
+            return blobStore.walkNames()
+                    .filter(pointer -> {
+                        try {
+                            return BlobStore.olderThan(pointer, cutoff);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .map(pointer -> pointer.getFileName().toString())
+                    .filter(name -> !blobStore.isRetained(name));
+        } catch (IOException e) {
+            throw new StorageInternal("Fallo al leer ficheros almacenados " + e);
+        }
+    }
+
+    /**
+     * Delete the contents no file points to and the temporary files of interrupted uploads
+     *
+     * @param cutoff Files modified after this instant are kept
+     * @return Number of files deleted
+     */
+    @Override
+    public long purgeUnreferenced(Instant cutoff) {
+        try {
+            return blobStore.sweep(cutoff, this::forgetBlob);
+        } catch (IOException e) {
+            throw new StorageInternal("No se pueden eliminar los contenidos huérfanos " + e);
+        }
+    }
+
     /**
      * Load file
      *
      * @param filename Filename
-     * @return Path
+     * @return Path of the content, or of the missing name if it does not exist
      */
     @Override
     public Path load(String filename) {
         log.info("Cargando fichero " + filename);
-        return rootLocation.resolve(filename);
+        return blobStore.hashOf(filename).map(blobStore::blobPath).orElseGet(() -> blobStore.namePath(filename));
     }
 
     /**
-     * Load file as resource
+     * Load file as resource. The resource keeps the stored filename instead of the name of the blob
      *
      * @param filename Filename
      * @return Resource
@@ -121,7 +436,12 @@ public class FileSystemStorageService implements StorageService {
         log.info("Cargando fichero " + filename);
         try {
             Path file = load(filename);
-            Resource resource = new UrlResource(file.toUri());
+            Resource resource = new UrlResource(file.toUri()) {
+                @Override
+                public String getFilename() {
+                    return filename;
+                }
+            };
             if (resource.exists() || resource.isReadable()) {
                 return resource;
             } else {
@@ -132,6 +452,77 @@ public class FileSystemStorageService implements StorageService {
         }
     }
 
+    /**
+     * Get file metadata from the in-memory index. A file stored before startup is looked up once
+     *
+     * @param filename Filename
+     * @return Metadata
+     */
+    @Override
+    public StoredFile getMetadata(String filename) {
+        if (!filename.equals(StringUtils.getFilename(filename)) || filename.contains("\\")
+                || filename.equals(".") || filename.equals("..")) {
+            throw new StorageBadRequest("No se puede leer un fichero fuera del directorio actual " + filename);
+        }
+        return metadataIndex.computeIfAbsent(filename, name -> blobStore.hashOf(name)
+                .filter(hash -> Files.isReadable(blobStore.blobPath(hash)))
+                .map(hash -> {
+                    try {
+                        return describe(blobStore.blobPath(hash), name, hash);
+                    } catch (IOException e) {
+                        throw new StorageInternal("No se puede leer el fichero " + name + " " + e);
+                    }
+                })
+                .orElseThrow(() -> new StorageNotFound("No se puede leer el fichero: " + filename)));
+    }
+
+    /**
+     * Get the metadata of a derivative of an image
+     *
+     * @param filename Original filename
+     * @param size     Derivative name
+     * @return Metadata, or empty if the derivative is not ready yet
+     */
+    @Override
+    public Optional<StoredFile> getDerivativeMetadata(String filename, String size) {
+        if (!derivativeSizes.containsKey(size)) {
+            throw new StorageBadRequest("Tamaño de imagen no válido: " + size);
+        }
+        String hash = getMetadata(filename).hash();
+        String key = size + "/" + hash;
+        StoredFile cached = metadataIndex.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Path file = derivativePath(size, hash);
+        if (!Files.isReadable(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(metadataIndex.computeIfAbsent(key, k -> {
+            try {
+                return describe(file, filename, FileHashing.sha256Hex(file));
+            } catch (IOException e) {
+                throw new StorageInternal("No se puede leer el fichero " + filename + " " + e);
+            }
+        }));
+    }
+
+    /**
+     * Build the metadata of a stored file
+     *
+     * @param file Path of the content
+     * @param name Filename, used to resolve the MIME type
+     * @param hash Hash of the content
+     * @return Metadata
+     * @throws IOException IOException
+     */
+    private StoredFile describe(Path file, String name, String hash) throws IOException {
+        String contentType = MediaTypeFactory.getMediaType(name)
+                .map(MediaType::toString)
+                .orElseThrow(() -> new StorageBadRequest("No se puede determinar el tipo de fichero"));
+        return new StoredFile(file, Files.size(file), contentType, hash, Files.getLastModifiedTime(file).toMillis());
+    }
+
     /**
      * Delete all files
      */
@@ -139,6 +530,8 @@ public class FileSystemStorageService implements StorageService {
     public void deleteAll() {
         log.info("Eliminando todos los ficheros almacenados");
         FileSystemUtils.deleteRecursively(rootLocation.toFile());
+        blobStore.clear();
+        metadataIndex.clear();
     }
 
     /**
@@ -149,13 +542,14 @@ public class FileSystemStorageService implements StorageService {
         log.info("Inicializando almacenamiento");
         try {
             Files.createDirectories(rootLocation);
+            blobStore.init(rootLocation);
         } catch (IOException e) {
             throw new StorageInternal("No se puede inicializar el almacenamiento " + e);
         }
     }
 
     /**
-     * Delete file
+     * Delete file. The content is deleted with its derivatives when no other filename points to it
      *
      * @param filename Filename
      */
@@ -164,13 +558,30 @@ public class FileSystemStorageService implements StorageService {
         String justFilename = StringUtils.getFilename(filename);
         try {
             log.info("Eliminando fichero " + filename);
-            Path file = load(justFilename);
-            Files.deleteIfExists(file);
+            metadataIndex.remove(justFilename);
+            blobStore.unlink(justFilename).ifPresent(this::forgetBlob);
         } catch (IOException e) {
             throw new StorageInternal("No se puede eliminar el fichero " + filename + " " + e);
         }
     }
 
+    /**
+     * Retain a file so the orphan collector keeps it even if no entity references it
+     *
+     * @param filename Filename
+     */
+    @Override
+    public void retain(String filename) {
+        String justFilename = StringUtils.getFilename(filename);
+        try {
+            if (!blobStore.retain(justFilename)) {
+                throw new StorageNotFound("Fichero no encontrado " + filename);
+            }
+        } catch (IOException e) {
+            throw new StorageInternal("No se puede retener el fichero " + filename + " " + e);
+        }
+    }
+
     /**
      * Get URL of file
      *
@@ -181,7 +592,7 @@ public class FileSystemStorageService implements StorageService {
     public String getUrl(String filename) {
         log.info("Obteniendo URL del fichero " + filename);
         return MvcUriComponentsBuilder
-                .fromMethodName(StorageController.class, "serveFile", filename, null)
+                .fromMethodName(StorageController.class, "serveFile", filename, null, null, null)
                 .build().toUriString();
     }
 
@@ -0,0 +1,68 @@
+package com.nullers.restbookstore.storage.services;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Image resizer used to build the derivatives of stored images
+ */
+final class ImageResizer {
+
+    /**
+     * Constructor
+     */
+    private ImageResizer() {
+    }
+
+    /**
+     * Scale an image to fit inside a square box keeping its aspect ratio. Large reductions are done in
+     * halving steps so bilinear filtering does not skip pixels
+     *
+     * @param image   Image
+     * @param maxSize Side of the box in pixels
+     * @param alpha   Keep the alpha channel
+     * @return Scaled image, or the original if it already fits
+     */
+    static BufferedImage fit(BufferedImage image, int maxSize, boolean alpha) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= maxSize && height <= maxSize) {
+            return image;
+        }
+        double scale = Math.min((double) maxSize / width, (double) maxSize / height);
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height, alpha);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * Draw an image with the given size
+     *
+     * @param source Image
+     * @param width  Width
+     * @param height Height
+     * @param alpha  Keep the alpha channel
+     * @return Image drawn
+     */
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage target = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
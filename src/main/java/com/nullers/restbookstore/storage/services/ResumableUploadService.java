@@ -0,0 +1,57 @@
+package com.nullers.restbookstore.storage.services;
+
+import com.nullers.restbookstore.storage.dto.CreateUploadSessionDto;
+import com.nullers.restbookstore.storage.dto.UploadSessionDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Servicio de subidas por partes que se pueden reanudar
+ */
+public interface ResumableUploadService {
+    /**
+     * Inicia una subida y reserva un fichero temporal del tamaño indicado
+     *
+     * @param request Nombre y tamaño del fichero
+     * @return Estado de la subida
+     * @throws IOException IOException
+     */
+    UploadSessionDto create(CreateUploadSessionDto request) throws IOException;
+
+    /**
+     * Obtiene el estado de una subida
+     *
+     * @param id Identificador de la subida
+     * @return Estado de la subida
+     */
+    UploadSessionDto get(String id);
+
+    /**
+     * Escribe una parte de la subida a partir de un desplazamiento
+     *
+     * @param id     Identificador de la subida
+     * @param offset Posición del primer byte de la parte
+     * @param body   Contenido de la parte
+     * @return Estado de la subida
+     * @throws IOException IOException
+     */
+    UploadSessionDto writeChunk(String id, long offset, InputStream body) throws IOException;
+
+    /**
+     * Finaliza una subida completa, almacena el fichero y lo retiene para que no se elimine como huérfano
+     *
+     * @param id Identificador de la subida
+     * @return Estado de la subida con el nombre y la URL del fichero almacenado
+     * @throws IOException IOException
+     */
+    UploadSessionDto complete(String id) throws IOException;
+
+    /**
+     * Cancela una subida y elimina lo recibido
+     *
+     * @param id Identificador de la subida
+     * @throws IOException IOException
+     */
+    void abort(String id) throws IOException;
+}
@@ -0,0 +1,276 @@
+package com.nullers.restbookstore.storage.services;
+
+import com.nullers.restbookstore.storage.dto.CreateUploadSessionDto;
+import com.nullers.restbookstore.storage.dto.UploadSessionDto;
+import com.nullers.restbookstore.storage.exceptions.StorageBadRequest;
+import com.nullers.restbookstore.storage.exceptions.StorageConflict;
+import com.nullers.restbookstore.storage.exceptions.StorageNotFound;
+import com.nullers.restbookstore.storage.exceptions.StorageTooManyRequests;
+import com.nullers.restbookstore.storage.models.UploadSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads. Each session preallocates a temporary file of the final size in the storage and every
+ * chunk is streamed straight from the request into its position with a positional FileChannel write, so
+ * chunks can be retried or sent in any order and the body is never held in memory. Completing a session
+ * hands the file to the storage, which moves it into place without copying it, and retains it: the upload
+ * is not linked to any entity (PDFs have no column at all), so the orphan collector would otherwise delete
+ * it after the grace period. Sessions that receive no chunk for the expiry time are dropped with their file
+ */
+@Service
+@Slf4j
+public class ResumableUploadServiceImpl implements ResumableUploadService {
+    private final StorageService storageService;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private final long maxSize;
+    private final long expiryMs;
+    private final int maxSessions;
+    private final List<String> fileTypes;
+
+    /**
+     * Constructor
+     *
+     * @param storageService Storage service
+     * @param maxSize        Largest file that can be uploaded
+     * @param expiryMs       Time a session is kept without receiving chunks
+     * @param maxSessions    Sessions in progress at the same time
+     * @param fileTypes      Allowed file types separated by commas
+     */
+    @Autowired
+    public ResumableUploadServiceImpl(StorageService storageService,
+                                      @Value("${upload.resumable.max-size:104857600}") long maxSize,
+                                      @Value("${upload.resumable.expiry-ms:3600000}") long expiryMs,
+                                      @Value("${upload.resumable.max-sessions:100}") int maxSessions,
+                                      @Value("${upload.resumable.file-types:png,jpg,jpeg,pdf}") String fileTypes) {
+        this.storageService = storageService;
+        this.maxSize = maxSize;
+        this.expiryMs = expiryMs;
+        this.maxSessions = maxSessions;
+        this.fileTypes = Arrays.stream(fileTypes.split(","))
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Start an upload and preallocate its temporary file
+     *
+     * @param request Filename and size
+     * @return Session state
+     * @throws IOException IOException
+     */
+    @Override
+    public UploadSessionDto create(CreateUploadSessionDto request) throws IOException {
+        String filename = StringUtils.cleanPath(request.getFilename());
+        if (request.getSize() > maxSize) {
+            throw new StorageBadRequest("El fichero supera el tamaño máximo de " + maxSize + " bytes");
+        }
+        if (!fileTypes.isEmpty() && !fileTypes.contains(StringUtils.getFilenameExtension(filename))) {
+            throw new StorageBadRequest("Tipo de fichero no permitido " + filename);
+        }
+        if (sessions.size() >= maxSessions) {
+            purgeExpired();
+            if (sessions.size() >= maxSessions) {
+                throw new StorageTooManyRequests("Demasiadas subidas en curso, inténtelo más tarde");
+            }
+        }
+        Path path = storageService.createTempFile();
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(request.getSize());
+        } catch (IOException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), filename, request.getSize(), path,
+                System.currentTimeMillis());
+        sessions.put(session.getId(), session);
+        log.info("Iniciando subida por partes " + session.getId() + " de " + filename);
+        return toDto(session);
+    }
+
+    /**
+     * Session state
+     *
+     * @param id Session id
+     * @return Session state
+     */
+    @Override
+    public UploadSessionDto get(String id) {
+        return toDto(find(id));
+    }
+
+    /**
+     * Write a chunk at an offset. The chunk may not go past the end of the file
+     *
+     * @param id     Session id
+     * @param offset Position of the first byte of the chunk
+     * @param body   Chunk content
+     * @return Session state
+     * @throws IOException IOException
+     */
+    @Override
+    public UploadSessionDto writeChunk(String id, long offset, InputStream body) throws IOException {
+        UploadSession session = find(id);
+        if (offset < 0 || offset >= session.getSize()) {
+            throw new StorageBadRequest("Desplazamiento fuera del fichero: " + offset);
+        }
+        long maxLength = session.getSize() - offset;
+        long written;
+        try (FileChannel channel = FileChannel.open(session.getPath(), StandardOpenOption.WRITE);
+             ReadableByteChannel in = Channels.newChannel(body)) {
+            written = channel.transferFrom(in, offset, maxLength);
+            if (written == maxLength && body.read() != -1) {
+                throw new StorageBadRequest("La parte supera el tamaño del fichero");
+            }
+        } catch (NoSuchFileException e) {
+            sessions.remove(id);
+            throw new StorageNotFound("Subida no encontrada: " + id);
+        }
+        session.addRange(offset, offset + written, System.currentTimeMillis());
+        return toDto(session);
+    }
+
+    /**
+     * Store and retain the file of a complete session
+     *
+     * @param id Session id
+     * @return Session state with the stored filename and URL
+     * @throws IOException IOException
+     */
+    @Override
+    public UploadSessionDto complete(String id) throws IOException {
+        UploadSession session = find(id);
+        if (!session.isComplete()) {
+            throw new StorageConflict("La subida no está completa: recibidos " + session.getOffset() + " de "
+                    + session.getSize() + " bytes");
+        }
+        if (!sessions.remove(id, session)) {
+            throw new StorageNotFound("Subida no encontrada: " + id);
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss-SSSSSS");
+        String storedFilename = storageService.store(session.getPath(), session.getFilename(), fileTypes,
+                id + "-" + LocalDateTime.now().format(formatter));
+        storageService.retain(storedFilename);
+        UploadSessionDto dto = toDto(session);
+        dto.setStoredFilename(storedFilename);
+        dto.setUrl(storageService.getUrl(storedFilename));
+        return dto;
+    }
+
+    /**
+     * Cancel a session and delete its file
+     *
+     * @param id Session id
+     * @throws IOException IOException
+     */
+    @Override
+    public void abort(String id) throws IOException {
+        UploadSession session = sessions.remove(id);
+        if (session == null) {
+            throw new StorageNotFound("Subida no encontrada: " + id);
+        }
+        Files.deleteIfExists(session.getPath());
+    }
+
+    /**
+     * Drop the sessions that have not received a chunk for the expiry time
+     */
+    @Scheduled(fixedDelayString = "${upload.resumable.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> {
+            if (!isExpired(session, now)) {
+                return false;
+            }
+            log.info("Subida por partes caducada " + session.getId());
+            deleteQuietly(session.getPath());
+            return true;
+        });
+    }
+
+    /**
+     * Find a live session
+     *
+     * @param id Session id
+     * @return Session
+     */
+    private UploadSession find(String id) {
+        UploadSession session = sessions.get(id);
+        if (session == null) {
+            throw new StorageNotFound("Subida no encontrada: " + id);
+        }
+        if (isExpired(session, System.currentTimeMillis())) {
+            if (sessions.remove(id, session)) {
+                deleteQuietly(session.getPath());
+            }
+            throw new StorageNotFound("Subida no encontrada: " + id);
+        }
+        return session;
+    }
+
+    /**
+     * Check whether a session has expired
+     *
+     * @param session Session
+     * @param now     Current time in milliseconds
+     * @return true if it has expired
+     */
+    private boolean isExpired(UploadSession session, long now) {
+        return now - session.getLastActivity() > expiryMs;
+    }
+
+    /**
+     * Delete the file of a session, logging errors instead of throwing them
+     *
+     * @param path File
+     */
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("No se puede eliminar la subida " + path.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Session state
+     *
+     * @param session Session
+     * @return DTO
+     */
+    private UploadSessionDto toDto(UploadSession session) {
+        return UploadSessionDto.builder()
+                .id(session.getId())
+                .size(session.getSize())
+                .offset(session.getOffset())
+                .receivedBytes(session.getReceivedBytes())
+                .expiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(session.getLastActivity() + expiryMs),
+                        ZoneId.systemDefault()))
+                .build();
+    }
+}
@@ -1,11 +1,14 @@
 package com.nullers.restbookstore.storage.services;
 
+import com.nullers.restbookstore.storage.models.StoredFile;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
@@ -29,12 +32,49 @@ public interface StorageService {
     String store(MultipartFile file, List<String> fileTypes, String name) throws IOException;
 
     /**
-     * Obtiene todos los ficheros
+     * Almacena un fichero ya escrito en un temporal del almacenamiento, sin copiarlo
+     *
+     * @param content          Fichero temporal creado con createTempFile
+     * @param originalFilename Nombre original del fichero
+     * @param fileTypes        Tipos de fichero
+     * @param name             Nombre
+     * @return Nombre del fichero
+     * @throws IOException IOException
+     */
+    String store(Path content, String originalFilename, List<String> fileTypes, String name) throws IOException;
+
+    /**
+     * Crea un fichero temporal en el mismo sistema de ficheros que el almacenamiento
+     *
+     * @return Fichero temporal
+     * @throws IOException IOException
+     */
+    Path createTempFile() throws IOException;
+
+    /**
+     * Obtiene todos los ficheros. El stream debe cerrarse
      *
      * @return Ficheros
      */
     Stream<Path> loadAll();
 
+    /**
+     * Obtiene los nombres de los ficheros almacenados antes de un instante, sin los retenidos. El stream
+     * debe cerrarse
+     *
+     * @param cutoff Instante límite
+     * @return Nombres de los ficheros
+     */
+    Stream<String> loadAllStoredBefore(Instant cutoff);
+
+    /**
+     * Elimina los contenidos a los que no apunta ningún fichero y los temporales de subidas interrumpidas
+     *
+     * @param cutoff Solo se eliminan los modificados antes de este instante
+     * @return Número de ficheros eliminados
+     */
+    long purgeUnreferenced(Instant cutoff);
+
     /**
      * Carga un fichero
      *
@@ -51,6 +91,23 @@ public interface StorageService {
      */
     Resource loadAsResource(String filename);
 
+    /**
+     * Obtiene los metadatos de un fichero
+     *
+     * @param filename Nombre del fichero
+     * @return Metadatos del fichero
+     */
+    StoredFile getMetadata(String filename);
+
+    /**
+     * Obtiene los metadatos de un derivado de una imagen
+     *
+     * @param filename Nombre del fichero original
+     * @param size     Nombre del derivado
+     * @return Metadatos del derivado, o vacío si todavía no se ha generado
+     */
+    Optional<StoredFile> getDerivativeMetadata(String filename, String size);
+
     /**
      * Elimina un fichero
      *
@@ -58,6 +115,14 @@ public interface StorageService {
      */
     void delete(String filename);
 
+    /**
+     * Retiene un fichero para que no se elimine como huérfano aunque ninguna entidad lo referencie.
+     * La retención desaparece al eliminar el fichero
+     *
+     * @param filename Nombre del fichero
+     */
+    void retain(String filename);
+
     /**
      * Elimina todos los ficheros
      */
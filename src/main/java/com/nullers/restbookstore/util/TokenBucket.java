@@ -0,0 +1,101 @@
+package com.nullers.restbookstore.util;
+
+/**
+ * Cubo de tokens: admite ráfagas de hasta {@code capacity} peticiones y se recarga a un ritmo
+ * constante. Es seguro para uso concurrente.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long capacity;
+
+    private final double tokensPerNano;
+
+    private double tokens;
+
+    private long lastRefillNanos;
+
+    /**
+     * Constructor TokenBucket
+     *
+     * @param capacity        número máximo de tokens
+     * @param refillPerMinute tokens que se recargan por minuto
+     * @param nowNanos        instante de creación en nanosegundos
+     */
+    public TokenBucket(long capacity, long refillPerMinute, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / (60.0 * NANOS_PER_SECOND);
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Intenta consumir un token
+     *
+     * @param nowNanos instante actual en nanosegundos
+     * @return 0 si se ha consumido el token o los nanosegundos que faltan para que haya uno disponible
+     */
+    public synchronized long tryConsume(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Indica si el cubo está lleno, es decir, si no ha habido actividad reciente
+     *
+     * @param nowNanos instante actual en nanosegundos
+     * @return true si el cubo tiene todos sus tokens
+     */
+    public synchronized boolean isFull(long nowNanos) {
+        refill(nowNanos);
+        return tokens >= capacity;
+    }
+
+    /**
+     * Devuelve los tokens disponibles redondeados hacia abajo
+     *
+     * @param nowNanos instante actual en nanosegundos
+     * @return tokens disponibles
+     */
+    public synchronized long getAvailableTokens(long nowNanos) {
+        refill(nowNanos);
+        return (long) tokens;
+    }
+
+    /**
+     * Devuelve la capacidad del cubo
+     *
+     * @return capacidad
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Convierte una espera en nanosegundos a segundos enteros redondeando hacia arriba
+     *
+     * @param nanos espera en nanosegundos
+     * @return segundos, como mínimo 1
+     */
+    public static long toRetryAfterSeconds(long nanos) {
+        return Math.max(1, (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Recarga los tokens según el tiempo transcurrido desde la última recarga
+     *
+     * @param nowNanos instante actual en nanosegundos
+     */
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -10,6 +10,11 @@ import java.util.Set;
  * Clase Util
  */
 public class Util {
+    /**
+     * Número de bytes del inicio del fichero que necesita detectFileType
+     */
+    public static final int FILE_TYPE_HEADER_LENGTH = 8;
+
     /**
      * Constructor privado para evitar instancias
      */
@@ -55,6 +60,12 @@ public class Util {
                 bytes[6] == (byte) 0x1A &&
                 bytes[7] == (byte) 0x0A) {
             return "png";
+        } else if (bytes.length >= 4 &&
+                bytes[0] == (byte) 0x25 &&
+                bytes[1] == (byte) 0x50 &&
+                bytes[2] == (byte) 0x44 &&
+                bytes[3] == (byte) 0x46) {
+            return "pdf";
         } else {
             return "application/octet-stream";
         }
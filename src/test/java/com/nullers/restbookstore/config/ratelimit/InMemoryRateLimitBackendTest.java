@@ -0,0 +1,65 @@
+package com.nullers.restbookstore.config.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRateLimitBackendTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+    private final InMemoryRateLimitBackend backend = new InMemoryRateLimitBackend(4, now::get);
+    private final RateLimitPolicy policy = RateLimitPolicy.parse("books", "2,60");
+
+    @Test
+    void tryConsume_ShouldAllowBurstAndThenReject() {
+        RateLimitDecision first = backend.tryConsume("books:ip:1", policy);
+        RateLimitDecision second = backend.tryConsume("books:ip:1", policy);
+        RateLimitDecision third = backend.tryConsume("books:ip:1", policy);
+
+        assertAll(
+                () -> assertTrue(first.allowed()),
+                () -> assertEquals(1, first.remaining()),
+                () -> assertTrue(second.allowed()),
+                () -> assertEquals(0, second.remaining()),
+                () -> assertFalse(third.allowed()),
+                () -> assertEquals(1, third.retryAfterSeconds()),
+                () -> assertEquals(2, third.limit())
+        );
+    }
+
+    @Test
+    void tryConsume_ShouldRefillOverTime() {
+        backend.tryConsume("books:ip:1", policy);
+        backend.tryConsume("books:ip:1", policy);
+
+        now.addAndGet(1_000_000_000L);
+
+        assertTrue(backend.tryConsume("books:ip:1", policy).allowed());
+    }
+
+    @Test
+    void tryConsume_ShouldKeepSeparateBucketsPerKey() {
+        backend.tryConsume("books:ip:1", policy);
+        backend.tryConsume("books:ip:1", policy);
+
+        assertTrue(backend.tryConsume("books:ip:2", policy).allowed());
+    }
+
+    @Test
+    void evictIdle_ShouldRemoveFullBuckets() {
+        backend.tryConsume("books:ip:1", policy);
+        backend.tryConsume("books:ip:2", policy);
+
+        now.addAndGet(5_000_000_000L);
+        backend.evictIdle();
+
+        assertEquals(0, backend.size());
+    }
+
+    @Test
+    void parse_ShouldRejectInvalidSpec() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("books", "10"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.nullers.restbookstore.config.websockets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WebSocketBroadcasterTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private WebSocketBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        broadcaster.shutdown();
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    private WebSocketSession stalledSession(String id, CountDownLatch started) throws IOException {
+        WebSocketSession session = session(id);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+
+    @Test
+    void testBroadcastSharesMessage() throws IOException {
+        broadcaster = new WebSocketBroadcaster(2, 5000, 10, 1024, WebSocketBroadcaster.OverflowPolicy.DROP_OLDEST);
+        var a = session("a");
+        var b = session("b");
+        broadcaster.register(a);
+        broadcaster.register(b);
+
+        broadcaster.broadcast(List.of(a, b), "hola");
+
+        ArgumentCaptor<WebSocketMessage<?>> sentToA = ArgumentCaptor.forClass(WebSocketMessage.class);
+        ArgumentCaptor<WebSocketMessage<?>> sentToB = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(a, timeout(1000)).sendMessage(sentToA.capture());
+        verify(b, timeout(1000)).sendMessage(sentToB.capture());
+        assertAll(
+                () -> assertSame(sentToA.getValue(), sentToB.getValue()),
+                () -> assertEquals("hola", ((TextMessage) sentToA.getValue()).getPayload())
+        );
+    }
+
+    @Test
+    void testSlowSessionDropsOldest() throws Exception {
+        broadcaster = new WebSocketBroadcaster(2, 5000, 1, 1024, WebSocketBroadcaster.OverflowPolicy.DROP_OLDEST);
+        var started = new CountDownLatch(1);
+        var slow = stalledSession("slow", started);
+        var fast = session("fast");
+        broadcaster.register(slow);
+        broadcaster.register(fast);
+
+        broadcaster.broadcast(List.of(slow, fast), "1");
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        broadcaster.broadcast(List.of(slow, fast), "2");
+        broadcaster.broadcast(List.of(slow, fast), "3");
+
+        verify(fast, timeout(1000).times(3)).sendMessage(any());
+        var metrics = broadcaster.getMetrics();
+        assertAll(
+                () -> assertEquals(1, metrics.getDroppedMessages()),
+                () -> assertEquals(1, metrics.getQueuedMessages()),
+                () -> assertEquals(0, metrics.getDisconnectedSessions())
+        );
+
+        release.countDown();
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(slow, timeout(1000).times(2)).sendMessage(sent.capture());
+        assertEquals("3", sent.getAllValues().get(1).getPayload());
+    }
+
+    @Test
+    void testFullQueueDisconnects() throws Exception {
+        broadcaster = new WebSocketBroadcaster(2, 5000, 1, 1024, WebSocketBroadcaster.OverflowPolicy.DISCONNECT);
+        var started = new CountDownLatch(1);
+        var slow = stalledSession("slow", started);
+        broadcaster.register(slow);
+
+        broadcaster.broadcast(List.of(slow), "1");
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        broadcaster.broadcast(List.of(slow), "2");
+        broadcaster.broadcast(List.of(slow), "3");
+
+        verify(slow).close(CloseStatus.SESSION_NOT_RELIABLE);
+        var metrics = broadcaster.getMetrics();
+        assertAll(
+                () -> assertEquals(1, metrics.getDisconnectedSessions()),
+                () -> assertEquals(0, metrics.getSessions())
+        );
+    }
+
+    @Test
+    void testStalledSendDisconnects() throws Exception {
+        broadcaster = new WebSocketBroadcaster(2, 10, 10, 1024, WebSocketBroadcaster.OverflowPolicy.DROP_OLDEST);
+        var started = new CountDownLatch(1);
+        var slow = stalledSession("slow", started);
+        broadcaster.register(slow);
+
+        broadcaster.broadcast(List.of(slow), "1");
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        broadcaster.broadcast(List.of(slow), "2");
+
+        verify(slow).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, broadcaster.getMetrics().getDisconnectedSessions());
+    }
+}
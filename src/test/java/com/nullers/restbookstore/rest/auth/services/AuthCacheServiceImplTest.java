@@ -0,0 +1,97 @@
+package com.nullers.restbookstore.rest.auth.services;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.nullers.restbookstore.rest.auth.services.cache.AuthCacheServiceImpl;
+import com.nullers.restbookstore.rest.user.models.Role;
+import com.nullers.restbookstore.rest.user.models.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthCacheServiceImplTest {
+
+    private final User user = User.builder()
+            .id(UUID.fromString("c671d981-bd6f-4e75-b7cc-fd3ca96582d5"))
+            .username("Test")
+            .email("test@test.com")
+            .roles(Set.of(Role.USER))
+            .build();
+
+    private final Date future = new Date(System.currentTimeMillis() + 60_000);
+
+    private DecodedJWT decoded(String username, Date expiresAt) {
+        return JWT.decode(JWT.create().withSubject(username).withExpiresAt(expiresAt).sign(Algorithm.none()));
+    }
+
+    @Test
+    void getVerifiedToken_ShouldReturnCachedToken() {
+        AuthCacheServiceImpl cache = new AuthCacheServiceImpl(10, 10, 30);
+        cache.putVerifiedToken("token", decoded("Test", future));
+
+        assertAll(
+                () -> assertEquals("Test", cache.getVerifiedToken("token").getSubject()),
+                () -> assertNull(cache.getVerifiedToken("other"))
+        );
+    }
+
+    @Test
+    void getVerifiedToken_ShouldIgnoreExpiredToken() {
+        AuthCacheServiceImpl cache = new AuthCacheServiceImpl(10, 10, 30);
+        cache.putVerifiedToken("token", decoded("Test", new Date(System.currentTimeMillis() - 1000)));
+
+        assertNull(cache.getVerifiedToken("token"));
+    }
+
+    @Test
+    void putVerifiedToken_ShouldEvictLeastRecentlyUsed() {
+        AuthCacheServiceImpl cache = new AuthCacheServiceImpl(2, 10, 30);
+        cache.putVerifiedToken("token1", decoded("Test", future));
+        cache.putVerifiedToken("token2", decoded("Test", future));
+        cache.getVerifiedToken("token1");
+        cache.putVerifiedToken("token3", decoded("Test", future));
+
+        assertAll(
+                () -> assertEquals("Test", cache.getVerifiedToken("token1").getSubject()),
+                () -> assertNull(cache.getVerifiedToken("token2")),
+                () -> assertEquals("Test", cache.getVerifiedToken("token3").getSubject())
+        );
+    }
+
+    @Test
+    void getPrincipal_ShouldIgnoreCase() {
+        AuthCacheServiceImpl cache = new AuthCacheServiceImpl(10, 10, 30);
+        cache.putPrincipal(user);
+
+        assertEquals(user, cache.getPrincipal("test"));
+    }
+
+    @Test
+    void getPrincipal_ShouldExpire() {
+        AuthCacheServiceImpl cache = new AuthCacheServiceImpl(10, 10, -1);
+        cache.putPrincipal(user);
+
+        assertNull(cache.getPrincipal("Test"));
+    }
+
+    @Test
+    void invalidateUser_ShouldRemovePrincipalAndTokens() {
+        AuthCacheServiceImpl cache = new AuthCacheServiceImpl(10, 10, 30);
+        cache.putPrincipal(user);
+        cache.putVerifiedToken("token", decoded("Test", future));
+        cache.putVerifiedToken("other", decoded("Other", future));
+
+        cache.invalidateUser("TEST");
+
+        assertAll(
+                () -> assertNull(cache.getPrincipal("Test")),
+                () -> assertNull(cache.getVerifiedToken("token")),
+                () -> assertEquals("Other", cache.getVerifiedToken("other").getSubject())
+        );
+    }
+}
@@ -0,0 +1,88 @@
+package com.nullers.restbookstore.rest.auth.services;
+
+import com.nullers.restbookstore.rest.auth.dto.UserSignUpRequest;
+import com.nullers.restbookstore.rest.auth.repositories.AuthUsersRepository;
+import com.nullers.restbookstore.rest.auth.services.authentication.AuthenticationServiceImp;
+import com.nullers.restbookstore.rest.auth.services.jwt.JwtService;
+import com.nullers.restbookstore.rest.auth.services.throttling.LoginThrottleService;
+import com.nullers.restbookstore.rest.user.models.User;
+import com.nullers.restbookstore.rest.user.repository.UserRepository;
+import com.nullers.restbookstore.rest.user.services.search.UserSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationServiceImpTest {
+
+    @Mock
+    private AuthUsersRepository authUsersRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private LoginThrottleService loginThrottleService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserSearchIndex userSearchIndex;
+
+    private AuthenticationServiceImp authenticationService;
+
+    @BeforeEach
+    void setUp() {
+        userSearchIndex = new UserSearchIndex(userRepository, true, 5000);
+        when(userRepository.streamSearchViews()).thenReturn(Stream.empty());
+        userSearchIndex.rebuild();
+        authenticationService = new AuthenticationServiceImp(authUsersRepository, passwordEncoder, jwtService,
+                authenticationManager, loginThrottleService, userSearchIndex);
+    }
+
+    @Test
+    void signUp_ShouldIndexUserForSearch() {
+        UUID id = UUID.randomUUID();
+        UserSignUpRequest request = UserSignUpRequest.builder()
+                .name("Daniel")
+                .surname("García")
+                .username("danielgarcia")
+                .email("daniel@gmail.com")
+                .password("123456789")
+                .passwordRepeat("123456789")
+                .build();
+        when(passwordEncoder.encode("123456789")).thenReturn("hash");
+        when(authUsersRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(id);
+            return user;
+        });
+        when(jwtService.generateToken(any(User.class))).thenReturn("token");
+
+        authenticationService.signUp(request);
+
+        assertAll(
+                () -> assertEquals(List.of(id), userSearchIndex.search(Optional.of("danielgar"), Optional.empty()).orElseThrow()),
+                () -> assertEquals(List.of(id), userSearchIndex.search(Optional.empty(), Optional.of("daniel@gmail")).orElseThrow())
+        );
+    }
+}
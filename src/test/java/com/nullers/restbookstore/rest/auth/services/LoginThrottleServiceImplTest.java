@@ -0,0 +1,48 @@
+package com.nullers.restbookstore.rest.auth.services;
+
+import com.nullers.restbookstore.rest.auth.exceptions.AuthTooManyRequests;
+import com.nullers.restbookstore.rest.auth.services.throttling.LoginThrottleServiceImpl;
+import com.nullers.restbookstore.util.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleServiceImplTest {
+
+    @Test
+    void checkUsername_ShouldRejectAfterCapacity() {
+        LoginThrottleServiceImpl service = new LoginThrottleServiceImpl(20, 20, 2, 1);
+
+        service.checkUsername("test");
+        service.checkUsername("TEST");
+        var res = assertThrows(AuthTooManyRequests.class, () -> service.checkUsername("Test"));
+
+        assertAll(
+                () -> assertTrue(res.getRetryAfterSeconds() >= 1),
+                () -> assertEquals(1, service.getThrottledRequests())
+        );
+    }
+
+    @Test
+    void checkClientIp_ShouldKeepSeparateBucketsPerIp() {
+        LoginThrottleServiceImpl service = new LoginThrottleServiceImpl(1, 1, 5, 5);
+
+        service.checkClientIp("10.0.0.1");
+        service.checkClientIp("10.0.0.2");
+
+        assertThrows(AuthTooManyRequests.class, () -> service.checkClientIp("10.0.0.1"));
+    }
+
+    @Test
+    void tokenBucket_ShouldRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(1, 60, 0);
+
+        assertAll(
+                () -> assertEquals(0, bucket.tryConsume(0)),
+                () -> assertTrue(bucket.tryConsume(0) > 0),
+                () -> assertEquals(0, bucket.tryConsume(1_000_000_000L)),
+                () -> assertFalse(bucket.isFull(1_000_000_000L)),
+                () -> assertTrue(bucket.isFull(2_000_000_000L))
+        );
+    }
+}
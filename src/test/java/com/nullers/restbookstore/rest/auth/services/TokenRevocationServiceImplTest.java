@@ -0,0 +1,75 @@
+package com.nullers.restbookstore.rest.auth.services;
+
+import com.nullers.restbookstore.rest.auth.services.revocation.TokenRevocationServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationServiceImplTest {
+
+    private final Date future = new Date(System.currentTimeMillis() + 60_000);
+
+    @Test
+    void isRevoked_ShouldReturnFalse_WhenNothingRevoked() {
+        TokenRevocationServiceImpl service = new TokenRevocationServiceImpl(100, 86400);
+
+        assertFalse(service.isRevoked(UUID.randomUUID().toString(), "test", new Date()));
+    }
+
+    @Test
+    void isRevoked_ShouldReturnTrue_ForRevokedToken() {
+        TokenRevocationServiceImpl service = new TokenRevocationServiceImpl(100, 86400);
+        String tokenId = UUID.randomUUID().toString();
+
+        service.revokeToken(tokenId, future);
+
+        assertAll(
+                () -> assertTrue(service.isRevoked(tokenId, "test", new Date())),
+                () -> assertFalse(service.isRevoked(UUID.randomUUID().toString(), "test", new Date()))
+        );
+    }
+
+    @Test
+    void isRevoked_ShouldRejectTokensIssuedBeforeUserRevocation() {
+        TokenRevocationServiceImpl service = new TokenRevocationServiceImpl(100, 86400);
+        Date issuedBefore = new Date(System.currentTimeMillis() - 10_000);
+
+        service.revokeUser("Test");
+
+        assertAll(
+                () -> assertTrue(service.isRevoked(UUID.randomUUID().toString(), "test", issuedBefore)),
+                () -> assertFalse(service.isRevoked(UUID.randomUUID().toString(), "test", new Date(System.currentTimeMillis() + 10_000))),
+                () -> assertFalse(service.isRevoked(UUID.randomUUID().toString(), "other", issuedBefore))
+        );
+    }
+
+    @Test
+    void isRevoked_ShouldAcceptTokenIssuedInTheSameSecondAsRevocation() {
+        TokenRevocationServiceImpl service = new TokenRevocationServiceImpl(100, 86400);
+
+        service.revokeUser("Test");
+        // iat de un nuevo inicio de sesión justo después de la revocación, truncado a segundos como en el JWT
+        Date issuedAt = new Date(System.currentTimeMillis() / 1000 * 1000);
+
+        assertFalse(service.isRevoked(UUID.randomUUID().toString(), "test", issuedAt));
+    }
+
+    @Test
+    void purgeExpired_ShouldDropExpiredRevocations() {
+        TokenRevocationServiceImpl service = new TokenRevocationServiceImpl(100, 86400);
+        String expired = UUID.randomUUID().toString();
+        String active = UUID.randomUUID().toString();
+        service.revokeToken(expired, new Date(System.currentTimeMillis() - 1000));
+        service.revokeToken(active, future);
+
+        service.purgeExpired();
+
+        assertAll(
+                () -> assertFalse(service.isRevoked(expired, null, new Date())),
+                () -> assertTrue(service.isRevoked(active, null, new Date()))
+        );
+    }
+}
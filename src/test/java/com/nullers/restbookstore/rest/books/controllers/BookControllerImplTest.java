@@ -8,6 +8,7 @@ import com.nullers.restbookstore.rest.book.dto.PatchBookDTO;
 import com.nullers.restbookstore.rest.book.dto.UpdateBookDTO;
 import com.nullers.restbookstore.rest.book.exceptions.BookNotValidIDException;
 import com.nullers.restbookstore.rest.book.services.BookServiceImpl;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import com.nullers.restbookstore.rest.publisher.dto.PublisherData;
 import com.nullers.restbookstore.rest.publisher.exceptions.PublisherIDNotValid;
 import org.junit.jupiter.api.Test;
@@ -32,6 +33,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -100,7 +102,7 @@ class BookControllerImplTest {
         var pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
         var page = new PageImpl<>(bookList);
         when(service.getAllBook(Optional.empty(), Optional.empty(), Optional.empty()
-                , pageable)).thenReturn(page);
+                , pageable, FieldSelection.ALL)).thenReturn(page);
         MockHttpServletResponse response = mockMvc.perform(get(endpoint)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -153,7 +155,7 @@ class BookControllerImplTest {
      */
     @Test
     void testFindById() throws Exception {
-        when(service.getBookById(book.getId())).thenReturn(book);
+        when(service.getBookById(book.getId(), FieldSelection.ALL)).thenReturn(book);
         MockHttpServletResponse response = mockMvc.perform(
                         get(endpoint + "/{id}", book.getId().toString())
                                 .accept(MediaType.APPLICATION_JSON))
@@ -167,6 +169,50 @@ class BookControllerImplTest {
         );
     }
 
+    /**
+     * Test para comprobar que solo se devuelven los campos seleccionados de un Book
+     *
+     * @throws Exception excepción
+     */
+    @Test
+    void testFindByIdSparseFields() throws Exception {
+        when(service.getBookById(eq(book.getId()), any(FieldSelection.class))).thenReturn(book);
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(endpoint + "/{id}", book.getId().toString())
+                                .param("fields", "name,price")
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse();
+        String body = response.getContentAsString(StandardCharsets.UTF_8);
+        assertAll(
+                () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
+                () -> assertTrue(body.contains("\"id\":" + book.getId())),
+                () -> assertTrue(body.contains("\"name\":" + "\"" + book.getName() + "\"")),
+                () -> assertTrue(body.contains("\"price\":" + book.getPrice())),
+                () -> assertFalse(body.contains("\"description\"")),
+                () -> assertFalse(body.contains("\"publisher\""))
+        );
+        verify(service).getBookById(book.getId(),
+                new FieldSelection(GetBookDTO.class, Set.of("name", "price"), Set.of()));
+    }
+
+    /**
+     * Test para comprobar que se rechazan los campos que no existen
+     *
+     * @throws Exception excepción
+     */
+    @Test
+    void testFindByIdUnknownField() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(endpoint + "/{id}", book.getId().toString())
+                                .param("fields", "name,isbn")
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse();
+        assertEquals(400, response.getStatus());
+        verify(service, never()).getBookById(anyLong(), any(FieldSelection.class));
+    }
+
     /**
      * Test para comprobar que se obtiene un Book por su id
      *
@@ -174,7 +220,7 @@ class BookControllerImplTest {
      */
     @Test
     void testFindByIdNotValidID() throws Exception {
-        when(service.getBookById(null)).thenThrow(new BookNotValidIDException(""));
+        when(service.getBookById(null, FieldSelection.ALL)).thenThrow(new BookNotValidIDException(""));
         MockHttpServletResponse response = mockMvc.perform(
                         get(endpoint + "/{id}", "()")
                                 .accept(MediaType.APPLICATION_JSON))
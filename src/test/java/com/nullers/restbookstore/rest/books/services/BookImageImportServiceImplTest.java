@@ -0,0 +1,174 @@
+package com.nullers.restbookstore.rest.books.services;
+
+import com.nullers.restbookstore.rest.book.dto.BookImageImportEntry;
+import com.nullers.restbookstore.rest.book.dto.BookImageImportReport;
+import com.nullers.restbookstore.rest.book.services.BookImageImportServiceImpl;
+import com.nullers.restbookstore.rest.book.services.BookService;
+import com.nullers.restbookstore.storage.exceptions.StorageBadRequest;
+import com.nullers.restbookstore.storage.services.StorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImageImportServiceImplTest {
+
+    private final byte[] bytesPNG = {(byte) 137, 80, 78, 71, 13, 10, 26, 10, 0, 0, 0, 13};
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private StorageService storageService;
+
+    private BookImageImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new BookImageImportServiceImpl(bookService, storageService, 2, 1, 1024, 100, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    private void stubStorage() throws IOException {
+        when(storageService.createTempFile()).thenAnswer(invocation -> Files.createTempFile(tempDir, "import-", ".tmp"));
+        when(storageService.store(any(Path.class), anyString(), anyList(), anyString())).thenAnswer(invocation -> {
+            String filename = invocation.getArgument(1);
+            if (filename.startsWith("3.")) {
+                throw new StorageBadRequest("Tipo de fichero no permitido " + filename);
+            }
+            return invocation.getArgument(3) + ".png";
+        });
+        when(storageService.getUrl(anyString())).thenAnswer(invocation -> "https://localhost/storage/" + invocation.getArgument(0));
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var zip = new ZipOutputStream(bytes)) {
+            for (var entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] tar(Map<String, byte[]> entries) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        for (var entry : entries.entrySet()) {
+            byte[] header = new byte[512];
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            System.arraycopy(name, 0, header, 0, name.length);
+            byte[] size = String.format("%011o", entry.getValue().length).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(size, 0, header, 124, size.length);
+            header[156] = '0';
+            bytes.write(header);
+            bytes.write(entry.getValue());
+            bytes.write(new byte[(512 - entry.getValue().length % 512) % 512]);
+        }
+        bytes.write(new byte[1024]);
+        return bytes.toByteArray();
+    }
+
+    private static BookImageImportEntry entry(BookImageImportReport report, String name) {
+        return report.getEntries().stream().filter(e -> name.equals(e.getEntry())).findFirst().orElseThrow();
+    }
+
+    @Test
+    void importImages_ShouldReportEveryEntry() throws IOException {
+        stubStorage();
+        when(bookService.updateImages(anyMap())).thenAnswer(invocation -> {
+            Map<Long, String> images = invocation.getArgument(0);
+            Set<Long> updated = new HashSet<>(images.keySet());
+            updated.remove(99L);
+            return updated;
+        });
+        var archive = new LinkedHashMap<String, byte[]>();
+        archive.put("covers/1.png", bytesPNG);
+        archive.put("covers/2.png", bytesPNG);
+        archive.put("covers/2.jpg", bytesPNG);
+        archive.put("covers/readme.txt", "hola".getBytes(StandardCharsets.UTF_8));
+        archive.put("covers/3.png", bytesPNG);
+        archive.put("covers/4.png", new byte[2048]);
+        archive.put("covers/99.png", bytesPNG);
+
+        var report = importService.importImages(new ByteArrayInputStream(zip(archive)), false);
+
+        assertAll(
+                () -> assertEquals(2, report.getUpdated()),
+                () -> assertEquals(5, report.getRejected()),
+                () -> assertEquals(BookImageImportEntry.Status.UPDATED, entry(report, "covers/1.png").getStatus()),
+                () -> assertTrue(entry(report, "covers/1.png").getImage().startsWith("https://localhost/storage/1-")),
+                () -> assertEquals(BookImageImportEntry.Status.UPDATED, entry(report, "covers/2.png").getStatus()),
+                () -> assertEquals(BookImageImportEntry.Status.SKIPPED, entry(report, "covers/2.jpg").getStatus()),
+                () -> assertEquals(BookImageImportEntry.Status.SKIPPED, entry(report, "covers/readme.txt").getStatus()),
+                () -> assertEquals(BookImageImportEntry.Status.FAILED, entry(report, "covers/3.png").getStatus()),
+                () -> assertEquals(BookImageImportEntry.Status.FAILED, entry(report, "covers/4.png").getStatus()),
+                () -> assertEquals(BookImageImportEntry.Status.NOT_FOUND, entry(report, "covers/99.png").getStatus())
+        );
+        verify(bookService, times(2)).updateImages(anyMap());
+        verify(storageService).delete(startsWith("99-"));
+    }
+
+    @Test
+    void importImages_ShouldReadTar() throws IOException {
+        stubStorage();
+        when(bookService.updateImages(anyMap())).thenAnswer(invocation -> {
+            Map<Long, String> images = invocation.getArgument(0);
+            return Set.copyOf(images.keySet());
+        });
+        var archive = new LinkedHashMap<String, byte[]>();
+        archive.put("1.png", bytesPNG);
+        archive.put("2.png", bytesPNG);
+
+        var report = importService.importImages(new ByteArrayInputStream(tar(archive)), true);
+
+        assertAll(
+                () -> assertEquals(2, report.getUpdated()),
+                () -> assertEquals(0, report.getRejected())
+        );
+    }
+
+    @Test
+    void importImages_ShouldReportBrokenArchive() {
+        byte[] broken = new byte[512];
+        broken[0] = '1';
+        broken[124] = 'x';
+
+        var report = importService.importImages(new ByteArrayInputStream(broken), true);
+
+        assertAll(
+                () -> assertEquals(0, report.getUpdated()),
+                () -> assertEquals(BookImageImportEntry.Status.FAILED, report.getEntries().get(0).getStatus())
+        );
+        verifyNoInteractions(bookService);
+    }
+}
@@ -19,7 +19,8 @@ import com.nullers.restbookstore.rest.category.exceptions.CategoryNotFoundExcept
 import com.nullers.restbookstore.rest.category.model.Category;
 import com.nullers.restbookstore.rest.category.repository.CategoryRepositoryJpa;
 import com.nullers.restbookstore.rest.category.services.CategoryServiceJpa;
-import com.nullers.restbookstore.rest.publisher.dto.PublisherDTO;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
 import com.nullers.restbookstore.rest.publisher.dto.PublisherData;
 import com.nullers.restbookstore.rest.publisher.mappers.PublisherMapper;
 import com.nullers.restbookstore.rest.publisher.model.Publisher;
@@ -34,17 +35,23 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -85,6 +92,9 @@ class BookServiceImplTest {
     @Mock
     private CategoryServiceJpa categoryService;
 
+    @Mock
+    private ReferenceCountService referenceCountService;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -203,6 +213,25 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findById(list.get(0).getId());
     }
 
+    /**
+     * Test para comprobar que no se carga la editorial si no se ha seleccionado
+     *
+     * @throws BookNotValidIDException excepción
+     * @throws BookNotFoundException   excepción
+     */
+    @Test
+    void testGetBookByIdWithoutPublisher() throws BookNotValidIDException, BookNotFoundException {
+        var dto = GetBookDTO.builder().id(1L).name("nombre").build();
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(list.get(0)));
+        when(bookMapperImpl.toGetBookDTO(list.get(0), null)).thenReturn(dto);
+        var selection = FieldSelection.parse(GetBookDTO.class, "name,price", null);
+
+        var book = bookService.getBookById(1L, selection);
+
+        assertEquals("nombre", book.getName());
+        verify(publisherMapper, never()).toPublisherData(any());
+    }
+
     /**
      * Test para comprobar que no se ha encontrado el Book por su id
      */
@@ -214,6 +243,26 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findById(anyLong());
     }
 
+    /**
+     * Test para comprobar que los libros de una editorial se mapean con la editorial una sola vez
+     */
+    @Test
+    void testGetBooksByPublisher() {
+        var publisher = Publisher.builder().id(1L).build();
+        var publisherData = PublisherData.builder().id(1L).build();
+        var pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        when(publisherService.getPublisherReference(1L)).thenReturn(publisher);
+        when(publisherMapper.toPublisherData(publisher)).thenReturn(publisherData);
+        when(bookRepository.findByPublisher_Id(1L, pageable)).thenReturn(new PageImpl<>(list, pageable, list.size()));
+        when(bookMapperImpl.toGetBookDTO(any(Book.class), eq(publisherData)))
+                .thenReturn(GetBookDTO.builder().name("nombre").build());
+
+        var page = bookService.getBooksByPublisher(1L, pageable);
+
+        assertEquals(list.size(), page.getTotalElements());
+        verify(publisherMapper, times(1)).toPublisherData(any());
+    }
+
 
     /**
      * Test para comprobar que se inserta un Book
@@ -224,15 +273,13 @@ class BookServiceImplTest {
                 .name("nombre").price(2.2).image("imagen").publisherId(1L).build();
         var publisher = Publisher.builder().id(1L).createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now()).build();
-        var publisherDTO = PublisherDTO.builder().id(1L).build();
         var category = Category.builder().isActive(true).name("category").build();
         var inserted = Book.builder().id(1L).name("nombre").price(2.2).image("imagen")
                 .publisher(publisher).description("descripción")
                 .category(category)
                 .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).active(true).build();
         var publisherData = PublisherData.builder().id(1L).build();
-        when(publisherService.findById(1L)).thenReturn(any());
-        when(publisherMapper.toPublisher(publisherDTO)).thenReturn(publisher);
+        when(publisherService.getPublisherReference(1L)).thenReturn(publisher);
         when(bookRepository.save(inserted)).thenReturn(inserted);
         when(categoryRepositoryJpa.findByNameEqualsIgnoreCase(any()))
                 .thenReturn(Optional.of(category));
@@ -262,9 +309,7 @@ class BookServiceImplTest {
                 .category(UUID.randomUUID().toString()).build();
         var publisher = Publisher.builder().id(1L).createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now()).build();
-        var publisherDTO = PublisherDTO.builder().id(1L).build();
-        when(publisherService.findById(1L)).thenReturn(any());
-        when(publisherMapper.toPublisher(publisherDTO)).thenReturn(publisher);
+        when(publisherService.getPublisherReference(1L)).thenReturn(publisher);
         when(categoryRepositoryJpa.findByNameEqualsIgnoreCase(any())).thenReturn(Optional.empty());
         assertThrows(CategoryNotFoundException.class, () -> bookService.postBook(insert));
     }
@@ -287,14 +332,12 @@ class BookServiceImplTest {
         var publisher = Publisher.builder().id(1L).createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now()).build();
         var category = Category.builder().isActive(true).name("category").build();
-        var publisherDTO = PublisherDTO.builder().id(1L).build();
         var publisherData = PublisherData.builder().id(1L).build();
         var inserted = Book.builder().id(1L).name("nombre").price(2.2).image("imagen")
                 .publisher(publisher).description("descripción")
                 .category(category)
                 .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).active(true).build();
-        when(publisherService.findById(1L)).thenReturn(any());
-        when(publisherMapper.toPublisher(publisherDTO)).thenReturn(publisher);
+        when(publisherService.getPublisherReference(1L)).thenReturn(publisher);
         when(bookRepository.save(inserted)).thenReturn(inserted);
         when(categoryRepositoryJpa.findByNameEqualsIgnoreCase(any()))
                 .thenReturn(Optional.of(category));
@@ -344,14 +387,12 @@ class BookServiceImplTest {
                 .build();
         var publisher = Publisher.builder().id(1L).createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now()).build();
-        var publisherDTO = PublisherDTO.builder().id(1L).build();
         var publisherData = PublisherData.builder().id(1L).build();
         var inserted = Book.builder().id(1L).name("nombre").price(2.2).image("imagen")
                 .publisher(publisher).description("descripción")
                 .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).active(true).build();
-        when(publisherService.findById(1L)).thenReturn(any());
+        when(publisherService.getPublisherReference(1L)).thenReturn(publisher);
         when(categoryService.getCategoryById(categoryId)).thenReturn(any());
-        when(publisherMapper.toPublisher(publisherDTO)).thenReturn(publisher);
         when(bookRepository.save(inserted)).thenReturn(inserted);
         when(bookRepository.findById(inserted.getId())).thenReturn(Optional.of(inserted));
         when(publisherMapper.toPublisherData(any())).thenReturn(publisherData);
@@ -401,13 +442,11 @@ class BookServiceImplTest {
                 .build();
         var publisher = Publisher.builder().id(1L).createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now()).build();
-        var publisherDTO = PublisherDTO.builder().id(1L).build();
         var publisherData = PublisherData.builder().id(1L).build();
         var inserted = Book.builder().id(1L).name("nombre").price(2.2).image("imagen")
                 .publisher(publisher).description("descripción")
                 .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).active(true).build();
-        when(publisherService.findById(1L)).thenReturn(any());
-        when(publisherMapper.toPublisher(publisherDTO)).thenReturn(publisher);
+        when(publisherService.getPublisherReference(1L)).thenReturn(publisher);
         when(bookRepository.save(inserted)).thenReturn(inserted);
         when(bookRepository.findById(inserted.getId())).thenReturn(Optional.of(inserted));
         when(publisherMapper.toPublisherData(any())).thenReturn(publisherData);
@@ -532,4 +571,41 @@ class BookServiceImplTest {
         assertNotNull(dummyData);
     }
 
+    /**
+     * Test para comprobar que las imágenes anteriores se eliminan solo después del commit
+     */
+    @Test
+    void updateImages_ShouldDeletePreviousImagesAfterCommit() {
+        when(bookRepository.findByIdIn(anyCollection())).thenReturn(List.of(list.get(0)));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Set<Long> updated = bookService.updateImages(Map.of(1L, "nueva.png"));
+
+            verify(storageService, never()).delete(anyString());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            assertEquals(Set.of(1L), updated);
+            verify(storageService, times(1)).delete("imagen");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Test para comprobar que las imágenes anteriores se conservan si la transacción se deshace
+     */
+    @Test
+    void updateImages_ShouldKeepPreviousImagesOnRollback() {
+        when(bookRepository.findByIdIn(anyCollection())).thenReturn(List.of(list.get(0)));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookService.updateImages(Map.of(1L, "nueva.png"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            verify(storageService, never()).delete(anyString());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
 }
@@ -2,12 +2,13 @@ package com.nullers.restbookstore.rest.category.services;
 
 
 import com.nullers.restbookstore.rest.book.dto.GetBookDTO;
-import com.nullers.restbookstore.rest.book.repository.BookRepository;
 import com.nullers.restbookstore.rest.category.exceptions.CategoryConflictException;
 import com.nullers.restbookstore.rest.category.exceptions.CategoryNotFoundException;
 import com.nullers.restbookstore.rest.category.mappers.CategoryCreateMapper;
 import com.nullers.restbookstore.rest.category.model.Category;
 import com.nullers.restbookstore.rest.category.repository.CategoryRepositoryJpa;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
+import com.nullers.restbookstore.rest.common.references.ReferenceType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -16,7 +17,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,7 +33,7 @@ public class CategoryServiceTest {
     private CategoryRepositoryJpa repository;
 
     @Mock
-    private BookRepository bookRepository;
+    private ReferenceCountService referenceCountService;
 
     @InjectMocks
     private CategoryServiceJpaImpl service;
@@ -246,7 +246,7 @@ public class CategoryServiceTest {
     @Test
     void deleteCategoryWithBooks() {
         when(repository.findById(UUID.fromString("3930e05a-7ebf-4aa1-8aa8-5d7466fa9734"))).thenReturn(Optional.of(category1));
-        when(bookRepository.findByCategory_Name(any())).thenReturn(new ArrayList<>());
+        when(referenceCountService.hasReferences(ReferenceType.CATEGORY_BOOKS, category1.getId())).thenReturn(false);
         doThrow(new CategoryConflictException("No se puede eliminar la categoría porque tiene libros asociados")).when(repository).deleteById(UUID.fromString("3930e05a-7ebf-4aa1-8aa8-5d7466fa9734"));
 
         var res = assertThrows(CategoryConflictException.class, () -> service.deleteById(UUID.fromString("3930e05a-7ebf-4aa1-8aa8-5d7466fa9734")));
@@ -254,6 +254,15 @@ public class CategoryServiceTest {
     }
 
 
+    @Test
+    void deleteCategoryReferencedByBooks() {
+        when(repository.findById(UUID.fromString("3930e05a-7ebf-4aa1-8aa8-5d7466fa9734"))).thenReturn(Optional.of(category1));
+        when(referenceCountService.hasReferences(ReferenceType.CATEGORY_BOOKS, category1.getId())).thenReturn(true);
+
+        var res = assertThrows(CategoryConflictException.class, () -> service.deleteById(UUID.fromString("3930e05a-7ebf-4aa1-8aa8-5d7466fa9734")));
+        assertEquals("No se puede eliminar la categoría porque tiene libros asociados", res.getMessage());
+    }
+
     @Test
     void deleteCategoryNotFound() {
         when(repository.findById(UUID.fromString("3930e05a-7ebf-4aa1-8aa8-999966fa9734"))).thenReturn(Optional.empty());
@@ -267,7 +276,7 @@ public class CategoryServiceTest {
         List<GetBookDTO> expectedbooks = List.of();
 
         when(repository.findById(UUID.fromString("3930e05a-7ebf-4aa1-8aa8-5d7466fa9734"))).thenReturn(Optional.of(category1));
-        when(bookRepository.findByCategory_Name(any())).thenReturn(new ArrayList<>());
+        when(referenceCountService.hasReferences(ReferenceType.CATEGORY_BOOKS, category1.getId())).thenReturn(false);
 
         service.deleteById(UUID.fromString("3930e05a-7ebf-4aa1-8aa8-5d7466fa9734"));
     }
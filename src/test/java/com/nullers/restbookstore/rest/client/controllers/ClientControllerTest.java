@@ -12,6 +12,7 @@ import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
 import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.client.services.ClientServiceImpl;
 import com.nullers.restbookstore.rest.common.Address;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -579,7 +580,7 @@ class ClientControllerTest {
 
     @Test
     void getById_ShouldReturnClient() throws Exception {
-        when(clientService.findById(any(UUID.class))).thenReturn(clientDtoTest);
+        when(clientService.findById(any(UUID.class), any(FieldSelection.class))).thenReturn(clientDtoTest);
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/9def16db-362b-44c4-9fc9-77117758b5b0")
                 .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
@@ -602,7 +603,7 @@ class ClientControllerTest {
 
     @Test
     void getById_ShouldReturnClientNotFound() throws Exception {
-        when(clientService.findById(any(UUID.class))).thenThrow(new ClientNotFound("id", UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
+        when(clientService.findById(any(UUID.class), any(FieldSelection.class))).thenThrow(new ClientNotFound("id", UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
 
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/9def16db-362b-44c4-9fc9-77117758b5b9")
@@ -687,7 +688,7 @@ class ClientControllerTest {
     @Test
     void createClient_ShouldReturnClientNotFound() throws Exception {
         when(clientService.save(any(ClientCreateDto.class))).thenThrow(new ClientNotFound("id", UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
-        when(clientService.findById(any(UUID.class))).thenThrow(new ClientNotFound("id", UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
+        when(clientService.findById(any(UUID.class), any(FieldSelection.class))).thenThrow(new ClientNotFound("id", UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
 
         MockHttpServletResponse response = mockMvc.perform(post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -10,6 +10,7 @@ import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.client.services.ClientServiceImpl;
 import com.nullers.restbookstore.rest.common.Address;
 import com.nullers.restbookstore.rest.common.PageableRequest;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -427,9 +428,9 @@ class ClientControllerTestWithoutMockMvc {
 
     @Test
     void getById_ShouldReturnClient() {
-        when(clientService.findById(any(UUID.class))).thenReturn(clientDtoTest);
+        when(clientService.findById(any(UUID.class), any(FieldSelection.class))).thenReturn(clientDtoTest);
 
-        var res = clientController.getById(UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0"));
+        var res = clientController.getById(UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0"), FieldSelection.ALL);
 
         assertAll(
                 () -> assertEquals(clientDtoTest, res.getBody()),
@@ -447,9 +448,9 @@ class ClientControllerTestWithoutMockMvc {
 
     @Test
     void getById_ShouldReturnClientNotFound() {
-        when(clientService.findById(any(UUID.class))).thenThrow(new ClientNotFound("id", UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
+        when(clientService.findById(any(UUID.class), any(FieldSelection.class))).thenThrow(new ClientNotFound("id", UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
 
-        var res = assertThrows(ClientNotFound.class, () -> clientController.getById(UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
+        var res = assertThrows(ClientNotFound.class, () -> clientController.getById(UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9"), FieldSelection.ALL));
 
         assertAll(
                 () -> assertEquals("Client con id: 9def16db-362b-44c4-9fc9-77117758b5b9 no existe", res.getMessage())
@@ -520,9 +521,9 @@ class ClientControllerTestWithoutMockMvc {
 
     @Test
     void createClient_ShouldReturnClientNotFound() {
-        when(clientService.findById(any(UUID.class))).thenThrow(new ClientNotFound("id", UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
+        when(clientService.findById(any(UUID.class), any(FieldSelection.class))).thenThrow(new ClientNotFound("id", UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
 
-        var res = assertThrows(ClientNotFound.class, () -> clientController.getById(UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9")));
+        var res = assertThrows(ClientNotFound.class, () -> clientController.getById(UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9"), FieldSelection.ALL));
 
         assertAll(
                 () -> assertEquals("Client con id: 9def16db-362b-44c4-9fc9-77117758b5b9 no existe", res.getMessage())
@@ -16,10 +16,13 @@ import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
 import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.client.notifications.mapper.ClientNotificationMapper;
 import com.nullers.restbookstore.rest.client.repository.ClientRepository;
+import com.nullers.restbookstore.rest.client.services.search.ClientSearchIndex;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
+import com.nullers.restbookstore.rest.common.references.ReferenceType;
+import com.nullers.restbookstore.rest.shop.repository.ShopClientRepository;
 import com.nullers.restbookstore.rest.common.Address;
 import com.nullers.restbookstore.rest.orders.models.Order;
 import com.nullers.restbookstore.rest.orders.models.OrderLine;
-import com.nullers.restbookstore.rest.orders.repositories.OrderRepository;
 import com.nullers.restbookstore.rest.publisher.model.Publisher;
 import com.nullers.restbookstore.rest.user.models.User;
 import com.nullers.restbookstore.rest.user.models.Role;
@@ -52,7 +55,7 @@ class ClientServiceTest {
     private ClientRepository clientRepository;
 
     @Mock
-    private OrderRepository orderRepository;
+    private ReferenceCountService referenceCountService;
 
     @Mock
     private BookServiceImpl bookService;
@@ -69,6 +72,12 @@ class ClientServiceTest {
     @Mock
     private ClientNotificationMapper clientNotificationMapper;
 
+    @Mock
+    private ClientSearchIndex clientSearchIndex;
+
+    @Mock
+    private ShopClientRepository shopClientRepository;
+
     @InjectMocks
     private ClientServiceImpl clientService;
 
@@ -232,6 +241,31 @@ class ClientServiceTest {
         verify(clientRepository, times(1)).findAll(any(Specification.class), any(Pageable.class));
     }
 
+    @Test
+    void findAll_shouldReturnEmptyPageWhenIndexHasNoCandidates() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        when(clientSearchIndex.search(Optional.of("Zzzz"), Optional.empty(), Optional.empty(), Optional.empty()))
+                .thenReturn(Optional.of(List.of()));
+
+        Page<ClientDto> result = clientService.findAll(Optional.of("Zzzz"), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), pageable);
+
+        assertTrue(result.isEmpty());
+        verify(clientRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void findAll_shouldQueryCandidatesFromIndex() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        when(clientSearchIndex.search(Optional.of("Dani"), Optional.empty(), Optional.empty(), Optional.empty()))
+                .thenReturn(Optional.of(List.of(clientTest.getId())));
+        when(clientRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(clientTest)));
+
+        Page<ClientDto> result = clientService.findAll(Optional.of("Dani"), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), pageable);
+
+        assertEquals(1, result.getTotalElements());
+        verify(clientRepository, times(1)).findAll(any(Specification.class), any(Pageable.class));
+    }
+
     @Test
     void findAll_shouldReturnAllClientsWithParamSurName() {
         List<Client> clientExpected = List.of(clientTest2);
@@ -1063,7 +1097,7 @@ class ClientServiceTest {
 
     @Test
     void delete() throws IOException, InterruptedException {
-        when(orderRepository.findByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(referenceCountService.hasReferences(eq(ReferenceType.CLIENT_ORDERS), any(UUID.class))).thenReturn(false);
         when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.of(
                 Client.builder()
                         .id(UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0"))
@@ -1079,7 +1113,7 @@ class ClientServiceTest {
 
         clientService.deleteById(UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0"));
 
-        verify(orderRepository, times(1)).findByClientId(any(UUID.class), any(Pageable.class));
+        verify(referenceCountService, times(1)).hasReferences(eq(ReferenceType.CLIENT_ORDERS), any(UUID.class));
         verify(clientRepository, times(1)).deleteById(any(UUID.class));
         verify(clientRepository, times(1)).findById(any(UUID.class));
         Thread.sleep(1000);
@@ -1090,7 +1124,7 @@ class ClientServiceTest {
 
     @Test
     void delete_ShouldThrowExceptionClientInOrder() {
-        when(orderRepository.findByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(Order.builder().build())));
+        when(referenceCountService.hasReferences(eq(ReferenceType.CLIENT_ORDERS), any(UUID.class))).thenReturn(true);
         when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.of(clientTest));
         var res = assertThrows(ClientInOrderException.class, () -> clientService.deleteById(UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0")));
 
@@ -1099,7 +1133,7 @@ class ClientServiceTest {
                 () -> assertEquals("El cliente con id " + clientTest.getId() + " tiene pedidos asociados", res.getMessage())
         );
 
-        verify(orderRepository, times(1)).findByClientId(any(UUID.class), any(Pageable.class));
+        verify(referenceCountService, times(1)).hasReferences(eq(ReferenceType.CLIENT_ORDERS), any(UUID.class));
         verify(clientRepository, times(0)).deleteById(any(UUID.class));
         verify(clientRepository, times(1)).findById(any(UUID.class));
     }
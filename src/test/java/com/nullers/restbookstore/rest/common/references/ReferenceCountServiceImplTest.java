@@ -0,0 +1,155 @@
+package com.nullers.restbookstore.rest.common.references;
+
+import com.nullers.restbookstore.rest.book.repository.BookRepository;
+import com.nullers.restbookstore.rest.orders.models.Order;
+import com.nullers.restbookstore.rest.orders.repositories.OrderRepository;
+import com.nullers.restbookstore.rest.orders.services.OrderArchiveService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceCountServiceImplTest {
+
+    private final UUID categoryId = UUID.fromString("a712c5f2-eb95-449a-9ec4-1aa55cdac9bc");
+    private final UUID clientId = UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0");
+    private final UUID userId = UUID.fromString("c671d981-bd6f-4e75-b7cc-fd3ca96582d5");
+    private final UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ReferenceCountServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReferenceCountServiceImpl(bookRepository, orderRepository, orderArchiveService, mongoTemplate, true);
+    }
+
+    @Test
+    void bookAddedAndRemoved_ShouldTrackCountsWithoutGoingNegative() {
+        service.bookAdded(categoryId, 1L);
+        service.bookAdded(categoryId, 1L);
+        service.bookRemoved(categoryId, null);
+        service.bookRemoved(categoryId, null);
+        service.bookRemoved(categoryId, null);
+
+        assertAll(
+                () -> assertEquals(0, service.count(ReferenceType.CATEGORY_BOOKS, categoryId)),
+                () -> assertEquals(2, service.count(ReferenceType.PUBLISHER_BOOKS, 1L))
+        );
+    }
+
+    @Test
+    void orderAddedAndRemoved_ShouldTrackClientUserAndShop() {
+        Order order = Order.builder().clientId(clientId).userId(userId).shopId(shopId).build();
+
+        service.orderAdded(order);
+        service.orderAdded(order);
+        service.orderRemoved(order);
+
+        assertAll(
+                () -> assertEquals(1, service.count(ReferenceType.CLIENT_ORDERS, clientId)),
+                () -> assertEquals(1, service.count(ReferenceType.USER_ORDERS, userId)),
+                () -> assertEquals(1, service.count(ReferenceType.SHOP_ORDERS, shopId))
+        );
+    }
+
+    @Test
+    void hasReferences_ShouldNotQueryWhenCounterIsPositive() {
+        service.bookAdded(categoryId, 1L);
+
+        assertTrue(service.hasReferences(ReferenceType.CATEGORY_BOOKS, categoryId));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void hasReferences_ShouldConfirmWithExistsQueryWhenCounterIsZero() {
+        when(orderRepository.existsByShopId(shopId)).thenReturn(true);
+
+        assertTrue(service.hasReferences(ReferenceType.SHOP_ORDERS, shopId));
+        verify(orderRepository, times(1)).existsByShopId(shopId);
+    }
+
+    @Test
+    void hasReferences_ShouldCheckArchivesWhenNoHotOrders() {
+        when(orderRepository.existsByClientId(clientId)).thenReturn(false);
+        when(orderArchiveService.existsInArchives("clientId", clientId)).thenReturn(true);
+
+        assertTrue(service.hasReferences(ReferenceType.CLIENT_ORDERS, clientId));
+        verify(orderArchiveService, times(1)).existsInArchives("clientId", clientId);
+    }
+
+    @Test
+    void reconcile_ShouldReplaceCountersWithDatabaseTotals() {
+        service.bookAdded(categoryId, 1L);
+        when(orderArchiveService.getArchiveCollections()).thenReturn(List.of("orders_archive_2023"));
+        when(bookRepository.countGroupedByCategory()).thenReturn(List.<Object[]>of(new Object[]{categoryId, 7L}));
+        when(bookRepository.countGroupedByPublisher()).thenReturn(List.of());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Order.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", clientId).append("total", 3)), new Document()));
+
+        service.reconcile();
+
+        assertAll(
+                () -> assertEquals(7, service.count(ReferenceType.CATEGORY_BOOKS, categoryId)),
+                () -> assertEquals(0, service.count(ReferenceType.PUBLISHER_BOOKS, 1L)),
+                () -> assertEquals(3, service.count(ReferenceType.CLIENT_ORDERS, clientId))
+        );
+    }
+
+    @Test
+    void reconcile_ShouldKeepChangesMadeWhileCounting() {
+        Order order = Order.builder().clientId(clientId).build();
+        when(orderArchiveService.getArchiveCollections()).thenReturn(List.of());
+        when(bookRepository.countGroupedByCategory()).thenAnswer(invocation -> {
+            service.bookAdded(categoryId, null);
+            service.orderAdded(order);
+            return List.<Object[]>of(new Object[]{categoryId, 7L});
+        });
+        when(bookRepository.countGroupedByPublisher()).thenReturn(List.of());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Order.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        service.reconcile();
+        service.bookAdded(categoryId, null);
+
+        assertAll(
+                () -> assertEquals(9, service.count(ReferenceType.CATEGORY_BOOKS, categoryId)),
+                () -> assertEquals(1, service.count(ReferenceType.CLIENT_ORDERS, clientId))
+        );
+    }
+
+    @Test
+    void reconcile_ShouldDoNothingWhenDisabled() {
+        ReferenceCountServiceImpl disabled = new ReferenceCountServiceImpl(bookRepository, orderRepository,
+                orderArchiveService, mongoTemplate, false);
+
+        disabled.reconcile();
+
+        verifyNoInteractions(bookRepository, mongoTemplate);
+    }
+}
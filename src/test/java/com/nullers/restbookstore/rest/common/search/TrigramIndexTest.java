@@ -0,0 +1,77 @@
+package com.nullers.restbookstore.rest.common.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private final UUID dani = UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0");
+    private final UUID maria = UUID.fromString("a712c5f2-eb95-449a-9ec4-1aa55cdac9bc");
+
+    @Test
+    void search_ShouldReturnDocumentsContainingTerm() {
+        TrigramIndex index = new TrigramIndex(2);
+        index.put(dani, "Daniel", "daniel@gmail.com");
+        index.put(maria, "María", "maria@hotmail.com");
+
+        assertAll(
+                () -> assertEquals(Optional.of(List.of(dani)), index.search(100, "ANIE", null)),
+                () -> assertEquals(Optional.of(List.of(dani, maria)), index.search(100, null, "mail.com")),
+                () -> assertEquals(Optional.of(List.of(maria)), index.search(100, "ría", "mail")),
+                () -> assertEquals(Optional.of(List.of()), index.search(100, "xyz", null))
+        );
+    }
+
+    @Test
+    void search_ShouldReturnEmptyWhenTermsAreTooShortOrTooManyCandidates() {
+        TrigramIndex index = new TrigramIndex(2);
+        index.put(dani, "Daniel", "daniel@gmail.com");
+        index.put(maria, "María", "maria@hotmail.com");
+
+        assertAll(
+                () -> assertTrue(index.search(100, "da", null).isEmpty()),
+                () -> assertTrue(index.search(1, null, "mail").isEmpty())
+        );
+    }
+
+    @Test
+    void put_ShouldReplacePreviousVersion() {
+        TrigramIndex index = new TrigramIndex(1);
+        index.put(dani, "Daniel");
+        index.put(dani, "Pedro");
+
+        assertAll(
+                () -> assertEquals(Optional.of(List.of()), index.search(100, "Daniel")),
+                () -> assertEquals(Optional.of(List.of(dani)), index.search(100, "Pedro")),
+                () -> assertEquals(1, index.size())
+        );
+    }
+
+    @Test
+    void putIfAbsent_ShouldKeepExistingVersion() {
+        TrigramIndex index = new TrigramIndex(1);
+        index.put(dani, "Daniel");
+
+        assertAll(
+                () -> assertFalse(index.putIfAbsent(dani, "Pedro")),
+                () -> assertEquals(Optional.of(List.of(dani)), index.search(100, "Daniel"))
+        );
+    }
+
+    @Test
+    void remove_ShouldHideDocument() {
+        TrigramIndex index = new TrigramIndex(1);
+        index.put(dani, "Daniel");
+        index.remove(dani);
+
+        assertAll(
+                () -> assertEquals(Optional.of(List.of()), index.search(100, "Daniel")),
+                () -> assertEquals(0, index.size())
+        );
+    }
+}
@@ -0,0 +1,18 @@
+package com.nullers.restbookstore.rest.common.uploads;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageFilesTest {
+
+    @Test
+    void filenameOf_ShouldReturnStoredFilename() {
+        assertAll(
+                () -> assertEquals("1-book.png", ImageFiles.filenameOf("https://localhost:3000/storage/1-book.png")),
+                () -> assertEquals("1-book.png", ImageFiles.filenameOf("1-book.png")),
+                () -> assertNull(ImageFiles.filenameOf("https://via.placeholder.com/150")),
+                () -> assertNull(ImageFiles.filenameOf(null))
+        );
+    }
+}
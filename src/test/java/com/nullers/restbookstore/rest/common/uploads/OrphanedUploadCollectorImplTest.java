@@ -0,0 +1,107 @@
+package com.nullers.restbookstore.rest.common.uploads;
+
+import com.nullers.restbookstore.rest.book.repository.BookRepository;
+import com.nullers.restbookstore.rest.client.repository.ClientRepository;
+import com.nullers.restbookstore.rest.publisher.repository.PublisherRepository;
+import com.nullers.restbookstore.storage.services.StorageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrphanedUploadCollectorImplTest {
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PublisherRepository publisherRepository;
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    private OrphanedUploadCollectorImpl collector(int batchSize, long maxDeletesPerRun) {
+        return new OrphanedUploadCollectorImpl(storageService, bookRepository, publisherRepository,
+                clientRepository, true, 86_400_000L, batchSize, 0, maxDeletesPerRun);
+    }
+
+    @Test
+    void collect_ShouldDeleteOnlyUnreferencedFiles() {
+        when(storageService.loadAllStoredBefore(any(Instant.class)))
+                .thenReturn(Stream.of("1-book.png", "2-publisher.png", "3-client.png", "4-orphan.png"));
+        when(bookRepository.findImagesReferencing(anyCollection())).thenReturn(List.of("1-book.png"));
+        when(publisherRepository.findImagesReferencing(anyCollection())).thenReturn(List.of("2-publisher.png"));
+        when(clientRepository.findImagesReferencing(anyCollection())).thenReturn(List.of("3-client.png"));
+        when(storageService.purgeUnreferenced(any(Instant.class))).thenReturn(1L);
+
+        long deleted = collector(10, 1000).collect();
+
+        assertEquals(2, deleted);
+        verify(storageService).delete("4-orphan.png");
+        verify(storageService, times(1)).delete(anyString());
+    }
+
+    @Test
+    void collect_ShouldQueryInBatches() {
+        when(storageService.loadAllStoredBefore(any(Instant.class)))
+                .thenReturn(Stream.of("1.png", "2.png", "3.png", "4.png", "5.png"));
+        when(bookRepository.findImagesReferencing(anyCollection())).thenReturn(List.of());
+        when(publisherRepository.findImagesReferencing(anyCollection())).thenReturn(List.of());
+        when(clientRepository.findImagesReferencing(anyCollection())).thenReturn(List.of());
+
+        long deleted = collector(2, 1000).collect();
+
+        assertEquals(5, deleted);
+        verify(bookRepository, times(3)).findImagesReferencing(anyCollection());
+    }
+
+    @Test
+    void collect_ShouldStopAtMaxDeletesPerRun() {
+        when(storageService.loadAllStoredBefore(any(Instant.class)))
+                .thenReturn(Stream.of("1.png", "2.png", "3.png", "4.png", "5.png"));
+        when(bookRepository.findImagesReferencing(anyCollection())).thenReturn(List.of());
+        when(publisherRepository.findImagesReferencing(anyCollection())).thenReturn(List.of());
+        when(clientRepository.findImagesReferencing(anyCollection())).thenReturn(List.of());
+
+        long deleted = collector(2, 3).collect();
+
+        assertEquals(3, deleted);
+        verify(bookRepository, times(2)).findImagesReferencing(anyCollection());
+    }
+
+    @Test
+    void fillMissingImageFiles_ShouldFillEveryTable() {
+        when(bookRepository.fillMissingImageFiles()).thenReturn(2);
+        when(publisherRepository.fillMissingImageFiles()).thenReturn(0);
+        when(clientRepository.fillMissingImageFiles()).thenReturn(1);
+
+        collector(10, 1000).fillMissingImageFiles();
+
+        verify(bookRepository, times(1)).fillMissingImageFiles();
+        verify(publisherRepository, times(1)).fillMissingImageFiles();
+        verify(clientRepository, times(1)).fillMissingImageFiles();
+    }
+
+    @Test
+    void scheduledCollect_ShouldDoNothingWhenDisabled() {
+        var collector = new OrphanedUploadCollectorImpl(storageService, bookRepository, publisherRepository,
+                clientRepository, false, 86_400_000L, 200, 0, 1000);
+
+        collector.scheduledCollect();
+
+        verifyNoInteractions(storageService, bookRepository, publisherRepository, clientRepository);
+    }
+}
@@ -9,14 +9,23 @@ import com.nullers.restbookstore.rest.category.model.Category;
 import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
 import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.common.Address;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.orders.dto.OrderBulkCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderBulkResult;
 import com.nullers.restbookstore.rest.orders.dto.OrderCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
+import com.nullers.restbookstore.rest.orders.dto.OrderTicket;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderBadPriceException;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderNotFoundException;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderNotItemsExceptions;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderNotStockException;
+import com.nullers.restbookstore.rest.orders.exceptions.OrderQueueFullException;
+import com.nullers.restbookstore.rest.orders.exceptions.OrderTicketNotFoundException;
 import com.nullers.restbookstore.rest.orders.models.Order;
 import com.nullers.restbookstore.rest.orders.models.OrderLine;
+import com.nullers.restbookstore.rest.orders.models.OrderTicketStatus;
 import com.nullers.restbookstore.rest.orders.services.OrderServiceImpl;
+import com.nullers.restbookstore.rest.orders.services.OrderSubmissionService;
 import com.nullers.restbookstore.rest.publisher.model.Publisher;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopNotFoundException;
 import com.nullers.restbookstore.rest.shop.model.Shop;
@@ -39,15 +48,18 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @AutoConfigureMockMvc
 @ExtendWith(MockitoExtension.class)
@@ -62,6 +74,9 @@ public class OrderControllerTest {
     @MockBean
     OrderServiceImpl orderService;
 
+    @MockBean
+    OrderSubmissionService orderSubmissionService;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -135,8 +150,6 @@ public class OrderControllerTest {
     Shop shop = Shop.builder()
             .id(UUID.fromString("b5f29063-77d8-4d5d-98ea-def0cc9ebc5f"))
             .name("name")
-            .books(Set.of(book))
-            .clients(Set.of(clientTest))
             .location(address)
             .build();
 
@@ -154,6 +167,14 @@ public class OrderControllerTest {
             .totalBooks(2)
             .build();
 
+    OrderSummary orderSummary = OrderSummary.builder()
+            .id(order.getId())
+            .shopId(order.getShopId())
+            .total(order.getTotal())
+            .totalBooks(order.getTotalBooks())
+            .createdAt(order.getCreatedAt())
+            .build();
+
 
     OrderCreateDto orderCreateDto = OrderCreateDto.builder()
             .userId(userTest.getId())
@@ -180,7 +201,7 @@ public class OrderControllerTest {
                 () -> assertEquals(HttpStatus.FORBIDDEN.value(), response.getStatus())
         );
 
-        verify(orderService, times(0)).getAllOrders(any(Pageable.class));
+        verify(orderService, times(0)).getAllOrderSummaries(any(Pageable.class));
     }
 
     @Test
@@ -193,7 +214,7 @@ public class OrderControllerTest {
                 () -> assertEquals(HttpStatus.FORBIDDEN.value(), response.getStatus())
         );
 
-        verify(orderService, times(0)).getOrderById(any(ObjectId.class));
+        verify(orderService, times(0)).getOrderById(any(ObjectId.class), any(FieldSelection.class));
     }
 
     @Test
@@ -260,7 +281,7 @@ public class OrderControllerTest {
                 () -> assertEquals(HttpStatus.FORBIDDEN.value(), response.getStatus())
         );
 
-        verify(orderService, times(0)).getOrdersByClientId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(0)).getOrderSummariesByClientId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
@@ -273,7 +294,7 @@ public class OrderControllerTest {
                 () -> assertEquals(HttpStatus.FORBIDDEN.value(), response.getStatus())
         );
 
-        verify(orderService, times(0)).getOrdersByUserId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(0)).getOrderSummariesByUserId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
@@ -286,18 +307,17 @@ public class OrderControllerTest {
                 () -> assertEquals(HttpStatus.FORBIDDEN.value(), response.getStatus())
         );
 
-        verify(orderService, times(0)).getOrdersByShopId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(0)).getOrderSummariesByShopId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getAllOrders_ShouldReturnOrders() throws Exception {
-        List<Order> orders = List.of(order);
-        when(orderService.getAllOrders(any(Pageable.class))).thenReturn(new PageImpl<>(orders));
+        when(orderService.getAllOrderSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(orderSummary)));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint)
                 .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
 
-        PageResponse<Order> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, Order.class));
+        PageResponse<OrderSummary> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, OrderSummary.class));
 
         assertAll(
                 () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
@@ -305,29 +325,24 @@ public class OrderControllerTest {
                 () -> assertEquals(1, pageResponse.totalPages()),
                 () -> assertEquals(1, pageResponse.content().size()),
                 () -> assertEquals(order.getId(), pageResponse.content().get(0).getId()),
-                () -> assertEquals(order.getUserId(), pageResponse.content().get(0).getUserId()),
-                () -> assertEquals(order.getClientId(), pageResponse.content().get(0).getClientId()),
                 () -> assertEquals(order.getShopId(), pageResponse.content().get(0).getShopId()),
-                () -> assertEquals(order.getOrderLines(), pageResponse.content().get(0).getOrderLines()),
                 () -> assertEquals(order.getTotal(), pageResponse.content().get(0).getTotal()),
                 () -> assertEquals(order.getTotalBooks(), pageResponse.content().get(0).getTotalBooks()),
-                () -> assertEquals(order.getCreatedAt(), pageResponse.content().get(0).getCreatedAt()),
-                () -> assertEquals(order.getUpdatedAt(), pageResponse.content().get(0).getUpdatedAt()),
-                () -> assertEquals(order.getIsDeleted(), pageResponse.content().get(0).getIsDeleted())
+                () -> assertEquals(order.getCreatedAt(), pageResponse.content().get(0).getCreatedAt())
         );
 
-        verify(orderService, times(1)).getAllOrders(any(Pageable.class));
+        verify(orderService, times(1)).getAllOrderSummaries(any(Pageable.class));
 
     }
 
     @Test
     void getAllOrder_ShouldReturnEmptyPage() throws Exception {
-        when(orderService.getAllOrders(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(orderService.getAllOrderSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint)
                 .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
 
-        PageResponse<Order> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, Order.class));
+        PageResponse<OrderSummary> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, OrderSummary.class));
 
         assertAll(
                 () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
@@ -336,7 +351,7 @@ public class OrderControllerTest {
                 () -> assertEquals(0, pageResponse.content().size())
         );
 
-        verify(orderService, times(1)).getAllOrders(any(Pageable.class));
+        verify(orderService, times(1)).getAllOrderSummaries(any(Pageable.class));
     }
 
 
@@ -353,7 +368,7 @@ public class OrderControllerTest {
                 () -> assertEquals("La página no puede ser inferior a 0", errors.get("page"))
         );
 
-        verify(orderService, times(0)).getAllOrders(any(Pageable.class));
+        verify(orderService, times(0)).getAllOrderSummaries(any(Pageable.class));
     }
 
     @Test
@@ -369,7 +384,7 @@ public class OrderControllerTest {
                 () -> assertEquals("El tamaño de la página no puede ser inferior a 1", errors.get("size"))
         );
 
-        verify(orderService, times(0)).getAllOrders(any(Pageable.class));
+        verify(orderService, times(0)).getAllOrderSummaries(any(Pageable.class));
     }
 
     @Test
@@ -386,12 +401,12 @@ public class OrderControllerTest {
                 () -> assertEquals("El tamaño de la página no puede ser inferior a 1", errors.get("size"))
         );
 
-        verify(orderService, times(0)).getAllOrders(any(Pageable.class));
+        verify(orderService, times(0)).getAllOrderSummaries(any(Pageable.class));
     }
 
     @Test
     void getOrderById_ShouldReturnOrder() throws Exception {
-        when(orderService.getOrderById(any(ObjectId.class))).thenReturn(order);
+        when(orderService.getOrderById(any(ObjectId.class), any(FieldSelection.class))).thenReturn(order);
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/{id}", order.getId())
                 .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
@@ -412,12 +427,12 @@ public class OrderControllerTest {
                 () -> assertEquals(order.getIsDeleted(), orderResponse.getIsDeleted())
         );
 
-        verify(orderService, times(1)).getOrderById(any(ObjectId.class));
+        verify(orderService, times(1)).getOrderById(any(ObjectId.class), any(FieldSelection.class));
     }
 
     @Test
     void getOrderbyId_ShouldReturnNotFound() throws Exception {
-        when(orderService.getOrderById(any(ObjectId.class))).thenThrow(new OrderNotFoundException(order.getId()));
+        when(orderService.getOrderById(any(ObjectId.class), any(FieldSelection.class))).thenThrow(new OrderNotFoundException(order.getId()));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/{id}", order.getId())
                 .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
@@ -429,7 +444,7 @@ public class OrderControllerTest {
                 () -> assertEquals("El pedido con id " + order.getId() + " no existe", errorResponse.error())
         );
 
-        verify(orderService, times(1)).getOrderById(any(ObjectId.class));
+        verify(orderService, times(1)).getOrderById(any(ObjectId.class), any(FieldSelection.class));
     }
 
     @Test
@@ -459,6 +474,175 @@ public class OrderControllerTest {
         verify(orderService, times(1)).createOrder(any(OrderCreateDto.class));
     }
 
+    @Test
+    void exportOrdersByShopId_ShouldStreamNdjson() throws Exception {
+        when(orderService.streamOrdersByShopId(shop.getId())).thenReturn(Stream.of(order, order));
+
+        MvcResult result = mockMvc.perform(get(endpoint + "/shop/{id}/export", shop.getId())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse();
+
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\n");
+        Order first = mapper.readValue(lines[0], Order.class);
+
+        assertAll(
+                () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
+                () -> assertTrue(response.getContentType().startsWith(MediaType.APPLICATION_NDJSON_VALUE)),
+                () -> assertEquals(2, lines.length),
+                () -> assertEquals(order.getId(), first.getId())
+        );
+
+        verify(orderService, times(1)).streamOrdersByShopId(shop.getId());
+    }
+
+    @Test
+    void exportOrdersByShopId_ShouldStreamServerSentEvents() throws Exception {
+        when(orderService.streamOrdersByShopId(shop.getId())).thenReturn(Stream.of(order));
+
+        MvcResult result = mockMvc.perform(get(endpoint + "/shop/{id}/export", shop.getId())
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse();
+
+        String content = response.getContentAsString(StandardCharsets.UTF_8);
+
+        assertAll(
+                () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
+                () -> assertTrue(content.startsWith("data: {")),
+                () -> assertTrue(content.endsWith("\n\n"))
+        );
+    }
+
+    @Test
+    void exportOrdersByShopId_ShouldOutliveDefaultAsyncTimeout() throws Exception {
+        // El tiempo general de los tests es de 200 ms y cada pedido tarda 150 ms en leerse
+        when(orderService.streamOrdersByShopId(shop.getId())).thenReturn(Stream.of(order, order, order).peek(o -> {
+            try {
+                Thread.sleep(150);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        MvcResult result = mockMvc.perform(get(endpoint + "/shop/{id}/export", shop.getId())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        long timeout = result.getRequest().getAsyncContext().getTimeout();
+        result.getAsyncResult(5000);
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse();
+
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\n");
+
+        assertAll(
+                () -> assertEquals(-1L, timeout),
+                () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
+                () -> assertEquals(3, lines.length)
+        );
+    }
+
+    @Test
+    void createOrderAsync_ShouldReturnAccepted() throws Exception {
+        OrderTicket ticket = OrderTicket.builder().id(UUID.randomUUID()).status(OrderTicketStatus.PENDING).build();
+        when(orderSubmissionService.submit(any(OrderCreateDto.class))).thenReturn(ticket);
+
+        MockHttpServletResponse response = mockMvc.perform(post(endpoint + "?async=true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(orderCreateDto))).andReturn().getResponse();
+
+        OrderTicket res = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), OrderTicket.class);
+
+        assertAll(
+                () -> assertEquals(HttpStatus.ACCEPTED.value(), response.getStatus()),
+                () -> assertEquals(ticket.getId(), res.getId()),
+                () -> assertEquals(OrderTicketStatus.PENDING, res.getStatus()),
+                () -> assertTrue(response.getHeader("Location").endsWith("/api/orders/tickets/" + ticket.getId()))
+        );
+
+        verify(orderSubmissionService, times(1)).submit(any(OrderCreateDto.class));
+        verify(orderService, times(0)).createOrder(any(OrderCreateDto.class));
+    }
+
+    @Test
+    void createOrderAsync_ShouldReturnTooManyRequests() throws Exception {
+        when(orderSubmissionService.submit(any(OrderCreateDto.class))).thenThrow(new OrderQueueFullException(1));
+
+        MockHttpServletResponse response = mockMvc.perform(post(endpoint + "?async=true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(orderCreateDto))).andReturn().getResponse();
+
+        assertAll(
+                () -> assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus()),
+                () -> assertEquals("1", response.getHeader("Retry-After"))
+        );
+    }
+
+    @Test
+    void getOrderTicket_ShouldReturnTicket() throws Exception {
+        OrderTicket ticket = OrderTicket.builder().id(UUID.randomUUID()).status(OrderTicketStatus.COMPLETED).orderId(order.getIdStr()).build();
+        when(orderSubmissionService.getTicket(ticket.getId())).thenReturn(ticket);
+
+        MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/tickets/{id}", ticket.getId())
+                .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        OrderTicket res = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), OrderTicket.class);
+
+        assertAll(
+                () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
+                () -> assertEquals(OrderTicketStatus.COMPLETED, res.getStatus()),
+                () -> assertEquals(order.getIdStr(), res.getOrderId())
+        );
+    }
+
+    @Test
+    void getOrderTicket_ShouldReturnNotFound() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(orderSubmissionService.getTicket(id)).thenThrow(new OrderTicketNotFoundException(id));
+
+        MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/tickets/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+    }
+
+    @Test
+    void createOrders_ShouldReturnResults() throws Exception {
+        List<OrderBulkResult> results = List.of(OrderBulkResult.created(0, order.getIdStr()),
+                OrderBulkResult.failed(1, 404, "El producto con id 1 no tiene stock"));
+        when(orderService.createOrders(anyList())).thenReturn(results);
+
+        MockHttpServletResponse response = mockMvc.perform(post(endpoint + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new OrderBulkCreateDto(List.of(orderCreateDto, orderCreateDto)))))
+                .andReturn().getResponse();
+
+        OrderBulkResult[] res = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), OrderBulkResult[].class);
+
+        assertAll(
+                () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
+                () -> assertEquals(2, res.length),
+                () -> assertEquals(order.getIdStr(), res[0].getId()),
+                () -> assertEquals(404, res[1].getStatus())
+        );
+
+        verify(orderService, times(1)).createOrders(anyList());
+    }
+
+    @Test
+    void createOrders_ShouldReturnBadRequest_WhenEmpty() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post(endpoint + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new OrderBulkCreateDto(List.of()))))
+                .andReturn().getResponse();
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+
+        verify(orderService, times(0)).createOrders(anyList());
+    }
+
     @Test
     void createOrder_ShouldReturnOrderNotFoundException() throws Exception {
         when(orderService.createOrder(any(OrderCreateDto.class))).thenThrow(new OrderNotFoundException(order.getId()));
@@ -1298,12 +1482,12 @@ public class OrderControllerTest {
 
     @Test
     void getOrderByUserId_ShouldReturnOrder() throws Exception {
-        when(orderService.getOrdersByUserId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(order)));
+        when(orderService.getOrderSummariesByUserId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(orderSummary)));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/user/{id}", userTest.getId())).andReturn().getResponse();
 
 
-        PageResponse<Order> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, Order.class));
+        PageResponse<OrderSummary> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, OrderSummary.class));
 
 
         assertAll(
@@ -1312,22 +1496,18 @@ public class OrderControllerTest {
                 () -> assertEquals(1, pageResponse.totalPages()),
                 () -> assertEquals(1, pageResponse.content().size()),
                 () -> assertEquals(order.getId(), pageResponse.content().get(0).getId()),
-                () -> assertEquals(order.getUserId(), pageResponse.content().get(0).getUserId()),
-                () -> assertEquals(order.getClientId(), pageResponse.content().get(0).getClientId()),
                 () -> assertEquals(order.getShopId(), pageResponse.content().get(0).getShopId()),
                 () -> assertEquals(order.getTotal(), pageResponse.content().get(0).getTotal()),
                 () -> assertEquals(order.getTotalBooks(), pageResponse.content().get(0).getTotalBooks()),
-                () -> assertEquals(order.getCreatedAt(), pageResponse.content().get(0).getCreatedAt()),
-                () -> assertEquals(order.getUpdatedAt(), pageResponse.content().get(0).getUpdatedAt()),
-                () -> assertEquals(order.getIsDeleted(), pageResponse.content().get(0).getIsDeleted())
+                () -> assertEquals(order.getCreatedAt(), pageResponse.content().get(0).getCreatedAt())
         );
 
-        verify(orderService, times(1)).getOrdersByUserId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByUserId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrderByUserId_ShouldReturnOrderNotFoundException() throws Exception {
-        when(orderService.getOrdersByUserId(any(UUID.class), any(Pageable.class))).thenThrow(new OrderNotFoundException(order.getId()));
+        when(orderService.getOrderSummariesByUserId(any(UUID.class), any(Pageable.class))).thenThrow(new OrderNotFoundException(order.getId()));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/user/{id}", userTest.getId())).andReturn().getResponse();
 
@@ -1338,12 +1518,12 @@ public class OrderControllerTest {
                 () -> assertEquals("El pedido con id " + order.getId() + " no existe", errorResponse.error())
         );
 
-        verify(orderService, times(1)).getOrdersByUserId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByUserId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrderByUserId_ShouldReturnUserNotFoundException() throws Exception {
-        when(orderService.getOrdersByUserId(any(UUID.class), any(Pageable.class))).thenThrow(new UserNotFound(userTest.getId()));
+        when(orderService.getOrderSummariesByUserId(any(UUID.class), any(Pageable.class))).thenThrow(new UserNotFound(userTest.getId()));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/user/{id}", userTest.getId())).andReturn().getResponse();
 
@@ -1354,17 +1534,17 @@ public class OrderControllerTest {
                 () -> assertEquals("Usuario con id" + userTest.getId().toString() + " no encontrado", errorResponse.error())
         );
 
-        verify(orderService, times(1)).getOrdersByUserId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByUserId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrderByUserId_ShouldReturnEmptyPage() throws Exception {
-        when(orderService.getOrdersByUserId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(orderService.getOrderSummariesByUserId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/user/{id}", userTest.getId())).andReturn().getResponse();
 
 
-        PageResponse<Order> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, Order.class));
+        PageResponse<OrderSummary> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, OrderSummary.class));
 
         assertAll(
                 () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
@@ -1373,16 +1553,16 @@ public class OrderControllerTest {
                 () -> assertEquals(0, pageResponse.content().size())
         );
 
-        verify(orderService, times(1)).getOrdersByUserId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByUserId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrderByClientId_ShouldReturnOrder() throws Exception {
-        when(orderService.getOrdersByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(order)));
+        when(orderService.getOrderSummariesByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(orderSummary)));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/client/{id}", clientTest.getId())).andReturn().getResponse();
 
-        PageResponse<Order> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, Order.class));
+        PageResponse<OrderSummary> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, OrderSummary.class));
 
         assertAll(
                 () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
@@ -1390,23 +1570,19 @@ public class OrderControllerTest {
                 () -> assertEquals(1, pageResponse.totalPages()),
                 () -> assertEquals(1, pageResponse.content().size()),
                 () -> assertEquals(order.getId(), pageResponse.content().get(0).getId()),
-                () -> assertEquals(order.getUserId(), pageResponse.content().get(0).getUserId()),
-                () -> assertEquals(order.getClientId(), pageResponse.content().get(0).getClientId()),
                 () -> assertEquals(order.getShopId(), pageResponse.content().get(0).getShopId()),
                 () -> assertEquals(order.getTotal(), pageResponse.content().get(0).getTotal()),
                 () -> assertEquals(order.getTotalBooks(), pageResponse.content().get(0).getTotalBooks()),
-                () -> assertEquals(order.getCreatedAt(), pageResponse.content().get(0).getCreatedAt()),
-                () -> assertEquals(order.getUpdatedAt(), pageResponse.content().get(0).getUpdatedAt()),
-                () -> assertEquals(order.getIsDeleted(), pageResponse.content().get(0).getIsDeleted())
+                () -> assertEquals(order.getCreatedAt(), pageResponse.content().get(0).getCreatedAt())
         );
 
-        verify(orderService, times(1)).getOrdersByClientId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByClientId(any(UUID.class), any(Pageable.class));
     }
 
 
     @Test
     void getOrderByClientId_ShouldReturnOrderNotFoundException() throws Exception {
-        when(orderService.getOrdersByClientId(any(UUID.class), any(Pageable.class))).thenThrow(new OrderNotFoundException(order.getId()));
+        when(orderService.getOrderSummariesByClientId(any(UUID.class), any(Pageable.class))).thenThrow(new OrderNotFoundException(order.getId()));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/client/{id}", clientTest.getId())).andReturn().getResponse();
 
@@ -1417,12 +1593,12 @@ public class OrderControllerTest {
                 () -> assertEquals("El pedido con id " + order.getId() + " no existe", errorResponse.error())
         );
 
-        verify(orderService, times(1)).getOrdersByClientId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByClientId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrderByClientId_ShouldReturnClientNotFoundException() throws Exception {
-        when(orderService.getOrdersByClientId(any(UUID.class), any(Pageable.class))).thenThrow(new ClientNotFound("id", clientTest.getId()));
+        when(orderService.getOrderSummariesByClientId(any(UUID.class), any(Pageable.class))).thenThrow(new ClientNotFound("id", clientTest.getId()));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/client/{id}", clientTest.getId())).andReturn().getResponse();
 
@@ -1433,16 +1609,16 @@ public class OrderControllerTest {
                 () -> assertEquals("Client con id: " + clientTest.getId() + " no existe", errorResponse.error())
         );
 
-        verify(orderService, times(1)).getOrdersByClientId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByClientId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrderByClientId_ShouldReturnEmptyPage() throws Exception {
-        when(orderService.getOrdersByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(orderService.getOrderSummariesByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/client/{id}", clientTest.getId())).andReturn().getResponse();
 
-        PageResponse<Order> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, Order.class));
+        PageResponse<OrderSummary> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, OrderSummary.class));
 
 
         assertAll(
@@ -1452,17 +1628,17 @@ public class OrderControllerTest {
                 () -> assertEquals(0, pageResponse.content().size())
         );
 
-        verify(orderService, times(1)).getOrdersByClientId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByClientId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByShopId_ShouldReturnOrder() throws Exception {
-        when(orderService.getOrdersByShopId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(order)));
+        when(orderService.getOrderSummariesByShopId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(orderSummary)));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/shop/{id}", shop.getId())).andReturn().getResponse();
 
 
-        PageResponse<Order> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, Order.class));
+        PageResponse<OrderSummary> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, OrderSummary.class));
 
         assertAll(
                 () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
@@ -1470,23 +1646,19 @@ public class OrderControllerTest {
                 () -> assertEquals(1, pageResponse.totalPages()),
                 () -> assertEquals(1, pageResponse.content().size()),
                 () -> assertEquals(order.getId(), pageResponse.content().get(0).getId()),
-                () -> assertEquals(order.getUserId(), pageResponse.content().get(0).getUserId()),
-                () -> assertEquals(order.getClientId(), pageResponse.content().get(0).getClientId()),
                 () -> assertEquals(order.getShopId(), pageResponse.content().get(0).getShopId()),
                 () -> assertEquals(order.getTotal(), pageResponse.content().get(0).getTotal()),
                 () -> assertEquals(order.getTotalBooks(), pageResponse.content().get(0).getTotalBooks()),
-                () -> assertEquals(order.getCreatedAt(), pageResponse.content().get(0).getCreatedAt()),
-                () -> assertEquals(order.getUpdatedAt(), pageResponse.content().get(0).getUpdatedAt()),
-                () -> assertEquals(order.getIsDeleted(), pageResponse.content().get(0).getIsDeleted())
+                () -> assertEquals(order.getCreatedAt(), pageResponse.content().get(0).getCreatedAt())
         );
 
-        verify(orderService, times(1)).getOrdersByShopId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByShopId(any(UUID.class), any(Pageable.class));
     }
 
 
     @Test
     void getOrdersByShopId_ShouldReturnOrderNotFoundException() throws Exception {
-        when(orderService.getOrdersByShopId(any(UUID.class), any(Pageable.class))).thenThrow(new OrderNotFoundException(order.getId()));
+        when(orderService.getOrderSummariesByShopId(any(UUID.class), any(Pageable.class))).thenThrow(new OrderNotFoundException(order.getId()));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/shop/{id}", shop.getId())).andReturn().getResponse();
 
@@ -1497,12 +1669,12 @@ public class OrderControllerTest {
                 () -> assertEquals("El pedido con id " + order.getId() + " no existe", errorResponse.error())
         );
 
-        verify(orderService, times(1)).getOrdersByShopId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByShopId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByShopId_ShouldReturnShopNotFoundException() throws Exception {
-        when(orderService.getOrdersByShopId(any(UUID.class), any(Pageable.class))).thenThrow(new ShopNotFoundException("La tienda con id " + shop.getId().toString() + " no existe"));
+        when(orderService.getOrderSummariesByShopId(any(UUID.class), any(Pageable.class))).thenThrow(new ShopNotFoundException("La tienda con id " + shop.getId().toString() + " no existe"));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/shop/{id}", shop.getId())).andReturn().getResponse();
 
@@ -1513,17 +1685,17 @@ public class OrderControllerTest {
                 () -> assertEquals("Tienda no encontrada - " + "La tienda con id " + shop.getId().toString() + " no existe", errorResponse.error())
         );
 
-        verify(orderService, times(1)).getOrdersByShopId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByShopId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByShopId_ShouldReturnEmptyPage() throws Exception {
-        when(orderService.getOrdersByShopId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(orderService.getOrderSummariesByShopId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
 
         MockHttpServletResponse response = mockMvc.perform(get(endpoint + "/shop/{id}", shop.getId())).andReturn().getResponse();
 
 
-        PageResponse<Order> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, Order.class));
+        PageResponse<OrderSummary> pageResponse = mapper.readValue(response.getContentAsString(StandardCharsets.UTF_8), mapper.getTypeFactory().constructParametricType(PageResponse.class, OrderSummary.class));
 
         assertAll(
                 () -> assertEquals(HttpStatus.OK.value(), response.getStatus()),
@@ -1532,7 +1704,7 @@ public class OrderControllerTest {
                 () -> assertEquals(0, pageResponse.content().size())
         );
 
-        verify(orderService, times(1)).getOrdersByShopId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByShopId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
@@ -8,7 +8,9 @@ import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
 import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.common.Address;
 import com.nullers.restbookstore.rest.common.PageableRequest;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import com.nullers.restbookstore.rest.orders.dto.OrderCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderBadPriceException;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderNotFoundException;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderNotItemsExceptions;
@@ -16,6 +18,7 @@ import com.nullers.restbookstore.rest.orders.exceptions.OrderNotStockException;
 import com.nullers.restbookstore.rest.orders.models.Order;
 import com.nullers.restbookstore.rest.orders.models.OrderLine;
 import com.nullers.restbookstore.rest.orders.services.OrderServiceImpl;
+import com.nullers.restbookstore.rest.orders.services.OrderSubmissionService;
 import com.nullers.restbookstore.rest.publisher.model.Publisher;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopNotFoundException;
 import com.nullers.restbookstore.rest.shop.model.Shop;
@@ -54,6 +57,9 @@ class OrderControllerTestWithoutMockMvc {
     @Mock
     private PaginationLinksUtils paginationLinksUtils;
 
+    @Mock
+    private OrderSubmissionService orderSubmissionService;
+
 
     OrderLine orderLine = OrderLine.builder()
             .bookId(1L)
@@ -125,8 +131,6 @@ class OrderControllerTestWithoutMockMvc {
     Shop shop = Shop.builder()
             .id(UUID.fromString("b5f29063-77d8-4d5d-98ea-def0cc9ebc5f"))
             .name("name")
-            .books(Set.of(book))
-            .clients(Set.of(clientTest))
             .location(address)
             .build();
 
@@ -144,6 +148,14 @@ class OrderControllerTestWithoutMockMvc {
             .totalBooks(2)
             .build();
 
+    OrderSummary orderSummary = OrderSummary.builder()
+            .id(order.getId())
+            .shopId(order.getShopId())
+            .total(order.getTotal())
+            .totalBooks(order.getTotalBooks())
+            .createdAt(order.getCreatedAt())
+            .build();
+
 
     OrderCreateDto orderCreateDto = OrderCreateDto.builder()
             .userId(userTest.getId())
@@ -163,7 +175,7 @@ class OrderControllerTestWithoutMockMvc {
 
     @Test
     void getAllOrders_ShouldReturnOrders() {
-        when(orderService.getAllOrders(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(order)));
+        when(orderService.getAllOrderSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(orderSummary)));
 
         var res = orderController.getAllOrders(
                 new PageableRequest(0, 10, "id", "asc"), requestMock
@@ -176,13 +188,8 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals(order.getId().toHexString(), res.getBody().content().get(0).getId().toHexString()),
                 () -> assertEquals(order.getTotal(), res.getBody().content().get(0).getTotal()),
                 () -> assertEquals(order.getTotalBooks(), res.getBody().content().get(0).getTotalBooks()),
-                () -> assertEquals(order.getUserId(), res.getBody().content().get(0).getUserId()),
-                () -> assertEquals(order.getClientId(), res.getBody().content().get(0).getClientId()),
                 () -> assertEquals(order.getShopId(), res.getBody().content().get(0).getShopId()),
-                () -> assertEquals(order.getOrderLines().size(), res.getBody().content().get(0).getOrderLines().size()),
                 () -> assertEquals(order.getCreatedAt(), res.getBody().content().get(0).getCreatedAt()),
-                () -> assertEquals(order.getUpdatedAt(), res.getBody().content().get(0).getUpdatedAt()),
-                () -> assertEquals(order.getIsDeleted(), res.getBody().content().get(0).getIsDeleted()),
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
     }
@@ -190,7 +197,7 @@ class OrderControllerTestWithoutMockMvc {
 
     @Test
     void getAllOrder_ShouldReturnEmptyPage() {
-        when(orderService.getAllOrders(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(orderService.getAllOrderSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
 
         var res = orderController.getAllOrders(
                 new PageableRequest(0, 10, "id", "asc"), requestMock
@@ -204,15 +211,15 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
 
-        verify(orderService, times(1)).getAllOrders(any(Pageable.class));
+        verify(orderService, times(1)).getAllOrderSummaries(any(Pageable.class));
     }
 
 
     @Test
     void getOrderById_ShouldReturnOrder() {
-        when(orderService.getOrderById(any(ObjectId.class))).thenReturn(order);
+        when(orderService.getOrderById(any(ObjectId.class), any(FieldSelection.class))).thenReturn(order);
 
-        var res = orderController.getOrderById(order.getId());
+        var res = orderController.getOrderById(order.getId(), FieldSelection.ALL);
 
         assertAll(
                 () -> assertNotNull(res),
@@ -229,22 +236,22 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
 
-        verify(orderService, times(1)).getOrderById(any(ObjectId.class));
+        verify(orderService, times(1)).getOrderById(any(ObjectId.class), any(FieldSelection.class));
     }
 
     @Test
     void getOrderById_ShouldReturnOrderNotFound() {
-        when(orderService.getOrderById(any(ObjectId.class))).thenThrow(new OrderNotFoundException(order.getId()));
+        when(orderService.getOrderById(any(ObjectId.class), any(FieldSelection.class))).thenThrow(new OrderNotFoundException(order.getId()));
 
 
-        var res = assertThrows(OrderNotFoundException.class, () -> orderController.getOrderById(order.getId()));
+        var res = assertThrows(OrderNotFoundException.class, () -> orderController.getOrderById(order.getId(), FieldSelection.ALL));
 
         assertAll(
                 () -> assertNotNull(res),
                 () -> assertEquals("El pedido con id " + order.getId() + " no existe", res.getMessage())
         );
 
-        verify(orderService, times(1)).getOrderById(any(ObjectId.class));
+        verify(orderService, times(1)).getOrderById(any(ObjectId.class), any(FieldSelection.class));
     }
 
     @Test
@@ -696,7 +703,7 @@ class OrderControllerTestWithoutMockMvc {
 
     @Test
     void getOrdersByClientId_ShouldReturnOrder() {
-        when(orderService.getOrdersByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(order)));
+        when(orderService.getOrderSummariesByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(orderSummary)));
 
         var res = orderController.getOrdersByClientId(clientTest.getId(), new PageableRequest(0, 10, "id", "asc"), requestMock);
 
@@ -707,22 +714,17 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals(order.getId().toHexString(), res.getBody().content().get(0).getId().toHexString()),
                 () -> assertEquals(order.getTotal(), res.getBody().content().get(0).getTotal()),
                 () -> assertEquals(order.getTotalBooks(), res.getBody().content().get(0).getTotalBooks()),
-                () -> assertEquals(order.getUserId(), res.getBody().content().get(0).getUserId()),
-                () -> assertEquals(order.getClientId(), res.getBody().content().get(0).getClientId()),
                 () -> assertEquals(order.getShopId(), res.getBody().content().get(0).getShopId()),
-                () -> assertEquals(order.getOrderLines().size(), res.getBody().content().get(0).getOrderLines().size()),
                 () -> assertEquals(order.getCreatedAt(), res.getBody().content().get(0).getCreatedAt()),
-                () -> assertEquals(order.getUpdatedAt(), res.getBody().content().get(0).getUpdatedAt()),
-                () -> assertEquals(order.getIsDeleted(), res.getBody().content().get(0).getIsDeleted()),
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
 
-        verify(orderService, times(1)).getOrdersByClientId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByClientId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByClientId_ShouldReturnEmptyPage() {
-        when(orderService.getOrdersByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(orderService.getOrderSummariesByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
 
         var res = orderController.getOrdersByClientId(clientTest.getId(), new PageableRequest(0, 10, "id", "asc"), requestMock);
 
@@ -734,12 +736,12 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
 
-        verify(orderService, times(1)).getOrdersByClientId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByClientId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByClientId_ShouldReturnClientNotFoundException() {
-        when(orderService.getOrdersByClientId(any(UUID.class), any(Pageable.class))).thenThrow(new ClientNotFound("id", clientTest.getId()));
+        when(orderService.getOrderSummariesByClientId(any(UUID.class), any(Pageable.class))).thenThrow(new ClientNotFound("id", clientTest.getId()));
 
         var res = assertThrows(ClientNotFound.class, () -> orderController.getOrdersByClientId(clientTest.getId(), new PageableRequest(0, 10, "id", "asc"), requestMock));
 
@@ -748,12 +750,12 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals("Client con id: " + clientTest.getId() + " no existe", res.getMessage())
         );
 
-        verify(orderService, times(1)).getOrdersByClientId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByClientId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByUserId_ShouldReturnOrder() {
-        when(orderService.getOrdersByUserId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(order)));
+        when(orderService.getOrderSummariesByUserId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(orderSummary)));
 
         var res = orderController.getOrdersByUserId(userTest.getId(), new PageableRequest(0, 10, "id", "asc"), requestMock);
 
@@ -764,22 +766,17 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals(order.getId().toHexString(), res.getBody().content().get(0).getId().toHexString()),
                 () -> assertEquals(order.getTotal(), res.getBody().content().get(0).getTotal()),
                 () -> assertEquals(order.getTotalBooks(), res.getBody().content().get(0).getTotalBooks()),
-                () -> assertEquals(order.getUserId(), res.getBody().content().get(0).getUserId()),
-                () -> assertEquals(order.getClientId(), res.getBody().content().get(0).getClientId()),
                 () -> assertEquals(order.getShopId(), res.getBody().content().get(0).getShopId()),
-                () -> assertEquals(order.getOrderLines().size(), res.getBody().content().get(0).getOrderLines().size()),
                 () -> assertEquals(order.getCreatedAt(), res.getBody().content().get(0).getCreatedAt()),
-                () -> assertEquals(order.getUpdatedAt(), res.getBody().content().get(0).getUpdatedAt()),
-                () -> assertEquals(order.getIsDeleted(), res.getBody().content().get(0).getIsDeleted()),
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
 
-        verify(orderService, times(1)).getOrdersByUserId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByUserId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByUserId_ShouldReturnEmptyPage() {
-        when(orderService.getOrdersByUserId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(orderService.getOrderSummariesByUserId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
 
         var res = orderController.getOrdersByUserId(userTest.getId(), new PageableRequest(0, 10, "id", "asc"), requestMock);
 
@@ -791,12 +788,12 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
 
-        verify(orderService, times(1)).getOrdersByUserId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByUserId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByUserId_ShouldReturnUserNotFoundException() {
-        when(orderService.getOrdersByUserId(any(UUID.class), any(Pageable.class))).thenThrow(new UserNotFound(userTest.getId()));
+        when(orderService.getOrderSummariesByUserId(any(UUID.class), any(Pageable.class))).thenThrow(new UserNotFound(userTest.getId()));
 
         var res = assertThrows(UserNotFound.class, () -> orderController.getOrdersByUserId(userTest.getId(), new PageableRequest(0, 10, "id", "asc"), requestMock));
 
@@ -805,12 +802,12 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals("Usuario con id" + userTest.getId() + " no encontrado", res.getMessage())
         );
 
-        verify(orderService, times(1)).getOrdersByUserId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByUserId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByShopId_ShouldReturnOrder() {
-        when(orderService.getOrdersByShopId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(order)));
+        when(orderService.getOrderSummariesByShopId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(orderSummary)));
 
         var res = orderController.getOrdersByShopId(shop.getId(), new PageableRequest(0, 10, "id", "asc"), requestMock);
 
@@ -821,22 +818,17 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals(order.getId().toHexString(), res.getBody().content().get(0).getId().toHexString()),
                 () -> assertEquals(order.getTotal(), res.getBody().content().get(0).getTotal()),
                 () -> assertEquals(order.getTotalBooks(), res.getBody().content().get(0).getTotalBooks()),
-                () -> assertEquals(order.getUserId(), res.getBody().content().get(0).getUserId()),
-                () -> assertEquals(order.getClientId(), res.getBody().content().get(0).getClientId()),
                 () -> assertEquals(order.getShopId(), res.getBody().content().get(0).getShopId()),
-                () -> assertEquals(order.getOrderLines().size(), res.getBody().content().get(0).getOrderLines().size()),
                 () -> assertEquals(order.getCreatedAt(), res.getBody().content().get(0).getCreatedAt()),
-                () -> assertEquals(order.getUpdatedAt(), res.getBody().content().get(0).getUpdatedAt()),
-                () -> assertEquals(order.getIsDeleted(), res.getBody().content().get(0).getIsDeleted()),
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
 
-        verify(orderService, times(1)).getOrdersByShopId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByShopId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByShopId_ShouldReturnEmptyPage() {
-        when(orderService.getOrdersByShopId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(orderService.getOrderSummariesByShopId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
 
         var res = orderController.getOrdersByShopId(shop.getId(), new PageableRequest(0, 10, "id", "asc"), requestMock);
 
@@ -848,12 +840,12 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
 
-        verify(orderService, times(1)).getOrdersByShopId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByShopId(any(UUID.class), any(Pageable.class));
     }
 
     @Test
     void getOrdersByShopId_ShouldReturnShopNotFoundException() {
-        when(orderService.getOrdersByShopId(any(UUID.class), any(Pageable.class))).thenThrow(new ShopNotFoundException("La tienda con id " + shop.getId() + " no existe"));
+        when(orderService.getOrderSummariesByShopId(any(UUID.class), any(Pageable.class))).thenThrow(new ShopNotFoundException("La tienda con id " + shop.getId() + " no existe"));
 
         var res = assertThrows(ShopNotFoundException.class, () -> orderController.getOrdersByShopId(shop.getId(), new PageableRequest(0, 10, "id", "asc"), requestMock));
 
@@ -862,7 +854,7 @@ class OrderControllerTestWithoutMockMvc {
                 () -> assertEquals("Tienda no encontrada - " + "La tienda con id " + shop.getId() + " no existe", res.getMessage())
         );
 
-        verify(orderService, times(1)).getOrdersByShopId(any(UUID.class), any(Pageable.class));
+        verify(orderService, times(1)).getOrderSummariesByShopId(any(UUID.class), any(Pageable.class));
     }
 
 
@@ -0,0 +1,233 @@
+package com.nullers.restbookstore.rest.orders.services;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
+import com.nullers.restbookstore.rest.orders.models.Order;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchiveServiceImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private OrderArchiveServiceImpl orderArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        orderArchiveService = new OrderArchiveServiceImpl(mongoTemplate, true, 365, 500);
+    }
+
+    @Test
+    void collectionFor_ShouldUseObjectIdMonth() {
+        ObjectId id = new ObjectId(Date.from(Instant.parse("2023-02-15T10:00:00Z")));
+
+        assertEquals("orders_archive_2023_02", OrderArchiveServiceImpl.collectionFor(id));
+    }
+
+    @Test
+    void hasArchives_ShouldReturnFalse_WhenNoArchiveCollections() {
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("orders"));
+
+        assertFalse(orderArchiveService.hasArchives());
+    }
+
+    @Test
+    void hasArchives_ShouldCacheCollectionNames() {
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("orders", "orders_archive_2023_02"));
+
+        assertTrue(orderArchiveService.hasArchives());
+        assertTrue(orderArchiveService.hasArchives());
+
+        verify(mongoTemplate, times(1)).getCollectionNames();
+    }
+
+    @Test
+    void findArchivedById_ShouldReadOnlyItsPartition() {
+        ObjectId id = new ObjectId(Date.from(Instant.parse("2023-02-15T10:00:00Z")));
+        Order order = Order.builder().id(id).build();
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("orders_archive_2023_02", "orders_archive_2023_03"));
+        when(mongoTemplate.findById(id, Order.class, "orders_archive_2023_02")).thenReturn(order);
+
+        Optional<Order> result = orderArchiveService.findArchivedById(id);
+
+        assertTrue(result.isPresent());
+        verify(mongoTemplate, never()).findById(any(), eq(Order.class), eq("orders_archive_2023_03"));
+    }
+
+    @Test
+    void findArchivedById_ShouldReturnEmpty_WhenPartitionDoesNotExist() {
+        ObjectId id = new ObjectId(Date.from(Instant.parse("2023-02-15T10:00:00Z")));
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("orders"));
+
+        assertTrue(orderArchiveService.findArchivedById(id).isEmpty());
+        verify(mongoTemplate, never()).findById(any(), eq(Order.class), any(String.class));
+    }
+
+    @Test
+    void existsInArchives_ShouldCheckEveryPartition() {
+        UUID clientId = UUID.randomUUID();
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("orders", "orders_archive_2023_02", "orders_archive_2023_03"));
+        when(mongoTemplate.exists(any(Query.class), eq("orders_archive_2023_02"))).thenReturn(false);
+        when(mongoTemplate.exists(any(Query.class), eq("orders_archive_2023_03"))).thenReturn(true);
+
+        assertTrue(orderArchiveService.existsInArchives("clientId", clientId));
+        verify(mongoTemplate, never()).exists(any(Query.class), eq("orders"));
+    }
+
+    @Test
+    void saveArchived_ShouldWriteToItsPartition() {
+        ObjectId id = new ObjectId(Date.from(Instant.parse("2023-02-15T10:00:00Z")));
+        Order order = Order.builder().id(id).isDeleted(true).build();
+        when(mongoTemplate.save(order, "orders_archive_2023_02")).thenReturn(order);
+
+        assertSame(order, orderArchiveService.saveArchived(order));
+    }
+
+    @Test
+    void deleteArchived_ShouldRemoveFromItsPartition() {
+        ObjectId id = new ObjectId(Date.from(Instant.parse("2023-02-15T10:00:00Z")));
+
+        orderArchiveService.deleteArchived(id);
+
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq(Order.class), eq("orders_archive_2023_02"));
+    }
+
+    @Test
+    void streamAcrossTiers_ShouldMergeSortedCursorsById() {
+        UUID shopId = UUID.randomUUID();
+        Order january = Order.builder().id(new ObjectId(Date.from(Instant.parse("2023-01-10T10:00:00Z")))).build();
+        Order february = Order.builder().id(new ObjectId(Date.from(Instant.parse("2023-02-15T10:00:00Z")))).build();
+        Order march = Order.builder().id(new ObjectId(Date.from(Instant.parse("2023-03-20T10:00:00Z")))).build();
+        Order recent = Order.builder().id(new ObjectId()).build();
+        AtomicInteger closed = new AtomicInteger();
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("orders", "orders_archive_2023_02", "orders_archive_2023_03"));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq("orders")))
+                .thenReturn(Stream.of(february, recent).onClose(closed::incrementAndGet));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq("orders_archive_2023_02")))
+                .thenReturn(Stream.of(january, february).onClose(closed::incrementAndGet));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq("orders_archive_2023_03")))
+                .thenReturn(Stream.of(march).onClose(closed::incrementAndGet));
+
+        try (Stream<Order> result = orderArchiveService.streamAcrossTiers("shopId", shopId)) {
+            assertEquals(List.of(january, february, march, recent), result.toList());
+        }
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Order.class), eq("orders"));
+        assertAll(
+                () -> assertEquals(3, closed.get()),
+                () -> assertEquals(new Document("_id", 1), query.getValue().getSortObject()),
+                () -> assertEquals(shopId, query.getValue().getQueryObject().get("shopId"))
+        );
+        verify(mongoTemplate, never()).aggregateStream(any(Aggregation.class), any(String.class), eq(Order.class));
+    }
+
+    @Test
+    void findSummariesAcrossTiers_ShouldReadOnlyTiersCoveredByThePage() {
+        UUID clientId = UUID.randomUUID();
+        OrderSummary summary = OrderSummary.builder().id(new ObjectId()).build();
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("orders", "orders_archive_2023_02", "orders_archive_2023_03"));
+        when(mongoTemplate.count(any(Query.class), eq("orders"))).thenReturn(3L);
+        when(mongoTemplate.count(any(Query.class), eq("orders_archive_2023_03"))).thenReturn(2L);
+        when(mongoTemplate.count(any(Query.class), eq("orders_archive_2023_02"))).thenReturn(4L);
+        when(mongoTemplate.find(any(Query.class), eq(OrderSummary.class), eq("orders_archive_2023_03"))).thenReturn(List.of(summary));
+        when(mongoTemplate.find(any(Query.class), eq(OrderSummary.class), eq("orders_archive_2023_02"))).thenReturn(List.of(summary, summary));
+
+        Page<OrderSummary> page = orderArchiveService.findSummariesAcrossTiers("clientId", clientId, PageRequest.of(1, 4));
+
+        ArgumentCaptor<Query> newest = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Query> oldest = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(newest.capture(), eq(OrderSummary.class), eq("orders_archive_2023_03"));
+        verify(mongoTemplate).find(oldest.capture(), eq(OrderSummary.class), eq("orders_archive_2023_02"));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(OrderSummary.class), eq("orders"));
+        assertAll(
+                () -> assertEquals(9, page.getTotalElements()),
+                () -> assertEquals(3, page.getContent().size()),
+                () -> assertEquals(1, newest.getValue().getSkip()),
+                () -> assertEquals(4, newest.getValue().getLimit()),
+                () -> assertEquals(0, oldest.getValue().getSkip()),
+                () -> assertEquals(3, oldest.getValue().getLimit())
+        );
+    }
+
+    @Test
+    void findAllSummariesAcrossTiers_ShouldServeFirstPageFromHotCollection() {
+        OrderSummary summary = OrderSummary.builder().id(new ObjectId()).build();
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("orders", "orders_archive_2023_02"));
+        when(mongoTemplate.count(any(Query.class), eq("orders"))).thenReturn(20L);
+        when(mongoTemplate.count(any(Query.class), eq("orders_archive_2023_02"))).thenReturn(100L);
+        when(mongoTemplate.find(any(Query.class), eq(OrderSummary.class), eq("orders"))).thenReturn(List.of(summary, summary));
+
+        Page<OrderSummary> page = orderArchiveService.findAllSummariesAcrossTiers(PageRequest.of(0, 2));
+
+        assertAll(
+                () -> assertEquals(120, page.getTotalElements()),
+                () -> assertEquals(2, page.getContent().size())
+        );
+        verify(mongoTemplate, never()).find(any(Query.class), eq(OrderSummary.class), eq("orders_archive_2023_02"));
+    }
+
+    @Test
+    void archiveOrders_ShouldReturnZero_WhenNothingToArchive() {
+        when(mongoTemplate.find(any(Query.class), eq(Order.class), eq("orders"))).thenReturn(List.of());
+
+        assertEquals(0, orderArchiveService.archiveOrders());
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(Order.class), any(String.class));
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Order.class), any(String.class));
+    }
+
+    @Test
+    void archiveOrders_ShouldKeepOrdersUpdatedWhileCopying() {
+        Order unchanged = Order.builder().id(new ObjectId(Date.from(Instant.parse("2023-02-15T10:00:00Z")))).build();
+        Order updated = Order.builder().id(new ObjectId(Date.from(Instant.parse("2023-02-16T10:00:00Z")))).build();
+        BulkOperations bulk = mock(BulkOperations.class);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(mongoTemplate.find(any(Query.class), eq(Order.class), eq("orders")))
+                .thenReturn(List.of(unchanged, updated))
+                .thenReturn(List.of(updated));
+        when(mongoTemplate.collectionExists("orders_archive_2023_02")).thenReturn(true);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Order.class), any(String.class))).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(result);
+        when(result.getDeletedCount()).thenReturn(1);
+
+        assertEquals(1, orderArchiveService.archiveOrders());
+
+        ArgumentCaptor<Query> removeQuery = ArgumentCaptor.forClass(Query.class);
+        verify(bulk, times(2)).remove(removeQuery.capture());
+        ArgumentCaptor<Query> discarded = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(1)).remove(discarded.capture(), eq(Order.class), eq("orders_archive_2023_02"));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(Order.class), eq("orders"));
+        assertAll(
+                () -> assertTrue(removeQuery.getValue().getQueryObject().containsKey("updatedAt")),
+                () -> assertEquals(new Document("$in", List.of(updated.getId())), discarded.getValue().getQueryObject().get("_id"))
+        );
+    }
+}
@@ -3,12 +3,15 @@ package com.nullers.restbookstore.rest.orders.services;
 import com.nullers.restbookstore.rest.book.exceptions.BookNotFoundException;
 import com.nullers.restbookstore.rest.book.model.Book;
 import com.nullers.restbookstore.rest.book.repository.BookRepository;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
 import com.nullers.restbookstore.rest.category.model.Category;
 import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
 import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.client.repository.ClientRepository;
 import com.nullers.restbookstore.rest.common.Address;
+import com.nullers.restbookstore.rest.orders.dto.OrderBulkResult;
 import com.nullers.restbookstore.rest.orders.dto.OrderCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderSummary;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderBadPriceException;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderNotFoundException;
 import com.nullers.restbookstore.rest.orders.exceptions.OrderNotItemsExceptions;
@@ -20,6 +23,7 @@ import com.nullers.restbookstore.rest.publisher.model.Publisher;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopNotFoundException;
 import com.nullers.restbookstore.rest.shop.model.Shop;
 import com.nullers.restbookstore.rest.shop.repository.ShopRepository;
+import com.nullers.restbookstore.rest.shop.services.stock.ShopStockService;
 import com.nullers.restbookstore.rest.user.exceptions.UserNotFound;
 import com.nullers.restbookstore.rest.user.models.User;
 import com.nullers.restbookstore.rest.user.models.Role;
@@ -33,10 +37,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -60,6 +67,15 @@ public class OrderServiceTest {
     @Mock
     private ClientRepository clientRepository;
 
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private ReferenceCountService referenceCountService;
+
+    @Mock
+    private ShopStockService shopStockService;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -133,8 +149,6 @@ public class OrderServiceTest {
     Shop shop = Shop.builder()
             .id(UUID.fromString("b5f29063-77d8-4d5d-98ea-def0cc9ebc5f"))
             .name("name")
-            .books(Set.of(book))
-            .clients(Set.of(clientTest))
             .location(address)
             .build();
 
@@ -234,6 +248,177 @@ public class OrderServiceTest {
         verify(orderRepository, times(1)).findById(any(ObjectId.class));
     }
 
+    @Test
+    void createOrders_ShouldCreateAllOrders() {
+        Book book2 = Book.builder().id(2L).name("name2").stock(10).price(1.0).build();
+        when(userRepository.findAllById(any())).thenReturn(List.of(userTest));
+        when(clientRepository.findAllById(any())).thenReturn(List.of(clientTest));
+        when(shopRepository.findAllById(any())).thenReturn(List.of(shop));
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book, book2));
+        when(bookRepository.decrementStock(any(Long.class), any(Integer.class))).thenReturn(1);
+        when(orderRepository.insertAllUnordered(any())).thenReturn(Map.of());
+
+        List<OrderBulkResult> result = orderService.createOrders(List.of(orderCreateDto));
+
+        assertAll(
+                () -> assertEquals(1, result.size()),
+                () -> assertEquals(201, result.get(0).getStatus()),
+                () -> assertNotNull(result.get(0).getId()),
+                () -> assertNull(result.get(0).getError())
+        );
+
+        verify(bookRepository, times(2)).decrementStock(any(Long.class), any(Integer.class));
+        verify(orderRepository, times(1)).insertAllUnordered(any());
+        verify(bookRepository, never()).incrementStock(any(Long.class), any(Integer.class));
+    }
+
+    @Test
+    void createOrders_ShouldReportMissingUser() {
+        when(userRepository.findAllById(any())).thenReturn(List.of());
+        when(clientRepository.findAllById(any())).thenReturn(List.of(clientTest));
+        when(shopRepository.findAllById(any())).thenReturn(List.of(shop));
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book));
+        when(orderRepository.insertAllUnordered(any())).thenReturn(Map.of());
+
+        List<OrderBulkResult> result = orderService.createOrders(List.of(orderCreateDto));
+
+        assertAll(
+                () -> assertEquals(1, result.size()),
+                () -> assertEquals(404, result.get(0).getStatus()),
+                () -> assertEquals("El usuario con id " + userTest.getId() + " no existe", result.get(0).getError())
+        );
+
+        verify(bookRepository, never()).decrementStock(any(Long.class), any(Integer.class));
+    }
+
+    @Test
+    void createOrders_ShouldRejectOrder_WhenStockRunsOutInBatch() {
+        Book book2 = Book.builder().id(2L).name("name2").stock(1).price(1.0).build();
+        when(userRepository.findAllById(any())).thenReturn(List.of(userTest));
+        when(clientRepository.findAllById(any())).thenReturn(List.of(clientTest));
+        when(shopRepository.findAllById(any())).thenReturn(List.of(shop));
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book, book2));
+        when(bookRepository.decrementStock(any(Long.class), any(Integer.class))).thenReturn(1);
+        when(orderRepository.insertAllUnordered(any())).thenReturn(Map.of());
+
+        List<OrderBulkResult> result = orderService.createOrders(List.of(orderCreateDto, orderCreateDto));
+
+        assertAll(
+                () -> assertEquals(201, result.get(0).getStatus()),
+                () -> assertEquals(404, result.get(1).getStatus()),
+                () -> assertEquals("El producto con id 2 no tiene stock", result.get(1).getError())
+        );
+    }
+
+    @Test
+    void createOrders_ShouldRejectOnlyOrderOverShopStock() {
+        OrderCreateDto oversized = OrderCreateDto.builder()
+                .userId(userTest.getId())
+                .clientId(clientTest.getId())
+                .shopId(shop.getId())
+                .orderLines(List.of(OrderLine.builder().bookId(1L).quantity(5).price(1.0).build()))
+                .build();
+        Book book2 = Book.builder().id(2L).name("name2").stock(10).price(1.0).build();
+        when(userRepository.findAllById(any())).thenReturn(List.of(userTest));
+        when(clientRepository.findAllById(any())).thenReturn(List.of(clientTest));
+        when(shopRepository.findAllById(any())).thenReturn(List.of(shop));
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book, book2));
+        when(shopStockService.findStock(Set.of(shop.getId()), Set.of(1L, 2L)))
+                .thenReturn(new HashMap<>(Map.of(shop.getId(), new HashMap<>(Map.of(1L, 3)))));
+        when(bookRepository.decrementStock(any(Long.class), any(Integer.class))).thenReturn(1);
+        when(orderRepository.insertAllUnordered(any())).thenReturn(Map.of());
+
+        List<OrderBulkResult> result = orderService.createOrders(List.of(oversized, orderCreateDto));
+
+        assertAll(
+                () -> assertEquals(404, result.get(0).getStatus()),
+                () -> assertEquals("El producto con id 1 no tiene stock", result.get(0).getError()),
+                () -> assertEquals(201, result.get(1).getStatus())
+        );
+
+        verify(shopStockService, times(1)).reserve(shop.getId(), Map.of(1L, 1, 2L, 1));
+        verify(bookRepository, times(1)).decrementStock(1L, 1);
+        verify(shopStockService, never()).release(any(UUID.class), any());
+    }
+
+    @Test
+    void createOrders_ShouldReportUnexpectedErrorPerOrder() {
+        OrderCreateDto malformed = OrderCreateDto.builder()
+                .userId(userTest.getId())
+                .clientId(clientTest.getId())
+                .shopId(shop.getId())
+                .orderLines(List.of(OrderLine.builder().bookId(1L).quantity(1).build()))
+                .build();
+        Book book2 = Book.builder().id(2L).name("name2").stock(10).price(1.0).build();
+        when(userRepository.findAllById(any())).thenReturn(List.of(userTest));
+        when(clientRepository.findAllById(any())).thenReturn(List.of(clientTest));
+        when(shopRepository.findAllById(any())).thenReturn(List.of(shop));
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book, book2));
+        when(bookRepository.decrementStock(any(Long.class), any(Integer.class))).thenReturn(1);
+        when(orderRepository.insertAllUnordered(any())).thenReturn(Map.of());
+
+        List<OrderBulkResult> result = orderService.createOrders(List.of(malformed, orderCreateDto));
+
+        assertAll(
+                () -> assertEquals(500, result.get(0).getStatus()),
+                () -> assertEquals(201, result.get(1).getStatus())
+        );
+    }
+
+    @Test
+    void createOrders_ShouldReportInsertFailurePerOrderAndReturnStock() {
+        Book book2 = Book.builder().id(2L).name("name2").stock(10).price(1.0).build();
+        when(userRepository.findAllById(any())).thenReturn(List.of(userTest));
+        when(clientRepository.findAllById(any())).thenReturn(List.of(clientTest));
+        when(shopRepository.findAllById(any())).thenReturn(List.of(shop));
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book, book2));
+        when(bookRepository.decrementStock(any(Long.class), any(Integer.class))).thenReturn(1);
+        when(orderRepository.insertAllUnordered(any())).thenThrow(new IllegalStateException("mongo caído"));
+
+        List<OrderBulkResult> result = orderService.createOrders(List.of(orderCreateDto));
+
+        assertEquals(500, result.get(0).getStatus());
+
+        verify(bookRepository, times(2)).incrementStock(any(Long.class), any(Integer.class));
+        verify(referenceCountService, never()).orderAdded(any(Order.class));
+    }
+
+    @Test
+    void streamOrdersByShopId_ShouldReturnStream() {
+        when(orderRepository.streamAllByShopIdOrderByIdAsc(shop.getId())).thenReturn(Stream.of(order));
+
+        try (Stream<Order> result = orderService.streamOrdersByShopId(shop.getId())) {
+            assertEquals(List.of(order), result.toList());
+        }
+
+        verify(orderRepository, times(1)).streamAllByShopIdOrderByIdAsc(shop.getId());
+    }
+
+    @Test
+    void streamOrdersByShopId_ShouldReadArchives() {
+        when(orderArchiveService.hasArchives()).thenReturn(true);
+        when(orderArchiveService.streamAcrossTiers("shopId", shop.getId())).thenReturn(Stream.of(order));
+
+        try (Stream<Order> result = orderService.streamOrdersByShopId(shop.getId())) {
+            assertEquals(1, result.count());
+        }
+
+        verify(orderRepository, never()).streamAllByShopIdOrderByIdAsc(any(UUID.class));
+    }
+
+    @Test
+    void getOrderById_ShouldReturnArchivedOrder() {
+        when(orderRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
+        when(orderArchiveService.findArchivedById(any(ObjectId.class))).thenReturn(Optional.of(order));
+
+        Order result = orderService.getOrderById(order.getId());
+
+        assertEquals(order.getId(), result.getId());
+
+        verify(orderRepository, times(1)).findById(any(ObjectId.class));
+        verify(orderArchiveService, times(1)).findArchivedById(any(ObjectId.class));
+    }
+
     @Test
     void createOrder_ShouldReturnOrder_Created() {
         when(orderRepository.save(any(Order.class))).thenReturn(order);
@@ -354,6 +539,22 @@ public class OrderServiceTest {
         verify(clientRepository, times(1)).findById(any(UUID.class));
     }
 
+    @Test
+    void createOrder_WithNotEnoughShopStock_ShouldReleaseAndThrowException() {
+        when(userRepository.findById(any(UUID.class))).thenReturn(Optional.of(userTest));
+        when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.of(clientTest));
+        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.of(book));
+        when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.of(shop));
+        when(shopStockService.reserve(shop.getId(), Map.of(1L, 1, 2L, 1))).thenReturn(Set.of(2L));
+
+        var res = assertThrows(OrderNotStockException.class, () -> orderService.createOrder(orderCreateDto));
+
+        assertEquals("El producto con id 2 no tiene stock", res.getMessage());
+        verify(shopStockService, times(1)).release(shop.getId(), Map.of(1L, 1));
+        verify(bookRepository, times(0)).save(any(Book.class));
+        verify(orderRepository, times(0)).save(any(Order.class));
+    }
+
     @Test
     void createOrder_WithBadPrice_ShouldThrowException() {
         OrderCreateDto orderCreateDto = OrderCreateDto.builder()
@@ -457,6 +658,51 @@ public class OrderServiceTest {
         verify(bookRepository, times(4)).save(any(Book.class));
     }
 
+    @Test
+    void updateOrder_WhenNewOrderCannotBeReserved_ShouldReserveOldStockAgain() {
+        Order previous = Order.builder()
+                .id(order.getId())
+                .userId(userTest.getId())
+                .clientId(clientTest.getId())
+                .shopId(shop.getId())
+                .shopStockReserved(true)
+                .orderLines(List.of(OrderLine.builder().bookId(1L).quantity(2).price(1.0).build()))
+                .build();
+        when(orderRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(previous));
+        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.of(book));
+        when(userRepository.findById(any(UUID.class))).thenReturn(Optional.of(userTest));
+        when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.of(clientTest));
+        when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.of(shop));
+        when(shopStockService.reserve(shop.getId(), Map.of(1L, 1, 2L, 1))).thenReturn(Set.of(2L));
+
+        assertThrows(OrderNotStockException.class, () -> orderService.updateOrder(order.getId(), orderCreateDto));
+
+        assertEquals(10, book.getStock());
+        verify(shopStockService, times(1)).release(shop.getId(), Map.of(1L, 2));
+        verify(shopStockService, times(1)).release(shop.getId(), Map.of(1L, 1));
+        verify(shopStockService, times(1)).reserve(shop.getId(), Map.of(1L, 2));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(referenceCountService, never()).orderRemoved(any(Order.class));
+    }
+
+    @Test
+    void updateOrder_ShouldSaveArchivedOrderInItsPartition() {
+        when(orderRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
+        when(orderArchiveService.findArchivedById(any(ObjectId.class))).thenReturn(Optional.of(order));
+        when(orderArchiveService.saveArchived(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.of(book));
+        when(userRepository.findById(any(UUID.class))).thenReturn(Optional.of(userTest));
+        when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.of(clientTest));
+        when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.of(shop));
+
+        Order result = orderService.updateOrder(order.getId(), orderCreateDto);
+
+        assertEquals(order.getId(), result.getId());
+
+        verify(orderArchiveService, times(1)).saveArchived(any(Order.class));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void updateOrder_ShouldThrowOrderNotFoundException() {
         when(orderRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
@@ -617,6 +863,30 @@ public class OrderServiceTest {
         verify(bookRepository, times(2)).save(any(Book.class));
     }
 
+    @Test
+    void deleteOrder_ShouldReleaseShopStock_WhenReserved() {
+        order.setShopStockReserved(true);
+        when(orderRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(order));
+        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.of(book));
+        orderService.deleteOrder(order.getId());
+
+        verify(shopStockService, times(1)).release(shop.getId(), Map.of(1L, 1, 2L, 1));
+        verify(orderRepository, times(1)).deleteById(any(ObjectId.class));
+    }
+
+    @Test
+    void deleteOrder_ShouldDeleteArchivedOrder() {
+        when(orderRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
+        when(orderArchiveService.findArchivedById(any(ObjectId.class))).thenReturn(Optional.of(order));
+        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.of(book));
+
+        orderService.deleteOrder(order.getId());
+
+        verify(orderArchiveService, times(1)).deleteArchived(order.getId());
+        verify(orderRepository, never()).deleteById(any(ObjectId.class));
+        verify(referenceCountService, times(1)).orderRemoved(order);
+    }
+
     @Test
     void deleteOrder_ShouldThrowOrderNotFoundException() {
         when(orderRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
@@ -668,6 +938,20 @@ public class OrderServiceTest {
         verify(orderRepository, times(1)).save(any(Order.class));
     }
 
+    @Test
+    void deleteLogicOrder_ShouldSaveArchivedOrder() {
+        when(orderRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
+        when(orderArchiveService.findArchivedById(any(ObjectId.class))).thenReturn(Optional.of(order));
+        when(orderArchiveService.saveArchived(any(Order.class))).thenReturn(order);
+
+        Order orderDeleted = orderService.deleteLogicOrder(order.getId());
+
+        assertTrue(orderDeleted.getIsDeleted());
+
+        verify(orderArchiveService, times(1)).saveArchived(order);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void deleteLogicOrder_ShouldThrowOrderNotFoundException() {
         when(orderRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
@@ -828,6 +1112,119 @@ public class OrderServiceTest {
         verify(orderRepository, times(1)).existsByUserId(any(UUID.class));
     }
 
+    @Test
+    void getAllOrderSummaries_ShouldReturnSummaries() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        OrderSummary summary = OrderSummary.builder().id(order.getId()).total(order.getTotal())
+                .totalBooks(order.getTotalBooks()).createdAt(order.getCreatedAt()).shopId(order.getShopId()).build();
+        when(orderRepository.findSummariesBy(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary)));
+
+        Page<OrderSummary> result = orderService.getAllOrderSummaries(pageable);
+
+        assertAll(
+                () -> assertEquals(1, result.getTotalElements()),
+                () -> assertEquals(order.getId(), result.getContent().get(0).getId()),
+                () -> assertEquals(order.getTotal(), result.getContent().get(0).getTotal()),
+                () -> assertEquals(order.getTotalBooks(), result.getContent().get(0).getTotalBooks()),
+                () -> assertEquals(order.getShopId(), result.getContent().get(0).getShopId())
+        );
+
+        verify(orderRepository, times(1)).findSummariesBy(any(Pageable.class));
+        verify(orderRepository, times(0)).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getAllOrderSummaries_ShouldReadArchives() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        OrderSummary summary = OrderSummary.builder().id(order.getId()).total(order.getTotal()).build();
+        when(orderArchiveService.hasArchives()).thenReturn(true);
+        when(orderArchiveService.findAllSummariesAcrossTiers(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary)));
+
+        Page<OrderSummary> result = orderService.getAllOrderSummaries(pageable);
+
+        assertEquals(1, result.getContent().size());
+
+        verify(orderArchiveService, times(1)).findAllSummariesAcrossTiers(pageable);
+        verify(orderRepository, never()).findSummariesBy(any(Pageable.class));
+    }
+
+    @Test
+    void getOrderSummariesByClientId_ShouldReturnSummaries() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        OrderSummary summary = OrderSummary.builder().id(order.getId()).total(order.getTotal()).build();
+        when(orderRepository.findSummariesByClientId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary)));
+
+        Page<OrderSummary> result = orderService.getOrderSummariesByClientId(clientTest.getId(), pageable);
+
+        assertAll(
+                () -> assertEquals(1, result.getContent().size()),
+                () -> assertEquals(order.getId().toHexString(), result.getContent().get(0).getIdStr())
+        );
+
+        verify(orderRepository, times(1)).findSummariesByClientId(any(UUID.class), any(Pageable.class));
+    }
+
+    @Test
+    void getOrderSummariesByClientId_ShouldReadArchives() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        OrderSummary summary = OrderSummary.builder().id(order.getId()).total(order.getTotal()).build();
+        when(orderArchiveService.hasArchives()).thenReturn(true);
+        when(orderArchiveService.findSummariesAcrossTiers(any(String.class), any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary)));
+
+        Page<OrderSummary> result = orderService.getOrderSummariesByClientId(clientTest.getId(), pageable);
+
+        assertEquals(1, result.getContent().size());
+
+        verify(orderArchiveService, times(1)).findSummariesAcrossTiers("clientId", clientTest.getId(), pageable);
+        verify(orderRepository, never()).findSummariesByClientId(any(UUID.class), any(Pageable.class));
+    }
+
+    @Test
+    void getOrderSummariesByUserId_ShouldReturnEmptyPage() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        when(orderRepository.findSummariesByUserId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        Page<OrderSummary> result = orderService.getOrderSummariesByUserId(userTest.getId(), pageable);
+
+        assertAll(
+                () -> assertEquals(0, result.getTotalElements()),
+                () -> assertEquals(0, result.getContent().size())
+        );
+
+        verify(orderRepository, times(1)).findSummariesByUserId(any(UUID.class), any(Pageable.class));
+    }
+
+    @Test
+    void getOrderSummariesByShopId_ShouldReturnSummaries() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        OrderSummary summary = OrderSummary.builder().id(order.getId()).shopId(shop.getId()).build();
+        when(orderRepository.findSummariesByShopId(any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary)));
+
+        Page<OrderSummary> result = orderService.getOrderSummariesByShopId(shop.getId(), pageable);
+
+        assertAll(
+                () -> assertEquals(1, result.getContent().size()),
+                () -> assertEquals(shop.getId(), result.getContent().get(0).getShopId())
+        );
+
+        verify(orderRepository, times(1)).findSummariesByShopId(any(UUID.class), any(Pageable.class));
+    }
+
+
+    @Test
+    void getOrderSummariesByShopId_ShouldReadArchives() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+        OrderSummary summary = OrderSummary.builder().id(order.getId()).shopId(shop.getId()).build();
+        when(orderArchiveService.hasArchives()).thenReturn(true);
+        when(orderArchiveService.findSummariesAcrossTiers(any(String.class), any(UUID.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary)));
+
+        Page<OrderSummary> result = orderService.getOrderSummariesByShopId(shop.getId(), pageable);
+
+        assertEquals(1, result.getContent().size());
+
+        verify(orderArchiveService, times(1)).findSummariesAcrossTiers("shopId", shop.getId(), pageable);
+        verify(orderRepository, never()).findSummariesByShopId(any(UUID.class), any(Pageable.class));
+    }
 
     @Test
     void checkOrder_ShoudOkChecked() {
@@ -1011,6 +1408,19 @@ public class OrderServiceTest {
 
         verify(bookRepository, times(1)).findById(any(Long.class));
         verify(bookRepository, times(0)).save(any(Book.class));
+        verifyNoInteractions(shopStockService);
+    }
+
+    @Test
+    void reserveStockOrder_WithMissingSecondBook_ShouldNotReserveAnything() {
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(BookNotFoundException.class, () -> orderService.reserveStockOrder(order));
+
+        assertEquals(10, book.getStock());
+        verify(bookRepository, times(0)).save(any(Book.class));
+        verifyNoInteractions(shopStockService);
     }
 
     @Test
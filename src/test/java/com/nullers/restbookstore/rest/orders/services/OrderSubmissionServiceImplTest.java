@@ -0,0 +1,111 @@
+package com.nullers.restbookstore.rest.orders.services;
+
+import com.nullers.restbookstore.rest.orders.dto.OrderCreateDto;
+import com.nullers.restbookstore.rest.orders.dto.OrderTicket;
+import com.nullers.restbookstore.rest.orders.exceptions.OrderNotStockException;
+import com.nullers.restbookstore.rest.orders.exceptions.OrderQueueFullException;
+import com.nullers.restbookstore.rest.orders.exceptions.OrderTicketNotFoundException;
+import com.nullers.restbookstore.rest.orders.models.Order;
+import com.nullers.restbookstore.rest.orders.models.OrderTicketStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSubmissionServiceImplTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private OrderSubmissionServiceImpl submissionService;
+
+    private final OrderCreateDto orderCreateDto = OrderCreateDto.builder().build();
+
+    @AfterEach
+    void tearDown() {
+        if (submissionService != null) {
+            submissionService.shutdown();
+        }
+    }
+
+    @Test
+    void submit_ShouldCompleteTicket() throws InterruptedException {
+        submissionService = new OrderSubmissionServiceImpl(orderService, 1, 10, 1, 30);
+        Order order = Order.builder().build();
+        when(orderService.createOrder(any(OrderCreateDto.class))).thenReturn(order);
+
+        OrderTicket ticket = submissionService.submit(orderCreateDto);
+
+        OrderTicket result = waitUntilFinished(ticket.getId());
+        assertAll(
+                () -> assertEquals(OrderTicketStatus.COMPLETED, result.getStatus()),
+                () -> assertEquals(order.getIdStr(), result.getOrderId()),
+                () -> assertNull(result.getError())
+        );
+    }
+
+    @Test
+    void submit_ShouldFailTicket_WhenOrderIsNotValid() throws InterruptedException {
+        submissionService = new OrderSubmissionServiceImpl(orderService, 1, 10, 1, 30);
+        when(orderService.createOrder(any(OrderCreateDto.class))).thenThrow(new OrderNotStockException(1L));
+
+        OrderTicket ticket = submissionService.submit(orderCreateDto);
+
+        OrderTicket result = waitUntilFinished(ticket.getId());
+        assertAll(
+                () -> assertEquals(OrderTicketStatus.FAILED, result.getStatus()),
+                () -> assertEquals(404, result.getErrorStatus()),
+                () -> assertEquals("El producto con id 1 no tiene stock", result.getError())
+        );
+    }
+
+    @Test
+    void submit_ShouldThrowQueueFull_WhenQueueIsFull() throws InterruptedException {
+        submissionService = new OrderSubmissionServiceImpl(orderService, 1, 1, 5, 30);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.createOrder(any(OrderCreateDto.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Order.builder().build();
+        });
+
+        submissionService.submit(orderCreateDto);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        submissionService.submit(orderCreateDto);
+
+        var res = assertThrows(OrderQueueFullException.class, () -> submissionService.submit(orderCreateDto));
+        release.countDown();
+
+        assertEquals(5, res.getRetryAfterSeconds());
+    }
+
+    @Test
+    void getTicket_ShouldThrowNotFound() {
+        submissionService = new OrderSubmissionServiceImpl(orderService, 1, 1, 1, 30);
+        UUID id = UUID.randomUUID();
+
+        assertThrows(OrderTicketNotFoundException.class, () -> submissionService.getTicket(id));
+    }
+
+    private OrderTicket waitUntilFinished(UUID id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            OrderTicket ticket = submissionService.getTicket(id);
+            if (ticket.getStatus() == OrderTicketStatus.COMPLETED || ticket.getStatus() == OrderTicketStatus.FAILED) {
+                return ticket;
+            }
+            Thread.sleep(20);
+        }
+        return fail("El ticket no ha terminado");
+    }
+}
@@ -10,6 +10,7 @@ import com.nullers.restbookstore.rest.category.model.Category;
 import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
 import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.common.Address;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import com.nullers.restbookstore.rest.publisher.model.Publisher;
 import com.nullers.restbookstore.rest.shop.dto.CreateShopDto;
 import com.nullers.restbookstore.rest.shop.dto.GetShopDto;
@@ -35,7 +36,6 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -111,8 +111,6 @@ class ShopControllerImplTest {
     Shop shop = Shop.builder()
             .id(UUID.fromString("b5f29063-77d8-4d5d-98ea-def0cc9ebc5f"))
             .name("name")
-            .books(Set.of(book))
-            .clients(Set.of(clientTest))
             .location(address)
             .build();
 
@@ -126,8 +124,8 @@ class ShopControllerImplTest {
     GetShopDto getShopDto = GetShopDto.builder()
             .id(shop.getId())
             .name(shop.getName())
-            .booksId(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()))
-            .clientsId(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()))
+            .bookCount(1)
+            .clientCount(1)
             .location(shop.getLocation())
             .build();
     String endpoint = "/api/shops";
@@ -150,7 +148,7 @@ class ShopControllerImplTest {
                 () -> assertEquals("Access Denied", response.getErrorMessage())
         );
 
-        verify(service, times(0)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class));
+        verify(service, times(0)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class));
     }
 
     @Test
@@ -167,7 +165,7 @@ class ShopControllerImplTest {
                 () -> assertEquals("Access Denied", response.getErrorMessage())
         );
 
-        verify(service, times(0)).getShopById(any(UUID.class));
+        verify(service, times(0)).getShopById(any(UUID.class), any(FieldSelection.class));
     }
 
     @Test
@@ -292,12 +290,12 @@ class ShopControllerImplTest {
 
     @Test
     void getAllShops_ShouldReturnShops() throws Exception {
-        when(service.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(
+        when(service.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class))).thenReturn(new PageImpl<>(List.of(
                 GetShopDto.builder()
                         .id(shop.getId())
                         .name(shop.getName())
-                        .booksId(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()))
-                        .clientsId(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()))
+                        .bookCount(1)
+                        .clientCount(1)
                         .location(shop.getLocation())
                         .build()
         )));
@@ -318,17 +316,17 @@ class ShopControllerImplTest {
                 () -> assertEquals(1, pageResponse.content().size()),
                 () -> assertEquals(shop.getId(), pageResponse.content().get(0).getId()),
                 () -> assertEquals(shop.getName(), pageResponse.content().get(0).getName()),
-                () -> assertTrue(pageResponse.content().get(0).getBooksId().contains(book.getId())),
-                () -> assertTrue(pageResponse.content().get(0).getClientsId().contains(clientTest.getId())),
+                () -> assertEquals(1, pageResponse.content().get(0).getBookCount()),
+                () -> assertEquals(1, pageResponse.content().get(0).getClientCount()),
                 () -> assertEquals(shop.getLocation(), pageResponse.content().get(0).getLocation())
         );
 
-        verify(service, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class));
+        verify(service, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class));
     }
 
     @Test
     void getAllShops_ShouldReturnEmptyList() throws Exception {
-        when(service.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of()));
+        when(service.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class))).thenReturn(new PageImpl<>(List.of()));
 
         MockHttpServletResponse response = mockMvc.perform(
                 get(endpoint)
@@ -345,17 +343,17 @@ class ShopControllerImplTest {
                 () -> assertEquals(0, pageResponse.content().size())
         );
 
-        verify(service, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class));
+        verify(service, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class));
     }
 
     @Test
     void getAllShops_ShouldReturnShopWithFiltererName() throws Exception {
-        when(service.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(
+        when(service.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class))).thenReturn(new PageImpl<>(List.of(
                 GetShopDto.builder()
                         .id(shop.getId())
                         .name(shop.getName())
-                        .booksId(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()))
-                        .clientsId(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()))
+                        .bookCount(1)
+                        .clientCount(1)
                         .location(shop.getLocation())
                         .build()
         )));
@@ -376,12 +374,12 @@ class ShopControllerImplTest {
                 () -> assertEquals(1, pageResponse.content().size()),
                 () -> assertEquals(shop.getId(), pageResponse.content().get(0).getId()),
                 () -> assertEquals(shop.getName(), pageResponse.content().get(0).getName()),
-                () -> assertTrue(pageResponse.content().get(0).getBooksId().contains(book.getId())),
-                () -> assertTrue(pageResponse.content().get(0).getClientsId().contains(clientTest.getId())),
+                () -> assertEquals(1, pageResponse.content().get(0).getBookCount()),
+                () -> assertEquals(1, pageResponse.content().get(0).getClientCount()),
                 () -> assertEquals(shop.getLocation(), pageResponse.content().get(0).getLocation())
         );
 
-        verify(service, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class));
+        verify(service, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class));
     }
 
     @Test
@@ -403,7 +401,7 @@ class ShopControllerImplTest {
                 () -> assertEquals("La página no puede ser inferior a 0", errors.get("page"))
         );
 
-        verify(service, times(0)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class));
+        verify(service, times(0)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class));
     }
 
     @Test
@@ -424,12 +422,12 @@ class ShopControllerImplTest {
                 () -> assertEquals("El tamaño de la página no puede ser inferior a 1", errors.get("size"))
         );
 
-        verify(service, times(0)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class));
+        verify(service, times(0)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class));
     }
 
     @Test
     void getShopById_ShouldReturnShop() throws Exception {
-        when(service.getShopById(any(UUID.class))).thenReturn(getShopDto);
+        when(service.getShopById(any(UUID.class), any(FieldSelection.class))).thenReturn(getShopDto);
 
         MockHttpServletResponse response = mockMvc.perform(
                 get(endpoint + "/{id}", shop.getId())
@@ -443,17 +441,17 @@ class ShopControllerImplTest {
                 () -> assertEquals(200, response.getStatus()),
                 () -> assertEquals(shop.getId(), shopResponse.getId()),
                 () -> assertEquals(shop.getName(), shopResponse.getName()),
-                () -> assertEquals(getShopDto.getBooksId(), shopResponse.getBooksId()),
-                () -> assertEquals(getShopDto.getClientsId(), shopResponse.getClientsId()),
+                () -> assertEquals(getShopDto.getBookCount(), shopResponse.getBookCount()),
+                () -> assertEquals(getShopDto.getClientCount(), shopResponse.getClientCount()),
                 () -> assertEquals(shop.getLocation(), shopResponse.getLocation())
         );
 
-        verify(service, times(1)).getShopById(any(UUID.class));
+        verify(service, times(1)).getShopById(any(UUID.class), any(FieldSelection.class));
     }
 
     @Test
     void getShopById_ShouldReturnShopNotFound() throws Exception {
-        when(service.getShopById(any(UUID.class))).thenThrow(new ShopNotFoundException("Tienda no encontrada con ID: " + shop.getId()));
+        when(service.getShopById(any(UUID.class), any(FieldSelection.class))).thenThrow(new ShopNotFoundException("Tienda no encontrada con ID: " + shop.getId()));
 
         MockHttpServletResponse response = mockMvc.perform(
                 get(endpoint + "/{id}", shop.getId())
@@ -468,7 +466,7 @@ class ShopControllerImplTest {
                 () -> assertEquals("Tienda no encontrada - " + "Tienda no encontrada con ID: " + shop.getId(), errorResponse.error())
         );
 
-        verify(service, times(1)).getShopById(any(UUID.class));
+        verify(service, times(1)).getShopById(any(UUID.class), any(FieldSelection.class));
     }
 
     @Test
@@ -488,8 +486,8 @@ class ShopControllerImplTest {
                 () -> assertEquals(201, response.getStatus()),
                 () -> assertEquals(shop.getId(), shopResponse.getId()),
                 () -> assertEquals(shop.getName(), shopResponse.getName()),
-                () -> assertEquals(getShopDto.getBooksId(), shopResponse.getBooksId()),
-                () -> assertEquals(getShopDto.getClientsId(), shopResponse.getClientsId()),
+                () -> assertEquals(getShopDto.getBookCount(), shopResponse.getBookCount()),
+                () -> assertEquals(getShopDto.getClientCount(), shopResponse.getClientCount()),
                 () -> assertEquals(shop.getLocation(), shopResponse.getLocation())
         );
 
@@ -633,8 +631,8 @@ class ShopControllerImplTest {
                 () -> assertEquals(200, response.getStatus()),
                 () -> assertEquals(shop.getId(), shopResponse.getId()),
                 () -> assertEquals(shop.getName(), shopResponse.getName()),
-                () -> assertEquals(getShopDto.getBooksId(), shopResponse.getBooksId()),
-                () -> assertEquals(getShopDto.getClientsId(), shopResponse.getClientsId()),
+                () -> assertEquals(getShopDto.getBookCount(), shopResponse.getBookCount()),
+                () -> assertEquals(getShopDto.getClientCount(), shopResponse.getClientCount()),
                 () -> assertEquals(shop.getLocation(), shopResponse.getLocation())
         );
 
@@ -852,8 +850,8 @@ class ShopControllerImplTest {
                 () -> assertEquals(200, response.getStatus()),
                 () -> assertEquals(shop.getId(), shopResponse.getId()),
                 () -> assertEquals(shop.getName(), shopResponse.getName()),
-                () -> assertEquals(getShopDto.getBooksId(), shopResponse.getBooksId()),
-                () -> assertEquals(getShopDto.getClientsId(), shopResponse.getClientsId()),
+                () -> assertEquals(getShopDto.getBookCount(), shopResponse.getBookCount()),
+                () -> assertEquals(getShopDto.getClientCount(), shopResponse.getClientCount()),
                 () -> assertEquals(shop.getLocation(), shopResponse.getLocation())
         );
 
@@ -916,8 +914,8 @@ class ShopControllerImplTest {
                 () -> assertEquals(200, response.getStatus()),
                 () -> assertEquals(shop.getId(), shopResponse.getId()),
                 () -> assertEquals(shop.getName(), shopResponse.getName()),
-                () -> assertEquals(getShopDto.getBooksId(), shopResponse.getBooksId()),
-                () -> assertEquals(getShopDto.getClientsId(), shopResponse.getClientsId()),
+                () -> assertEquals(getShopDto.getBookCount(), shopResponse.getBookCount()),
+                () -> assertEquals(getShopDto.getClientCount(), shopResponse.getClientCount()),
                 () -> assertEquals(shop.getLocation(), shopResponse.getLocation())
         );
 
@@ -980,8 +978,8 @@ class ShopControllerImplTest {
                 () -> assertEquals(200, response.getStatus()),
                 () -> assertEquals(shop.getId(), shopResponse.getId()),
                 () -> assertEquals(shop.getName(), shopResponse.getName()),
-                () -> assertEquals(getShopDto.getBooksId(), shopResponse.getBooksId()),
-                () -> assertEquals(getShopDto.getClientsId(), shopResponse.getClientsId()),
+                () -> assertEquals(getShopDto.getBookCount(), shopResponse.getBookCount()),
+                () -> assertEquals(getShopDto.getClientCount(), shopResponse.getClientCount()),
                 () -> assertEquals(shop.getLocation(), shopResponse.getLocation())
         );
 
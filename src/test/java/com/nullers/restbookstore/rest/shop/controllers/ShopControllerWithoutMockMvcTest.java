@@ -8,6 +8,7 @@ import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
 import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.common.Address;
 import com.nullers.restbookstore.rest.common.PageableRequest;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
 import com.nullers.restbookstore.rest.publisher.model.Publisher;
 import com.nullers.restbookstore.rest.shop.dto.CreateShopDto;
 import com.nullers.restbookstore.rest.shop.dto.GetShopDto;
@@ -29,7 +30,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -96,8 +96,6 @@ class ShopControllerWithoutMockMvcTest {
     Shop shop = Shop.builder()
             .id(UUID.fromString("b5f29063-77d8-4d5d-98ea-def0cc9ebc5f"))
             .name("name")
-            .books(Set.of(book))
-            .clients(Set.of(clientTest))
             .location(address)
             .build();
 
@@ -111,8 +109,8 @@ class ShopControllerWithoutMockMvcTest {
     GetShopDto getShopDto = GetShopDto.builder()
             .id(shop.getId())
             .name(shop.getName())
-            .booksId(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()))
-            .clientsId(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()))
+            .bookCount(1)
+            .clientCount(1)
             .location(shop.getLocation())
             .build();
 
@@ -127,87 +125,87 @@ class ShopControllerWithoutMockMvcTest {
 
     @Test
     void getAllShops_ShouldReturnShops() {
-        when(shopService.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(getShopDto)));
+        when(shopService.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class))).thenReturn(new PageImpl<>(List.of(getShopDto)));
 
-        var res = shopRestController.getAllShops(Optional.empty(), Optional.empty(), new PageableRequest(0, 10, "id", "ASC"), requestMock);
+        var res = shopRestController.getAllShops(Optional.empty(), Optional.empty(), new PageableRequest(0, 10, "id", "ASC"), requestMock, FieldSelection.ALL);
 
         assertAll(
                 () -> assertEquals(1, res.getBody().content().size()),
                 () -> assertEquals(200, res.getStatusCodeValue()),
                 () -> assertEquals(shop.getId(), res.getBody().content().get(0).getId()),
                 () -> assertEquals(shop.getName(), res.getBody().content().get(0).getName()),
-                () -> assertEquals(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()), res.getBody().content().get(0).getBooksId()),
-                () -> assertEquals(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()), res.getBody().content().get(0).getClientsId()),
+                () -> assertEquals(1, res.getBody().content().get(0).getBookCount()),
+                () -> assertEquals(1, res.getBody().content().get(0).getClientCount()),
                 () -> assertEquals(shop.getLocation(), res.getBody().content().get(0).getLocation())
         );
 
 
-        verify(shopService, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class));
+        verify(shopService, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class));
     }
 
     @Test
     void getAllShops_ShouldReturnEmptyList() {
-        when(shopService.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of()));
+        when(shopService.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class))).thenReturn(new PageImpl<>(List.of()));
 
-        var res = shopRestController.getAllShops(Optional.empty(), Optional.empty(), new PageableRequest(0, 10, "id", "ASC"), requestMock);
+        var res = shopRestController.getAllShops(Optional.empty(), Optional.empty(), new PageableRequest(0, 10, "id", "ASC"), requestMock, FieldSelection.ALL);
 
         assertAll(
                 () -> assertEquals(0, res.getBody().content().size()),
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
 
-        verify(shopService, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class));
+        verify(shopService, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class));
     }
 
     @Test
     void getAllShops_ShouldReturnShopsFilteredByName() {
-        when(shopService.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(getShopDto)));
+        when(shopService.getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class))).thenReturn(new PageImpl<>(List.of(getShopDto)));
 
-        var res = shopRestController.getAllShops(Optional.of("name"), Optional.empty(), new PageableRequest(0, 10, "id", "ASC"), requestMock);
+        var res = shopRestController.getAllShops(Optional.of("name"), Optional.empty(), new PageableRequest(0, 10, "id", "ASC"), requestMock, FieldSelection.ALL);
 
         assertAll(
                 () -> assertEquals(1, res.getBody().content().size()),
                 () -> assertEquals(200, res.getStatusCodeValue()),
                 () -> assertEquals(shop.getId(), res.getBody().content().get(0).getId()),
                 () -> assertEquals(shop.getName(), res.getBody().content().get(0).getName()),
-                () -> assertEquals(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()), res.getBody().content().get(0).getBooksId()),
-                () -> assertEquals(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()), res.getBody().content().get(0).getClientsId()),
+                () -> assertEquals(1, res.getBody().content().get(0).getBookCount()),
+                () -> assertEquals(1, res.getBody().content().get(0).getClientCount()),
                 () -> assertEquals(shop.getLocation(), res.getBody().content().get(0).getLocation())
         );
 
-        verify(shopService, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class));
+        verify(shopService, times(1)).getAllShops(any(Optional.class), any(Optional.class), any(PageRequest.class), any(FieldSelection.class));
     }
 
     @Test
     void getShopById_ShouldReturnShop() throws ShopNotFoundException {
-        when(shopService.getShopById(any(UUID.class))).thenReturn(getShopDto);
+        when(shopService.getShopById(any(UUID.class), any(FieldSelection.class))).thenReturn(getShopDto);
 
-        var res = shopRestController.getShopById(UUID.randomUUID());
+        var res = shopRestController.getShopById(UUID.randomUUID(), FieldSelection.ALL);
 
         assertAll(
                 () -> assertEquals(shop.getId(), res.getBody().getId()),
                 () -> assertEquals(shop.getName(), res.getBody().getName()),
-                () -> assertEquals(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()), res.getBody().getBooksId()),
-                () -> assertEquals(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()), res.getBody().getClientsId()),
+                () -> assertEquals(1, res.getBody().getBookCount()),
+                () -> assertEquals(1, res.getBody().getClientCount()),
                 () -> assertEquals(shop.getLocation(), res.getBody().getLocation()),
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
 
-        verify(shopService, times(1)).getShopById(any(UUID.class));
+        verify(shopService, times(1)).getShopById(any(UUID.class), any(FieldSelection.class));
     }
 
     @Test
     void getShopById_ShouldThrowShopNotFoundException() {
-        when(shopService.getShopById(any(UUID.class))).thenThrow(new ShopNotFoundException("Tienda no encontrada con ID: " + shop.getId()));
+        when(shopService.getShopById(any(UUID.class), any(FieldSelection.class))).thenThrow(new ShopNotFoundException("Tienda no encontrada con ID: " + shop.getId()));
 
-        var res = assertThrows(ShopNotFoundException.class, () -> shopRestController.getShopById(UUID.randomUUID()));
+        var res = assertThrows(ShopNotFoundException.class, () -> shopRestController.getShopById(UUID.randomUUID(), FieldSelection.ALL));
 
 
         assertAll(
                 () -> assertEquals("Tienda no encontrada - Tienda no encontrada con ID: " + shop.getId(), res.getMessage())
         );
 
-        verify(shopService, times(1)).getShopById(any(UUID.class));
+        verify(shopService, times(1)).getShopById(any(UUID.class), any(FieldSelection.class));
     }
 
 
@@ -217,8 +215,8 @@ class ShopControllerWithoutMockMvcTest {
                 GetShopDto.builder()
                         .id(shop.getId())
                         .name(shop.getName())
-                        .booksId(Set.of())
-                        .clientsId(Set.of())
+                        .bookCount(0)
+                        .clientCount(0)
                         .location(shop.getLocation())
                         .build()
         );
@@ -232,8 +230,8 @@ class ShopControllerWithoutMockMvcTest {
         assertAll(
                 () -> assertEquals(shop.getId(), res.getBody().getId()),
                 () -> assertEquals(shop.getName(), res.getBody().getName()),
-                () -> assertTrue(res.getBody().getClientsId().isEmpty()),
-                () -> assertTrue(res.getBody().getBooksId().isEmpty()),
+                () -> assertEquals(0, res.getBody().getClientCount()),
+                () -> assertEquals(0, res.getBody().getBookCount()),
                 () -> assertEquals(shop.getLocation(), res.getBody().getLocation()),
                 () -> assertEquals(201, res.getStatusCodeValue())
         );
@@ -250,8 +248,8 @@ class ShopControllerWithoutMockMvcTest {
         assertAll(
                 () -> assertEquals(shop.getId(), res.getBody().getId()),
                 () -> assertEquals(shop.getName(), res.getBody().getName()),
-                () -> assertEquals(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()), res.getBody().getBooksId()),
-                () -> assertEquals(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()), res.getBody().getClientsId()),
+                () -> assertEquals(1, res.getBody().getBookCount()),
+                () -> assertEquals(1, res.getBody().getClientCount()),
                 () -> assertEquals(shop.getLocation(), res.getBody().getLocation()),
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
@@ -305,8 +303,8 @@ class ShopControllerWithoutMockMvcTest {
         assertAll(
                 () -> assertEquals(shop.getId(), res.getBody().getId()),
                 () -> assertEquals(shop.getName(), res.getBody().getName()),
-                () -> assertEquals(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()), res.getBody().getBooksId()),
-                () -> assertEquals(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()), res.getBody().getClientsId()),
+                () -> assertEquals(1, res.getBody().getBookCount()),
+                () -> assertEquals(1, res.getBody().getClientCount()),
                 () -> assertEquals(shop.getLocation(), res.getBody().getLocation()),
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
@@ -349,8 +347,8 @@ class ShopControllerWithoutMockMvcTest {
         assertAll(
                 () -> assertEquals(shop.getId(), res.getBody().getId()),
                 () -> assertEquals(shop.getName(), res.getBody().getName()),
-                () -> assertEquals(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()), res.getBody().getBooksId()),
-                () -> assertEquals(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()), res.getBody().getClientsId()),
+                () -> assertEquals(1, res.getBody().getBookCount()),
+                () -> assertEquals(1, res.getBody().getClientCount()),
                 () -> assertEquals(shop.getLocation(), res.getBody().getLocation()),
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
@@ -393,8 +391,8 @@ class ShopControllerWithoutMockMvcTest {
         assertAll(
                 () -> assertEquals(shop.getId(), res.getBody().getId()),
                 () -> assertEquals(shop.getName(), res.getBody().getName()),
-                () -> assertEquals(shop.getBooks().stream().map(Book::getId).collect(Collectors.toSet()), res.getBody().getBooksId()),
-                () -> assertEquals(shop.getClients().stream().map(Client::getId).collect(Collectors.toSet()), res.getBody().getClientsId()),
+                () -> assertEquals(1, res.getBody().getBookCount()),
+                () -> assertEquals(1, res.getBody().getClientCount()),
                 () -> assertEquals(shop.getLocation(), res.getBody().getLocation()),
                 () -> assertEquals(200, res.getStatusCodeValue())
         );
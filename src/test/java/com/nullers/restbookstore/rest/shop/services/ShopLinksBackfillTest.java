@@ -0,0 +1,96 @@
+package com.nullers.restbookstore.rest.shop.services;
+
+import com.nullers.restbookstore.rest.shop.model.ShopBook;
+import com.nullers.restbookstore.rest.shop.model.ShopClient;
+import com.nullers.restbookstore.rest.shop.repository.ShopBookRepository;
+import com.nullers.restbookstore.rest.shop.repository.ShopClientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShopLinksBackfillTest {
+
+    private final UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+    private final UUID clientId = UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ShopBookRepository shopBookRepository;
+
+    @Mock
+    private ShopClientRepository shopClientRepository;
+
+    private ShopLinksBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new ShopLinksBackfill(jdbcTemplate, shopBookRepository, shopClientRepository, true);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backfill_ShouldCopyMissingLinksAndClearLegacyColumns() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(true);
+        when(jdbcTemplate.query(eq(ShopLinksBackfill.SELECT_LEGACY_BOOKS), any(RowMapper.class))).thenReturn(List.of(
+                new ShopLinksBackfill.LegacyLink<>(shopId, 1L),
+                new ShopLinksBackfill.LegacyLink<>(shopId, 2L)));
+        when(jdbcTemplate.query(eq(ShopLinksBackfill.SELECT_LEGACY_CLIENTS), any(RowMapper.class))).thenReturn(List.of(
+                new ShopLinksBackfill.LegacyLink<>(shopId, clientId)));
+        when(shopBookRepository.existsByShopIdAndBookId(shopId, 1L)).thenReturn(true);
+        when(shopBookRepository.existsByShopIdAndBookId(shopId, 2L)).thenReturn(false);
+        when(shopClientRepository.existsByShopIdAndClientId(shopId, clientId)).thenReturn(false);
+
+        backfill.backfill();
+
+        ArgumentCaptor<List<ShopBook>> books = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<ShopClient>> clients = ArgumentCaptor.forClass(List.class);
+        verify(shopBookRepository, times(1)).saveAll(books.capture());
+        verify(shopClientRepository, times(1)).saveAll(clients.capture());
+        assertAll(
+                () -> assertEquals(1, books.getValue().size()),
+                () -> assertEquals(2L, books.getValue().get(0).getBookId()),
+                () -> assertEquals(0, books.getValue().get(0).getStock()),
+                () -> assertEquals(1, clients.getValue().size()),
+                () -> assertEquals(clientId, clients.getValue().get(0).getClientId())
+        );
+        verify(jdbcTemplate, times(1)).update(ShopLinksBackfill.CLEAR_LEGACY_BOOKS);
+        verify(jdbcTemplate, times(1)).update(ShopLinksBackfill.CLEAR_LEGACY_CLIENTS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backfill_ShouldDoNothingWhenLegacyColumnsAreGone() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(false);
+
+        backfill.backfill();
+
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class));
+        verify(jdbcTemplate, never()).update(anyString());
+        verifyNoInteractions(shopBookRepository, shopClientRepository);
+    }
+
+    @Test
+    void backfill_ShouldDoNothingWhenDisabled() {
+        new ShopLinksBackfill(jdbcTemplate, shopBookRepository, shopClientRepository, false).backfill();
+
+        verifyNoInteractions(jdbcTemplate, shopBookRepository, shopClientRepository);
+    }
+}
@@ -8,18 +8,32 @@ import com.nullers.restbookstore.rest.client.exceptions.ClientNotFound;
 import com.nullers.restbookstore.rest.client.model.Client;
 import com.nullers.restbookstore.rest.client.repository.ClientRepository;
 import com.nullers.restbookstore.rest.common.Address;
+import com.nullers.restbookstore.rest.common.fields.FieldSelection;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
+import com.nullers.restbookstore.rest.common.references.ReferenceType;
 import com.nullers.restbookstore.rest.orders.models.Order;
 import com.nullers.restbookstore.rest.orders.models.OrderLine;
-import com.nullers.restbookstore.rest.orders.repositories.OrderRepository;
 import com.nullers.restbookstore.rest.publisher.model.Publisher;
 import com.nullers.restbookstore.rest.shop.dto.CreateShopDto;
 import com.nullers.restbookstore.rest.shop.dto.GetShopDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopBookDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopDistanceDto;
+import com.nullers.restbookstore.rest.shop.dto.ShopStockDto;
 import com.nullers.restbookstore.rest.shop.dto.UpdateShopDto;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopHasOrders;
+import com.nullers.restbookstore.rest.shop.exceptions.ShopLocationException;
 import com.nullers.restbookstore.rest.shop.exceptions.ShopNotFoundException;
 import com.nullers.restbookstore.rest.shop.mappers.ShopMapperImpl;
 import com.nullers.restbookstore.rest.shop.model.Shop;
+import com.nullers.restbookstore.rest.shop.model.ShopBook;
+import com.nullers.restbookstore.rest.shop.model.ShopClient;
+import com.nullers.restbookstore.rest.shop.repository.ShopBookRepository;
+import com.nullers.restbookstore.rest.shop.repository.ShopClientRepository;
 import com.nullers.restbookstore.rest.shop.repository.ShopRepository;
+import com.nullers.restbookstore.rest.shop.services.geo.GeoPoint;
+import com.nullers.restbookstore.rest.shop.services.geo.PostalCodeCentroids;
+import com.nullers.restbookstore.rest.shop.services.geo.ShopGeoIndex;
+import com.nullers.restbookstore.rest.shop.services.stock.ShopStockIndex;
 import com.nullers.restbookstore.rest.user.models.User;
 import com.nullers.restbookstore.rest.user.models.Role;
 import org.bson.types.ObjectId;
@@ -58,7 +72,22 @@ public class ShopServiceTest {
     private ClientRepository clientRepository;
 
     @Mock
-    private OrderRepository orderRepository;
+    private ReferenceCountService referenceCountService;
+
+    @Mock
+    private ShopBookRepository shopBookRepository;
+
+    @Mock
+    private ShopClientRepository shopClientRepository;
+
+    @Mock
+    private ShopStockIndex shopStockIndex;
+
+    @Mock
+    private ShopGeoIndex shopGeoIndex;
+
+    @Mock
+    private PostalCodeCentroids postalCodeCentroids;
 
     @InjectMocks
     private ShopServiceImpl shopService;
@@ -99,8 +128,6 @@ public class ShopServiceTest {
                     .postalCode("28001")
                     .country("España")
                     .build())
-            .clients(Set.of())
-            .books(Set.of())
             .build();
 
     GetShopDto getShopDto;
@@ -199,8 +226,8 @@ public class ShopServiceTest {
                         .postalCode("28001")
                         .country("España")
                         .build())
-                .clientsId(Set.of())
-                .booksId(Set.of())
+                .clientCount(0)
+                .bookCount(0)
                 .build();
     }
 
@@ -269,6 +296,19 @@ public class ShopServiceTest {
         verify(shopMapper, times(1)).toGetShopDto(any(Shop.class));
     }
 
+    @Test
+    void getShopById_ShouldSkipCountersNotSelected() {
+        when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.of(shop));
+        when(shopMapper.toGetShopDto(any(Shop.class))).thenReturn(getShopDto);
+        when(shopBookRepository.countByShopId(shop.getId())).thenReturn(3L);
+
+        var result = shopService.getShopById(shop.getId(), FieldSelection.parse(GetShopDto.class, "name", "bookCount"));
+
+        assertEquals(3L, result.getBookCount());
+        verify(shopClientRepository, never()).countByShopId(any(UUID.class));
+        verify(referenceCountService, never()).count(any(ReferenceType.class), any());
+    }
+
     @Test
     void getShopById_ShouldShopNotFoundException() {
         when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
@@ -299,6 +339,59 @@ public class ShopServiceTest {
         verify(shopRepository, times(1)).save(any(Shop.class));
         verify(shopMapper, times(1)).toGetShopDto(any(Shop.class));
         verify(shopMapper, times(1)).toGetShopDto(any(Shop.class));
+        verify(shopGeoIndex, times(1)).put(shop);
+    }
+
+    @Test
+    void createShop_ShouldResolveCoordinatesFromPostalCode() {
+        when(shopMapper.toShop(any(CreateShopDto.class))).thenReturn(shop);
+        when(postalCodeCentroids.resolve("28001")).thenReturn(Optional.of(new GeoPoint(40.4168, -3.7038)));
+        when(shopRepository.save(any(Shop.class))).thenReturn(shop);
+        when(shopMapper.toGetShopDto(any(Shop.class))).thenReturn(getShopDto);
+
+        shopService.createShop(createShopDto);
+
+        assertAll(
+                () -> assertEquals(40.4168, shop.getLatitude()),
+                () -> assertEquals(-3.7038, shop.getLongitude())
+        );
+    }
+
+    @Test
+    void getNearbyShops_ShouldUseIndex() {
+        ShopDistanceDto near = ShopDistanceDto.builder().id(shop.getId()).distanceKm(1.5).build();
+        when(shopGeoIndex.nearest(new GeoPoint(40.4, -3.7), 5)).thenReturn(Optional.of(List.of(near)));
+
+        var result = shopService.getNearbyShops(40.4, -3.7, null, null, 5);
+
+        assertEquals(List.of(near), result);
+        verify(shopRepository, never()).findByLatitudeIsNotNullAndLongitudeIsNotNull();
+    }
+
+    @Test
+    void getNearbyShops_ShouldFilterByRadius_WhenIndexNotReady() {
+        Shop far = Shop.builder().id(UUID.randomUUID()).name("Lejos").latitude(41.3874).longitude(2.1686).build();
+        shop.setLatitude(40.42);
+        shop.setLongitude(-3.70);
+        when(postalCodeCentroids.resolve("28001")).thenReturn(Optional.of(new GeoPoint(40.4168, -3.7038)));
+        when(shopGeoIndex.within(any(GeoPoint.class), eq(10.0), eq(10))).thenReturn(Optional.empty());
+        when(shopRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull()).thenReturn(List.of(far, shop));
+
+        var result = shopService.getNearbyShops(null, null, "28001", 10.0, 10);
+
+        assertAll(
+                () -> assertEquals(1, result.size()),
+                () -> assertEquals(shop.getId(), result.get(0).getId()),
+                () -> assertTrue(result.get(0).getDistanceKm() < 1)
+        );
+    }
+
+    @Test
+    void getNearbyShops_ShouldShopLocationException_WhenPostalCodeUnknown() {
+        when(postalCodeCentroids.resolve("99999")).thenReturn(Optional.empty());
+
+        assertThrows(ShopLocationException.class, () -> shopService.getNearbyShops(null, null, "99999", null, 10));
+        verifyNoInteractions(shopGeoIndex);
     }
 
     @Test
@@ -338,12 +431,15 @@ public class ShopServiceTest {
     @Test
     void deleteShop_ShouldDeleteShop() {
         when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.of(shop));
-        when(orderRepository.findByShopId(any(UUID.class), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of()));
+        when(referenceCountService.hasReferences(eq(ReferenceType.SHOP_ORDERS), any(UUID.class))).thenReturn(false);
 
         shopService.deleteShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"));
 
         verify(shopRepository, times(1)).findById(any(UUID.class));
-        verify(orderRepository, times(1)).findByShopId(any(UUID.class), any(PageRequest.class));
+        verify(referenceCountService, times(1)).hasReferences(eq(ReferenceType.SHOP_ORDERS), any(UUID.class));
+        verify(shopBookRepository, times(1)).deleteByShopId(any(UUID.class));
+        verify(shopClientRepository, times(1)).deleteByShopId(any(UUID.class));
+        verify(shopStockIndex, times(1)).removeShop(any(UUID.class));
         verify(shopRepository, times(1)).delete(any(Shop.class));
     }
 
@@ -363,7 +459,7 @@ public class ShopServiceTest {
     @Test
     void deleteShop_ShouldReturnShopHasOrdersException() {
         when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.of(shop));
-        when(orderRepository.findByShopId(any(UUID.class), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(order)));
+        when(referenceCountService.hasReferences(eq(ReferenceType.SHOP_ORDERS), any(UUID.class))).thenReturn(true);
 
         var res = assertThrows(ShopHasOrders.class, () -> shopService.deleteShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000")));
 
@@ -372,61 +468,49 @@ public class ShopServiceTest {
         );
 
         verify(shopRepository, times(1)).findById(any(UUID.class));
-        verify(orderRepository, times(1)).findByShopId(any(UUID.class), any(PageRequest.class));
+        verify(referenceCountService, times(1)).hasReferences(eq(ReferenceType.SHOP_ORDERS), any(UUID.class));
     }
 
     @Test
     void addBookToShop_ShouldReturnShop() {
-        when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.of(shop));
-        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.of(book));
-        when(shopRepository.save(any(Shop.class))).thenReturn(Shop.builder()
-                .id(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"))
-                .name("Tienda 1")
-                .location(Address.builder()
-                        .province("Madrid")
-                        .city("Madrid")
-                        .street("Calle 1")
-                        .number("1")
-                        .postalCode("28001")
-                        .country("España")
-                        .build())
-                .clients(Set.of())
-                .books(Set.of(book))
-                .build());
-        when(shopMapper.toGetShopDto(any(Shop.class))).thenReturn(GetShopDto.builder()
-                .id(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"))
-                .name("Tienda 1")
-                .location(Address.builder()
-                        .province("Madrid")
-                        .city("Madrid")
-                        .street("Calle 1")
-                        .number("1")
-                        .postalCode("28001")
-                        .country("España")
-                        .build())
-                .clientsId(Set.of())
-                .booksId(Set.of(book.getId()))
-                .build());
+        UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(shopRepository.findById(shopId)).thenReturn(Optional.of(shop));
+        when(shopBookRepository.existsByShopIdAndBookId(shopId, 1L)).thenReturn(false);
+        when(shopMapper.toGetShopDto(any(Shop.class))).thenReturn(getShopDto);
+        when(shopBookRepository.countByShopId(shopId)).thenReturn(1L);
 
-        var result = shopService.addBookToShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), 1L);
+        var result = shopService.addBookToShop(shopId, 1L);
 
         assertAll(
                 () -> assertEquals(shop.getId(), result.getId()),
                 () -> assertEquals(shop.getName(), result.getName()),
                 () -> assertEquals(shop.getLocation(), result.getLocation()),
-                () -> assertTrue(result.getBooksId().contains(1L))
+                () -> assertEquals(1, result.getBookCount())
         );
 
-        verify(shopRepository, times(1)).findById(any(UUID.class));
-        verify(bookRepository, times(1)).findById(any(Long.class));
-        verify(shopRepository, times(1)).save(any(Shop.class));
-        verify(shopMapper, times(1)).toGetShopDto(any(Shop.class));
+        verify(shopBookRepository, times(1)).save(any(ShopBook.class));
+        verify(shopStockIndex, times(1)).set(shopId, 1L, 0);
+        verify(shopRepository, never()).save(any(Shop.class));
+    }
+
+    @Test
+    void addBookToShop_ShouldNotDuplicateInventoryEntry() {
+        UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(shopRepository.findById(shopId)).thenReturn(Optional.of(shop));
+        when(shopBookRepository.existsByShopIdAndBookId(shopId, 1L)).thenReturn(true);
+        when(shopMapper.toGetShopDto(any(Shop.class))).thenReturn(getShopDto);
+
+        shopService.addBookToShop(shopId, 1L);
+
+        verify(shopBookRepository, never()).save(any(ShopBook.class));
     }
 
     @Test
     void addBookToShop_ShouldShopNotFoundException() {
+        when(bookRepository.existsById(1L)).thenReturn(true);
         when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
-        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.of(book));
 
         var res = assertThrows(ShopNotFoundException.class, () -> shopService.addBookToShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), 1L));
 
@@ -435,12 +519,11 @@ public class ShopServiceTest {
         );
 
         verify(shopRepository, times(1)).findById(any(UUID.class));
-        verify(shopRepository, times(1)).findById(any(UUID.class));
     }
 
     @Test
     void addBookToShop_ShouldBookNotFoundException() {
-        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.empty());
+        when(bookRepository.existsById(1L)).thenReturn(false);
 
         var res = assertThrows(BookNotFoundException.class, () -> shopService.addBookToShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), 1L));
 
@@ -448,36 +531,35 @@ public class ShopServiceTest {
                 () -> assertEquals("Libro no encontrado - 1", res.getMessage())
         );
 
-        verify(bookRepository, times(1)).findById(any(Long.class));
+        verify(bookRepository, times(1)).existsById(1L);
     }
 
 
     @Test
     void removeBookFromShop_ShouldReturnShop() {
-        when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.of(shop));
-        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.of(book));
-        when(shopRepository.save(any(Shop.class))).thenReturn(shop);
+        UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(shopRepository.findById(shopId)).thenReturn(Optional.of(shop));
         when(shopMapper.toGetShopDto(any(Shop.class))).thenReturn(getShopDto);
 
-        var result = shopService.removeBookFromShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), 1L);
+        var result = shopService.removeBookFromShop(shopId, 1L);
 
         assertAll(
                 () -> assertEquals(shop.getId(), result.getId()),
                 () -> assertEquals(shop.getName(), result.getName()),
                 () -> assertEquals(shop.getLocation(), result.getLocation()),
-                () -> assertTrue(result.getBooksId().isEmpty())
+                () -> assertEquals(0, result.getBookCount())
         );
 
-        verify(shopRepository, times(1)).findById(any(UUID.class));
-        verify(bookRepository, times(1)).findById(any(Long.class));
-        verify(shopRepository, times(1)).save(any(Shop.class));
-        verify(shopMapper, times(1)).toGetShopDto(any(Shop.class));
+        verify(shopBookRepository, times(1)).deleteByShopIdAndBookId(shopId, 1L);
+        verify(shopRepository, never()).save(any(Shop.class));
     }
 
     @Test
     void removeBookFromShop_ShouldShopNotFoundException() {
+        when(bookRepository.existsById(1L)).thenReturn(true);
         when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
-        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.of(book));
+
         var res = assertThrows(ShopNotFoundException.class, () -> shopService.removeBookFromShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), 1L));
 
         assertAll(
@@ -485,12 +567,11 @@ public class ShopServiceTest {
         );
 
         verify(shopRepository, times(1)).findById(any(UUID.class));
-        verify(shopRepository, times(1)).findById(any(UUID.class));
     }
 
     @Test
     void removeBookFromShop_ShouldBookNotFoundException() {
-        when(bookRepository.findById(any(Long.class))).thenReturn(Optional.empty());
+        when(bookRepository.existsById(1L)).thenReturn(false);
 
         var res = assertThrows(BookNotFoundException.class, () -> shopService.removeBookFromShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), 1L));
 
@@ -498,65 +579,35 @@ public class ShopServiceTest {
                 () -> assertEquals("Libro no encontrado - 1", res.getMessage())
         );
 
-        verify(bookRepository, times(1)).findById(any(Long.class));
+        verify(bookRepository, times(1)).existsById(1L);
     }
 
     @Test
     void addClientToShop_ShoulReturnGetShopDto() {
-        when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.of(shop));
-        when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.of(clientTest));
-        when(shopRepository.save(any(Shop.class))).thenReturn(
-                Shop.builder()
-                        .id(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"))
-                        .name("Tienda 1")
-                        .location(Address.builder()
-                                .province("Madrid")
-                                .city("Madrid")
-                                .street("Calle 1")
-                                .number("1")
-                                .postalCode("28001")
-                                .country("España")
-                                .build())
-                        .clients(Set.of(clientTest))
-                        .books(Set.of())
-                        .build()
-        );
-        when(shopMapper.toGetShopDto(any(Shop.class))).thenReturn(
-                GetShopDto.builder()
-                        .id(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"))
-                        .name("Tienda 1")
-                        .location(Address.builder()
-                                .province("Madrid")
-                                .city("Madrid")
-                                .street("Calle 1")
-                                .number("1")
-                                .postalCode("28001")
-                                .country("España")
-                                .build())
-                        .clientsId(Set.of(clientTest.getId()))
-                        .booksId(Set.of())
-                        .build()
-        );
+        UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        when(clientRepository.existsById(clientTest.getId())).thenReturn(true);
+        when(shopRepository.findById(shopId)).thenReturn(Optional.of(shop));
+        when(shopClientRepository.existsByShopIdAndClientId(shopId, clientTest.getId())).thenReturn(false);
+        when(shopMapper.toGetShopDto(any(Shop.class))).thenReturn(getShopDto);
+        when(shopClientRepository.countByShopId(shopId)).thenReturn(1L);
 
-        var result = shopService.addClientToShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0"));
+        var result = shopService.addClientToShop(shopId, clientTest.getId());
 
         assertAll(
                 () -> assertEquals(shop.getId(), result.getId()),
                 () -> assertEquals(shop.getName(), result.getName()),
                 () -> assertEquals(shop.getLocation(), result.getLocation()),
-                () -> assertTrue(result.getClientsId().contains(clientTest.getId()))
+                () -> assertEquals(1, result.getClientCount())
         );
 
-        verify(shopRepository, times(1)).findById(any(UUID.class));
-        verify(clientRepository, times(1)).findById(any(UUID.class));
-        verify(shopRepository, times(1)).save(any(Shop.class));
-        verify(shopMapper, times(1)).toGetShopDto(any(Shop.class));
+        verify(shopClientRepository, times(1)).save(any(ShopClient.class));
+        verify(shopRepository, never()).save(any(Shop.class));
     }
 
     @Test
     void addClientToShop_ShouldShopNotFoundException() {
+        when(clientRepository.existsById(any(UUID.class))).thenReturn(true);
         when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
-        when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.of(clientTest));
 
         var res = assertThrows(ShopNotFoundException.class, () -> shopService.addClientToShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0")));
 
@@ -565,12 +616,11 @@ public class ShopServiceTest {
         );
 
         verify(shopRepository, times(1)).findById(any(UUID.class));
-        verify(shopRepository, times(1)).findById(any(UUID.class));
     }
 
     @Test
     void addClientToShop_ShouldClientNotFoundException() {
-        when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+        when(clientRepository.existsById(any(UUID.class))).thenReturn(false);
 
         var res = assertThrows(ClientNotFound.class, () -> shopService.addClientToShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0")));
 
@@ -578,35 +628,33 @@ public class ShopServiceTest {
                 () -> assertEquals("Client con id: 9def16db-362b-44c4-9fc9-77117758b5b0 no existe", res.getMessage())
         );
 
-        verify(clientRepository, times(1)).findById(any(UUID.class));
+        verify(clientRepository, times(1)).existsById(any(UUID.class));
     }
 
     @Test
     void removeClientFromShop_ShouldReturnGetShopDto() {
-        when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.of(shop));
-        when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.of(clientTest));
-        when(shopRepository.save(any(Shop.class))).thenReturn(shop);
+        UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        when(clientRepository.existsById(clientTest.getId())).thenReturn(true);
+        when(shopRepository.findById(shopId)).thenReturn(Optional.of(shop));
         when(shopMapper.toGetShopDto(any(Shop.class))).thenReturn(getShopDto);
 
-        var result = shopService.removeClientFromShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0"));
+        var result = shopService.removeClientFromShop(shopId, clientTest.getId());
 
         assertAll(
                 () -> assertEquals(shop.getId(), result.getId()),
                 () -> assertEquals(shop.getName(), result.getName()),
                 () -> assertEquals(shop.getLocation(), result.getLocation()),
-                () -> assertTrue(result.getClientsId().isEmpty())
+                () -> assertEquals(0, result.getClientCount())
         );
 
-        verify(shopRepository, times(1)).findById(any(UUID.class));
-        verify(clientRepository, times(1)).findById(any(UUID.class));
-        verify(shopRepository, times(1)).save(any(Shop.class));
-        verify(shopMapper, times(1)).toGetShopDto(any(Shop.class));
+        verify(shopClientRepository, times(1)).deleteByShopIdAndClientId(shopId, clientTest.getId());
+        verify(shopRepository, never()).save(any(Shop.class));
     }
 
     @Test
     void removeClientFromShop_ShouldShopNotFoundException() {
+        when(clientRepository.existsById(any(UUID.class))).thenReturn(true);
         when(shopRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
-        when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.of(clientTest));
 
         var res = assertThrows(ShopNotFoundException.class, () -> shopService.removeClientFromShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0")));
 
@@ -615,12 +663,11 @@ public class ShopServiceTest {
         );
 
         verify(shopRepository, times(1)).findById(any(UUID.class));
-        verify(shopRepository, times(1)).findById(any(UUID.class));
     }
 
     @Test
     void removeClientFromShop_ShouldClientNotFoundException() {
-        when(clientRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+        when(clientRepository.existsById(any(UUID.class))).thenReturn(false);
 
         var res = assertThrows(ClientNotFound.class, () -> shopService.removeClientFromShop(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0")));
 
@@ -628,8 +675,96 @@ public class ShopServiceTest {
                 () -> assertEquals("Client con id: 9def16db-362b-44c4-9fc9-77117758b5b0 no existe", res.getMessage())
         );
 
-        verify(clientRepository, times(1)).findById(any(UUID.class));
+        verify(clientRepository, times(1)).existsById(any(UUID.class));
+    }
+
+    @Test
+    void getShopBooks_ShouldReturnPageWithShopStock() {
+        UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        ShopBook shopBook = ShopBook.builder().shopId(shopId).bookId(book.getId()).stock(4).build();
+        when(shopRepository.existsById(shopId)).thenReturn(true);
+        when(shopBookRepository.findByShopId(shopId, PageRequest.of(0, 10))).thenReturn(new PageImpl<>(List.of(shopBook)));
+        when(bookRepository.findAllById(List.of(book.getId()))).thenReturn(List.of(book));
+        when(shopMapper.toShopBookDto(shopBook, book)).thenReturn(ShopBookDto.builder().bookId(book.getId()).stock(4).build());
+
+        var result = shopService.getShopBooks(shopId, PageRequest.of(0, 10));
+
+        assertAll(
+                () -> assertEquals(1, result.getTotalElements()),
+                () -> assertEquals(4, result.getContent().get(0).getStock())
+        );
+    }
+
+    @Test
+    void setBookStock_ShouldUpdateInventoryAndIndex() {
+        UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        ShopBook shopBook = ShopBook.builder().shopId(shopId).bookId(book.getId()).stock(1).build();
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(shopRepository.existsById(shopId)).thenReturn(true);
+        when(shopBookRepository.findByShopIdAndBookId(shopId, book.getId())).thenReturn(Optional.of(shopBook));
+        when(shopBookRepository.save(shopBook)).thenReturn(shopBook);
+        when(shopMapper.toShopBookDto(shopBook, book)).thenReturn(ShopBookDto.builder().bookId(book.getId()).stock(7).build());
+
+        var result = shopService.setBookStock(shopId, book.getId(), 7);
+
+        assertAll(
+                () -> assertEquals(7, result.getStock()),
+                () -> assertEquals(7, shopBook.getStock())
+        );
+        verify(shopStockIndex, times(1)).set(shopId, book.getId(), 7);
+    }
+
+    @Test
+    void getBookAvailability_ShouldUseIndex() {
+        UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(shopStockIndex.find(1L)).thenReturn(Optional.of(List.of(new ShopStockDto(shopId, 3))));
+
+        var result = shopService.getBookAvailability(1L);
+
+        assertEquals(shopId, result.get(0).getShopId());
+        verifyNoInteractions(shopBookRepository);
     }
 
+    @Test
+    void getBookAvailability_ShouldQueryInventory_WhenIndexNotReady() {
+        UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(shopStockIndex.find(1L)).thenReturn(Optional.empty());
+        when(shopBookRepository.findByBookIdAndStockGreaterThan(1L, 0))
+                .thenReturn(List.of(ShopBook.builder().shopId(shopId).bookId(1L).stock(3).build()));
+
+        var result = shopService.getBookAvailability(1L);
+
+        assertAll(
+                () -> assertEquals(1, result.size()),
+                () -> assertEquals(3, result.get(0).getStock())
+        );
+    }
+
+    @Test
+    void getShopBooks_ShouldShopNotFoundException() {
+        when(shopRepository.existsById(any(UUID.class))).thenReturn(false);
+
+        assertThrows(ShopNotFoundException.class, () -> shopService.getShopBooks(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), PageRequest.of(0, 10)));
+
+        verifyNoInteractions(shopBookRepository);
+    }
+
+    @Test
+    void getShopClients_ShouldReturnPage() {
+        UUID shopId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        ShopClient shopClient = ShopClient.builder().shopId(shopId).clientId(clientTest.getId()).build();
+        when(shopRepository.existsById(shopId)).thenReturn(true);
+        when(shopClientRepository.findByShopId(shopId, PageRequest.of(0, 10))).thenReturn(new PageImpl<>(List.of(shopClient)));
+        when(clientRepository.findAllById(List.of(clientTest.getId()))).thenReturn(List.of(clientTest));
+
+        var result = shopService.getShopClients(shopId, PageRequest.of(0, 10));
+
+        assertAll(
+                () -> assertEquals(1, result.getTotalElements()),
+                () -> assertEquals(clientTest.getId(), result.getContent().get(0).getId())
+        );
+    }
 
 }
@@ -0,0 +1,38 @@
+package com.nullers.restbookstore.rest.shop.services.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostalCodeCentroidsTest {
+
+    private final PostalCodeCentroids centroids = new PostalCodeCentroids("geo/postal-codes.csv");
+
+    @Test
+    void resolve_ShouldUseProvincePrefix() {
+        GeoPoint point = centroids.resolve("28013").orElseThrow();
+
+        assertAll(
+                () -> assertEquals(52, centroids.size()),
+                () -> assertEquals(40.4168, point.latitude()),
+                () -> assertEquals(-3.7038, point.longitude())
+        );
+    }
+
+    @Test
+    void resolve_ShouldBeEmpty_WhenUnknown() {
+        assertAll(
+                () -> assertTrue(centroids.resolve("99999").isEmpty()),
+                () -> assertTrue(centroids.resolve(" ").isEmpty()),
+                () -> assertTrue(centroids.resolve(null).isEmpty())
+        );
+    }
+
+    @Test
+    void distanceKm_ShouldMatchKnownDistance() {
+        GeoPoint madrid = centroids.resolve("28001").orElseThrow();
+        GeoPoint barcelona = centroids.resolve("08001").orElseThrow();
+
+        assertEquals(505, madrid.distanceKm(barcelona.latitude(), barcelona.longitude()), 5);
+    }
+}
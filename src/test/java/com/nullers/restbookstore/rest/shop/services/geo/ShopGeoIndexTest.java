@@ -0,0 +1,85 @@
+package com.nullers.restbookstore.rest.shop.services.geo;
+
+import com.nullers.restbookstore.rest.shop.dto.ShopDistanceDto;
+import com.nullers.restbookstore.rest.shop.model.Shop;
+import com.nullers.restbookstore.rest.shop.repository.ShopRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ShopGeoIndexTest {
+
+    private final UUID madrid = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+    private final UUID getafe = UUID.fromString("b5f29063-77d8-4d5d-98ea-def0cc9ebc5f");
+    private final UUID barcelona = UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b0");
+    private final UUID lasPalmas = UUID.fromString("9def16db-362b-44c4-9fc9-77117758b5b9");
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    private ShopGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(shopRepository.streamGeoViews()).thenReturn(Stream.of(
+                new Object[]{madrid, "Madrid Centro", "Madrid", 40.4168, -3.7038},
+                new Object[]{getafe, "Getafe", "Getafe", 40.3057, -3.7329},
+                new Object[]{barcelona, "Barcelona", "Barcelona", 41.3874, 2.1686},
+                new Object[]{lasPalmas, "Las Palmas", "Las Palmas", 28.1235, -15.4363}
+        ));
+        index = new ShopGeoIndex(shopRepository, true);
+        index.rebuild();
+    }
+
+    @Test
+    void nearest_ShouldReturnClosestShopsSortedByDistance() {
+        List<ShopDistanceDto> result = index.nearest(new GeoPoint(40.42, -3.70), 2).orElseThrow();
+
+        assertAll(
+                () -> assertEquals(List.of(madrid, getafe), result.stream().map(ShopDistanceDto::getId).toList()),
+                () -> assertTrue(result.get(0).getDistanceKm() < 1),
+                () -> assertTrue(result.get(1).getDistanceKm() > 10)
+        );
+    }
+
+    @Test
+    void nearest_ShouldFindShopsBeyondSearchedRings() {
+        List<ShopDistanceDto> result = index.nearest(new GeoPoint(0.0, 0.0), 1).orElseThrow();
+
+        assertEquals(lasPalmas, result.get(0).getId());
+    }
+
+    @Test
+    void within_ShouldReturnOnlyShopsInsideRadius() {
+        List<ShopDistanceDto> result = index.within(new GeoPoint(40.4168, -3.7038), 20, 10).orElseThrow();
+
+        assertEquals(List.of(madrid, getafe), result.stream().map(ShopDistanceDto::getId).toList());
+    }
+
+    @Test
+    void put_ShouldMoveShop_AndRemoveWithoutCoordinates() {
+        index.put(Shop.builder().id(barcelona).name("Barcelona").latitude(40.41).longitude(-3.70).build());
+        assertEquals(barcelona, index.nearest(new GeoPoint(40.41, -3.70), 1).orElseThrow().get(0).getId());
+
+        index.put(Shop.builder().id(barcelona).name("Barcelona").build());
+        assertEquals(madrid, index.nearest(new GeoPoint(40.41, -3.70), 1).orElseThrow().get(0).getId());
+    }
+
+    @Test
+    void nearest_ShouldBeEmpty_WhenDisabled() {
+        ShopGeoIndex disabled = new ShopGeoIndex(shopRepository, false);
+        disabled.rebuild();
+
+        assertTrue(disabled.nearest(new GeoPoint(40.4, -3.7), 1).isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+package com.nullers.restbookstore.rest.shop.services.stock;
+
+import com.nullers.restbookstore.rest.shop.dto.ShopStockDto;
+import com.nullers.restbookstore.rest.shop.repository.ShopBookRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ShopStockIndexTest {
+
+    private final UUID shop1 = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+    private final UUID shop2 = UUID.fromString("b5f29063-77d8-4d5d-98ea-def0cc9ebc5f");
+
+    @Mock
+    private ShopBookRepository shopBookRepository;
+
+    @Test
+    void find_ShouldReturnShopsWithStockSortedByStock() {
+        when(shopBookRepository.streamStock()).thenReturn(Stream.of(
+                new Object[]{shop1, 1L, 2},
+                new Object[]{shop2, 1L, 5},
+                new Object[]{shop1, 2L, 0}
+        ));
+        ShopStockIndex index = new ShopStockIndex(shopBookRepository, true);
+        index.rebuild();
+
+        List<ShopStockDto> result = index.find(1L).orElseThrow();
+
+        assertAll(
+                () -> assertTrue(index.isReady()),
+                () -> assertEquals(2, result.size()),
+                () -> assertEquals(shop2, result.get(0).getShopId()),
+                () -> assertEquals(5, result.get(0).getStock()),
+                () -> assertTrue(index.find(2L).orElseThrow().isEmpty())
+        );
+    }
+
+    @Test
+    void adjust_ShouldClearShop_WhenStockRunsOut() {
+        when(shopBookRepository.streamStock()).thenReturn(Stream.<Object[]>of(new Object[]{shop1, 1L, 2}));
+        ShopStockIndex index = new ShopStockIndex(shopBookRepository, true);
+        index.rebuild();
+
+        index.adjust(shop1, 1L, -2);
+        assertTrue(index.find(1L).orElseThrow().isEmpty());
+
+        index.adjust(shop1, 1L, 3);
+        assertEquals(3, index.find(1L).orElseThrow().get(0).getStock());
+
+        index.adjust(shop2, 1L, 3);
+        assertEquals(1, index.find(1L).orElseThrow().size());
+    }
+
+    @Test
+    void removeShop_ShouldRemoveShopFromAllBooks() {
+        when(shopBookRepository.streamStock()).thenReturn(Stream.empty());
+        ShopStockIndex index = new ShopStockIndex(shopBookRepository, true);
+        index.rebuild();
+        index.set(shop1, 1L, 4);
+        index.set(shop2, 1L, 1);
+        index.set(shop1, 2L, 1);
+
+        index.removeShop(shop1);
+
+        assertAll(
+                () -> assertEquals(List.of(shop2), index.find(1L).orElseThrow().stream().map(ShopStockDto::getShopId).toList()),
+                () -> assertTrue(index.find(2L).orElseThrow().isEmpty())
+        );
+    }
+
+    @Test
+    void find_ShouldBeEmpty_WhenDisabled() {
+        ShopStockIndex index = new ShopStockIndex(shopBookRepository, false);
+        index.rebuild();
+        index.set(shop1, 1L, 4);
+
+        assertTrue(index.find(1L).isEmpty());
+    }
+}
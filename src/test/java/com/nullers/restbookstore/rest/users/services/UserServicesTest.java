@@ -1,5 +1,9 @@
 package com.nullers.restbookstore.rest.users.services;
 
+import com.nullers.restbookstore.rest.auth.services.cache.AuthCacheService;
+import com.nullers.restbookstore.rest.auth.services.revocation.TokenRevocationService;
+import com.nullers.restbookstore.rest.common.references.ReferenceCountService;
+import com.nullers.restbookstore.rest.common.references.ReferenceType;
 import com.nullers.restbookstore.rest.orders.models.Order;
 import com.nullers.restbookstore.rest.orders.repositories.OrderRepository;
 import com.nullers.restbookstore.rest.user.dto.UserInfoResponse;
@@ -12,6 +16,7 @@ import com.nullers.restbookstore.rest.user.models.User;
 import com.nullers.restbookstore.rest.user.repository.UserRepository;
 import com.nullers.restbookstore.rest.user.services.UserService;
 import com.nullers.restbookstore.rest.user.services.UserServiceImpl;
+import com.nullers.restbookstore.rest.user.services.search.UserSearchIndex;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -62,6 +67,18 @@ class UserServicesTest {
     @Mock
     private PasswordEncoder passwordEncode;
 
+    @Mock
+    private AuthCacheService authCacheService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private ReferenceCountService referenceCountService;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -179,6 +196,7 @@ class UserServicesTest {
                 () -> assertNotNull(result),
                 () -> assertEquals("test", result.getUsername())
         );
+        verify(authCacheService, times(1)).invalidateUser("test");
     }
 
     @Test
@@ -192,9 +210,11 @@ class UserServicesTest {
     void deleteById() {
         UUID id = UUID.fromString("c671d981-bd6f-4e75-b7cc-fd3ca96582d5");
         when(userRepository.findById(any(UUID.class))).thenReturn(Optional.of(user));
-        when(orderRepository.existsByUserId(id)).thenReturn(true);
+        when(referenceCountService.hasReferences(ReferenceType.USER_ORDERS, id)).thenReturn(true);
         userService.deleteById(id);
         verify(userRepository, times(1)).findById(id);
+        verify(authCacheService, times(1)).invalidateUser("test");
+        verify(tokenRevocationService, times(1)).revokeUser("test");
     }
 
     @Test
@@ -0,0 +1,111 @@
+package com.nullers.restbookstore.storage.cache;
+
+import com.nullers.restbookstore.storage.dto.StorageCacheMetrics;
+import com.nullers.restbookstore.storage.models.StoredFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBlobCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StoredFile storedFile(String hash, String content) throws IOException {
+        Path path = Files.writeString(tempDir.resolve(hash), content);
+        return new StoredFile(path, content.length(), "image/png", hash, 0);
+    }
+
+    private static String read(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testDisabled() throws IOException {
+        var cache = new OffHeapBlobCache(false, 1024, 1024, 1);
+        var file = storedFile("a", "0123456789");
+
+        assertTrue(cache.get(file).isEmpty());
+        assertTrue(cache.get(file).isEmpty());
+        assertEquals(0, cache.getMetrics().getMisses());
+    }
+
+    @Test
+    void testAdmission() throws IOException {
+        var cache = new OffHeapBlobCache(true, 1024, 1024, 2);
+        var file = storedFile("a", "0123456789");
+
+        assertTrue(cache.get(file).isEmpty());
+        var admitted = cache.get(file);
+        var cached = cache.get(file);
+        Files.delete(file.path());
+
+        assertAll(
+                () -> assertEquals("0123456789", read(admitted.orElseThrow())),
+                () -> assertEquals("0123456789", read(cached.orElseThrow())),
+                () -> assertTrue(cached.orElseThrow().isReadOnly())
+        );
+        StorageCacheMetrics metrics = cache.getMetrics();
+        assertAll(
+                () -> assertEquals(1, metrics.getHits()),
+                () -> assertEquals(2, metrics.getMisses()),
+                () -> assertEquals(1, metrics.getAdmissions()),
+                () -> assertEquals(1, metrics.getEntries()),
+                () -> assertEquals(10, metrics.getUsedBytes())
+        );
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        var cache = new OffHeapBlobCache(true, 20, 20, 1);
+        var a = storedFile("a", "aaaaaaaaaa");
+        var b = storedFile("b", "bbbbbbbbbb");
+        var c = storedFile("c", "cccccccccc");
+
+        cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+
+        StorageCacheMetrics metrics = cache.getMetrics();
+        assertAll(
+                () -> assertEquals(1, metrics.getEvictions()),
+                () -> assertEquals(2, metrics.getEntries()),
+                () -> assertEquals(20, metrics.getUsedBytes())
+        );
+        Files.delete(b.path());
+        assertTrue(cache.get(a).isPresent());
+        assertTrue(cache.get(b).isEmpty());
+    }
+
+    @Test
+    void testRejectsLargeFiles() throws IOException {
+        var cache = new OffHeapBlobCache(true, 1024, 5, 1);
+        var file = storedFile("a", "0123456789");
+
+        assertTrue(cache.get(file).isEmpty());
+        assertEquals(0, cache.getMetrics().getEntries());
+    }
+
+    @Test
+    void testInvalidate() throws IOException {
+        var cache = new OffHeapBlobCache(true, 1024, 1024, 1);
+        var file = storedFile("a", "0123456789");
+
+        assertTrue(cache.get(file).isPresent());
+        cache.invalidate("a");
+        Files.delete(file.path());
+
+        assertTrue(cache.get(file).isEmpty());
+        assertEquals(0, cache.getMetrics().getUsedBytes());
+    }
+}
@@ -1,21 +1,29 @@
 package com.nullers.restbookstore.storage.controller;
 
+import com.nullers.restbookstore.storage.exceptions.StorageBadRequest;
+import com.nullers.restbookstore.storage.models.StoredFile;
 import com.nullers.restbookstore.storage.services.FileSystemStorageService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.mock.web.MockHttpServletRequest;
-import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -29,15 +37,77 @@ class StorageControllerTest {
     @MockBean
     private FileSystemStorageService storageService;
 
+    @TempDir
+    Path tempDir;
+
+    private StoredFile storedFile() throws IOException {
+        Path path = Files.writeString(tempDir.resolve("test.png"), "0123456789");
+        return new StoredFile(path, 10, "image/png", "abc123", 1_700_000_000_000L);
+    }
+
     @Test
     void testServeFileNotContentType() throws Exception {
-        byte[] content = "Contenido de prueba".getBytes();
-        new MockMultipartFile("file", "test.txt", null, content);
-        when(storageService.loadAsResource(anyString())).thenReturn(new ByteArrayResource(content));
-        MockHttpServletRequest request = new MockHttpServletRequest();
-        request.setServletPath("/storage/test.txt");
-        request.setMethod("GET");
+        when(storageService.getMetadata(anyString()))
+                .thenThrow(new StorageBadRequest("No se puede determinar el tipo de fichero"));
         mockMvc.perform(get("/storage/test.txt"))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testServeFile() throws Exception {
+        when(storageService.getMetadata("test.png")).thenReturn(storedFile());
+        mockMvc.perform(get("/storage/test.png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, StorageController.CACHE_CONTROL))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void testServeDerivative() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("thumb.png"), "thumb");
+        when(storageService.getDerivativeMetadata("test.png", "thumb"))
+                .thenReturn(Optional.of(new StoredFile(path, 5, "image/png", "def456", 1_700_000_000_000L)));
+        mockMvc.perform(get("/storage/test.png").param("size", "thumb"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"def456\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, StorageController.CACHE_CONTROL))
+                .andExpect(content().string("thumb"));
+    }
+
+    @Test
+    void testServeDerivativeNotReady() throws Exception {
+        when(storageService.getDerivativeMetadata("test.png", "thumb")).thenReturn(Optional.empty());
+        when(storageService.getMetadata("test.png")).thenReturn(storedFile());
+        mockMvc.perform(get("/storage/test.png").param("size", "thumb"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, StorageController.FALLBACK_CACHE_CONTROL))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void testServeFileNotModified() throws Exception {
+        when(storageService.getMetadata("test.png")).thenReturn(storedFile());
+        mockMvc.perform(get("/storage/test.png").header(HttpHeaders.IF_NONE_MATCH, "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testServeFileRange() throws Exception {
+        when(storageService.getMetadata("test.png")).thenReturn(storedFile());
+        mockMvc.perform(get("/storage/test.png").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void testServeFileRangeNotSatisfiable() throws Exception {
+        when(storageService.getMetadata("test.png")).thenReturn(storedFile());
+        mockMvc.perform(get("/storage/test.png").header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+}
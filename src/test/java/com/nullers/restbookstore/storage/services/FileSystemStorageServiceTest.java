@@ -4,6 +4,7 @@ import com.nullers.restbookstore.storage.exceptions.StorageBadRequest;
 import com.nullers.restbookstore.storage.exceptions.StorageInternal;
 import com.nullers.restbookstore.storage.exceptions.StorageNotFound;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -15,13 +16,20 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @ExtendWith(MockitoExtension.class)
 class FileSystemStorageServiceTest {
@@ -201,6 +209,155 @@ class FileSystemStorageServiceTest {
         );
     }
 
+    @Test
+    void testGetMetadata() throws IOException {
+        var file = fileSystemStorageService.store(
+                new MockMultipartFile("book", "book.png",
+                        "image/png", bytesPNG),
+                List.of("jpg", "jpeg", "png"), UUID.randomUUID().toString());
+        var res = fileSystemStorageService.getMetadata(file);
+        assertAll(
+                () -> assertEquals(bytesPNG.length, res.size()),
+                () -> assertEquals("image/png", res.contentType()),
+                () -> assertEquals(64, res.hash().length()),
+                () -> assertSame(res, fileSystemStorageService.getMetadata(file))
+        );
+    }
+
+    @Test
+    void testGetMetadataNotFound() {
+        assertThrows(StorageNotFound.class, () -> fileSystemStorageService.getMetadata("book.png"));
+    }
+
+    @Test
+    void testGetMetadataOutsideRoot() {
+        assertThrows(StorageBadRequest.class, () -> fileSystemStorageService.getMetadata(".."));
+    }
+
+    /**
+     * Guarda una subida de 5MB sin copiarla entera en memoria. Antes se copiaba con getBytes() para
+     * detectar el tipo, ahora solo se leen las primeras cabeceras y el resto se copia desde el stream
+     *
+     * @throws IOException excepción entrada/salida
+     */
+    @Test
+    void testStoreStreamsUpload() throws IOException {
+        var content = new byte[5 * 1024 * 1024];
+        System.arraycopy(bytesPNG, 0, content, 0, bytesPNG.length);
+        var upload = new MockMultipartFile("book", "book.png", "image/png", content) {
+            @Override
+            public byte[] getBytes() {
+                throw new AssertionError("La subida no debe copiarse entera en memoria");
+            }
+        };
+
+        var stored = fileSystemStorageService.store(upload, List.of("jpg", "jpeg", "png"), UUID.randomUUID().toString());
+        var size = Files.size(fileSystemStorageService.load(stored));
+        fileSystemStorageService.delete(stored);
+
+        assertEquals(content.length, size);
+    }
+
+    /**
+     * Benchmark (no se ejecuta con ./gradlew test, sino con ./gradlew benchmark): mide la memoria
+     * reservada en el heap por el hilo que guarda una subida de 5MB. La subida devuelve una copia en
+     * getBytes(), como la de Tomcat, para que se note si store() vuelve a leerla entera
+     *
+     * @throws IOException excepción entrada/salida
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkStoreAllocation() throws IOException {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        var content = new byte[5 * 1024 * 1024];
+        System.arraycopy(bytesPNG, 0, content, 0, bytesPNG.length);
+        var upload = new MockMultipartFile("book", "book.png", "image/png", content) {
+            @Override
+            public byte[] getBytes() throws IOException {
+                return getInputStream().readAllBytes();
+            }
+        };
+
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < 30; i++) {
+            long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            var stored = fileSystemStorageService.store(upload, List.of("jpg", "jpeg", "png"), UUID.randomUUID().toString());
+            long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+            fileSystemStorageService.delete(stored);
+            if (i >= 20) {
+                min = Math.min(min, allocated);
+            }
+        }
+
+        System.out.println("Memoria reservada al guardar 5MB: " + min + " bytes");
+    }
+
+    @Test
+    void testStoreDeduplicatesContent() throws IOException {
+        var first = fileSystemStorageService.store(new MockMultipartFile("book", "book.png",
+                "image/png", bytesPNG), List.of("jpg", "jpeg", "png"), UUID.randomUUID().toString());
+        var second = fileSystemStorageService.store(new MockMultipartFile("book", "book.png",
+                "image/png", bytesPNG), List.of("jpg", "jpeg", "png"), UUID.randomUUID().toString());
+        var blob = fileSystemStorageService.load(first);
+        var secondBlob = fileSystemStorageService.getMetadata(second).path();
+
+        fileSystemStorageService.delete(first);
+        var afterFirstDelete = Files.exists(blob);
+        var setUpFiles = fileSystemStorageService.loadAll().filter(path -> !path.toString().equals(second)).toList();
+        setUpFiles.forEach(path -> fileSystemStorageService.delete(path.toString()));
+        fileSystemStorageService.delete(second);
+
+        assertAll(
+                () -> assertEquals(blob, secondBlob),
+                () -> assertTrue(afterFirstDelete),
+                () -> assertFalse(Files.exists(blob))
+        );
+    }
+
+    @Test
+    void testPurgeUnreferenced() throws IOException {
+        var stored = fileSystemStorageService.loadAll().toList();
+        var orphan = Files.createDirectories(Path.of("test-images", "objects", "00", "00")).resolve("0000orphan");
+        Files.writeString(orphan, "orphan");
+        var temp = Files.writeString(Path.of("test-images", "tmp", "upload-orphan.tmp"), "partial");
+
+        var olderThanNow = fileSystemStorageService.loadAllStoredBefore(Instant.now().plusSeconds(1)).toList();
+        var purged = fileSystemStorageService.purgeUnreferenced(Instant.now().plusSeconds(1));
+
+        assertAll(
+                () -> assertEquals(stored.size(), olderThanNow.size()),
+                () -> assertTrue(fileSystemStorageService.loadAllStoredBefore(Instant.EPOCH).toList().isEmpty()),
+                () -> assertEquals(2, purged),
+                () -> assertFalse(Files.exists(orphan)),
+                () -> assertFalse(Files.exists(temp)),
+                () -> stored.forEach(path -> assertTrue(Files.exists(fileSystemStorageService.load(path.toString()))))
+        );
+    }
+
+    @Test
+    void testGenerateDerivatives() throws IOException {
+        var service = new FileSystemStorageService("test-images", "thumb:10", 1, 1);
+        service.shutdown();
+        var image = new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB);
+        var bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        var file = service.store(new MockMultipartFile("book", "book.png", "image/png", bytes.toByteArray()),
+                null, UUID.randomUUID().toString());
+
+        service.generateDerivatives(file);
+        var thumb = service.getDerivativeMetadata(file, "thumb").orElseThrow();
+        var scaled = ImageIO.read(thumb.path().toFile());
+        service.delete(file);
+
+        assertAll(
+                () -> assertEquals(10, scaled.getWidth()),
+                () -> assertEquals(5, scaled.getHeight()),
+                () -> assertFalse(Files.exists(thumb.path())),
+                () -> assertThrows(StorageBadRequest.class, () -> service.getDerivativeMetadata(file, "huge"))
+        );
+    }
+
     @Test
     void testDeleteAll() throws IOException {
         fileSystemStorageService.deleteAll();
@@ -0,0 +1,179 @@
+package com.nullers.restbookstore.storage.services;
+
+import com.nullers.restbookstore.rest.book.repository.BookRepository;
+import com.nullers.restbookstore.rest.client.repository.ClientRepository;
+import com.nullers.restbookstore.rest.common.uploads.OrphanedUploadCollectorImpl;
+import com.nullers.restbookstore.rest.publisher.repository.PublisherRepository;
+import com.nullers.restbookstore.storage.dto.CreateUploadSessionDto;
+import com.nullers.restbookstore.storage.exceptions.StorageBadRequest;
+import com.nullers.restbookstore.storage.exceptions.StorageConflict;
+import com.nullers.restbookstore.storage.exceptions.StorageNotFound;
+import com.nullers.restbookstore.storage.exceptions.StorageTooManyRequests;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ResumableUploadServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileSystemStorageService storageService;
+
+    private ResumableUploadServiceImpl uploadService;
+
+    private final byte[] bytesPNG = new byte[64];
+
+    @BeforeEach
+    void setUp() {
+        byte[] header = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+        System.arraycopy(header, 0, bytesPNG, 0, header.length);
+        Arrays.fill(bytesPNG, header.length, bytesPNG.length, (byte) 7);
+        storageService = new FileSystemStorageService(tempDir.toString());
+        storageService.init();
+        uploadService = new ResumableUploadServiceImpl(storageService, 1024, 60_000, 2, "png,jpg,jpeg,pdf");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        storageService.shutdown();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private CreateUploadSessionDto request(String filename, long size) {
+        return CreateUploadSessionDto.builder().filename(filename).size(size).build();
+    }
+
+    private ByteArrayInputStream chunk(int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(bytesPNG, from, to));
+    }
+
+    @Test
+    void testUploadInChunksOutOfOrder() throws IOException {
+        var session = uploadService.create(request("cover.png", bytesPNG.length));
+
+        var afterSecond = uploadService.writeChunk(session.getId(), 32, chunk(32, 64));
+        var afterFirst = uploadService.writeChunk(session.getId(), 0, chunk(0, 32));
+        var completed = uploadService.complete(session.getId());
+
+        assertAll(
+                () -> assertEquals(0, afterSecond.getOffset()),
+                () -> assertEquals(32, afterSecond.getReceivedBytes()),
+                () -> assertEquals(64, afterFirst.getOffset()),
+                () -> assertTrue(completed.getStoredFilename().endsWith(".png")),
+                () -> assertTrue(completed.getUrl().endsWith("/storage/" + completed.getStoredFilename())),
+                () -> assertArrayEquals(bytesPNG, Files.readAllBytes(storageService.load(completed.getStoredFilename()))),
+                () -> assertThrows(StorageNotFound.class, () -> uploadService.get(session.getId()))
+        );
+    }
+
+    @Test
+    void testCompletedUploadSurvivesOrphanCollection() throws IOException {
+        byte[] bytesPDF = Arrays.copyOf("%PDF-1.4".getBytes(), 64);
+        var session = uploadService.create(request("manual.pdf", bytesPDF.length));
+        uploadService.writeChunk(session.getId(), 0, new ByteArrayInputStream(bytesPDF));
+        var completed = uploadService.complete(session.getId());
+        var unreferenced = storageService.store(new MockMultipartFile("cover", "cover.png", "image/png", bytesPNG),
+                List.of("png"), "orphan");
+        // Periodo de gracia negativo para que todos los ficheros sean candidatos
+        var collector = new OrphanedUploadCollectorImpl(storageService, mock(BookRepository.class),
+                mock(PublisherRepository.class), mock(ClientRepository.class), true, -60_000L, 10, 0, 1000);
+
+        long deleted = collector.collect();
+        var keptAfterCollect = Files.exists(storageService.load(completed.getStoredFilename()));
+        storageService.delete(completed.getStoredFilename());
+
+        assertAll(
+                () -> assertTrue(keptAfterCollect),
+                () -> assertTrue(deleted >= 1),
+                () -> assertThrows(StorageNotFound.class, () -> storageService.getMetadata(unreferenced)),
+                () -> assertThrows(StorageNotFound.class, () -> storageService.retain(completed.getStoredFilename()))
+        );
+    }
+
+    @Test
+    void testResumeAfterRetriedChunk() throws IOException {
+        var session = uploadService.create(request("cover.png", bytesPNG.length));
+
+        uploadService.writeChunk(session.getId(), 0, chunk(0, 40));
+        var retried = uploadService.writeChunk(session.getId(), 20, chunk(20, 64));
+
+        assertAll(
+                () -> assertEquals(64, retried.getOffset()),
+                () -> assertEquals(64, retried.getReceivedBytes()),
+                () -> assertEquals(64, uploadService.get(session.getId()).getOffset())
+        );
+    }
+
+    @Test
+    void testCompleteIncomplete() throws IOException {
+        var session = uploadService.create(request("cover.png", bytesPNG.length));
+        uploadService.writeChunk(session.getId(), 0, chunk(0, 10));
+
+        assertThrows(StorageConflict.class, () -> uploadService.complete(session.getId()));
+    }
+
+    @Test
+    void testChunkPastTheEnd() throws IOException {
+        var session = uploadService.create(request("cover.png", 10));
+
+        assertAll(
+                () -> assertThrows(StorageBadRequest.class,
+                        () -> uploadService.writeChunk(session.getId(), 0, chunk(0, 11))),
+                () -> assertThrows(StorageBadRequest.class,
+                        () -> uploadService.writeChunk(session.getId(), 10, chunk(0, 1))),
+                () -> assertEquals(0, uploadService.get(session.getId()).getReceivedBytes())
+        );
+    }
+
+    @Test
+    void testCreateNotValid() {
+        assertAll(
+                () -> assertThrows(StorageBadRequest.class, () -> uploadService.create(request("cover.png", 2048))),
+                () -> assertThrows(StorageBadRequest.class, () -> uploadService.create(request("cover.gif", 10)))
+        );
+    }
+
+    @Test
+    void testTooManySessions() throws IOException {
+        uploadService.create(request("cover.png", 10));
+        uploadService.create(request("cover.png", 10));
+
+        assertThrows(StorageTooManyRequests.class, () -> uploadService.create(request("cover.png", 10)));
+    }
+
+    @Test
+    void testExpiredSession() throws IOException {
+        var expiring = new ResumableUploadServiceImpl(storageService, 1024, -1, 2, "png");
+        var session = expiring.create(request("cover.png", 10));
+
+        expiring.purgeExpired();
+
+        assertThrows(StorageNotFound.class, () -> expiring.get(session.getId()));
+    }
+
+    @Test
+    void testAbort() throws IOException {
+        var session = uploadService.create(request("cover.png", 10));
+
+        uploadService.abort(session.getId());
+
+        assertThrows(StorageNotFound.class, () -> uploadService.get(session.getId()));
+    }
+}